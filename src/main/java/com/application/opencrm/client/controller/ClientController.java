@@ -2,9 +2,20 @@ package com.application.opencrm.client.controller;
 
 import com.application.opencrm.client.dto.ClientCreationRequestDto;
 import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.dto.ClientDuplicateDto;
+import com.application.opencrm.client.dto.ClientNameDto;
+import com.application.opencrm.client.dto.ClientSearchResultDto;
+import com.application.opencrm.client.dto.ClientSortKey;
 import com.application.opencrm.client.dto.ClientUpdateRequestDto;
 import com.application.opencrm.client.model.Client;
+import com.application.opencrm.client.service.ClientAutocompleteService;
+import com.application.opencrm.client.service.ClientDuplicateService;
+import com.application.opencrm.client.service.ClientImportService;
 import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.common.pagination.CursorPage;
+import com.application.opencrm.order.dto.OrderDto;
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,12 +23,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -32,20 +48,121 @@ import java.util.List;
 public class ClientController {
 
     private final ClientService clientService;
+    private final ClientAutocompleteService clientAutocompleteService;
+    private final ClientDuplicateService clientDuplicateService;
+    private final ClientImportService clientImportService;
+    private final OrderService orderService;
 
     /**
-     * Retrieves all {@link Client} entities from repository.
+     * Retrieves a page of {@link Client} entities from repository, sorted by the specified key.
      *
-     * @return the list of dtos representing all found {@code Client} entities
+     * @param sort      the key the clients are sorted by
+     * @param direction the direction of sorting
+     * @param cursor    the cursor returned with the previous page, absent for the first page
+     * @param size      the maximum number of clients in the page
+     * @return the page of dtos representing the found {@code Client} entities
      */
     @GetMapping
-    @Operation(summary = "Retrieves all clients", description = "Required authorization role: ROLE_SALES")
+    @Operation(summary = "Retrieves a page of clients", description = "Required authorization role: ROLE_SALES")
+    @Parameter(name = "sort", description = "the key the clients are sorted by: their ids or names")
+    @Parameter(name = "direction", description = "the direction of sorting")
+    @Parameter(name = "cursor", description = "the cursor returned with the previous page, absent for the first page")
+    @Parameter(name = "size", description = "the maximum number of clients in the page (1-100)")
     @ApiResponse(responseCode = "200", description = "Clients retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public CursorPage<ClientDto> getClients(@RequestParam(defaultValue = "ID") ClientSortKey sort,
+                                            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int size) {
+        return clientService.getClients(sort, direction, cursor, size);
+    }
+
+    /**
+     * Searches for {@link Client} entities whose names, contact emails and phone numbers or address cities and postal
+     * codes are similar to the query.
+     *
+     * @param q     the searched text
+     * @param limit the maximum number of returned clients
+     * @return the dtos representing the found {@code Client} entities, from the most to the least similar one
+     */
+    @GetMapping("search")
+    @Operation(summary = "Searches for clients by name, contact or address", description = "Required authorization role: ROLE_SALES")
+    @Parameter(name = "q", description = "the searched part of a name, email, phone number, city or postal code (2-100 characters)")
+    @Parameter(name = "limit", description = "the maximum number of returned clients (1-100)")
+    @ApiResponse(responseCode = "200", description = "Clients searched successfully")
+    @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public List<ClientSearchResultDto> searchClients(@RequestParam String q,
+                                                     @RequestParam(defaultValue = "20") int limit) {
+        return clientService.searchClients(q, limit);
+    }
+
+    /**
+     * Completes the names of {@link Client clients} starting with the prefix. Letter case, diacritics and repeated
+     * whitespace are ignored.
+     *
+     * @param prefix the beginning of the name
+     * @param limit  the maximum number of returned clients
+     * @return the dtos representing the ids and names of the found clients, sorted by their names
+     */
+    @GetMapping("autocomplete")
+    @Operation(summary = "Completes client names starting with a prefix", description = "Required authorization role: ROLE_SALES")
+    @Parameter(name = "prefix", description = "the beginning of the client name")
+    @Parameter(name = "limit", description = "the maximum number of returned clients (1-100)")
+    @ApiResponse(responseCode = "200", description = "Client names completed successfully")
+    @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public List<ClientNameDto> completeClientNames(@RequestParam String prefix,
+                                                   @RequestParam(defaultValue = "10") int limit) {
+        return clientAutocompleteService.complete(prefix, limit);
+    }
+
+    /**
+     * Starts the detection of {@link Client clients} that are likely to be duplicates of each other in the background.
+     * The result replaces the previous report once the detection completes.
+     */
+    @PostMapping("duplicates/detection")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Starts the detection of duplicate clients", description = "Required authorization role: ROLE_SALES")
+    @ApiResponse(responseCode = "202", description = "Detection started successfully")
     @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
     @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "409", description = "Detection is already running", content = @Content)
     @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
-    List<ClientDto> getAllClients() {
-        return clientService.getAllClients();
+    public void startDuplicateDetection() {
+        clientDuplicateService.startDetection();
+    }
+
+    /**
+     * Retrieves a page of the pairs of {@link Client clients} reported as likely duplicates by the last detection,
+     * sorted from the highest to the lowest score.
+     * <p>
+     * The response contains a cursor if more pairs are available. The next page is retrieved by passing the cursor
+     * back with the same {@code size}.
+     *
+     * @param cursor the cursor returned with the previous page
+     * @param size   the maximum number of pairs in the page
+     * @return the page of dtos representing the reported pairs
+     */
+    @GetMapping("duplicates")
+    @Operation(summary = "Retrieves a page of duplicate clients", description = "Required authorization role: ROLE_SALES")
+    @Parameter(name = "cursor", description = "the cursor returned with the previous page, absent for the first page")
+    @Parameter(name = "size", description = "the maximum number of pairs in the page (1-100)")
+    @ApiResponse(responseCode = "200", description = "Duplicate clients retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public CursorPage<ClientDuplicateDto> getDuplicateClients(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        return clientDuplicateService.getDuplicates(cursor, size);
     }
 
     /**
@@ -67,6 +184,40 @@ public class ClientController {
         return clientService.getClient(id);
     }
 
+    /**
+     * Retrieves a page of {@link Order orders} of a {@link Client} with specified {@code id}, sorted from the newest to
+     * the oldest. The orders are returned without their items and ordering addresses unless {@code includeItems} is
+     * set.
+     * <p>
+     * The response contains a cursor if more orders are available. The next page is retrieved by passing the cursor
+     * back with the same {@code size}.
+     *
+     * @param id           the id of the client
+     * @param includeItems whether the items and ordering addresses of the orders should be returned
+     * @param cursor       the cursor returned with the previous page
+     * @param size         the maximum number of orders in the page
+     * @return the page of dtos representing the found {@code Order} entities
+     */
+    @GetMapping("{id}/orders")
+    @PreAuthorize("hasAnyRole('ROLE_SALES', 'ROLE_INVENTORY')")
+    @Operation(summary = "Retrieves a page of orders of a client", description = "Required authorization role (any): ROLE_SALES, ROLE_INVENTORY")
+    @Parameter(name = "id", description = "the id of the client whose orders are to be retrieved")
+    @Parameter(name = "includeItems", description = "whether the items and ordering addresses of the orders should be returned")
+    @Parameter(name = "cursor", description = "the cursor returned with the previous page, absent for the first page")
+    @Parameter(name = "size", description = "the maximum number of orders in the page (1-100)")
+    @ApiResponse(responseCode = "200", description = "Orders retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "404", description = "Client with specified id not found", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public CursorPage<OrderDto> getClientOrders(@PathVariable @Min(value = 1, message = "Client id cannot be smaller than 1") Long id,
+                                                @RequestParam(defaultValue = "false") boolean includeItems,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "20") int size) {
+        return orderService.getClientOrders(id, cursor, size, includeItems);
+    }
+
     /**
      * Creates a new {@link Client} and stores it in database. The data of the new client should be passed as data of a
      * {@code ClientCreationRequestDto} in the request body.
@@ -86,6 +237,48 @@ public class ClientController {
         return clientService.saveClient(request);
     }
 
+    /**
+     * Imports multiple new {@link Client clients} with their addresses and contacts from a stream of newline delimited
+     * JSON. Each line of the request body has to contain one {@code ClientCreationRequestDto}. The clients are stored
+     * in chunks and for every non-blank line of the request a line with either the id of the created client or the
+     * errors that prevented its creation is streamed back.
+     *
+     * @param request  the request with the stream of client creation requests in its body
+     * @param response the response the results are streamed to
+     * @throws IOException if reading the request or writing the response fails
+     */
+    @PostMapping(value = "import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Imports multiple clients from newline delimited JSON", description = "Required authorization role: ROLE_SALES", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Newline delimited JSON objects specifying data of the clients to be created"))
+    @ApiResponse(responseCode = "200", description = "Request processed, the result of every line is in the response body")
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public void importClientsFromNdjson(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        clientImportService.importClientsFromNdjson(request.getInputStream(), response.getOutputStream());
+    }
+
+    /**
+     * Imports multiple new {@link Client clients} with their addresses and contacts from a stream of CSV rows. Each
+     * client row is followed by the rows of its addresses and contacts. The clients are stored in chunks and for every
+     * client row a line with either the id of the created client or the errors that prevented its creation is
+     * streamed back.
+     *
+     * @param request  the request with the stream of CSV rows in its body
+     * @param response the response the results are streamed to
+     * @throws IOException if reading the request or writing the response fails
+     */
+    @PostMapping(value = "import", consumes = "text/csv", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Imports multiple clients from CSV", description = "Required authorization role: ROLE_SALES", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "CSV with a header row naming the columns record, name, client_type, person_name, country, city, region, street, building_number, postal_code, email and phone_number, followed by CLIENT rows, each with its ADDRESS and CONTACT rows below it"))
+    @ApiResponse(responseCode = "200", description = "Request processed, the result of every client is in the response body")
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public void importClientsFromCsv(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        clientImportService.importClientsFromCsv(request.getInputStream(), response.getOutputStream());
+    }
+
     /**
      * Updates an existing {@link Client} entity in database.
      * <p>
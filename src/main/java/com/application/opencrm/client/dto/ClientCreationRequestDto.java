@@ -10,6 +10,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 
+import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import java.util.List;
 
@@ -33,9 +34,11 @@ public class ClientCreationRequestDto {
     private final String clientType;
 
     @Schema(description = "Client addresses")
+    @Valid
     private final List<AddressCreationRequestDto> addresses;
 
     @Schema(description = "Client contacts")
+    @Valid
     private final List<ContactCreationRequestDto> contacts;
 
 }
@@ -0,0 +1,44 @@
+package com.application.opencrm.client.dto;
+
+import com.application.opencrm.client.model.ClientDuplicate;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Data transfer object of a {@link ClientDuplicate} for communication with processes external to the service layer.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ClientDuplicateDto {
+
+    @Schema(description = "Id of the reported pair", example = "1")
+    private final Long id;
+
+    @Schema(description = "Id of the client with the lower id", example = "12")
+    private final Long clientId;
+
+    @Schema(description = "Name of the client with the lower id at the time of the detection", example = "Jan Kowalski")
+    private final String clientName;
+
+    @Schema(description = "Id of the client with the higher id", example = "57")
+    private final Long duplicateClientId;
+
+    @Schema(description = "Name of the client with the higher id at the time of the detection", example = "Jan Kowalski")
+    private final String duplicateClientName;
+
+    @Schema(description = "Likelihood that the clients are the same customer, between 0 and 1", example = "0.9")
+    private final double score;
+
+    @Schema(description = "Evidence the pair was reported for", example = "[\"EMAIL\", \"PHONE\"]")
+    private final List<String> reasons;
+
+    @Schema(description = "Time of the detection", example = "2022-10-01T03:00:00Z")
+    private final Instant detectedAt;
+
+}
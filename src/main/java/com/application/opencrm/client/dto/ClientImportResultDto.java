@@ -0,0 +1,29 @@
+package com.application.opencrm.client.dto;
+
+import com.application.opencrm.client.model.Client;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Data transfer object of the outcome of importing a single {@link Client} from a bulk import. Exactly one of
+ * {@code id} and {@code errors} is set.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClientImportResultDto {
+
+    @Schema(description = "Number of the line of the request the client starts at, starting from 1", example = "1")
+    private final long line;
+
+    @Schema(description = "Id of the created client", example = "1")
+    private final Long id;
+
+    @Schema(description = "Reasons why the client could not be created")
+    private final List<String> errors;
+
+}
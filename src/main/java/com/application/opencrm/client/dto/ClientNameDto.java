@@ -0,0 +1,21 @@
+package com.application.opencrm.client.dto;
+
+import com.application.opencrm.client.model.Client;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Data transfer object of the name of a {@link Client}, used to complete client names.
+ */
+@Getter
+@AllArgsConstructor
+public class ClientNameDto {
+
+    @Schema(description = "Client id", example = "1")
+    private final Long id;
+
+    @Schema(description = "Client name", example = "Jan Kowalski")
+    private final String name;
+
+}
@@ -0,0 +1,21 @@
+package com.application.opencrm.client.dto;
+
+import com.application.opencrm.client.model.Client;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Data transfer object of a {@link Client} found by a search, together with the score it is ranked by.
+ */
+@Getter
+@AllArgsConstructor
+public class ClientSearchResultDto {
+
+    @Schema(description = "Found client")
+    private final ClientDto client;
+
+    @Schema(description = "Similarity of the client to the query, between 0 and 1", example = "0.8")
+    private final double score;
+
+}
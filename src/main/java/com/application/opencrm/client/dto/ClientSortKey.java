@@ -0,0 +1,11 @@
+package com.application.opencrm.client.dto;
+
+import com.application.opencrm.client.model.Client;
+
+/**
+ * Keys the listing of {@link Client clients} can be sorted by. Clients with the same name are further sorted by their
+ * ids, so that every key determines a total order usable for keyset pagination.
+ */
+public enum ClientSortKey {
+    ID, NAME
+}
@@ -7,7 +7,14 @@ public class ContactCreationRequestValidator implements ConstraintValidator<Vali
 
     @Override
     public boolean isValid(ContactCreationRequestDto value, ConstraintValidatorContext context) {
-        return !(value.getEmail().isBlank() && value.getPhoneNumber().isBlank());
+        if (value == null) {
+            return true;
+        }
+        return !(isBlank(value.getEmail()) && isBlank(value.getPhoneNumber()));
+    }
+
+    private boolean isBlank(String text) {
+        return text == null || text.isBlank();
     }
 
 }
@@ -0,0 +1,35 @@
+package com.application.opencrm.client.event;
+
+import com.application.opencrm.client.model.Client;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event published when a {@link Client} is created, updated or deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class ClientChangedEvent {
+
+    private final Long clientId;
+
+    private final ChangeType changeType;
+
+    /**
+     * Name of the client after the change, {@code null} if the client has been deleted.
+     */
+    private final String name;
+
+    /**
+     * Type of the client after the change, {@code null} if the client has been deleted.
+     */
+    private final String clientType;
+
+    /**
+     * Kinds of changes of a client.
+     */
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+}
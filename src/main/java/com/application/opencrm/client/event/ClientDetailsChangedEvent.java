@@ -0,0 +1,18 @@
+package com.application.opencrm.client.event;
+
+import com.application.opencrm.client.model.Address;
+import com.application.opencrm.client.model.Client;
+import com.application.opencrm.client.model.Contact;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event published when an {@link Address} or a {@link Contact} of a {@link Client} is created, updated or deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class ClientDetailsChangedEvent {
+
+    private final Long clientId;
+
+}
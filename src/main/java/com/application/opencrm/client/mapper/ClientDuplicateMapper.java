@@ -0,0 +1,35 @@
+package com.application.opencrm.client.mapper;
+
+import com.application.opencrm.client.dto.ClientDuplicateDto;
+import com.application.opencrm.client.model.ClientDuplicate;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mapper used to handle mapping operations on {@link ClientDuplicate} objects and on related dtos.
+ */
+@Mapper(componentModel = "spring", injectionStrategy = InjectionStrategy.CONSTRUCTOR)
+public interface ClientDuplicateMapper {
+
+    /**
+     * Maps a {@code ClientDuplicate} to {@code ClientDuplicateDto} object.
+     *
+     * @param duplicate the {@code duplicate} to be mapped
+     * @return the mapped {@code ClientDuplicateDto}
+     */
+    ClientDuplicateDto clientDuplicateToClientDuplicateDto(ClientDuplicate duplicate);
+
+    /**
+     * Splits the reasons of a {@code ClientDuplicate} stored as a comma-separated string.
+     *
+     * @param reasons the comma-separated reasons
+     * @return the list of the reasons
+     */
+    default List<String> reasonsToList(String reasons) {
+        return reasons == null || reasons.isEmpty() ? List.of() : Arrays.asList(reasons.split(","));
+    }
+
+}
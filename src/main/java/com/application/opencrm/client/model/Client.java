@@ -1,6 +1,8 @@
 package com.application.opencrm.client.model;
 
+import com.application.opencrm.common.pagination.CursorPage;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -20,7 +22,8 @@ import java.util.List;
 public class Client {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_seq")
+    @SequenceGenerator(name = "client_seq", sequenceName = "client_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -29,11 +32,14 @@ public class Client {
     @Column(name = "client_type")
     private ClientType clientType;
 
+    // the collections of a whole page of clients are initialized by a single query
     @OneToMany(mappedBy = "client", cascade = CascadeType.PERSIST, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = CursorPage.MAX_PAGE_SIZE)
     @Builder.Default
     private List<Address> addresses = new ArrayList<>();
 
     @OneToMany(mappedBy = "client", cascade = CascadeType.PERSIST, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = CursorPage.MAX_PAGE_SIZE)
     @Builder.Default
     private List<Contact> contacts = new ArrayList<>();
 
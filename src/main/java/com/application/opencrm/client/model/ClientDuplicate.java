@@ -0,0 +1,49 @@
+package com.application.opencrm.client.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Entity representing a pair of {@link Client clients} reported by the duplicate detection job as possibly being the
+ * same customer. The pair is identified by the ids of the clients, the lower one first, and carries the names of the
+ * clients at the time of the detection, so the report can be reviewed without loading them.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "client_duplicate")
+public class ClientDuplicate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_duplicate_seq")
+    @SequenceGenerator(name = "client_duplicate_seq", sequenceName = "client_duplicate_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "client_id")
+    private Long clientId;
+
+    @Column(name = "client_name")
+    private String clientName;
+
+    @Column(name = "duplicate_client_id")
+    private Long duplicateClientId;
+
+    @Column(name = "duplicate_client_name")
+    private String duplicateClientName;
+
+    private double score;
+
+    /**
+     * Names of the {@link DuplicateReason reasons} the pair was reported for, separated by commas.
+     */
+    private String reasons;
+
+    @Column(name = "detected_at")
+    private Instant detectedAt;
+
+}
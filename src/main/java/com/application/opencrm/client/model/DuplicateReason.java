@@ -0,0 +1,30 @@
+package com.application.opencrm.client.model;
+
+/**
+ * Kinds of evidence that two {@link Client clients} may be duplicates, i.e. the blocking keys they share. Every kind
+ * carries the weight it contributes to the score of a pair of clients.
+ */
+public enum DuplicateReason {
+    /**
+     * Both clients have a contact with the same email, ignoring letter case.
+     */
+    EMAIL(0.8),
+    /**
+     * Both clients have a contact with the same phone number, compared by its last nine digits.
+     */
+    PHONE(0.7),
+    /**
+     * Both clients have an address with the same postal code and share a word of their names.
+     */
+    POSTAL_CODE_AND_NAME(0.5);
+
+    private final double weight;
+
+    DuplicateReason(double weight) {
+        this.weight = weight;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+}
@@ -0,0 +1,40 @@
+package com.application.opencrm.client.repository;
+
+import com.application.opencrm.client.model.ClientDuplicate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository used to perform basic CRUD and SQL operations on {@link ClientDuplicate} entities.
+ */
+@Repository
+public interface ClientDuplicateRepository extends JpaRepository<ClientDuplicate, Long>, ClientDuplicateRepositoryCustom {
+
+    /**
+     * Finds the first page of reported duplicates, sorted from the highest to the lowest score and then by ids.
+     *
+     * @param pageable the size of the page
+     * @return the found duplicates in the order of sorting
+     */
+    @Query("select d from ClientDuplicate d order by d.score desc, d.id")
+    List<ClientDuplicate> findFirstPage(Pageable pageable);
+
+    /**
+     * Finds a page of reported duplicates following the specified one, sorted from the highest to the lowest score
+     * and then by ids.
+     *
+     * @param score    the score of the last duplicate of the previous page
+     * @param id       the id of the last duplicate of the previous page
+     * @param pageable the size of the page
+     * @return the found duplicates in the order of sorting
+     */
+    @Query("select d from ClientDuplicate d where d.score < :score or (d.score = :score and d.id > :id) "
+           + "order by d.score desc, d.id")
+    List<ClientDuplicate> findPageAfter(@Param("score") double score, @Param("id") Long id, Pageable pageable);
+
+}
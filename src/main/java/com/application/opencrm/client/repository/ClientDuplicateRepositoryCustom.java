@@ -0,0 +1,21 @@
+package com.application.opencrm.client.repository;
+
+import com.application.opencrm.client.model.ClientDuplicate;
+
+import java.util.List;
+
+/**
+ * Repository fragment with operations on {@link ClientDuplicate} entities that cannot be expressed as derived or
+ * annotated queries.
+ */
+public interface ClientDuplicateRepositoryCustom {
+
+    /**
+     * Persists a chunk of reported duplicates, flushes it and detaches it from the persistence context, so a report
+     * can be written in chunks within one transaction without holding all of it in memory.
+     *
+     * @param duplicates the chunk of duplicates to be stored
+     */
+    void persistChunk(List<ClientDuplicate> duplicates);
+
+}
@@ -0,0 +1,24 @@
+package com.application.opencrm.client.repository;
+
+import com.application.opencrm.client.model.ClientDuplicate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * Implementation of {@link ClientDuplicateRepositoryCustom} based on the entity manager.
+ */
+public class ClientDuplicateRepositoryImpl implements ClientDuplicateRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void persistChunk(List<ClientDuplicate> duplicates) {
+        duplicates.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+}
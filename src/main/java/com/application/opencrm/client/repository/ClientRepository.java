@@ -1,7 +1,11 @@
 package com.application.opencrm.client.repository;
 
 import com.application.opencrm.client.model.Client;
+import com.application.opencrm.client.repository.projection.ClientNameProjection;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,8 +14,18 @@ import java.util.List;
  * Repository used to perform basic CRUD and SQL operations on {@link Client} entities.
  */
 @Repository
-public interface ClientRepository extends JpaRepository<Client, Long> {
+public interface ClientRepository extends JpaRepository<Client, Long>, ClientRepositoryCustom {
 
-    List<Client> findAll();
+    /**
+     * Finds the names of the clients with ids greater than the specified one, sorted by ids. Only the columns of the
+     * table of clients are read.
+     *
+     * @param afterId  the id of the last client of the previous page, {@code 0} for the first page
+     * @param pageable the size of the page
+     * @return the projections of the names of the found clients
+     */
+    @Query("select new com.application.opencrm.client.repository.projection.ClientNameProjection(c.id, c.name) "
+           + "from Client c where c.id > :afterId order by c.id")
+    List<ClientNameProjection> findNames(@Param("afterId") Long afterId, Pageable pageable);
 
 }
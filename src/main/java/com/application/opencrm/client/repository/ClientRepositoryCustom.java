@@ -0,0 +1,40 @@
+package com.application.opencrm.client.repository;
+
+import com.application.opencrm.client.dto.ClientSortKey;
+import com.application.opencrm.client.model.Client;
+import com.application.opencrm.client.repository.projection.ClientMatchProjection;
+import com.application.opencrm.common.pagination.KeysetCursor;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+/**
+ * Repository fragment with queries on {@link Client} entities that are built dynamically and therefore cannot be
+ * expressed as derived or annotated queries.
+ */
+public interface ClientRepositoryCustom {
+
+    /**
+     * Finds a page of clients sorted by the specified key, with ties broken by their ids. Only the table of clients is
+     * read; their addresses and contacts are loaded lazily.
+     *
+     * @param sortKey   the key the clients are sorted by
+     * @param direction the direction of sorting
+     * @param after     the cursor pointing at the last client of the previous page, {@code null} for the first page
+     * @param limit     the maximum number of returned clients
+     * @return the found clients in the order of sorting
+     */
+    List<Client> findPage(ClientSortKey sortKey, Sort.Direction direction, KeysetCursor after, int limit);
+
+    /**
+     * Finds the clients whose name, contact emails and phone numbers or address cities and postal codes contain words
+     * similar to the query, as measured by the {@code word_similarity} function of the {@code pg_trgm} extension of
+     * PostgreSQL. A client is ranked by its best matching field.
+     *
+     * @param query the searched text
+     * @param limit the maximum number of returned matches
+     * @return the matches, from the most to the least similar one
+     */
+    List<ClientMatchProjection> findMatches(String query, int limit);
+
+}
@@ -0,0 +1,87 @@
+package com.application.opencrm.client.repository;
+
+import com.application.opencrm.client.dto.ClientSortKey;
+import com.application.opencrm.client.model.Client;
+import com.application.opencrm.client.repository.projection.ClientMatchProjection;
+import com.application.opencrm.common.pagination.KeysetCursor;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link ClientRepositoryCustom} based on the criteria API and native queries of PostgreSQL.
+ */
+public class ClientRepositoryImpl implements ClientRepositoryCustom {
+
+    // the <% operator is served by the trigram GIN indexes, word_similarity only ranks the rows it selects
+    private static final String MATCHES_QUERY = "SELECT m.client_id, max(m.score) AS score FROM ("
+        + "SELECT id AS client_id, word_similarity(:query, \"name\") AS score FROM client WHERE :query <% \"name\" "
+        + "UNION ALL SELECT client_id, word_similarity(:query, email) FROM contact WHERE :query <% email "
+        + "UNION ALL SELECT client_id, word_similarity(:query, phone_number) FROM contact "
+        + "WHERE :query <% phone_number "
+        + "UNION ALL SELECT client_id, word_similarity(:query, city) FROM address WHERE :query <% city "
+        + "UNION ALL SELECT client_id, word_similarity(:query, postal_code) FROM address "
+        + "WHERE :query <% postal_code"
+        + ") m WHERE m.client_id IS NOT NULL GROUP BY m.client_id ORDER BY score DESC, m.client_id LIMIT :limit";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Client> findPage(ClientSortKey sortKey, Sort.Direction direction, KeysetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Client> query = cb.createQuery(Client.class);
+        Root<Client> client = query.from(Client.class);
+        Path<Long> id = client.get("id");
+        Path<String> name = client.get("name");
+        boolean ascending = direction.isAscending();
+
+        if (after != null) {
+            query.where(sortKey == ClientSortKey.NAME ? afterNamePredicate(cb, client, after, ascending)
+                : beyond(cb, id, after.getLong(0), ascending));
+        }
+        if (sortKey == ClientSortKey.NAME) {
+            query.orderBy(order(cb, name, ascending), order(cb, id, ascending));
+        } else {
+            query.orderBy(order(cb, id, ascending));
+        }
+        return entityManager.createQuery(query)
+                            .setMaxResults(limit)
+                            .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ClientMatchProjection> findMatches(String query, int limit) {
+        List<Object[]> rows = entityManager.createNativeQuery(MATCHES_QUERY)
+                                           .setParameter("query", query)
+                                           .setParameter("limit", limit)
+                                           .getResultList();
+        return rows.stream()
+                   .map(row -> new ClientMatchProjection(((Number) row[0]).longValue(),
+                       ((Number) row[1]).doubleValue()))
+                   .collect(Collectors.toList());
+    }
+
+    private Predicate afterNamePredicate(CriteriaBuilder cb, Root<Client> client, KeysetCursor after,
+                                         boolean ascending) {
+        Path<String> name = client.get("name");
+        String afterName = after.getString(0);
+        return cb.or(beyond(cb, name, afterName, ascending),
+            cb.and(cb.equal(name, afterName), beyond(cb, client.get("id"), after.getLong(1), ascending)));
+    }
+
+    private <T extends Comparable<? super T>> Predicate beyond(CriteriaBuilder cb, Path<T> path, T value,
+                                                               boolean ascending) {
+        return ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+    }
+
+    private Order order(CriteriaBuilder cb, Path<?> path, boolean ascending) {
+        return ascending ? cb.asc(path) : cb.desc(path);
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.application.opencrm.client.repository.projection;
+
+import com.application.opencrm.client.model.Client;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Projection of a {@link Client} matching a search query together with the score the matches are ranked by.
+ */
+@Getter
+@AllArgsConstructor
+public class ClientMatchProjection {
+
+    private final Long clientId;
+
+    private final double score;
+
+}
@@ -0,0 +1,18 @@
+package com.application.opencrm.client.repository.projection;
+
+import com.application.opencrm.client.model.Client;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Projection of the name of a {@link Client}.
+ */
+@Getter
+@AllArgsConstructor
+public class ClientNameProjection {
+
+    private final Long id;
+
+    private final String name;
+
+}
@@ -0,0 +1,26 @@
+package com.application.opencrm.client.search;
+
+import com.application.opencrm.client.model.Client;
+import com.application.opencrm.client.repository.projection.ClientMatchProjection;
+
+import java.util.List;
+
+/**
+ * Engine finding the {@link Client clients} whose names, contact emails and phone numbers or address cities and postal
+ * codes are similar to a query. Exactly one engine is active, selected with the {@code client.search.engine}
+ * property.
+ * <p>
+ * Similarity is measured on trigrams, so queries match parts of words and tolerate typos. The letter case is ignored.
+ */
+public interface ClientSearchEngine {
+
+    /**
+     * Finds the clients matching the query.
+     *
+     * @param query the searched text
+     * @param limit the maximum number of returned matches
+     * @return the matches, from the most to the least similar one
+     */
+    List<ClientMatchProjection> search(String query, int limit);
+
+}
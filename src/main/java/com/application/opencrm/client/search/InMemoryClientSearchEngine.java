@@ -0,0 +1,258 @@
+package com.application.opencrm.client.search;
+
+import com.application.opencrm.client.dto.ClientSortKey;
+import com.application.opencrm.client.event.ClientChangedEvent;
+import com.application.opencrm.client.event.ClientDetailsChangedEvent;
+import com.application.opencrm.client.model.Client;
+import com.application.opencrm.client.repository.ClientRepository;
+import com.application.opencrm.client.repository.projection.ClientMatchProjection;
+import com.application.opencrm.common.pagination.CursorPage;
+import com.application.opencrm.common.pagination.KeysetCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link ClientSearchEngine} keeping an inverted index of the trigrams of the searched fields in memory, intended for
+ * databases without trigram indexes, such as the embedded test database.
+ * <p>
+ * Trigrams are extracted the same way as by {@code pg_trgm}: from every word separately, padded with two spaces in
+ * front and one at the end. Every value of a searched field is indexed separately, and its score is the share of the
+ * trigrams of the query found among its trigrams. Like the {@code word_similarity} of the database engine, a client
+ * matches if the best score of its values reaches {@value #SIMILARITY_THRESHOLD}, the default threshold of
+ * {@code word_similarity}, and is ranked by this best score.
+ * <p>
+ * The index is built when the application starts. Clients whose fields are changed by a transaction are collected
+ * from the {@link ClientChangedEvent} and {@link ClientDetailsChangedEvent} events it publishes and reindexed together
+ * once it commits, with their current state read from the database.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "client.search.engine", havingValue = "memory")
+public class InMemoryClientSearchEngine implements ClientSearchEngine {
+
+    private static final double SIMILARITY_THRESHOLD = 0.6;
+
+    private final ClientRepository repository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    // trigrams of every indexed value of the fields of a client
+    private final Map<Long, List<Set<String>>> trigramsByClient = new HashMap<>();
+    private final Map<String, Set<Long>> clientsByTrigram = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public InMemoryClientSearchEngine(ClientRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        // reindexing runs after the commit of a transaction, when its resources are still bound to the thread
+        this.readOnlyTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public List<ClientMatchProjection> search(String query, int limit) {
+        Set<String> queryTrigrams = wordTrigrams(query).collect(Collectors.toSet());
+        if (queryTrigrams.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> found = new HashMap<>();
+        List<ClientMatchProjection> matches = new ArrayList<>();
+        lock.readLock()
+            .lock();
+        try {
+            queryTrigrams.forEach(trigram -> clientsByTrigram.getOrDefault(trigram, Set.of())
+                                                             .forEach(clientId -> found.merge(clientId, 1,
+                                                                 Integer::sum)));
+            // no value of a client can match more trigrams of the query than all its values together
+            found.forEach((clientId, count) -> {
+                if ((double) count / queryTrigrams.size() >= SIMILARITY_THRESHOLD) {
+                    matches.add(new ClientMatchProjection(clientId, score(trigramsByClient.get(clientId),
+                        queryTrigrams)));
+                }
+            });
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+        return matches.stream()
+                      .filter(match -> match.getScore() >= SIMILARITY_THRESHOLD)
+                      .sorted(Comparator.comparingDouble(ClientMatchProjection::getScore)
+                                        .reversed()
+                                        .thenComparing(ClientMatchProjection::getClientId))
+                      .limit(limit)
+                      .collect(Collectors.toList());
+    }
+
+    /**
+     * Marks the client for reindexing once the transaction that changed it commits.
+     *
+     * @param event the event describing the changed client
+     */
+    @EventListener
+    public void onClientChanged(ClientChangedEvent event) {
+        markChanged(event.getClientId());
+    }
+
+    /**
+     * Marks the client for reindexing once the transaction that changed its address or contact commits.
+     *
+     * @param event the event describing the changed client
+     */
+    @EventListener
+    public void onClientDetailsChanged(ClientDetailsChangedEvent event) {
+        markChanged(event.getClientId());
+    }
+
+    /**
+     * Indexes all clients stored in the database when the application starts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        KeysetCursor after = null;
+        List<Client> page;
+        do {
+            KeysetCursor pageAfter = after;
+            page = readOnlyTransactionTemplate.execute(status -> {
+                List<Client> clients = repository.findPage(ClientSortKey.ID, Sort.Direction.ASC, pageAfter,
+                    CursorPage.MAX_PAGE_SIZE);
+                index(clients, List.of());
+                return clients;
+            });
+            if (!page.isEmpty()) {
+                after = KeysetCursor.of(page.get(page.size() - 1)
+                                            .getId());
+            }
+        } while (page.size() == CursorPage.MAX_PAGE_SIZE);
+        log.debug("Built the in-memory client search index of {} clients.", trigramsByClient.size());
+    }
+
+    private void markChanged(Long clientId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reindex(Set.of(clientId));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> changed = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null) {
+            Set<Long> collected = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, collected);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reindex(collected);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InMemoryClientSearchEngine.this);
+                }
+            });
+            changed = collected;
+        }
+        changed.add(clientId);
+    }
+
+    private void reindex(Set<Long> clientIds) {
+        List<Long> ids = new ArrayList<>(clientIds);
+        for (int from = 0; from < ids.size(); from += CursorPage.MAX_PAGE_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CursorPage.MAX_PAGE_SIZE, ids.size()));
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                List<Client> clients = repository.findAllById(chunk);
+                Set<Long> deleted = new HashSet<>(chunk);
+                clients.forEach(client -> deleted.remove(client.getId()));
+                index(clients, deleted);
+            });
+        }
+    }
+
+    private void index(List<Client> clients, Collection<Long> deletedIds) {
+        Map<Long, List<Set<String>>> indexed = new HashMap<>();
+        clients.forEach(client -> indexed.put(client.getId(), trigrams(client)));
+        lock.writeLock()
+            .lock();
+        try {
+            deletedIds.forEach(this::unindex);
+            indexed.forEach((clientId, values) -> {
+                unindex(clientId);
+                trigramsByClient.put(clientId, values);
+                for (Set<String> trigrams : values) {
+                    trigrams.forEach(trigram -> clientsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>())
+                                                                .add(clientId));
+                }
+            });
+        } finally {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    private void unindex(Long clientId) {
+        List<Set<String>> values = trigramsByClient.remove(clientId);
+        if (values == null) {
+            return;
+        }
+        values.stream()
+              .flatMap(Set::stream)
+              .distinct()
+              .forEach(trigram -> {
+                  Set<Long> clientIds = clientsByTrigram.get(trigram);
+                  clientIds.remove(clientId);
+                  if (clientIds.isEmpty()) {
+                      clientsByTrigram.remove(trigram);
+                  }
+              });
+    }
+
+    /**
+     * Scores the client by the value sharing the most trigrams with the query.
+     */
+    private static double score(List<Set<String>> values, Set<String> queryTrigrams) {
+        long best = values.stream()
+                          .mapToLong(trigrams -> queryTrigrams.stream()
+                                                              .filter(trigrams::contains)
+                                                              .count())
+                          .max()
+                          .orElse(0);
+        return (double) best / queryTrigrams.size();
+    }
+
+    private static List<Set<String>> trigrams(Client client) {
+        Stream<String> names = Stream.of(client.getName());
+        Stream<String> contacts = client.getContacts()
+                                        .stream()
+                                        .flatMap(contact -> Stream.of(contact.getEmail(), contact.getPhoneNumber()));
+        Stream<String> addresses = client.getAddresses()
+                                         .stream()
+                                         .flatMap(address -> Stream.of(address.getCity(), address.getPostalCode()));
+        return Stream.of(names, contacts, addresses)
+                     .flatMap(values -> values)
+                     .filter(Objects::nonNull)
+                     .map(value -> wordTrigrams(value).collect(Collectors.toSet()))
+                     .filter(trigrams -> !trigrams.isEmpty())
+                     .collect(Collectors.toList());
+    }
+
+    private static Stream<String> wordTrigrams(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT)
+                                 .split("[^\\p{L}\\p{N}]+"))
+                     .filter(word -> !word.isEmpty())
+                     .map(word -> "  " + word + " ")
+                     .flatMap(padded -> IntStream.range(0, padded.length() - 2)
+                                                 .mapToObj(i -> padded.substring(i, i + 3)));
+    }
+
+}
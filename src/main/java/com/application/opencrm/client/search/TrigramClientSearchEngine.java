@@ -0,0 +1,27 @@
+package com.application.opencrm.client.search;
+
+import com.application.opencrm.client.repository.ClientRepository;
+import com.application.opencrm.client.repository.projection.ClientMatchProjection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@link ClientSearchEngine} delegating to the {@code pg_trgm} extension of PostgreSQL. The searched columns are
+ * covered by trigram GIN indexes, so the matches are found by index scans instead of reading all clients.
+ */
+@Component
+@ConditionalOnProperty(name = "client.search.engine", havingValue = "trigram", matchIfMissing = true)
+@RequiredArgsConstructor
+public class TrigramClientSearchEngine implements ClientSearchEngine {
+
+    private final ClientRepository repository;
+
+    @Override
+    public List<ClientMatchProjection> search(String query, int limit) {
+        return repository.findMatches(query, limit);
+    }
+
+}
@@ -3,12 +3,13 @@ package com.application.opencrm.client.service;
 import com.application.opencrm.client.dto.AddressCreationRequestDto;
 import com.application.opencrm.client.dto.AddressDto;
 import com.application.opencrm.client.dto.AddressUpdateRequestDto;
+import com.application.opencrm.client.event.ClientDetailsChangedEvent;
 import com.application.opencrm.client.mapper.AddressMapper;
 import com.application.opencrm.client.model.Address;
 import com.application.opencrm.client.repository.AddressRepository;
 import com.application.opencrm.common.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +19,8 @@ import org.springframework.transaction.annotation.Transactional;
  * This class serves as a layer between {@link AddressRepository} and controllers. Entities ({@code Address} objects)
  * should generally not leave the service layer. Public or protected methods that return entities are intended for
  * communication with other services.
+ * <p>
+ * Every change of an address publishes a {@link ClientDetailsChangedEvent} within the transaction making the change.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,6 +29,7 @@ public class AddressService {
     private final AddressRepository repository;
     private final AddressMapper mapper;
     private final ClientService clientService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Creates a new {@link Address} for a specified {@code Client} and stores it in database. The data of the new
@@ -40,7 +44,9 @@ public class AddressService {
         Address address = mapper.addressCreationRequestDtoToAddress(request);
         clientService.getClientFromRepository(clientId)
                      .addAddress(address);
-        return mapper.addressToAddressDto(repository.save(address));
+        Address savedAddress = repository.save(address);
+        publishChange(savedAddress);
+        return mapper.addressToAddressDto(savedAddress);
     }
 
     /**
@@ -60,6 +66,7 @@ public class AddressService {
         Address updatedAddress = getAddressFromRepository(addressId);
         mapper.updateAddress(updatedAddress, request);
         repository.save(updatedAddress);
+        publishChange(updatedAddress);
         return mapper.addressToAddressDto(updatedAddress);
     }
 
@@ -70,11 +77,11 @@ public class AddressService {
      */
     @Transactional
     public void deleteAddress(Long id) {
-        try {
-            repository.deleteById(id);
-        } catch (EmptyResultDataAccessException e) {
-            throw new ResourceNotFoundException("Address requested to be removed not found in the database.");
-        }
+        Address deletedAddress = repository.findById(id)
+                                           .orElseThrow(() -> new ResourceNotFoundException(
+                                               "Address requested to be removed not found in the database."));
+        repository.delete(deletedAddress);
+        publishChange(deletedAddress);
     }
 
     /**
@@ -92,4 +99,11 @@ public class AddressService {
                          .orElseThrow(() -> new ResourceNotFoundException("Address not found in the database."));
     }
 
+    private void publishChange(Address address) {
+        if (address.getClient() != null) {
+            eventPublisher.publishEvent(new ClientDetailsChangedEvent(address.getClient()
+                                                                             .getId()));
+        }
+    }
+
 }
@@ -0,0 +1,478 @@
+package com.application.opencrm.client.service;
+
+import com.application.opencrm.client.dto.ClientNameDto;
+import com.application.opencrm.client.event.ClientChangedEvent;
+import com.application.opencrm.client.event.ClientChangedEvent.ChangeType;
+import com.application.opencrm.client.model.Client;
+import com.application.opencrm.client.repository.ClientRepository;
+import com.application.opencrm.client.repository.projection.ClientNameProjection;
+import com.application.opencrm.common.exception.InvalidRequestException;
+import com.application.opencrm.common.pagination.CursorPage;
+import com.application.opencrm.common.text.TextNormalizer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service completing the names of {@link Client clients} from a prefix without querying the database.
+ * <p>
+ * Names are normalized - lower-cased, stripped of diacritics and with whitespace collapsed - and kept sorted in a
+ * compact snapshot: the characters of all normalized and original names are packed into two arrays addressed by
+ * offsets, so a client takes a few dozen bytes instead of two strings and an entry of a map. A prefix is found by a
+ * binary search of the snapshot followed by a scan of the matching range, which stops once enough names are found.
+ * <p>
+ * The snapshot is built when the application starts. Changes of clients are applied once their transactions commit to
+ * a small sorted overlay, which is merged into a new snapshot when it grows beyond the compaction threshold. The merge
+ * runs in the background from a copy of the overlay, so the committing thread only copies the overlay and readers are
+ * blocked only while the new snapshot replaces the old one. Changes applied during the merge stay in the overlay.
+ */
+@Slf4j
+@Service
+public class ClientAutocompleteService {
+
+    private static final int LOAD_PAGE_SIZE = 10_000;
+    // rough sizes of an entry of the overlay and of a hidden id, including the objects of the collections
+    private static final long OVERLAY_ENTRY_BYTES = 200;
+    private static final long REMOVED_ID_BYTES = 50;
+
+    private final ClientRepository repository;
+    private final int compactionThreshold;
+    private final Executor compactionExecutor;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Key, String> added = new TreeMap<>();
+    private final Map<Long, Key> addedKeys = new HashMap<>();
+    private final Set<Long> removed = new HashSet<>();
+    // ids changed since the running compaction copied the overlay
+    private final Set<Long> changedDuringCompaction = new HashSet<>();
+    private Snapshot snapshot = new SnapshotBuilder(0).build();
+    private boolean building;
+    private boolean compacting;
+
+    @Autowired
+    public ClientAutocompleteService(ClientRepository repository, MeterRegistry meterRegistry,
+                                     @Value("${client.autocomplete.compaction-threshold:1024}") int compactionThreshold) {
+        this(repository, meterRegistry, compactionThreshold, Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("client-autocomplete-")));
+    }
+
+    ClientAutocompleteService(ClientRepository repository, MeterRegistry meterRegistry, int compactionThreshold,
+                              Executor compactionExecutor) {
+        this.repository = repository;
+        this.compactionThreshold = compactionThreshold;
+        this.compactionExecutor = compactionExecutor;
+        Gauge.builder("clients.autocomplete.memory", this, service -> service.estimateMemory())
+             .description("Estimated memory taken by the index of client names")
+             .baseUnit(BaseUnits.BYTES)
+             .register(meterRegistry);
+    }
+
+    /**
+     * Retrieves the clients whose normalized names start with the normalized prefix, sorted by the normalized names.
+     *
+     * @param prefix the beginning of the name
+     * @param limit  the maximum number of returned clients
+     * @return the dtos representing the ids and names of the found clients
+     * @throws InvalidRequestException if the prefix is blank or the limit is not allowed
+     */
+    public List<ClientNameDto> complete(String prefix, int limit) {
+        if (limit < 1 || limit > CursorPage.MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("Limit has to be between 1 and " + CursorPage.MAX_PAGE_SIZE + ".");
+        }
+        String key = prefix == null ? "" : TextNormalizer.normalize(prefix);
+        if (key.isEmpty()) {
+            throw new InvalidRequestException("Prefix cannot be blank.");
+        }
+        List<ClientNameDto> names = new ArrayList<>(limit);
+        lock.readLock()
+            .lock();
+        try {
+            int index = snapshot.lowerBound(key);
+            Iterator<Map.Entry<Key, String>> overlay = added.tailMap(new Key(key, Long.MIN_VALUE), true)
+                                                            .entrySet()
+                                                            .iterator();
+            Map.Entry<Key, String> next = nextMatching(overlay, key);
+            while (names.size() < limit) {
+                while (snapshot.matches(index, key) && removed.contains(snapshot.ids[index])) {
+                    index++;
+                }
+                boolean inSnapshot = snapshot.matches(index, key);
+                if (!inSnapshot && next == null) {
+                    break;
+                }
+                if (next == null || inSnapshot && snapshot.compareTo(index, next.getKey()) < 0) {
+                    names.add(new ClientNameDto(snapshot.ids[index], snapshot.name(index)));
+                    index++;
+                } else {
+                    names.add(new ClientNameDto(next.getKey().id, next.getValue()));
+                    next = nextMatching(overlay, key);
+                }
+            }
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+        return names;
+    }
+
+    /**
+     * Applies the change of a client to the overlay after the transaction changing it commits.
+     *
+     * @param event the event describing the changed client
+     */
+    @TransactionalEventListener
+    public void onClientChanged(ClientChangedEvent event) {
+        Long id = event.getClientId();
+        Key key = event.getChangeType() != ChangeType.DELETED && event.getName() != null
+            ? new Key(TextNormalizer.normalize(event.getName()), id) : null;
+        withWriteLock(() -> {
+            Key previous = addedKeys.remove(id);
+            if (previous != null) {
+                added.remove(previous);
+            }
+            // hides the entry of the snapshot, if there is one
+            removed.add(id);
+            if (key != null) {
+                added.put(key, event.getName());
+                addedKeys.put(id, key);
+            }
+            if (compacting) {
+                changedDuringCompaction.add(id);
+            }
+            startCompactionIfNeeded();
+        });
+    }
+
+    /**
+     * Builds the snapshot from the names of all clients stored in the database when the application starts. Changes
+     * applied to the overlay in the meantime are kept and not compacted until the snapshot is replaced, since they are
+     * at least as recent as the names read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        withWriteLock(() -> building = true);
+        List<Map.Entry<Key, String>> entries = new ArrayList<>();
+        try {
+            long afterId = 0;
+            List<ClientNameProjection> page;
+            do {
+                page = repository.findNames(afterId, PageRequest.ofSize(LOAD_PAGE_SIZE));
+                page.stream()
+                    .filter(client -> client.getName() != null)
+                    .forEach(client -> entries.add(Map.entry(new Key(TextNormalizer.normalize(client.getName()),
+                        client.getId()), client.getName())));
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1)
+                                  .getId();
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+        } catch (RuntimeException e) {
+            withWriteLock(() -> building = false);
+            throw e;
+        }
+        entries.sort(Map.Entry.comparingByKey());
+        SnapshotBuilder builder = new SnapshotBuilder(entries.size());
+        entries.forEach(entry -> builder.add(entry.getKey(), entry.getValue()));
+        Snapshot built = builder.build();
+        withWriteLock(() -> {
+            // a compaction of the previous snapshot finishing later is discarded
+            snapshot = built;
+            building = false;
+            startCompactionIfNeeded();
+        });
+        log.debug("Built the index of {} client names.", built.ids.length);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (compactionExecutor instanceof ExecutorService) {
+            ((ExecutorService) compactionExecutor).shutdownNow();
+        }
+    }
+
+    /**
+     * Starts merging a copy of the overlay into a new snapshot in the background, unless the overlay is small, the
+     * snapshot is being built or a merge is already running. Has to be called with the write lock held.
+     */
+    private void startCompactionIfNeeded() {
+        if (building || compacting || added.size() + removed.size() <= compactionThreshold) {
+            return;
+        }
+        Snapshot base = snapshot;
+        List<Map.Entry<Key, String>> overlay = new ArrayList<>(added.entrySet());
+        Map<Long, Key> overlayKeys = new HashMap<>(addedKeys);
+        Set<Long> hidden = new HashSet<>(removed);
+        compacting = true;
+        try {
+            compactionExecutor.execute(() -> compact(base, overlay, overlayKeys, hidden));
+        } catch (RejectedExecutionException e) {
+            compacting = false;
+            log.warn("Compaction of the index of client names rejected, the overlay keeps growing.", e);
+        }
+    }
+
+    private void compact(Snapshot base, List<Map.Entry<Key, String>> overlay, Map<Long, Key> overlayKeys,
+                         Set<Long> hidden) {
+        Snapshot merged;
+        try {
+            merged = merge(base, overlay, hidden);
+        } catch (RuntimeException e) {
+            withWriteLock(this::finishCompaction);
+            log.error("Compaction of the index of client names failed.", e);
+            return;
+        }
+        withWriteLock(() -> {
+            if (snapshot == base) {
+                snapshot = merged;
+                // entries of the copy are in the new snapshot now, unless their clients changed again meanwhile
+                overlayKeys.forEach((id, key) -> {
+                    if (!changedDuringCompaction.contains(id)) {
+                        added.remove(key);
+                        addedKeys.remove(id);
+                    }
+                });
+                removed.retainAll(changedDuringCompaction);
+            }
+            finishCompaction();
+            startCompactionIfNeeded();
+        });
+    }
+
+    private void finishCompaction() {
+        compacting = false;
+        changedDuringCompaction.clear();
+    }
+
+    private static Snapshot merge(Snapshot base, List<Map.Entry<Key, String>> overlay, Set<Long> hidden) {
+        SnapshotBuilder builder = new SnapshotBuilder(base.ids.length + overlay.size());
+        int next = 0;
+        for (int index = 0; index < base.ids.length; index++) {
+            if (hidden.contains(base.ids[index])) {
+                continue;
+            }
+            while (next < overlay.size() && base.compareTo(index, overlay.get(next)
+                                                                         .getKey()) > 0) {
+                builder.add(overlay.get(next)
+                                   .getKey(), overlay.get(next)
+                                                     .getValue());
+                next++;
+            }
+            builder.add(base, index);
+        }
+        for (; next < overlay.size(); next++) {
+            builder.add(overlay.get(next)
+                               .getKey(), overlay.get(next)
+                                                 .getValue());
+        }
+        return builder.build();
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock()
+            .lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    private long estimateMemory() {
+        lock.readLock()
+            .lock();
+        try {
+            return snapshot.estimateMemory() + added.size() * OVERLAY_ENTRY_BYTES + removed.size() * REMOVED_ID_BYTES;
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    private static Map.Entry<Key, String> nextMatching(Iterator<Map.Entry<Key, String>> overlay, String prefix) {
+        if (!overlay.hasNext()) {
+            return null;
+        }
+        Map.Entry<Key, String> next = overlay.next();
+        return next.getKey().normalizedName.startsWith(prefix) ? next : null;
+    }
+
+    private static final class Key implements Comparable<Key> {
+
+        private final String normalizedName;
+        private final long id;
+
+        private Key(String normalizedName, long id) {
+            this.normalizedName = normalizedName;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byName = normalizedName.compareTo(other.normalizedName);
+            return byName != 0 ? byName : Long.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && compareTo((Key) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(normalizedName, id);
+        }
+
+    }
+
+    /**
+     * Immutable sorted entries of the index, with the characters of all normalized and original names packed into
+     * two arrays. The characters of the entry {@code i} span from {@code offsets[i]} to {@code offsets[i + 1]}.
+     */
+    private static final class Snapshot {
+
+        private final char[] normalizedNames;
+        private final int[] normalizedOffsets;
+        private final char[] names;
+        private final int[] nameOffsets;
+        private final long[] ids;
+
+        private Snapshot(char[] normalizedNames, int[] normalizedOffsets, char[] names, int[] nameOffsets,
+                         long[] ids) {
+            this.normalizedNames = normalizedNames;
+            this.normalizedOffsets = normalizedOffsets;
+            this.names = names;
+            this.nameOffsets = nameOffsets;
+            this.ids = ids;
+        }
+
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compareName(middle, prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private boolean matches(int index, String prefix) {
+            if (index >= ids.length) {
+                return false;
+            }
+            int start = normalizedOffsets[index];
+            if (normalizedOffsets[index + 1] - start < prefix.length()) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (normalizedNames[start + i] != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int compareTo(int index, Key key) {
+            int byName = compareName(index, key.normalizedName);
+            return byName != 0 ? byName : Long.compare(ids[index], key.id);
+        }
+
+        private int compareName(int index, String name) {
+            int start = normalizedOffsets[index];
+            int length = normalizedOffsets[index + 1] - start;
+            for (int i = 0; i < Math.min(length, name.length()); i++) {
+                int difference = normalizedNames[start + i] - name.charAt(i);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return length - name.length();
+        }
+
+        private String name(int index) {
+            return new String(names, nameOffsets[index], nameOffsets[index + 1] - nameOffsets[index]);
+        }
+
+        private long estimateMemory() {
+            return 2L * (normalizedNames.length + names.length) + 4L * (normalizedOffsets.length + nameOffsets.length)
+                + 8L * ids.length;
+        }
+
+    }
+
+    /**
+     * Collects sorted entries of a {@link Snapshot}. Entries of another snapshot are copied as ranges of characters,
+     * so merging snapshots does not create a string per entry.
+     */
+    private static final class SnapshotBuilder {
+
+        private final StringBuilder normalizedNames = new StringBuilder();
+        private final StringBuilder names = new StringBuilder();
+        private final int[] normalizedOffsets;
+        private final int[] nameOffsets;
+        private final long[] ids;
+        private int size;
+
+        private SnapshotBuilder(int capacity) {
+            normalizedOffsets = new int[capacity + 1];
+            nameOffsets = new int[capacity + 1];
+            ids = new long[capacity];
+        }
+
+        private void add(Key key, String name) {
+            normalizedNames.append(key.normalizedName);
+            names.append(name);
+            append(key.id);
+        }
+
+        private void add(Snapshot source, int index) {
+            int normalizedStart = source.normalizedOffsets[index];
+            normalizedNames.append(source.normalizedNames, normalizedStart,
+                source.normalizedOffsets[index + 1] - normalizedStart);
+            int nameStart = source.nameOffsets[index];
+            names.append(source.names, nameStart, source.nameOffsets[index + 1] - nameStart);
+            append(source.ids[index]);
+        }
+
+        private void append(long id) {
+            ids[size] = id;
+            size++;
+            normalizedOffsets[size] = normalizedNames.length();
+            nameOffsets[size] = names.length();
+        }
+
+        private Snapshot build() {
+            return new Snapshot(toArray(normalizedNames), Arrays.copyOf(normalizedOffsets, size + 1), toArray(names),
+                Arrays.copyOf(nameOffsets, size + 1), Arrays.copyOf(ids, size));
+        }
+
+        private static char[] toArray(StringBuilder characters) {
+            char[] array = new char[characters.length()];
+            characters.getChars(0, characters.length(), array, 0);
+            return array;
+        }
+
+    }
+
+}
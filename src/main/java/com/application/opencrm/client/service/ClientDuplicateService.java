@@ -0,0 +1,606 @@
+package com.application.opencrm.client.service;
+
+import com.application.opencrm.client.dto.ClientDuplicateDto;
+import com.application.opencrm.client.mapper.ClientDuplicateMapper;
+import com.application.opencrm.client.model.Address;
+import com.application.opencrm.client.model.Client;
+import com.application.opencrm.client.model.ClientDuplicate;
+import com.application.opencrm.client.model.Contact;
+import com.application.opencrm.client.model.DuplicateReason;
+import com.application.opencrm.client.repository.ClientDuplicateRepository;
+import com.application.opencrm.common.exception.ResourceConflictException;
+import com.application.opencrm.common.pagination.CursorPage;
+import com.application.opencrm.common.pagination.KeysetCursor;
+import com.application.opencrm.common.text.TextNormalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Service detecting {@link Client clients} that are likely to be the same customer and reporting them as
+ * {@link ClientDuplicate} pairs to be reviewed.
+ * <p>
+ * The detection never holds all clients in memory. {@link Contact Contacts} and {@link Address addresses} are read
+ * from forward-only cursors in portions of the chunk size, and the blocking keys derived from them - normalized
+ * emails, the last digits of phone numbers and postal codes combined with the words of client names - are written in
+ * JDBC batches to the {@code client_blocking_key} staging table. The keys are then read back sorted by the database,
+ * so the clients sharing a key arrive together as a block. Only the pairs of clients within a block are compared, and
+ * blocks larger than the configured maximum are skipped as too common to tell customers apart. Read blocks are scored
+ * in portions on a fork-join pool, so only a portion of them is held at a time, and every pair of a block that could
+ * reach the minimum score is staged in the {@code client_duplicate_pair} table. The evidence for every pair is merged
+ * across the blocks it appears in by the database, which groups the staged pairs and returns them sorted, so only one
+ * pair is held at a time. Pairs reaching the minimum score replace the previous report, which is written in flushed
+ * and cleared chunks.
+ * <p>
+ * The score of a pair combines the weights of its {@link DuplicateReason reasons} as independent evidence and scales
+ * them by the similarity of the words of the client names, so clients sharing a phone number but with unrelated
+ * names score half of the clients with the same names.
+ * <p>
+ * Only one detection runs at a time on an instance. The staging tables are shared by all instances, so a detection runs
+ * in one transaction, and the locks taken by truncating the tables make a detection started on another instance wait
+ * for it to finish. Runs on different instances are therefore serialized rather than skipped, so the schedule should be
+ * enabled on a single instance only.
+ */
+@Slf4j
+@Service
+public class ClientDuplicateService {
+
+    private static final String CLEAR_KEYS = "TRUNCATE TABLE client_blocking_key";
+    private static final String CLEAR_PAIRS = "TRUNCATE TABLE client_duplicate_pair";
+    private static final String INSERT_KEY = "INSERT INTO client_blocking_key (blocking_key, client_id, client_name) "
+                                             + "VALUES (:key, :clientId, :clientName)";
+    private static final String SELECT_CONTACTS = "SELECT c.client_id, cl.name, c.email, c.phone_number "
+                                                  + "FROM contact c JOIN client cl ON cl.id = c.client_id";
+    private static final String SELECT_ADDRESSES = "SELECT a.client_id, cl.name, a.postal_code "
+                                                   + "FROM address a JOIN client cl ON cl.id = a.client_id";
+    private static final String SELECT_KEYS = "SELECT blocking_key, client_id, client_name FROM client_blocking_key "
+                                              + "ORDER BY blocking_key, client_id";
+    private static final String INSERT_PAIR = "INSERT INTO client_duplicate_pair (client_id, duplicate_client_id, "
+                                              + "reason, name_similarity) VALUES (?, ?, ?, ?)";
+    // a pair appears once per shared key, so the same reason of a pair is grouped first and the reasons of a pair are
+    // then merged from consecutive rows
+    private static final String SELECT_PAIRS = "SELECT p.client_id, c.name, p.duplicate_client_id, d.name, p.reason, "
+                                               + "p.name_similarity FROM (SELECT client_id, duplicate_client_id, reason, "
+                                               + "max(name_similarity) AS name_similarity FROM client_duplicate_pair "
+                                               + "GROUP BY client_id, duplicate_client_id, reason) p "
+                                               + "JOIN client c ON c.id = p.client_id "
+                                               + "JOIN client d ON d.id = p.duplicate_client_id "
+                                               + "ORDER BY p.client_id, p.duplicate_client_id";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MIN_PHONE_DIGITS = 7;
+    private static final int PHONE_DIGITS = 9;
+    private static final int MIN_NAME_WORD_LENGTH = 3;
+    // blocks are scored sequentially below this size of a forked task and in portions of this many pairs
+    private static final int SEQUENTIAL_BLOCKS = 16;
+    private static final int SCORED_PAIRS = 50_000;
+    private static final Set<DuplicateReason> ALL_REASONS = EnumSet.allOf(DuplicateReason.class);
+
+    private final ClientDuplicateRepository repository;
+    private final ClientDuplicateMapper mapper;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(
+        new CustomizableThreadFactory("client-duplicates-"));
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final int chunkSize;
+    private final int maxBlockSize;
+    private final double minScore;
+    private final int parallelism;
+
+    public ClientDuplicateService(ClientDuplicateRepository repository,
+                                  ClientDuplicateMapper mapper,
+                                  NamedParameterJdbcTemplate jdbcTemplate,
+                                  DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${client.duplicates.chunk-size:1000}") int chunkSize,
+                                  @Value("${client.duplicates.max-block-size:100}") int maxBlockSize,
+                                  @Value("${client.duplicates.min-score:0.5}") double minScore,
+                                  @Value("${client.duplicates.parallelism:0}") int parallelism) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.jdbcTemplate = jdbcTemplate;
+        // rows are fetched in portions only within a transaction, which the job always runs in
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(chunkSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxBlockSize = maxBlockSize;
+        this.minScore = minScore;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime()
+                                                                  .availableProcessors();
+    }
+
+    /**
+     * Retrieves a page of the pairs of clients reported by the last detection, sorted from the highest to the lowest
+     * score.
+     *
+     * @param cursor the cursor returned with the previous page, {@code null} for the first page
+     * @param size   the maximum number of pairs in the page
+     * @return the page of dtos representing the found {@code ClientDuplicate} entities
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ClientDuplicateDto> getDuplicates(String cursor, int size) {
+        CursorPage.checkPageSize(size);
+        PageRequest pageRequest = PageRequest.ofSize(size + 1);
+        List<ClientDuplicate> duplicates;
+        if (cursor == null) {
+            duplicates = repository.findFirstPage(pageRequest);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor, 2);
+            duplicates = repository.findPageAfter(after.getDouble(0), after.getLong(1), pageRequest);
+        }
+        String nextCursor = null;
+        if (duplicates.size() > size) {
+            duplicates = duplicates.subList(0, size);
+            ClientDuplicate last = duplicates.get(size - 1);
+            nextCursor = KeysetCursor.of(last.getScore(), last.getId())
+                                     .encode();
+        }
+        return new CursorPage<>(duplicates.stream()
+                                          .map(mapper::clientDuplicateToClientDuplicateDto)
+                                          .collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * Starts the detection in the background and returns immediately.
+     *
+     * @throws ResourceConflictException if the detection is already running
+     */
+    public void startDetection() {
+        acquire();
+        jobExecutor.execute(() -> {
+            try {
+                detect();
+            } catch (RuntimeException e) {
+                log.error("Detection of duplicate clients failed.", e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    /**
+     * Runs the detection in the calling thread and replaces the report with its result.
+     *
+     * @return the number of reported pairs
+     * @throws ResourceConflictException if the detection is already running
+     */
+    public int detectDuplicates() {
+        acquire();
+        try {
+            return detect();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Runs the detection on the configured schedule, which is disabled by default. A run is skipped if the detection
+     * started by a request is still running.
+     */
+    @Scheduled(cron = "${client.duplicates.cron:-}")
+    public void detectDuplicatesOnSchedule() {
+        try {
+            detectDuplicates();
+        } catch (ResourceConflictException e) {
+            log.info("Scheduled detection of duplicate clients skipped, the detection is already running.");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    private void acquire() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ResourceConflictException("Detection of duplicate clients is already running.");
+        }
+    }
+
+    private int detect() {
+        long started = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        BlockReader blockReader = new BlockReader(pool);
+        PairReader pairReader = new PairReader(Instant.now());
+        long keys;
+        try {
+            // truncating the staging tables locks them until the transaction ends, so a detection started on another
+            // instance waits until this one is reported instead of replacing its keys and pairs
+            keys = transactionTemplate.execute(status -> {
+                long staged = stageBlockingKeys();
+                jdbcTemplate.getJdbcOperations()
+                            .execute(CLEAR_PAIRS);
+                streamingJdbcTemplate.query(SELECT_KEYS, blockReader);
+                blockReader.finish();
+                repository.deleteAllInBatch();
+                streamingJdbcTemplate.query(SELECT_PAIRS, pairReader);
+                pairReader.finish();
+                return staged;
+            });
+        } finally {
+            pool.shutdown();
+        }
+        log.info("Detected {} duplicate clients among {} candidate pairs from {} blocking keys in {} ms, {} blocks "
+                 + "skipped as too large.", pairReader.reported, pairReader.read, keys,
+            System.currentTimeMillis() - started, blockReader.skippedBlocks);
+        return pairReader.reported;
+    }
+
+    private long stageBlockingKeys() {
+        KeyWriter writer = new KeyWriter();
+        jdbcTemplate.getJdbcOperations()
+                    .execute(CLEAR_KEYS);
+        streamingJdbcTemplate.query(SELECT_CONTACTS, (ResultSet row) -> {
+            long clientId = row.getLong(1);
+            String name = row.getString(2);
+            writer.add(emailKey(row.getString(3)), clientId, name);
+            writer.add(phoneKey(row.getString(4)), clientId, name);
+        });
+        streamingJdbcTemplate.query(SELECT_ADDRESSES, (ResultSet row) -> {
+            long clientId = row.getLong(1);
+            String name = row.getString(2);
+            String postalCode = row.getString(3);
+            if (postalCode == null || name == null) {
+                return;
+            }
+            TextNormalizer.words(name)
+                          .stream()
+                          .filter(word -> word.length() >= MIN_NAME_WORD_LENGTH)
+                          .distinct()
+                          .forEach(word -> writer.add(postalCodeAndNameKey(postalCode, word), clientId, name));
+        });
+        writer.flush();
+        return writer.written;
+    }
+
+    private static String emailKey(String email) {
+        if (email == null || email.indexOf('@') < 1) {
+            return null;
+        }
+        return key(DuplicateReason.EMAIL, email.trim()
+                                               .toLowerCase(Locale.ROOT));
+    }
+
+    private static String phoneKey(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        String digits = phoneNumber.replaceAll("\\D", "");
+        if (digits.length() < MIN_PHONE_DIGITS) {
+            return null;
+        }
+        // the last digits ignore country prefixes written in different ways
+        return key(DuplicateReason.PHONE, digits.substring(Math.max(0, digits.length() - PHONE_DIGITS)));
+    }
+
+    private static String postalCodeAndNameKey(String postalCode, String word) {
+        String normalizedCode = String.join("", TextNormalizer.words(postalCode));
+        return normalizedCode.isEmpty() ? null
+            : key(DuplicateReason.POSTAL_CODE_AND_NAME, normalizedCode + "|" + word);
+    }
+
+    private static String key(DuplicateReason reason, String value) {
+        String key = reason.ordinal() + "|" + value;
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private static double score(Set<DuplicateReason> reasons, double nameSimilarity) {
+        double missed = 1;
+        for (DuplicateReason reason : reasons) {
+            missed *= 1 - reason.getWeight();
+        }
+        return (1 - missed) * (1 + nameSimilarity) / 2;
+    }
+
+    private static double nameSimilarity(Set<String> words, Set<String> otherWords) {
+        if (words.isEmpty() || otherWords.isEmpty()) {
+            return 0;
+        }
+        long common = words.stream()
+                           .filter(otherWords::contains)
+                           .count();
+        return (double) common / (words.size() + otherWords.size() - common);
+    }
+
+    /**
+     * Writer of blocking keys to the staging table in JDBC batches of the chunk size.
+     */
+    private class KeyWriter {
+
+        private final List<SqlParameterSource> batch = new ArrayList<>(chunkSize);
+        private long written;
+
+        private void add(String key, long clientId, String clientName) {
+            if (key == null) {
+                return;
+            }
+            batch.add(new MapSqlParameterSource("key", key).addValue("clientId", clientId)
+                                                           .addValue("clientName", clientName));
+            if (batch.size() == chunkSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(INSERT_KEY, batch.toArray(new SqlParameterSource[0]));
+            written += batch.size();
+            batch.clear();
+        }
+
+    }
+
+    /**
+     * Reader grouping the sorted blocking keys into blocks and handing them over to the pool in portions.
+     */
+    private class BlockReader implements RowCallbackHandler {
+
+        private final ForkJoinPool pool;
+        private final Queue<StagedPair> scored = new ConcurrentLinkedQueue<>();
+        private List<Block> pending = new ArrayList<>();
+        private long pendingPairs;
+        private String key;
+        private List<Member> members = new ArrayList<>();
+        private long skippedBlocks;
+
+        private BlockReader(ForkJoinPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public void processRow(ResultSet row) throws SQLException {
+            String rowKey = row.getString(1);
+            long clientId = row.getLong(2);
+            if (!rowKey.equals(key)) {
+                closeBlock();
+                key = rowKey;
+            } else if (members.get(members.size() - 1).clientId == clientId) {
+                // a client with several contacts or addresses sharing the key
+                return;
+            }
+            members.add(new Member(clientId, row.getString(3)));
+        }
+
+        private void closeBlock() {
+            if (members.size() > maxBlockSize) {
+                skippedBlocks++;
+            } else if (members.size() > 1) {
+                DuplicateReason reason = DuplicateReason.values()[Integer.parseInt(key.substring(0, key.indexOf('|')))];
+                pending.add(new Block(reason, members));
+                pendingPairs += (long) members.size() * (members.size() - 1) / 2;
+                if (pendingPairs >= SCORED_PAIRS) {
+                    scorePending();
+                }
+            }
+            members = new ArrayList<>();
+        }
+
+        /**
+         * Scores the pending blocks on the pool and stages their pairs from the reading thread, whose connection takes
+         * part in the transaction of the detection.
+         */
+        private void scorePending() {
+            pool.invoke(new ScoringTask(pending, 0, pending.size(), scored, minScore));
+            List<Object[]> batch = new ArrayList<>(chunkSize);
+            for (StagedPair pair = scored.poll(); pair != null; pair = scored.poll()) {
+                batch.add(new Object[]{pair.clientId, pair.duplicateClientId, pair.reason.ordinal(),
+                    pair.nameSimilarity});
+                if (batch.size() == chunkSize) {
+                    stagePairs(batch);
+                }
+            }
+            stagePairs(batch);
+            pending = new ArrayList<>();
+            pendingPairs = 0;
+        }
+
+        private void stagePairs(List<Object[]> batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.getJdbcOperations()
+                        .batchUpdate(INSERT_PAIR, batch);
+            batch.clear();
+        }
+
+        private void finish() {
+            closeBlock();
+            scorePending();
+        }
+
+    }
+
+    /**
+     * Task scoring the pairs of clients within a range of blocks, split in halves until the range is small enough.
+     * Pairs that could not reach the minimum score even if they shared every kind of blocking key are left out.
+     */
+    private static class ScoringTask extends RecursiveAction {
+
+        private final List<Block> blocks;
+        private final int from;
+        private final int to;
+        private final Queue<StagedPair> scored;
+        private final double minScore;
+
+        private ScoringTask(List<Block> blocks, int from, int to, Queue<StagedPair> scored, double minScore) {
+            this.blocks = blocks;
+            this.from = from;
+            this.to = to;
+            this.scored = scored;
+            this.minScore = minScore;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_BLOCKS) {
+                blocks.subList(from, to)
+                      .forEach(this::score);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoringTask(blocks, from, middle, scored, minScore),
+                new ScoringTask(blocks, middle, to, scored, minScore));
+        }
+
+        private void score(Block block) {
+            List<Member> members = block.members;
+            for (int i = 0; i < members.size(); i++) {
+                for (int j = i + 1; j < members.size(); j++) {
+                    Member member = members.get(i);
+                    Member other = members.get(j);
+                    double similarity = nameSimilarity(member.words, other.words);
+                    if (ClientDuplicateService.score(ALL_REASONS, similarity) >= minScore) {
+                        scored.add(new StagedPair(member.clientId, other.clientId, block.reason, similarity));
+                    }
+                }
+            }
+        }
+
+    }
+
+    private static final class Member {
+
+        private final long clientId;
+        private final String name;
+        private final Set<String> words;
+
+        private Member(long clientId, String name) {
+            this.clientId = clientId;
+            this.name = name;
+            this.words = name == null ? Set.of() : new HashSet<>(TextNormalizer.words(name));
+        }
+
+    }
+
+    private static final class Block {
+
+        private final DuplicateReason reason;
+        private final List<Member> members;
+
+        private Block(DuplicateReason reason, List<Member> members) {
+            this.reason = reason;
+            this.members = members;
+        }
+
+    }
+
+    /**
+     * Pair of clients found in a block, ordered by their ids, since the members of blocks are sorted by ids.
+     */
+    private static final class StagedPair {
+
+        private final long clientId;
+        private final long duplicateClientId;
+        private final DuplicateReason reason;
+        private final double nameSimilarity;
+
+        private StagedPair(long clientId, long duplicateClientId, DuplicateReason reason, double nameSimilarity) {
+            this.clientId = clientId;
+            this.duplicateClientId = duplicateClientId;
+            this.reason = reason;
+            this.nameSimilarity = nameSimilarity;
+        }
+
+    }
+
+    /**
+     * Reader merging the reasons of the grouped pairs, which arrive sorted by the ids of the clients, and writing the
+     * pairs reaching the minimum score to the report in chunks.
+     */
+    private class PairReader implements RowCallbackHandler {
+
+        private final Instant detectedAt;
+        private final List<ClientDuplicate> chunk = new ArrayList<>(chunkSize);
+        private ClientDuplicate current;
+        private Set<DuplicateReason> reasons = EnumSet.noneOf(DuplicateReason.class);
+        private double nameSimilarity;
+        private long read;
+        private int reported;
+
+        private PairReader(Instant detectedAt) {
+            this.detectedAt = detectedAt;
+        }
+
+        @Override
+        public void processRow(ResultSet row) throws SQLException {
+            long clientId = row.getLong(1);
+            long duplicateClientId = row.getLong(3);
+            if (current == null || current.getClientId() != clientId
+                || current.getDuplicateClientId() != duplicateClientId) {
+                closePair();
+                current = ClientDuplicate.builder()
+                                         .clientId(clientId)
+                                         .clientName(row.getString(2))
+                                         .duplicateClientId(duplicateClientId)
+                                         .duplicateClientName(row.getString(4))
+                                         .detectedAt(detectedAt)
+                                         .build();
+                read++;
+            }
+            reasons.add(DuplicateReason.values()[row.getInt(5)]);
+            nameSimilarity = Math.max(nameSimilarity, row.getDouble(6));
+        }
+
+        private void closePair() {
+            if (current != null) {
+                double score = score(reasons, nameSimilarity);
+                if (score >= minScore) {
+                    current.setScore(Math.round(score * 1000) / 1000.0);
+                    current.setReasons(reasons.stream()
+                                              .map(Enum::name)
+                                              .collect(Collectors.joining(",")));
+                    chunk.add(current);
+                    if (chunk.size() == chunkSize) {
+                        writeChunk();
+                    }
+                }
+            }
+            current = null;
+            reasons = EnumSet.noneOf(DuplicateReason.class);
+            nameSimilarity = 0;
+        }
+
+        private void writeChunk() {
+            repository.persistChunk(chunk);
+            reported += chunk.size();
+            chunk.clear();
+        }
+
+        private void finish() {
+            closePair();
+            writeChunk();
+        }
+
+    }
+
+}
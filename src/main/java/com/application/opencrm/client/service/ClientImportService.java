@@ -0,0 +1,341 @@
+package com.application.opencrm.client.service;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.dto.ClientImportResultDto;
+import com.application.opencrm.client.dto.ContactCreationRequestDto;
+import com.application.opencrm.client.model.Client;
+import com.application.opencrm.common.batch.ChunkStorage;
+import com.application.opencrm.common.text.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Service importing {@link Client clients} with their addresses and contacts from a stream of newline delimited JSON
+ * or CSV.
+ * <p>
+ * The input is read incrementally and every client is validated against the constraints of
+ * {@link ClientCreationRequestDto} including its addresses and contacts. Valid clients are stored in chunks of
+ * configurable size, each chunk in its own transaction and with its inserts sent in JDBC batches. Results are written
+ * to the output after every chunk, so the memory used does not depend on the size of the stream. If a chunk cannot be
+ * stored as a whole, its clients are stored one by one, so a single invalid client affects only its own result.
+ * <p>
+ * A CSV import starts with a header row naming its columns: {@code record}, {@code name}, {@code client_type},
+ * {@code person_name}, {@code country}, {@code city}, {@code region}, {@code street}, {@code building_number},
+ * {@code postal_code}, {@code email} and {@code phone_number}, in any order. The {@code record} column of every
+ * following row is one of {@code CLIENT}, {@code ADDRESS} and {@code CONTACT}. Address and contact rows belong to the
+ * nearest client row above them, and the {@code name} column of a contact row holds the name of the contact. Empty
+ * cells are treated as missing values.
+ */
+@Service
+public class ClientImportService {
+
+    private static final String RECORD = "record";
+    private static final String NAME = "name";
+    private static final String CLIENT_TYPE = "client_type";
+    private static final String PERSON_NAME = "person_name";
+    private static final String COUNTRY = "country";
+    private static final String CITY = "city";
+    private static final String REGION = "region";
+    private static final String STREET = "street";
+    private static final String BUILDING_NUMBER = "building_number";
+    private static final String POSTAL_CODE = "postal_code";
+    private static final String EMAIL = "email";
+    private static final String PHONE_NUMBER = "phone_number";
+
+    private static final List<String> COLUMNS = List.of(RECORD, NAME, CLIENT_TYPE, PERSON_NAME, COUNTRY, CITY, REGION,
+        STREET, BUILDING_NUMBER, POSTAL_CODE, EMAIL, PHONE_NUMBER);
+
+    private final ClientService clientService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public ClientImportService(ClientService clientService, ObjectMapper objectMapper, Validator validator,
+                               @Value("${client.import.chunk-size:500}") int chunkSize) {
+        this.clientService = clientService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports clients from the input, one JSON {@link ClientCreationRequestDto} per line, and writes one JSON
+     * {@link ClientImportResultDto} per non-blank input line to the output, in the order of the input.
+     *
+     * @param input  the stream of client creation requests
+     * @param output the stream the results are written to
+     * @throws IOException if reading the input or writing the output fails
+     */
+    public void importClientsFromNdjson(InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Importer importer = new Importer(output);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ImportedClient client = new ImportedClient(lineNumber);
+            try {
+                client.request = objectMapper.readValue(line, ClientCreationRequestDto.class);
+                if (client.request == null) {
+                    client.errors.add("Client creation request cannot be null.");
+                }
+            } catch (JsonProcessingException e) {
+                client.errors.add("Malformed client creation request: " + e.getOriginalMessage());
+            }
+            importer.add(client);
+        }
+        importer.finish();
+    }
+
+    /**
+     * Imports clients from the CSV input described in the documentation of the class, and writes one JSON
+     * {@link ClientImportResultDto} per client row, and per invalid row without a client row above it, to the output,
+     * in the order of the input. If the header row lacks any of the columns, only its errors are written.
+     *
+     * @param input  the stream of CSV rows
+     * @param output the stream the results are written to
+     * @throws IOException if reading the input or writing the output fails
+     */
+    public void importClientsFromCsv(InputStream input, OutputStream output) throws IOException {
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        Importer importer = new Importer(output);
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            importer.finish();
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i)
+                              .trim()
+                              .toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = COLUMNS.stream()
+                                      .filter(column -> !columns.containsKey(column))
+                                      .map(column -> "Line 1: Header row lacks column " + column + ".")
+                                      .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            ImportedClient rejected = new ImportedClient(1);
+            rejected.errors.addAll(missing);
+            importer.add(rejected);
+            importer.finish();
+            return;
+        }
+        CsvClient client = null;
+        while (true) {
+            List<String> row;
+            try {
+                row = reader.readRecord();
+            } catch (IllegalArgumentException e) {
+                // the rest of the input belongs to the unclosed field, possibly a part of the last client
+                reject(importer, client, reader.getRecordLineNumber(), e.getMessage());
+                break;
+            }
+            if (row == null) {
+                break;
+            }
+            if (row.size() == 1 && row.get(0)
+                                      .isBlank()) {
+                continue;
+            }
+            long lineNumber = reader.getRecordLineNumber();
+            String record = cell(row, columns, RECORD);
+            if ("CLIENT".equals(record)) {
+                if (client != null) {
+                    importer.add(client.build());
+                }
+                client = new CsvClient(lineNumber, cell(row, columns, NAME), cell(row, columns, CLIENT_TYPE));
+            } else if (!"ADDRESS".equals(record) && !"CONTACT".equals(record)) {
+                reject(importer, client, lineNumber, "Record has to be one of CLIENT, ADDRESS and CONTACT.");
+            } else if (client == null) {
+                reject(importer, null, lineNumber, "Row of " + record + " record does not follow a CLIENT row.");
+            } else if ("ADDRESS".equals(record)) {
+                client.addresses.add(AddressCreationRequestDto.builder()
+                                                              .personName(cell(row, columns, PERSON_NAME))
+                                                              .country(cell(row, columns, COUNTRY))
+                                                              .city(cell(row, columns, CITY))
+                                                              .region(cell(row, columns, REGION))
+                                                              .street(cell(row, columns, STREET))
+                                                              .buildingNumber(cell(row, columns, BUILDING_NUMBER))
+                                                              .postalCode(cell(row, columns, POSTAL_CODE))
+                                                              .build());
+            } else {
+                client.contacts.add(ContactCreationRequestDto.builder()
+                                                             .name(cell(row, columns, NAME))
+                                                             .email(cell(row, columns, EMAIL))
+                                                             .phoneNumber(cell(row, columns, PHONE_NUMBER))
+                                                             .build());
+            }
+        }
+        if (client != null) {
+            importer.add(client.build());
+        }
+        importer.finish();
+    }
+
+    /**
+     * Reports an error of a row. The row may belong to the client being read, whose data are then incomplete, so the
+     * client is rejected with the error instead of being stored. Without such a client the error is reported on its
+     * own.
+     */
+    private void reject(Importer importer, CsvClient client, long lineNumber, String error) throws IOException {
+        String lineError = "Line " + lineNumber + ": " + error;
+        if (client != null) {
+            client.imported.errors.add(lineError);
+            return;
+        }
+        ImportedClient rejected = new ImportedClient(lineNumber);
+        rejected.errors.add(lineError);
+        importer.add(rejected);
+    }
+
+    private String cell(List<String> row, Map<String, Integer> columns, String column) {
+        int index = columns.get(column);
+        if (index >= row.size() || row.get(index)
+                                      .isBlank()) {
+            return null;
+        }
+        return row.get(index)
+                  .trim();
+    }
+
+    /**
+     * Describes a constraint violation, prefixed with the address or contact it refers to if it is not a violation of
+     * the client itself.
+     */
+    private String describe(ConstraintViolation<ClientCreationRequestDto> violation) {
+        String path = violation.getPropertyPath()
+                               .toString();
+        int end = path.indexOf(']');
+        return end < 0 ? violation.getMessage() : path.substring(0, end + 1) + ": " + violation.getMessage();
+    }
+
+    /**
+     * Collector of the read clients, validating them and storing them in chunks.
+     */
+    private class Importer {
+
+        private final Writer writer;
+        private final List<ImportedClient> chunk = new ArrayList<>(chunkSize);
+
+        private Importer(OutputStream output) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        }
+
+        private void add(ImportedClient client) throws IOException {
+            if (client.errors.isEmpty()) {
+                validator.validate(client.request)
+                         .stream()
+                         .map(ClientImportService.this::describe)
+                         .sorted()
+                         .forEach(client.errors::add);
+            }
+            chunk.add(client);
+            if (chunk.size() == chunkSize) {
+                processChunk();
+            }
+        }
+
+        private void finish() throws IOException {
+            if (!chunk.isEmpty()) {
+                processChunk();
+            }
+            writer.flush();
+        }
+
+        private void processChunk() throws IOException {
+            List<ImportedClient> valid = chunk.stream()
+                                              .filter(client -> client.errors.isEmpty())
+                                              .collect(Collectors.toList());
+            ChunkStorage.store(valid, this::saveClients, request -> clientService.saveClient(request)
+                                                                                 .getId());
+            for (ImportedClient client : chunk) {
+                writer.write(objectMapper.writeValueAsString(new ClientImportResultDto(client.line, client.id,
+                    client.errors.isEmpty() ? null : client.errors)));
+                writer.write('\n');
+            }
+            writer.flush();
+            chunk.clear();
+        }
+
+        private List<Long> saveClients(List<ClientCreationRequestDto> requests) {
+            return clientService.saveClients(requests)
+                                .stream()
+                                .map(ClientDto::getId)
+                                .collect(Collectors.toList());
+        }
+
+    }
+
+    private static class ImportedClient implements ChunkStorage.Entry<ClientCreationRequestDto> {
+
+        private final long line;
+        private final List<String> errors = new ArrayList<>();
+        private ClientCreationRequestDto request;
+        private Long id;
+
+        private ImportedClient(long line) {
+            this.line = line;
+        }
+
+        @Override
+        public ClientCreationRequestDto getRequest() {
+            return request;
+        }
+
+        @Override
+        public void stored(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public void rejected(List<String> errors) {
+            this.errors.addAll(errors);
+        }
+
+    }
+
+    /**
+     * Client read from CSV rows, completed once the next client row or the end of the input is read.
+     */
+    private static class CsvClient {
+
+        private final ImportedClient imported;
+        private final String name;
+        private final String clientType;
+        private final List<AddressCreationRequestDto> addresses = new ArrayList<>();
+        private final List<ContactCreationRequestDto> contacts = new ArrayList<>();
+
+        private CsvClient(long line, String name, String clientType) {
+            this.imported = new ImportedClient(line);
+            this.name = name;
+            this.clientType = clientType;
+        }
+
+        private ImportedClient build() {
+            imported.request = ClientCreationRequestDto.builder()
+                                                       .name(name)
+                                                       .clientType(clientType)
+                                                       .addresses(addresses)
+                                                       .contacts(contacts)
+                                                       .build();
+            return imported;
+        }
+
+    }
+
+}
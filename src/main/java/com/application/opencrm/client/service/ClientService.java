@@ -2,17 +2,31 @@ package com.application.opencrm.client.service;
 
 import com.application.opencrm.client.dto.ClientCreationRequestDto;
 import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.dto.ClientSearchResultDto;
+import com.application.opencrm.client.dto.ClientSortKey;
 import com.application.opencrm.client.dto.ClientUpdateRequestDto;
+import com.application.opencrm.client.event.ClientChangedEvent;
+import com.application.opencrm.client.event.ClientChangedEvent.ChangeType;
 import com.application.opencrm.client.mapper.ClientMapper;
 import com.application.opencrm.client.model.Client;
 import com.application.opencrm.client.repository.ClientRepository;
+import com.application.opencrm.client.repository.projection.ClientMatchProjection;
+import com.application.opencrm.client.search.ClientSearchEngine;
+import com.application.opencrm.common.exception.InvalidRequestException;
 import com.application.opencrm.common.exception.ResourceNotFoundException;
+import com.application.opencrm.common.pagination.CursorPage;
+import com.application.opencrm.common.pagination.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -21,25 +35,87 @@ import java.util.stream.Collectors;
  * This class serves as a layer between {@link ClientRepository} and controllers. Entities ({@code Client} objects)
  * should generally not leave the service layer. Public or protected methods that return entities are intended for
  * communication with other services.
+ * <p>
+ * Every change of a client publishes a {@link ClientChangedEvent} within the transaction making the change.
  */
 @Service
 @RequiredArgsConstructor
 public class ClientService {
 
+    private static final int MIN_QUERY_LENGTH = 2;
+    private static final int MAX_QUERY_LENGTH = 100;
+
     private final ClientRepository repository;
     private final ClientMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClientSearchEngine searchEngine;
 
     /**
-     * Retrieves all {@link Client} entities from repository.
+     * Retrieves a page of {@link Client} entities from repository, sorted by the specified key.
+     * <p>
+     * The listing is keyset paginated on {@code (name, id)} or {@code (id)}, depending on the key. The page is loaded
+     * with a fixed number of queries regardless of its size: one selecting the clients, one selecting the addresses
+     * and one selecting the contacts of all clients of the page, both restricted by the ids of the clients.
      *
-     * @return the list of dtos representing all found {@code Client} entities
+     * @param sortKey   the key the clients are sorted by
+     * @param direction the direction of sorting
+     * @param cursor    the cursor returned with the previous page, {@code null} for the first page
+     * @param size      the maximum number of clients in the page
+     * @return the page of dtos representing the found {@code Client} entities
      */
     @Transactional(readOnly = true)
-    public List<ClientDto> getAllClients() {
-        return repository.findAll()
-                         .stream()
-                         .map(mapper::clientToClientDto)
-                         .collect(Collectors.toList());
+    public CursorPage<ClientDto> getClients(ClientSortKey sortKey, Sort.Direction direction, String cursor, int size) {
+        CursorPage.checkPageSize(size);
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor, sortKey == ClientSortKey.NAME ? 2 : 1);
+        List<Client> clients = repository.findPage(sortKey, direction, after, size + 1);
+        String nextCursor = null;
+        if (clients.size() > size) {
+            clients = clients.subList(0, size);
+            Client last = clients.get(size - 1);
+            nextCursor = (sortKey == ClientSortKey.NAME ? KeysetCursor.of(last.getName(), last.getId())
+                : KeysetCursor.of(last.getId())).encode();
+        }
+        return new CursorPage<>(clients.stream()
+                                       .map(mapper::clientToClientDto)
+                                       .collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * Searches for {@link Client} entities whose names, contact emails and phone numbers or address cities and postal
+     * codes are similar to the query.
+     * <p>
+     * The matches are found by the active {@link ClientSearchEngine}. The matching clients are then loaded with their
+     * addresses and contacts by a fixed number of queries, the same way as a page of {@link #getClients}.
+     *
+     * @param query the searched text
+     * @param limit the maximum number of returned clients
+     * @return the dtos representing the found {@code Client} entities, from the most to the least similar one
+     * @throws InvalidRequestException if the query is too short or too long, or the limit is not allowed
+     */
+    @Transactional(readOnly = true)
+    public List<ClientSearchResultDto> searchClients(String query, int limit) {
+        String trimmedQuery = query == null ? "" : query.trim();
+        if (trimmedQuery.length() < MIN_QUERY_LENGTH || trimmedQuery.length() > MAX_QUERY_LENGTH) {
+            throw new InvalidRequestException("Query has to be between " + MIN_QUERY_LENGTH + " and " + MAX_QUERY_LENGTH + " characters long.");
+        }
+        if (limit < 1 || limit > CursorPage.MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("Limit has to be between 1 and " + CursorPage.MAX_PAGE_SIZE + ".");
+        }
+        List<ClientMatchProjection> matches = searchEngine.search(trimmedQuery, limit);
+        Map<Long, Client> clientsById = repository.findAllById(matches.stream()
+                                                                      .map(ClientMatchProjection::getClientId)
+                                                                      .collect(Collectors.toList()))
+                                                  .stream()
+                                                  .collect(Collectors.toMap(Client::getId, Function.identity()));
+        // a client deleted since the index of the engine was updated is skipped
+        return matches.stream()
+                      .map(match -> {
+                          Client client = clientsById.get(match.getClientId());
+                          return client == null ? null
+                              : new ClientSearchResultDto(mapper.clientToClientDto(client), match.getScore());
+                      })
+                      .filter(Objects::nonNull)
+                      .collect(Collectors.toList());
     }
 
     /**
@@ -61,10 +137,53 @@ public class ClientService {
      */
     @Transactional
     public ClientDto saveClient(ClientCreationRequestDto request) {
-        Client savedClient = repository.save(mapper.clientCreationRequestDtoToClient(request));
+        Client client = mapper.clientCreationRequestDtoToClient(request);
+        Client savedClient = repository.save(client);
+        publishChange(client, ChangeType.CREATED);
         return mapper.clientToClientDto(savedClient);
     }
 
+    /**
+     * Creates multiple new {@link Client} entities and stores them in database in a single transaction. Ids of the
+     * clients and their contacts and addresses are allocated in blocks, so the inserts are sent to the database in
+     * JDBC batches instead of one statement per row.
+     *
+     * @param requests the objects containing data of {@code Client} entities to be created
+     * @return the dtos representing the created {@code Client} entities in the order of the requests
+     */
+    @Transactional
+    public List<ClientDto> saveClients(List<ClientCreationRequestDto> requests) {
+        List<Client> clients = requests.stream()
+                                       .map(mapper::clientCreationRequestDtoToClient)
+                                       .collect(Collectors.toList());
+        List<Client> savedClients = repository.saveAll(clients);
+        savedClients.forEach(client -> publishChange(client, ChangeType.CREATED));
+        return savedClients.stream()
+                         .map(mapper::clientToClientDto)
+                         .collect(Collectors.toList());
+    }
+
+    /**
+     * Checks whether any {@link Client} entity is stored in database.
+     *
+     * @return {@code true} if at least one client exists
+     */
+    @Transactional(readOnly = true)
+    public boolean hasClients() {
+        return repository.count() > 0;
+    }
+
+    /**
+     * Checks whether a {@link Client} entity with specified {@code id} is stored in database.
+     *
+     * @param id the {@code id} of the client
+     * @return {@code true} if the client exists
+     */
+    @Transactional(readOnly = true)
+    public boolean clientExists(Long id) {
+        return repository.existsById(id);
+    }
+
     /**
      * Updates an existing {@link Client} entity in database.
      * <p>
@@ -82,6 +201,7 @@ public class ClientService {
         Client updatedClient = getClientFromRepository(id);
         mapper.updateClient(updatedClient, request);
         repository.save(updatedClient);
+        publishChange(updatedClient, ChangeType.UPDATED);
         return mapper.clientToClientDto(updatedClient);
     }
 
@@ -94,6 +214,7 @@ public class ClientService {
     public void deleteClient(Long id) {
         try {
             repository.deleteById(id);
+            eventPublisher.publishEvent(new ClientChangedEvent(id, ChangeType.DELETED, null, null));
         } catch (EmptyResultDataAccessException e) {
             throw new ResourceNotFoundException("Client requested to be removed not found in the database.");
         }
@@ -113,4 +234,10 @@ public class ClientService {
                          .orElseThrow(() -> new ResourceNotFoundException("Client not found in the database."));
     }
 
+    private void publishChange(Client client, ChangeType changeType) {
+        eventPublisher.publishEvent(new ClientChangedEvent(client.getId(), changeType, client.getName(),
+            client.getClientType() == null ? null : client.getClientType()
+                                                          .name()));
+    }
+
 }
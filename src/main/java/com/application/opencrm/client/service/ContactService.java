@@ -3,12 +3,13 @@ package com.application.opencrm.client.service;
 import com.application.opencrm.client.dto.ContactCreationRequestDto;
 import com.application.opencrm.client.dto.ContactDto;
 import com.application.opencrm.client.dto.ContactUpdateRequestDto;
+import com.application.opencrm.client.event.ClientDetailsChangedEvent;
 import com.application.opencrm.client.mapper.ContactMapper;
 import com.application.opencrm.client.model.Contact;
 import com.application.opencrm.client.repository.ContactRepository;
 import com.application.opencrm.common.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +19,8 @@ import org.springframework.transaction.annotation.Transactional;
  * This class serves as a layer between {@link ContactRepository} and controllers. Entities ({@code Contact} objects)
  * should generally not leave the service layer. Public or protected methods that return entities are intended for
  * communication with other services.
+ * <p>
+ * Every change of a contact publishes a {@link ClientDetailsChangedEvent} within the transaction making the change.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,6 +29,7 @@ public class ContactService {
     private final ContactRepository repository;
     private final ContactMapper mapper;
     private final ClientService clientService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Creates a new {@link Contact} for a specified {@code Client} and stores it in database. The data of the new
@@ -40,7 +44,9 @@ public class ContactService {
         Contact contact = mapper.contactCreationRequestToContact(request);
         clientService.getClientFromRepository(clientId)
                      .addContact(contact);
-        return mapper.contactToContactDto(repository.save(contact));
+        Contact savedContact = repository.save(contact);
+        publishChange(savedContact);
+        return mapper.contactToContactDto(savedContact);
     }
 
     /**
@@ -60,6 +66,7 @@ public class ContactService {
         Contact updatedContact = getContactFromRepository(contactId);
         mapper.updateContact(updatedContact, request);
         repository.save(updatedContact);
+        publishChange(updatedContact);
         return mapper.contactToContactDto(updatedContact);
     }
 
@@ -70,11 +77,11 @@ public class ContactService {
      */
     @Transactional
     public void deleteContact(Long id) {
-        try {
-            repository.deleteById(id);
-        } catch (EmptyResultDataAccessException e) {
-            throw new ResourceNotFoundException("Contact requested to be removed not found in the database.");
-        }
+        Contact deletedContact = repository.findById(id)
+                                           .orElseThrow(() -> new ResourceNotFoundException(
+                                               "Contact requested to be removed not found in the database."));
+        repository.delete(deletedContact);
+        publishChange(deletedContact);
     }
 
     /**
@@ -92,4 +99,11 @@ public class ContactService {
                          .orElseThrow(() -> new ResourceNotFoundException("Contact not found in the database."));
     }
 
+    private void publishChange(Contact contact) {
+        if (contact.getClient() != null) {
+            eventPublisher.publishEvent(new ClientDetailsChangedEvent(contact.getClient()
+                                                                             .getId()));
+        }
+    }
+
 }
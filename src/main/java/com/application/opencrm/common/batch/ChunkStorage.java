@@ -0,0 +1,70 @@
+package com.application.opencrm.common.batch;
+
+import com.application.opencrm.infrastructure.exception.ApiLevelErrors;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stores chunks of requests read from a batch input. A chunk is stored with a single call, so in one transaction; if
+ * it cannot be stored as a whole, its requests are stored one by one, so a single invalid request affects only its own
+ * entry.
+ */
+@Slf4j
+public final class ChunkStorage {
+
+    private ChunkStorage() {
+    }
+
+    /**
+     * Stores the requests of the entries, informing every entry about the identifier of its stored request or the
+     * errors preventing it from being stored.
+     *
+     * @param entries  the entries of the chunk
+     * @param storeAll the function storing all requests at once and returning their identifiers in the same order
+     * @param store    the function storing a single request and returning its identifier
+     * @param <R>      the type of the requests
+     */
+    public static <R> void store(List<? extends Entry<R>> entries, Function<List<R>, List<Long>> storeAll,
+                                 Function<R, Long> store) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> ids = storeAll.apply(entries.stream()
+                                                   .map(Entry::getRequest)
+                                                   .collect(Collectors.toList()));
+            for (int i = 0; i < entries.size(); i++) {
+                entries.get(i)
+                       .stored(ids.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.debug("Chunk of {} requests rejected, storing the requests one by one.", entries.size(), e);
+            for (Entry<R> entry : entries) {
+                try {
+                    entry.stored(store.apply(entry.getRequest()));
+                } catch (RuntimeException requestException) {
+                    entry.rejected(ApiLevelErrors.of(requestException));
+                }
+            }
+        }
+    }
+
+    /**
+     * Entry of a chunk, holding a request and receiving the outcome of storing it.
+     *
+     * @param <R> the type of the request
+     */
+    public interface Entry<R> {
+
+        R getRequest();
+
+        void stored(Long id);
+
+        void rejected(List<String> errors);
+
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.application.opencrm.common.broadcast;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded buffer of the most recent elements, each identified by a consecutive sequence number. When the buffer is
+ * full, appending an element overwrites the oldest one.
+ * <p>
+ * Elements are appended under a lock, but they are read without locking, so any number of readers can follow the
+ * buffer, each at its own position.
+ *
+ * @param <T> the type of the elements
+ */
+public class RingBuffer<T> {
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final long firstSequence;
+    private volatile long nextSequence;
+
+    /**
+     * @param capacity      the maximum number of elements held by the buffer
+     * @param firstSequence the sequence number of the first appended element
+     */
+    public RingBuffer(int capacity, long firstSequence) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Buffer capacity has to be positive.");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.firstSequence = firstSequence;
+        this.nextSequence = firstSequence;
+    }
+
+    /**
+     * Appends an element to the buffer, overwriting the oldest element if the buffer is full.
+     *
+     * @param element the element to be appended
+     * @return the sequence number of the appended element
+     */
+    public synchronized long append(T element) {
+        long sequence = nextSequence;
+        slots.set(index(sequence), new Slot<>(sequence, element));
+        nextSequence = sequence + 1;
+        return sequence;
+    }
+
+    /**
+     * Returns the element with the specified sequence number.
+     *
+     * @param sequence the sequence number of the element
+     * @return the element, {@code null} if it has not been appended yet or it has already been overwritten
+     */
+    public T get(long sequence) {
+        if (sequence < firstSequence) {
+            return null;
+        }
+        Slot<T> slot = slots.get(index(sequence));
+        return slot != null && slot.sequence == sequence ? slot.element : null;
+    }
+
+    /**
+     * @return the sequence number the next appended element will get
+     */
+    public long head() {
+        return nextSequence;
+    }
+
+    /**
+     * @return the sequence number of the oldest element still held by the buffer
+     */
+    public long tail() {
+        return Math.max(firstSequence, nextSequence - slots.length());
+    }
+
+    private int index(long sequence) {
+        return (int) Math.floorMod(sequence, (long) slots.length());
+    }
+
+    private static class Slot<T> {
+
+        private final long sequence;
+        private final T element;
+
+        private Slot(long sequence, T element) {
+            this.sequence = sequence;
+            this.element = element;
+        }
+
+    }
+
+}
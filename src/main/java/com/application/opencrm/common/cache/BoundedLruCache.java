@@ -0,0 +1,65 @@
+package com.application.opencrm.common.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread safe in-memory cache holding at most a fixed number of entries. When the cache is full, the least recently
+ * accessed entry is evicted to make room for a new one.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of cached values
+ */
+public class BoundedLruCache<K, V> {
+
+    private final Map<K, V> entries;
+
+    public BoundedLruCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size has to be positive.");
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the value cached under the key and marks the entry as the most recently accessed one.
+     *
+     * @param key the key of the value
+     * @return the cached value, {@code null} if there is none
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Caches the value under the key, evicting the least recently accessed entry if the cache is full.
+     *
+     * @param key   the key of the value
+     * @param value the value to be cached
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Removes the value cached under the key.
+     *
+     * @param key the key of the value
+     */
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * @return the number of cached entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+}
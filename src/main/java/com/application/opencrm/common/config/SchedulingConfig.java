@@ -0,0 +1,12 @@
+package com.application.opencrm.common.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling execution of {@code @Scheduled} background tasks.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
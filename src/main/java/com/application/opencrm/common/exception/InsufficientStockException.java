@@ -0,0 +1,17 @@
+package com.application.opencrm.common.exception;
+
+import com.application.opencrm.inventory.model.Inventory;
+
+import java.util.List;
+
+/**
+ * Exception thrown when the stock of one or more {@link Inventory inventories} is too small to reserve the requested
+ * amount of units.
+ */
+public class InsufficientStockException extends ResourceConflictException {
+
+    public InsufficientStockException(String message, List<String> details) {
+        super(message, details);
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.application.opencrm.common.exception;
+
+import com.application.opencrm.infrastructure.exception.ApiLevelException;
+
+import java.util.List;
+
+/**
+ * Exception thrown when a request is syntactically correct but its parameters cannot be processed. For example: a
+ * malformed pagination cursor, a page size exceeding the allowed maximum or a reference to resources that do not
+ * exist. All problems found in the request can be reported at once as details of the exception.
+ */
+public class InvalidRequestException extends RuntimeException implements ApiLevelException {
+
+    private final List<String> details;
+
+    public InvalidRequestException(String message) {
+        super(message);
+        this.details = null;
+    }
+
+    public InvalidRequestException(String message, List<String> details) {
+        super(message);
+        this.details = details;
+    }
+
+    public List<String> getDetails() {
+        return details;
+    }
+
+}
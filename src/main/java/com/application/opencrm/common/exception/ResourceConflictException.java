@@ -0,0 +1,29 @@
+package com.application.opencrm.common.exception;
+
+import com.application.opencrm.infrastructure.exception.ApiLevelException;
+
+import java.util.List;
+
+/**
+ * Exception thrown when a request cannot be fulfilled because of the current state of a resource. For example:
+ * cancelling an order that has already been shipped.
+ */
+public class ResourceConflictException extends RuntimeException implements ApiLevelException {
+
+    private final List<String> details;
+
+    public ResourceConflictException(String message) {
+        super(message);
+        this.details = null;
+    }
+
+    public ResourceConflictException(String message, List<String> details) {
+        super(message);
+        this.details = details;
+    }
+
+    public List<String> getDetails() {
+        return details;
+    }
+
+}
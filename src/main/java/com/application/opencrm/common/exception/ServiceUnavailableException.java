@@ -0,0 +1,15 @@
+package com.application.opencrm.common.exception;
+
+import com.application.opencrm.infrastructure.exception.ApiLevelException;
+
+/**
+ * Exception thrown when a request cannot be accepted at the moment because the application is overloaded. The
+ * request can be retried later.
+ */
+public class ServiceUnavailableException extends RuntimeException implements ApiLevelException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+}
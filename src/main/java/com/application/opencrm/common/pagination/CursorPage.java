@@ -0,0 +1,40 @@
+package com.application.opencrm.common.pagination;
+
+import com.application.opencrm.common.exception.InvalidRequestException;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Data transfer object of a single page of a keyset paginated listing. The page contains the cursor that has to be
+ * passed to retrieve the following page.
+ *
+ * @param <T> the type of the elements of the page
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    @Schema(description = "Elements of the page")
+    private final List<T> content;
+
+    @Schema(description = "Cursor to be passed to retrieve the next page, null if this is the last page", example = "MjAyMi0xMC0wMVQxMjowMDowMFosNDI")
+    private final String nextCursor;
+
+    /**
+     * Checks if the requested page size is within the allowed bounds.
+     *
+     * @param size the requested page size
+     * @throws InvalidRequestException if the page size is not allowed
+     */
+    public static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("Page size has to be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.application.opencrm.common.pagination;
+
+import com.application.opencrm.common.exception.InvalidRequestException;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Position of the last element of a page in a keyset (seek) paginated listing.
+ * <p>
+ * The cursor holds the values of the sort key columns of the last returned row, for example its creation time and
+ * id. The next page is then requested with a {@code WHERE (created_at, id) < (:createdAt, :id)} condition instead of
+ * an {@code OFFSET}, so the cost of fetching a page does not grow with its distance from the beginning of the
+ * listing. For clients the cursor is an opaque url-safe string.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = ",";
+
+    private final List<String> values;
+
+    private KeysetCursor(List<String> values) {
+        this.values = values;
+    }
+
+    /**
+     * Creates a cursor from the values of the sort key of the last row of a page.
+     *
+     * @param values the values of the sort key columns in the order of sorting
+     * @return the created cursor
+     */
+    public static KeysetCursor of(Object... values) {
+        return new KeysetCursor(Arrays.stream(values)
+                                      .map(String::valueOf)
+                                      .collect(Collectors.toList()));
+    }
+
+    /**
+     * Decodes a cursor previously created by {@link #encode()}.
+     *
+     * @param cursor       the encoded cursor
+     * @param expectedSize the number of sort key values the cursor has to contain
+     * @return the decoded cursor
+     * @throws InvalidRequestException if the cursor is malformed
+     */
+    public static KeysetCursor decode(String cursor, int expectedSize) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder()
+                                              .decode(cursor), StandardCharsets.UTF_8);
+            List<String> values = Arrays.stream(decoded.split(SEPARATOR, -1))
+                                        .map(v -> URLDecoder.decode(v, StandardCharsets.UTF_8))
+                                        .collect(Collectors.toList());
+            if (values.size() != expectedSize) {
+                throw new InvalidRequestException("Malformed pagination cursor.");
+            }
+            return new KeysetCursor(values);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Malformed pagination cursor.");
+        }
+    }
+
+    /**
+     * Encodes the cursor into an opaque url-safe string.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        String joined = values.stream()
+                              .map(v -> URLEncoder.encode(v, StandardCharsets.UTF_8))
+                              .collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getString(int index) {
+        return values.get(index);
+    }
+
+    public Long getLong(int index) {
+        try {
+            return Long.valueOf(values.get(index));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Malformed pagination cursor.");
+        }
+    }
+
+    public Double getDouble(int index) {
+        try {
+            return Double.valueOf(values.get(index));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Malformed pagination cursor.");
+        }
+    }
+
+    public Instant getInstant(int index) {
+        try {
+            return Instant.parse(values.get(index));
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("Malformed pagination cursor.");
+        }
+    }
+
+}
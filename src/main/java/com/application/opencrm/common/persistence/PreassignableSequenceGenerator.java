@@ -0,0 +1,29 @@
+package com.application.opencrm.common.persistence;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.io.Serializable;
+
+/**
+ * Sequence based identifier generator which keeps the identifier of an entity if it has already been assigned.
+ * <p>
+ * It allows allocating identifiers from the sequence before the entities are persisted, for example to return them
+ * to the client while the entities are stored asynchronously. Identifiers allocated upfront come from the same
+ * sequence and the same optimizer as the ones generated on persist, so they never collide. Identifiers are allocated upfront by calling the generator without an entity.
+ */
+public class PreassignableSequenceGenerator extends SequenceStyleGenerator {
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        if (object != null) {
+            Serializable id = session.getEntityPersister(null, object)
+                                     .getIdentifier(object, session);
+            if (id != null) {
+                return id;
+            }
+        }
+        return super.generate(session, object);
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.application.opencrm.common.sketch;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Thread safe summary of the keys with the highest total weights in a stream, based on the Space-Saving algorithm.
+ * <p>
+ * The sketch monitors at most {@code capacity} keys. A key which is not monitored replaces the monitored key with the
+ * lowest weight and inherits its weight as a possible overestimation. Therefore the weight reported for a key is
+ * never lower than its true weight and exceeds it by at most the reported error. Every key whose true weight is
+ * higher than {@code 1 / capacity} of the total weight is guaranteed to be monitored. Weights saturate at
+ * {@link Long#MAX_VALUE} instead of overflowing.
+ *
+ * @param <K> the type of the keys
+ */
+public class SpaceSavingSketch<K> {
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters = new HashMap<>();
+    private final NavigableSet<Counter<K>> byWeight = new TreeSet<>(Comparator.<Counter<K>>comparingLong(
+        counter -> counter.weight).thenComparingLong(counter -> counter.sequence));
+    private long nextSequence;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Sketch capacity has to be positive.");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds weight to the key.
+     *
+     * @param key    the key
+     * @param weight the added weight, not negative
+     */
+    public synchronized void add(K key, long weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight cannot be negative.");
+        }
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            byWeight.remove(counter);
+            monitor(new Counter<>(key, saturatedSum(counter.weight, weight), counter.error, counter.sequence));
+            return;
+        }
+        if (counters.size() < capacity) {
+            monitor(new Counter<>(key, weight, 0, nextSequence++));
+            return;
+        }
+        Counter<K> evicted = byWeight.pollFirst();
+        counters.remove(evicted.key);
+        monitor(new Counter<>(key, saturatedSum(evicted.weight, weight), evicted.weight, nextSequence++));
+    }
+
+    /**
+     * Returns the monitored keys with the highest weights, from the highest weight.
+     *
+     * @param limit the maximum number of returned keys
+     * @return the estimates of the keys
+     */
+    public synchronized List<Estimate<K>> top(int limit) {
+        return byWeight.descendingSet()
+                       .stream()
+                       .limit(limit)
+                       .map(counter -> new Estimate<>(counter.key, counter.weight, counter.error))
+                       .collect(Collectors.toList());
+    }
+
+    /**
+     * Replaces the content of the sketch with exact weights, for example ones computed from the source of the
+     * stream. Only the keys with the highest weights fitting into the capacity are kept.
+     *
+     * @param weights the exact weights of the keys
+     */
+    public synchronized void reset(Map<K, Long> weights) {
+        counters.clear();
+        byWeight.clear();
+        weights.entrySet()
+               .stream()
+               .sorted(Map.Entry.<K, Long>comparingByValue()
+                                .reversed())
+               .limit(capacity)
+               .forEach(entry -> monitor(new Counter<>(entry.getKey(), entry.getValue(), 0, nextSequence++)));
+    }
+
+    /**
+     * @return the number of monitored keys
+     */
+    public synchronized int size() {
+        return counters.size();
+    }
+
+    private static long saturatedSum(long weight, long added) {
+        long sum = weight + added;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    /**
+     * Starts monitoring the counter. Counters are immutable, so a changed counter is removed from the ordered set
+     * before its replacement is monitored.
+     */
+    private void monitor(Counter<K> counter) {
+        counters.put(counter.key, counter);
+        byWeight.add(counter);
+    }
+
+    /**
+     * Estimated weight of a key.
+     *
+     * @param <K> the type of the key
+     */
+    public static final class Estimate<K> {
+
+        private final K key;
+        private final long weight;
+        private final long error;
+
+        private Estimate(K key, long weight, long error) {
+            this.key = key;
+            this.weight = weight;
+            this.error = error;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        /**
+         * @return the estimated weight, never lower than the true weight
+         */
+        public long getWeight() {
+            return weight;
+        }
+
+        /**
+         * @return the maximum overestimation of the weight
+         */
+        public long getError() {
+            return error;
+        }
+
+    }
+
+    private static final class Counter<K> {
+
+        private final K key;
+        private final long weight;
+        private final long error;
+        private final long sequence;
+
+        private Counter(K key, long weight, long error, long sequence) {
+            this.key = key;
+            this.weight = weight;
+            this.error = error;
+            this.sequence = sequence;
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.application.opencrm.common.text;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader of comma separated values as described by RFC 4180, reading one record at a time. Fields can be quoted, in
+ * which case they can contain separators, line breaks and doubled quotes. Both {@code \r\n} and {@code \n} end a
+ * record.
+ */
+public class CsvReader {
+
+    private final Reader reader;
+    private long lineNumber = 1;
+    private long recordLineNumber;
+    private int lookahead = -2;
+
+    /**
+     * Creates a reader of the records of the source, which should be buffered.
+     *
+     * @param reader the source of the records
+     */
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the fields of the record, or {@code null} at the end of the source
+     * @throws IOException              if reading the source fails
+     * @throws IllegalArgumentException if a quoted field is not closed before the end of the source
+     */
+    public List<String> readRecord() throws IOException {
+        long startLineNumber = lineNumber;
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLineNumber = startLineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Quoted field starting at line " + recordLineNumber
+                                                       + " is not closed.");
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' && peek() == '\n') {
+                read();
+                break;
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Returns the number of the line the last read record starts at, counting from 1.
+     *
+     * @return the line number of the last read record
+     */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (lookahead != -2) {
+            c = lookahead;
+            lookahead = -2;
+        } else {
+            c = reader.read();
+        }
+        if (c == '\n') {
+            lineNumber++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (lookahead == -2) {
+            lookahead = reader.read();
+        }
+        return lookahead;
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.application.opencrm.common.text;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Normalization of free text, such as names, before it is compared: letter case, diacritics and repeated whitespace
+ * are ignored.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Lower-cases the text, strips it of diacritics and collapses its whitespace into single spaces.
+     *
+     * @param text the text to be normalized
+     * @return the normalized text
+     */
+    public static String normalize(String text) {
+        // the Polish ł is a separate letter rather than l with a combining mark, so it is not decomposed
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                                    .replaceAll("")
+                                    .replace('ł', 'l')
+                                    .replace('Ł', 'L');
+        return WHITESPACE.matcher(stripped.toLowerCase(Locale.ROOT))
+                         .replaceAll(" ")
+                         .trim();
+    }
+
+    /**
+     * Splits the normalized text into words made of letters and digits.
+     *
+     * @param text the text to be split
+     * @return the normalized words in the order of occurrence
+     */
+    public static List<String> words(String text) {
+        return Arrays.stream(NON_ALPHANUMERIC.split(normalize(text)))
+                     .filter(word -> !word.isEmpty())
+                     .collect(Collectors.toList());
+    }
+
+}
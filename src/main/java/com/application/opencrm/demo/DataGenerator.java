@@ -34,17 +34,16 @@ public class DataGenerator implements CommandLineRunner {
 
     @Override
     public void run(String... args) {
-        if (clientService.getAllClients().isEmpty()) {
-            clientMother.generateFakeClients(CLIENT_AMOUNT)
-                        .forEach(clientService::saveClient);
+        if (!clientService.hasClients()) {
+            clientService.saveClients(clientMother.generateFakeClients(CLIENT_AMOUNT));
             categoryMother.generateFakeCategories(CATEGORY_AMOUNT)
                           .forEach(categoryService::saveCategory);
             Set<String> currentCategories = categoryService.getAllCategories()
                                                            .stream()
                                                            .map(CategoryChildDto::getSlug)
                                                            .collect(Collectors.toSet());
-            inventoryMother.generateFakeInventories(currentCategories, INVENTORY_AMOUNT)
-                           .forEach(inventoryService::saveInventory);
+            inventoryService.saveInventories(
+                inventoryMother.generateFakeInventories(currentCategories, INVENTORY_AMOUNT));
         }
     }
 
@@ -0,0 +1,44 @@
+package com.application.opencrm.infrastructure.exception;
+
+import com.application.opencrm.common.exception.InvalidRequestException;
+import com.application.opencrm.common.exception.ResourceConflictException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * Maps exceptions to the errors reported to the user outside of controllers, for example in the results of a batch.
+ * Only {@link ApiLevelException ApiLevelExceptions} are described, other exceptions are logged and hidden behind a
+ * generic error.
+ */
+@Slf4j
+public final class ApiLevelErrors {
+
+    private ApiLevelErrors() {
+    }
+
+    /**
+     * Describes the exception with its details if it reports any, its message if it is an {@link ApiLevelException},
+     * or a generic error otherwise.
+     *
+     * @param e the exception to describe
+     * @return the errors to report to the user
+     */
+    public static List<String> of(RuntimeException e) {
+        List<String> details = null;
+        if (e instanceof InvalidRequestException) {
+            details = ((InvalidRequestException) e).getDetails();
+        } else if (e instanceof ResourceConflictException) {
+            details = ((ResourceConflictException) e).getDetails();
+        }
+        if (details != null && !details.isEmpty()) {
+            return details;
+        }
+        if (e instanceof ApiLevelException) {
+            return List.of(e.getMessage());
+        }
+        log.error("Unexpected error reported as a generic error.", e);
+        return List.of("Unexpected error");
+    }
+
+}
@@ -1,7 +1,10 @@
 package com.application.opencrm.infrastructure.exception;
 
+import com.application.opencrm.common.exception.InvalidRequestException;
+import com.application.opencrm.common.exception.ResourceConflictException;
 import com.application.opencrm.common.exception.ResourceNotFoundException;
 import com.application.opencrm.common.exception.ResourceNotUniqueException;
+import com.application.opencrm.common.exception.ServiceUnavailableException;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -54,6 +57,53 @@ public class CommonControllerExceptionHandler {
         return generateDefaultResponse(error, status);
     }
 
+    /**
+     * Handles {@link InvalidRequestException}.
+     *
+     * @param ex      the exception thrown by a controller
+     * @param request the current request
+     * @return the ResponseEntity instance containing the error message in its body
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Object> handleInvalidRequest(InvalidRequestException ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        ApiError error = new ApiError(ZonedDateTime.now(ZoneId.of("Z")), status.value(), status, ex.getMessage(),
+            ex.getDetails(), request.getServletPath());
+        return generateDefaultResponse(error, status);
+    }
+
+    /**
+     * Handles {@link ResourceConflictException} and its subclasses.
+     *
+     * @param ex      the exception thrown by a controller
+     * @param request the current request
+     * @return the ResponseEntity instance containing the error message in its body
+     */
+    @ExceptionHandler(ResourceConflictException.class)
+    public ResponseEntity<Object> handleResourceConflict(ResourceConflictException ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.CONFLICT;
+        ApiError error = new ApiError(ZonedDateTime.now(ZoneId.of("Z")), status.value(), status, ex.getMessage(),
+            ex.getDetails(), request.getServletPath());
+        return generateDefaultResponse(error, status);
+    }
+
+    /**
+     * Handles {@link ServiceUnavailableException}. The response asks the client to retry the request after a second.
+     *
+     * @param ex      the exception thrown by a controller
+     * @param request the current request
+     * @return the ResponseEntity instance containing the error message in its body
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Object> handleServiceUnavailable(ApiLevelException ex, HttpServletRequest request) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        ApiError error = new ApiError(ZonedDateTime.now(ZoneId.of("Z")), status.value(), status, ex.getMessage(),
+            request.getServletPath());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return new ResponseEntity<>(error, headers, status);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleValidationError(MethodArgumentNotValidException ex, HttpServletRequest request) {
         HttpStatus status = HttpStatus.BAD_REQUEST;
@@ -1,5 +1,6 @@
 package com.application.opencrm.inventory.controller;
 
+import com.application.opencrm.common.pagination.CursorPage;
 import com.application.opencrm.inventory.dto.InventoryCategoryRequestDto;
 import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
 import com.application.opencrm.inventory.dto.InventoryParentDto;
@@ -7,6 +8,9 @@ import com.application.opencrm.inventory.dto.InventoryUpdateRequestDto;
 import com.application.opencrm.inventory.model.Category;
 import com.application.opencrm.inventory.model.Inventory;
 import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.InventoryOrderDto;
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.service.ItemService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -34,6 +38,7 @@ import java.util.List;
 public class SingleInventoryController {
 
     private final InventoryService inventoryService;
+    private final ItemService itemService;
 
     /**
      * Retrieves all {@link Inventory} entities from repository. Each returned dto contains its
@@ -71,6 +76,36 @@ public class SingleInventoryController {
         return inventoryService.getInventoryWithCategories(id);
     }
 
+    /**
+     * Retrieves a page of {@link Order orders} containing an {@link Inventory} with specified {@code id}, together with
+     * the ordered quantity of the inventory. The orders are sorted from the newest to the oldest id.
+     * <p>
+     * The response contains a cursor if more orders are available. The next page is retrieved by passing the cursor
+     * back with the same {@code size}.
+     *
+     * @param id     the id of the inventory
+     * @param cursor the cursor returned with the previous page
+     * @param size   the maximum number of orders in the page
+     * @return the page of dtos representing the found orders
+     */
+    @GetMapping("{id}/orders")
+    @PreAuthorize("hasAnyRole('ROLE_SALES', 'ROLE_INVENTORY')")
+    @Operation(summary = "Retrieves a page of orders containing an inventory", description = "Required authorization role (any): ROLE_SALES, ROLE_INVENTORY")
+    @Parameter(name = "id", description = "the id of the inventory whose orders are to be retrieved")
+    @Parameter(name = "cursor", description = "the cursor returned with the previous page, absent for the first page")
+    @Parameter(name = "size", description = "the maximum number of orders in the page (1-100)")
+    @ApiResponse(responseCode = "200", description = "Orders retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "404", description = "Inventory with specified id not found", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public CursorPage<InventoryOrderDto> getInventoryOrders(@PathVariable @Min(value = 1, message = "Inventory id cannot be smaller than 1") Long id,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        return itemService.getInventoryOrders(id, cursor, size);
+    }
+
     /**
      * Creates a new {@link Inventory} and stores it in database. The data of the new inventory should be passed as data
      * of a {@code InventoryRequestDto} in the request body.
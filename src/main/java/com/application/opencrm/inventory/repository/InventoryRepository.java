@@ -1,13 +1,42 @@
 package com.application.opencrm.inventory.repository;
 
-import com.application.opencrm.inventory.model.Category;
 import com.application.opencrm.inventory.model.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigInteger;
+
 /**
- * Repository used to perform basic CRUD and SQL operations on {@link Category} entities.
+ * Repository used to perform basic CRUD and SQL operations on {@link Inventory} entities.
  */
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+
+    /**
+     * Decreases the stock of an inventory if it holds at least the specified amount of units. The check and the
+     * decrement are done in a single conditional update, so concurrent reservations can never take the stock below
+     * zero.
+     *
+     * @param id    the id of the inventory
+     * @param units the amount of units to be taken from the stock
+     * @return {@code 1} if the stock was decreased, {@code 0} if the inventory lacks stock or does not exist
+     */
+    @Modifying
+    @Query("update Inventory i set i.units = i.units - :units where i.id = :id and i.units >= :units")
+    int decrementUnits(@Param("id") Long id, @Param("units") BigInteger units);
+
+    /**
+     * Increases the stock of an inventory.
+     *
+     * @param id    the id of the inventory
+     * @param units the amount of units to be returned to the stock
+     * @return {@code 1} if the stock was increased, {@code 0} if the inventory does not exist
+     */
+    @Modifying
+    @Query("update Inventory i set i.units = i.units + :units where i.id = :id")
+    int incrementUnits(@Param("id") Long id, @Param("units") BigInteger units);
+
 }
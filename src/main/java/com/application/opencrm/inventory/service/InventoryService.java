@@ -1,5 +1,6 @@
 package com.application.opencrm.inventory.service;
 
+import com.application.opencrm.common.exception.InvalidRequestException;
 import com.application.opencrm.common.exception.ResourceNotFoundException;
 import com.application.opencrm.inventory.dto.InventoryCategoryRequestDto;
 import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
@@ -15,6 +16,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -70,6 +73,27 @@ public class InventoryService {
         return mapper.inventoryToInventoryParentDto(repository.save(inventory));
     }
 
+    /**
+     * Creates multiple new {@link Inventory} entities and stores them in database in a single transaction, so that
+     * the inserts can be sent to the database in JDBC batches.
+     *
+     * @param requests the objects containing data of {@code Inventory} entities to be created
+     * @return the dtos representing the created {@code Inventory} entities in the order of the requests
+     */
+    public List<InventoryParentDto> saveInventories(List<InventoryCreationRequestDto> requests) {
+        List<Inventory> inventories = requests.stream()
+                                              .map(request -> {
+                                                  Inventory inventory = mapper.inventoryCreationRequestDtoToInventory(request);
+                                                  addInventoryToCategories(inventory, request.getCategoriesSlugs());
+                                                  return inventory;
+                                              })
+                                              .collect(Collectors.toList());
+        return repository.saveAll(inventories)
+                         .stream()
+                         .map(mapper::inventoryToInventoryParentDto)
+                         .collect(Collectors.toList());
+    }
+
     /**
      * Updates an existing {@link Inventory} entity in database.
      * <p>
@@ -128,6 +152,17 @@ public class InventoryService {
         repository.deleteById(id);
     }
 
+    /**
+     * Checks whether an {@link Inventory} entity with specified {@code id} is stored in database.
+     *
+     * @param id the {@code id} of the inventory
+     * @return {@code true} if the inventory exists
+     */
+    @Transactional(readOnly = true)
+    public boolean inventoryExists(Long id) {
+        return repository.existsById(id);
+    }
+
     /**
      * Retrieves {@code Inventory} entity from repository.
      * <p>
@@ -141,6 +176,30 @@ public class InventoryService {
                          .orElseThrow(() -> new ResourceNotFoundException("Inventory not found in the database."));
     }
 
+    /**
+     * Retrieves {@code Inventory} entities with specified ids from repository in a single query.
+     * <p>
+     * The returned entities are not intended to be used externally outside the service layer.
+     *
+     * @param ids the ids of the {@code Inventory} entities which are to be retrieved
+     * @return the map of found entities by their ids
+     * @throws InvalidRequestException if any of the inventories is not found, listing all missing ids
+     */
+    public Map<Long, Inventory> getInventoriesFromRepository(Collection<Long> ids) {
+        Map<Long, Inventory> inventories = repository.findAllById(ids)
+                                                     .stream()
+                                                     .collect(Collectors.toMap(Inventory::getId, Function.identity()));
+        List<String> missing = ids.stream()
+                                  .filter(id -> !inventories.containsKey(id))
+                                  .distinct()
+                                  .map(id -> "Inventory with id " + id + " not found in the database.")
+                                  .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new InvalidRequestException("Request refers to " + missing.size() + " missing inventories.", missing);
+        }
+        return inventories;
+    }
+
     private void addInventoryToCategories(Inventory inventoryToUpdate, Collection<String> categorySlugs) {
         if (categorySlugs != null) {
             categorySlugs
@@ -0,0 +1,194 @@
+package com.application.opencrm.inventory.service;
+
+import com.application.opencrm.inventory.model.Inventory;
+import com.application.opencrm.inventory.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory ledger of stock allotments of frequently reserved ("hot") {@link Inventory inventories}.
+ * <p>
+ * Reserving stock with a conditional update locks the inventory row until the ordering transaction commits, so
+ * concurrent orders of a popular inventory queue on that lock. For hot inventories the ledger withdraws stock from the
+ * database in allotments covering several reservations, each withdrawal in its own short transaction, and serves
+ * the following reservations from memory. Allotments are guarded by striped locks, so reservations of different
+ * inventories rarely contend with each other. The locks are held only while allotments are updated in memory, never
+ * during a withdrawal, so a slow database does not stall the reservations of other inventories of the same stripe.
+ * A withdrawal briefly takes a second pooled connection next to the one of the ordering transaction, which the size
+ * of the connection pool has to allow for.
+ * <p>
+ * An inventory becomes hot when it is reserved at least {@code hot-threshold} times within one window. Allotments of
+ * inventories that cooled down are returned to the database at the end of each window and all allotments are
+ * returned on shutdown. Units held in allotments are not visible in {@code Inventory.units} and a crash of the
+ * application loses them from the stock, which errs on the side of underselling rather than overselling.
+ */
+@Slf4j
+@Component
+public class StockReservationLedger {
+
+    private final InventoryRepository repository;
+    private final TransactionTemplate allotmentTransaction;
+    private final Object[] stripes;
+    private final long hotThreshold;
+    private final BigInteger allotmentUnits;
+    private final Map<Long, BigInteger> allotments = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> demand = new ConcurrentHashMap<>();
+    private volatile Set<Long> hotInventoryIds = Set.of();
+
+    public StockReservationLedger(InventoryRepository repository, PlatformTransactionManager transactionManager,
+                                  @Value("${inventory.reservation.ledger.stripes:64}") int stripeCount,
+                                  @Value("${inventory.reservation.ledger.hot-threshold:50}") long hotThreshold,
+                                  @Value("${inventory.reservation.ledger.allotment-units:100}") long allotmentUnits) {
+        this.repository = repository;
+        this.allotmentTransaction = new TransactionTemplate(transactionManager);
+        this.allotmentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.stripes = new Object[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Object();
+        }
+        this.hotThreshold = hotThreshold;
+        this.allotmentUnits = BigInteger.valueOf(allotmentUnits);
+    }
+
+    /**
+     * Records a reservation request of an inventory, so that the inventory can be recognized as hot.
+     *
+     * @param inventoryId the id of the reserved inventory
+     */
+    void recordDemand(Long inventoryId) {
+        demand.computeIfAbsent(inventoryId, id -> new LongAdder())
+              .increment();
+    }
+
+    /**
+     * Checks if reservations of an inventory should be served by the ledger.
+     *
+     * @param inventoryId the id of the inventory
+     * @return {@code true} if the inventory is hot
+     */
+    boolean isHot(Long inventoryId) {
+        return hotInventoryIds.contains(inventoryId);
+    }
+
+    /**
+     * Reserves units of an inventory from its allotment. If the allotment is too small, a new allotment is withdrawn
+     * from the database first.
+     *
+     * @param inventoryId the id of the inventory
+     * @param units       the amount of units to be reserved
+     * @return {@code true} if the units were reserved, {@code false} if the inventory lacks stock
+     */
+    boolean tryReserve(Long inventoryId, BigInteger units) {
+        BigInteger available;
+        synchronized (stripeOf(inventoryId)) {
+            available = allotments.getOrDefault(inventoryId, BigInteger.ZERO);
+            if (available.compareTo(units) >= 0) {
+                allotments.put(inventoryId, available.subtract(units));
+                return true;
+            }
+            // the remainder is taken out of the allotment while the shortage is withdrawn without holding the lock
+            allotments.remove(inventoryId);
+        }
+        // the remainder is put back even if a withdrawal fails, for example when no connection is available
+        BigInteger remainder = available;
+        try {
+            BigInteger shortage = units.subtract(available);
+            BigInteger withdrawal = shortage.max(allotmentUnits);
+            boolean withdrawn = withdraw(inventoryId, withdrawal);
+            if (!withdrawn && !withdrawal.equals(shortage)) {
+                withdrawal = shortage;
+                withdrawn = withdraw(inventoryId, withdrawal);
+            }
+            if (withdrawn) {
+                remainder = available.add(withdrawal)
+                                     .subtract(units);
+            }
+            return withdrawn;
+        } finally {
+            synchronized (stripeOf(inventoryId)) {
+                allotments.merge(inventoryId, remainder, BigInteger::add);
+            }
+        }
+    }
+
+    /**
+     * Returns previously reserved units of an inventory to its allotment.
+     *
+     * @param inventoryId the id of the inventory
+     * @param units       the amount of units to be returned
+     */
+    void release(Long inventoryId, BigInteger units) {
+        synchronized (stripeOf(inventoryId)) {
+            allotments.merge(inventoryId, units, BigInteger::add);
+        }
+    }
+
+    /**
+     * Closes the current window: recognizes inventories that are hot in the next window and returns allotments of the
+     * remaining inventories to the database.
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservation.ledger.window-ms:10000}")
+    public void rebalance() {
+        Set<Long> hot = new HashSet<>();
+        demand.forEach((id, counter) -> {
+            long count = counter.sumThenReset();
+            if (count >= hotThreshold) {
+                hot.add(id);
+            } else if (count == 0) {
+                demand.remove(id, counter);
+            }
+        });
+        hotInventoryIds = Collections.unmodifiableSet(hot);
+        new ArrayList<>(allotments.keySet()).stream()
+                                            .filter(id -> !hot.contains(id))
+                                            .forEach(this::returnAllotment);
+    }
+
+    /**
+     * Returns all allotments to the database.
+     */
+    @PreDestroy
+    public void returnAllotments() {
+        hotInventoryIds = Set.of();
+        new ArrayList<>(allotments.keySet()).forEach(this::returnAllotment);
+    }
+
+    private boolean withdraw(Long inventoryId, BigInteger units) {
+        Integer updated = allotmentTransaction.execute(status -> repository.decrementUnits(inventoryId, units));
+        return updated != null && updated == 1;
+    }
+
+    private void returnAllotment(Long inventoryId) {
+        BigInteger units;
+        synchronized (stripeOf(inventoryId)) {
+            units = allotments.remove(inventoryId);
+        }
+        if (units == null || units.signum() == 0) {
+            return;
+        }
+        try {
+            allotmentTransaction.executeWithoutResult(status -> repository.incrementUnits(inventoryId, units));
+        } catch (RuntimeException e) {
+            synchronized (stripeOf(inventoryId)) {
+                allotments.merge(inventoryId, units, BigInteger::add);
+            }
+            log.warn("Could not return allotment of inventory {} to the database", inventoryId, e);
+        }
+    }
+
+    private Object stripeOf(Long inventoryId) {
+        return stripes[Math.floorMod(inventoryId.hashCode(), stripes.length)];
+    }
+
+}
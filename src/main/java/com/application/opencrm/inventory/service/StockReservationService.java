@@ -0,0 +1,94 @@
+package com.application.opencrm.inventory.service;
+
+import com.application.opencrm.common.exception.InsufficientStockException;
+import com.application.opencrm.inventory.model.Inventory;
+import com.application.opencrm.inventory.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Service reserving and releasing the stock of {@link Inventory inventories}.
+ * <p>
+ * Stock is taken with conditional updates that fail instead of taking the stock below zero. Reservations of hot
+ * inventories are served by the {@link StockReservationLedger}, so concurrent orders of the same inventory do not
+ * queue on its row lock. Reservations have to be made within the transaction that persists the order: units taken
+ * from the database are returned by rolling the transaction back and units taken from the ledger are returned to it
+ * after the rollback.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private final InventoryRepository repository;
+    private final StockReservationLedger ledger;
+
+    /**
+     * Reserves the specified amounts of units of inventories.
+     * <p>
+     * Inventories served by the ledger are reserved before the ones reserved in the database, and both groups in the
+     * order of ids. This way a transaction never waits for the ledger while holding inventory row locks, and
+     * concurrent transactions lock the rows in the same order.
+     *
+     * @param unitsByInventoryId the amounts of units to be reserved by ids of inventories
+     * @throws InsufficientStockException if any of the inventories lacks stock, listing all of them
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Map<Long, BigInteger> unitsByInventoryId) {
+        Map<Long, BigInteger> ledgerReservations = new TreeMap<>();
+        Map<Long, BigInteger> databaseReservations = new TreeMap<>();
+        unitsByInventoryId.forEach((id, units) -> {
+            ledger.recordDemand(id);
+            (ledger.isHot(id) ? ledgerReservations : databaseReservations).put(id, units);
+        });
+
+        Map<Long, BigInteger> reservedInLedger = new HashMap<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    reservedInLedger.forEach(ledger::release);
+                }
+            }
+        });
+
+        List<String> shortages = new ArrayList<>();
+        ledgerReservations.forEach((id, units) -> {
+            if (ledger.tryReserve(id, units)) {
+                reservedInLedger.put(id, units);
+            } else {
+                shortages.add(shortageMessage(id, units));
+            }
+        });
+        databaseReservations.forEach((id, units) -> {
+            if (repository.decrementUnits(id, units) == 0) {
+                shortages.add(shortageMessage(id, units));
+            }
+        });
+        if (!shortages.isEmpty()) {
+            throw new InsufficientStockException("Not enough stock to reserve " + shortages.size() + " of the ordered items.", shortages);
+        }
+    }
+
+    /**
+     * Returns the specified amounts of units of inventories to their stock, for example after an order has been
+     * cancelled.
+     *
+     * @param unitsByInventoryId the amounts of units to be released by ids of inventories
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Map<Long, BigInteger> unitsByInventoryId) {
+        new TreeMap<>(unitsByInventoryId).forEach(repository::incrementUnits);
+    }
+
+    private String shortageMessage(Long inventoryId, BigInteger units) {
+        return "Inventory with id " + inventoryId + " has less than " + units + " units in stock.";
+    }
+
+}
@@ -1,22 +1,53 @@
 package com.application.opencrm.order.controller;
 
+import com.application.opencrm.common.pagination.CursorPage;
+import com.application.opencrm.order.dto.OrderAcceptanceDto;
+import com.application.opencrm.order.dto.OrderCountsDto;
 import com.application.opencrm.order.dto.OrderCreationRequestDto;
 import com.application.opencrm.order.dto.OrderDto;
+import com.application.opencrm.order.dto.OrderFilterDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionRequestDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionResultDto;
+import com.application.opencrm.order.dto.OrderSummaryDto;
+import com.application.opencrm.order.dto.TopSellingInventoryDto;
 import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import com.application.opencrm.order.service.OrderAcceptanceService;
+import com.application.opencrm.order.service.OrderBatchService;
+import com.application.opencrm.order.service.OrderCounterService;
+import com.application.opencrm.order.service.OrderExportService;
+import com.application.opencrm.order.service.OrderIdempotencyService;
 import com.application.opencrm.order.service.OrderService;
+import com.application.opencrm.order.service.OrderStreamService;
+import com.application.opencrm.order.service.OrderSummaryService;
+import com.application.opencrm.order.service.TopSellingInventoryService;
+import com.application.opencrm.order.service.TopSellingInventoryService.Metric;
+import com.application.opencrm.order.service.TopSellingInventoryService.Window;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
 
 /**
@@ -30,21 +61,208 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderAcceptanceService orderAcceptanceService;
+    private final OrderBatchService orderBatchService;
+    private final OrderExportService orderExportService;
+    private final OrderIdempotencyService orderIdempotencyService;
+    private final OrderSummaryService orderSummaryService;
+    private final OrderStreamService orderStreamService;
+    private final TopSellingInventoryService topSellingInventoryService;
+    private final OrderCounterService orderCounterService;
 
     /**
-     * Retrieves all {@link Order} entities from repository.
+     * Retrieves a page of {@link Order} entities matching the specified criteria from repository. The orders are
+     * sorted from the newest to the oldest. To retrieve the following page, the {@code nextCursor} of the returned
+     * page has to be passed as the {@code cursor} parameter together with unchanged criteria.
      *
-     * @return the list of dtos representing all found {@code Order} entities
+     * @param status      the status the orders have to be in
+     * @param clientId    the id of the client who made the orders
+     * @param createdFrom the inclusive lower bound of the order creation time
+     * @param createdTo   the exclusive upper bound of the order creation time
+     * @param cursor      the cursor pointing at the end of the previous page
+     * @param size        the maximum number of orders in the page
+     * @return the page of dtos representing the found {@code Order} entities
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ROLE_SALES', 'ROLE_INVENTORY')")
-    @Operation(summary = "Retrieves all orders", description = "Required authorization role (any): ROLE_SALES, ROLE_INVENTORY")
+    @Operation(summary = "Retrieves a page of orders", description = "Required authorization role (any): ROLE_SALES, ROLE_INVENTORY")
+    @Parameter(name = "status", description = "the status of the orders to be retrieved")
+    @Parameter(name = "clientId", description = "the id of the client whose orders are to be retrieved")
+    @Parameter(name = "createdFrom", description = "the inclusive lower bound of the order creation time", example = "2022-10-01T00:00:00Z")
+    @Parameter(name = "createdTo", description = "the exclusive upper bound of the order creation time", example = "2022-11-01T00:00:00Z")
+    @Parameter(name = "cursor", description = "the cursor returned with the previous page, absent for the first page")
+    @Parameter(name = "size", description = "the maximum number of orders in the page (1-100)")
     @ApiResponse(responseCode = "200", description = "Orders retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public CursorPage<OrderDto> getOrders(@RequestParam(required = false) OrderStatus status,
+                                          @RequestParam(required = false) Long clientId,
+                                          @RequestParam(required = false) Instant createdFrom,
+                                          @RequestParam(required = false) Instant createdTo,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") int size) {
+        OrderFilterDto filter = OrderFilterDto.builder()
+                                              .status(status)
+                                              .clientId(clientId)
+                                              .createdFrom(createdFrom)
+                                              .createdTo(createdTo)
+                                              .build();
+        return orderService.getOrders(filter, cursor, size);
+    }
+
+    /**
+     * Exports the {@link Order orders} matching the specified criteria as CSV, with one row per ordered item joined
+     * with the fields of its order and of the client who made the order. The rows are sorted from the oldest to the
+     * newest order. The export is streamed while it is read from the database, so it can cover any number of orders.
+     *
+     * @param status      the status the orders have to be in
+     * @param clientId    the id of the client who made the orders
+     * @param createdFrom the inclusive lower bound of the order creation time
+     * @param createdTo   the exclusive upper bound of the order creation time
+     * @return the response streaming the CSV
+     */
+    @GetMapping(value = "export", produces = "text/csv")
+    @PreAuthorize("hasAnyRole('ROLE_SALES', 'ROLE_INVENTORY')")
+    @Operation(summary = "Exports orders with their items as CSV", description = "Required authorization role (any): ROLE_SALES, ROLE_INVENTORY")
+    @Parameter(name = "status", description = "the status of the orders to be exported")
+    @Parameter(name = "clientId", description = "the id of the client whose orders are to be exported")
+    @Parameter(name = "createdFrom", description = "the inclusive lower bound of the order creation time", example = "2022-10-01T00:00:00Z")
+    @Parameter(name = "createdTo", description = "the exclusive upper bound of the order creation time", example = "2022-11-01T00:00:00Z")
+    @ApiResponse(responseCode = "200", description = "Orders exported successfully")
+    @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(required = false) OrderStatus status,
+                                                              @RequestParam(required = false) Long clientId,
+                                                              @RequestParam(required = false) Instant createdFrom,
+                                                              @RequestParam(required = false) Instant createdTo) {
+        OrderFilterDto filter = OrderFilterDto.builder()
+                                              .status(status)
+                                              .clientId(clientId)
+                                              .createdFrom(createdFrom)
+                                              .createdTo(createdTo)
+                                              .build();
+        StreamingResponseBody body = outputStream -> orderExportService.exportOrders(filter, outputStream);
+        return ResponseEntity.ok()
+                             .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.csv\"")
+                             .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                             .body(body);
+    }
+
+    /**
+     * Retrieves a page of summaries of {@link Order orders} matching the specified criteria. A summary contains only
+     * the data needed by listings, so unlike {@link #getOrders} the page is read from a single table. The summaries
+     * are sorted from the newest to the oldest order and paginated the same way as the orders.
+     *
+     * @param status      the status the orders have to be in
+     * @param clientId    the id of the client who made the orders
+     * @param createdFrom the inclusive lower bound of the order creation time
+     * @param createdTo   the exclusive upper bound of the order creation time
+     * @param cursor      the cursor pointing at the end of the previous page
+     * @param size        the maximum number of summaries in the page
+     * @return the page of dtos representing the found order summaries
+     */
+    @GetMapping("summary")
+    @PreAuthorize("hasAnyRole('ROLE_SALES', 'ROLE_INVENTORY')")
+    @Operation(summary = "Retrieves a page of order summaries", description = "Required authorization role (any): ROLE_SALES, ROLE_INVENTORY")
+    @Parameter(name = "status", description = "the status of the orders to be retrieved")
+    @Parameter(name = "clientId", description = "the id of the client whose orders are to be retrieved")
+    @Parameter(name = "createdFrom", description = "the inclusive lower bound of the order creation time", example = "2022-10-01T00:00:00Z")
+    @Parameter(name = "createdTo", description = "the exclusive upper bound of the order creation time", example = "2022-11-01T00:00:00Z")
+    @Parameter(name = "cursor", description = "the cursor returned with the previous page, absent for the first page")
+    @Parameter(name = "size", description = "the maximum number of summaries in the page (1-100)")
+    @ApiResponse(responseCode = "200", description = "Order summaries retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public CursorPage<OrderSummaryDto> getOrderSummaries(@RequestParam(required = false) OrderStatus status,
+                                                         @RequestParam(required = false) Long clientId,
+                                                         @RequestParam(required = false) Instant createdFrom,
+                                                         @RequestParam(required = false) Instant createdTo,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "20") int size) {
+        OrderFilterDto filter = OrderFilterDto.builder()
+                                              .status(status)
+                                              .clientId(clientId)
+                                              .createdFrom(createdFrom)
+                                              .createdTo(createdTo)
+                                              .build();
+        return orderSummaryService.getSummaries(filter, cursor, size);
+    }
+
+    /**
+     * Retrieves the numbers of {@link Order orders} in each status and of open orders of the specified clients. The
+     * numbers are maintained in memory as orders change, so they are read without counting the orders in the
+     * database, and are periodically reconciled with it.
+     *
+     * @param clientIds the ids of the clients whose open orders are to be counted
+     * @return the dto representing the numbers of orders
+     */
+    @GetMapping("counts")
+    @PreAuthorize("hasAnyRole('ROLE_SALES', 'ROLE_INVENTORY')")
+    @Operation(summary = "Retrieves the numbers of orders by status and of open orders of clients", description = "Required authorization role (any): ROLE_SALES, ROLE_INVENTORY")
+    @Parameter(name = "clientIds", description = "the ids of the clients whose open orders are to be counted (at most 100)")
+    @ApiResponse(responseCode = "200", description = "Order counts retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public OrderCountsDto getOrderCounts(@RequestParam(required = false) List<Long> clientIds) {
+        return orderCounterService.getCounts(clientIds);
+    }
+
+    /**
+     * Retrieves the best-selling {@link com.application.opencrm.inventory.model.Inventory inventories} of the current
+     * day or week, ranked by the units sold or by their value. The ranking is approximate: the returned amounts are
+     * never lower than the exact ones and exceed them by at most the returned error. It is periodically corrected
+     * with exact sums computed from the stored orders.
+     *
+     * @param window the period the sales are counted over
+     * @param metric the amount the inventories are ranked by
+     * @param limit  the maximum number of returned inventories
+     * @return the dtos representing the best-selling inventories, from the best-selling one
+     */
+    @GetMapping("top-selling")
+    @PreAuthorize("hasAnyRole('ROLE_SALES', 'ROLE_INVENTORY')")
+    @Operation(summary = "Retrieves the best-selling inventories", description = "Required authorization role (any): ROLE_SALES, ROLE_INVENTORY")
+    @Parameter(name = "window", description = "the period the sales are counted over: the current day or week")
+    @Parameter(name = "metric", description = "the amount the inventories are ranked by: units sold or their value")
+    @Parameter(name = "limit", description = "the maximum number of returned inventories")
+    @ApiResponse(responseCode = "200", description = "Best-selling inventories retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public List<TopSellingInventoryDto> getTopSelling(@RequestParam(defaultValue = "DAY") Window window,
+                                                      @RequestParam(defaultValue = "UNITS") Metric metric,
+                                                      @RequestParam(defaultValue = "50") int limit) {
+        return topSellingInventoryService.getTopSelling(window, metric, limit);
+    }
+
+    /**
+     * Opens a stream of server-sent events describing created {@link Order orders} ({@code order-created}) and
+     * changes of their statuses ({@code order-status-changed}). Events are sent once the changes are committed. A
+     * client reconnecting with the {@code Last-Event-ID} header resumes after the last received event; if that is not
+     * possible, a {@code resync} event is sent first and the client should reload the orders. Clients that cannot
+     * keep up with the stream are sent a {@code lagged} event and disconnected.
+     *
+     * @param lastEventId the id of the last event received before reconnecting
+     * @return the emitter of the events
+     */
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ROLE_SALES', 'ROLE_INVENTORY')")
+    @Operation(summary = "Streams order changes", description = "Required authorization role (any): ROLE_SALES, ROLE_INVENTORY")
+    @Parameter(name = "Last-Event-ID", description = "the id of the last event received before reconnecting")
+    @ApiResponse(responseCode = "200", description = "Stream opened successfully")
     @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
     @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
     @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
-    public List<OrderDto> getAllOrders() {
-        return orderService.getAllOrders();
+    public SseEmitter streamOrderEvents(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return orderStreamService.subscribe(lastEventId);
     }
 
     /**
@@ -70,21 +288,128 @@ public class OrderController {
     /**
      * Creates a new {@link Order} and stores it in database. The data of the new order entity should be passed as data
      * of a {@code CategoryRequestDto} in the request body.
+     * <p>
+     * If an idempotency key is sent, the order is created only once for the key. Repeated requests with the same key
+     * return the response of the first one.
+     * <p>
+     * In the write-behind acceptance mode a request without an idempotency key is only validated and accepted. The
+     * order is stored asynchronously and the response contains the id allocated for it, whose status can be checked
+     * at the location returned with the response.
      *
-     * @param request the object specifying data of the {@code Order} entity to be created
-     * @return the dto representing the created {@code Order} entity
+     * @param idempotencyKey the optional key identifying retries of the same request
+     * @param request        the object specifying data of the {@code Order} entity to be created
+     * @return the dto representing the created {@code Order} entity or the accepted order
      */
     @PostMapping()
-    @ResponseStatus(HttpStatus.CREATED)
     @PreAuthorize("hasRole('ROLE_SALES')")
-    @Operation(summary = "Creates a new client", description = "Required authorization role (any): ROLE_SALES", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "JSON object specifying data of the order to be created"))
-    @ApiResponse(responseCode = "201", description = "Order created successfully")
+    @Operation(summary = "Creates a new order", description = "Required authorization role (any): ROLE_SALES", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "JSON object specifying data of the order to be created"))
+    @Parameter(name = "Idempotency-Key", description = "the unique key of the request, repeated when the request is retried")
+    @ApiResponse(responseCode = "201", description = "Order created successfully", content = @Content(schema = @Schema(implementation = OrderDto.class)))
+    @ApiResponse(responseCode = "202", description = "Order accepted to be stored asynchronously", content = @Content(schema = @Schema(implementation = OrderAcceptanceDto.class)))
+    @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "409", description = "Not enough stock of the ordered items or idempotency key reused with a different request", content = @Content)
+    @ApiResponse(responseCode = "503", description = "Too many orders waiting to be stored, the request should be retried later", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public ResponseEntity<Object> createOrder(@RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                                              @RequestBody @Valid OrderCreationRequestDto request) {
+        if (idempotencyKey != null) {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                                 .body(orderIdempotencyService.saveOrder(idempotencyKey, request));
+        }
+        if (orderAcceptanceService.isWriteBehind()) {
+            OrderAcceptanceDto acceptance = orderAcceptanceService.acceptOrder(request);
+            return ResponseEntity.accepted()
+                                 .location(URI.create("/order/" + acceptance.getId() + "/acceptance"))
+                                 .body(acceptance);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+                             .body(orderService.saveOrder(request));
+    }
+
+    /**
+     * Retrieves the state of an {@link Order} accepted in the write-behind acceptance mode. The order is durably
+     * stored once its status is {@code PERSISTED}.
+     *
+     * @param id the id allocated for the accepted order
+     * @return the dto representing the state of the accepted order
+     */
+    @GetMapping("{id}/acceptance")
+    @PreAuthorize("hasRole('ROLE_SALES')")
+    @Operation(summary = "Retrieves the state of an accepted order", description = "Required authorization role: ROLE_SALES")
+    @Parameter(name = "id", description = "the id allocated for the accepted order")
+    @ApiResponse(responseCode = "200", description = "State of the order retrieved successfully")
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "404", description = "No order accepted with the id", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public OrderAcceptanceDto getAcceptance(@PathVariable @Min(value = 1, message = "Order id cannot be smaller than 1") Long id) {
+        return orderAcceptanceService.getAcceptance(id);
+    }
+
+    /**
+     * Creates multiple new {@link Order orders} from a stream of newline delimited JSON. Each line of the request body
+     * has to contain one {@code OrderCreationRequestDto}. The orders are stored in chunks and for every non-blank line
+     * of the request a line with either the id of the created order or the errors that prevented its creation is
+     * streamed back.
+     *
+     * @param request  the request with the stream of order creation requests in its body
+     * @param response the response the results are streamed to
+     * @throws IOException if reading the request or writing the response fails
+     */
+    @PostMapping(value = "batch", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ROLE_SALES')")
+    @Operation(summary = "Creates multiple orders", description = "Required authorization role: ROLE_SALES", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Newline delimited JSON objects specifying data of the orders to be created"))
+    @ApiResponse(responseCode = "200", description = "Request processed, the result of every line is in the response body")
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public void createOrders(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        orderBatchService.createOrders(request.getInputStream(), response.getOutputStream());
+    }
+
+    /**
+     * Changes the statuses of multiple {@link Order orders} at once. Every order can be referred to at most once.
+     * Transitions which are not allowed or which conflict with concurrent changes of the orders are not applied, but
+     * they do not prevent applying the other transitions. The outcome of every requested transition is returned.
+     *
+     * @param request the object specifying the requested status transitions
+     * @return the outcomes of the transitions in the order of the request
+     */
+    @PostMapping("status")
+    @PreAuthorize("hasAnyRole('ROLE_SALES', 'ROLE_INVENTORY')")
+    @Operation(summary = "Changes statuses of multiple orders", description = "Required authorization role (any): ROLE_SALES, ROLE_INVENTORY", requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "JSON object specifying the status transitions of the orders"))
+    @ApiResponse(responseCode = "200", description = "Request processed, the outcome of every transition is in the response body")
+    @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
+    @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
+    @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
+    public List<OrderStatusTransitionResultDto> transitionOrderStatuses(@RequestBody @Valid OrderStatusTransitionRequestDto request) {
+        return orderService.transitionStatuses(request);
+    }
+
+    /**
+     * Cancels an {@link Order} that is being processed and returns the stock reserved for its items back to the
+     * inventory.
+     *
+     * @param id the id of the order to be cancelled
+     * @return the dto representing the cancelled {@code Order} entity
+     */
+    @PostMapping("{id}/cancel")
+    @PreAuthorize("hasRole('ROLE_SALES')")
+    @Operation(summary = "Cancels an order", description = "Required authorization role: ROLE_SALES")
+    @Parameter(name = "id", description = "the id of the order to be cancelled")
+    @ApiResponse(responseCode = "200", description = "Order cancelled successfully")
     @ApiResponse(responseCode = "400", description = "Request validation error", content = @Content)
     @ApiResponse(responseCode = "401", description = "Request lacks valid authentication", content = @Content)
     @ApiResponse(responseCode = "403", description = "Request not authorized (lack of sufficient authorization role)", content = @Content)
+    @ApiResponse(responseCode = "404", description = "Order with specified id not found", content = @Content)
+    @ApiResponse(responseCode = "409", description = "Order is not being processed anymore", content = @Content)
     @ApiResponse(responseCode = "5xx", description = "Unexpected error", content = @Content)
-    public OrderDto createOrder(@RequestBody @Valid OrderCreationRequestDto request) {
-        return orderService.saveOrder(request);
+    public OrderDto cancelOrder(@PathVariable @Min(value = 1, message = "Order id cannot be smaller than 1") Long id) {
+        return orderService.cancelOrder(id);
     }
 
 }
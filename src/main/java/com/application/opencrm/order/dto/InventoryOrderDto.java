@@ -0,0 +1,38 @@
+package com.application.opencrm.order.dto;
+
+import com.application.opencrm.inventory.model.Inventory;
+import com.application.opencrm.order.model.Order;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigInteger;
+import java.time.Instant;
+
+/**
+ * Data transfer object of an {@link Order} containing a given {@link Inventory}, together with the ordered quantity of
+ * the inventory.
+ */
+@Getter
+@AllArgsConstructor
+public class InventoryOrderDto {
+
+    @Schema(description = "Order id", example = "1")
+    private final Long orderId;
+
+    @Schema(description = "Id of the client who made the order", example = "1")
+    private final Long clientId;
+
+    @Schema(description = "Current order status", allowableValues = {"PROCESSING", "SHIPPED", "CANCELLED"}, example = "PROCESSING")
+    private final String status;
+
+    @Schema(description = "Time of creation of the order", example = "2022-10-01T12:00:00Z")
+    private final Instant createdAt;
+
+    @Schema(description = "Type of quantity units the inventory is measured in", example = "COUNTABLE", allowableValues = {"COUNTABLE", "DISTANCE", "AREA", "VOLUME", "MASS"})
+    private final String quantityType;
+
+    @Schema(description = "Ordered units of the inventory", example = "1000")
+    private final BigInteger units;
+
+}
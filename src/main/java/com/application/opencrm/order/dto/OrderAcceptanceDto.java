@@ -0,0 +1,46 @@
+package com.application.opencrm.order.dto;
+
+import com.application.opencrm.order.model.Order;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Data transfer object of the state of an {@link Order} accepted for asynchronous creation.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderAcceptanceDto {
+
+    @Schema(description = "Id allocated for the order", example = "1")
+    private final Long id;
+
+    @Schema(description = "State of the order", allowableValues = {"PENDING", "PERSISTED", "FAILED"}, example = "PENDING")
+    private final Status status;
+
+    @Schema(description = "Reasons why the order could not be created")
+    private final List<String> errors;
+
+    /**
+     * States of an accepted order.
+     */
+    public enum Status {
+        /**
+         * The order is waiting to be stored.
+         */
+        PENDING,
+        /**
+         * The order has been durably stored.
+         */
+        PERSISTED,
+        /**
+         * The order could not be stored and will not be retried.
+         */
+        FAILED
+    }
+
+}
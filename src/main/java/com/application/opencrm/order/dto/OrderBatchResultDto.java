@@ -0,0 +1,29 @@
+package com.application.opencrm.order.dto;
+
+import com.application.opencrm.order.model.Order;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Data transfer object of the outcome of a single line of a batch {@link Order} creation request. Exactly one of
+ * {@code id} and {@code errors} is set.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderBatchResultDto {
+
+    @Schema(description = "Number of the line of the request this result refers to, starting from 1", example = "1")
+    private final long line;
+
+    @Schema(description = "Id of the created order", example = "1")
+    private final Long id;
+
+    @Schema(description = "Reasons why the order could not be created")
+    private final List<String> errors;
+
+}
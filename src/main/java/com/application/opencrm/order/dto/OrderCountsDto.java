@@ -0,0 +1,23 @@
+package com.application.opencrm.order.dto;
+
+import com.application.opencrm.order.model.Order;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Data transfer object of the numbers of {@link Order orders} by status and of open orders of selected clients.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCountsDto {
+
+    @Schema(description = "Numbers of orders by status", example = "{\"PROCESSING\": 12, \"SHIPPED\": 140, \"CANCELLED\": 3}")
+    private final Map<String, Long> byStatus;
+
+    @Schema(description = "Numbers of open orders by ids of the requested clients", example = "{\"1\": 2}")
+    private final Map<Long, Long> openByClient;
+
+}
@@ -34,4 +34,7 @@ public class OrderDto {
     @Schema(description = "Time of creation of the order", example = "TODO")
     private final Instant createdAt;
 
+    @Schema(description = "Version of the order, incremented on every change", example = "0")
+    private final Long version;
+
 }
@@ -0,0 +1,34 @@
+package com.application.opencrm.order.dto;
+
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Data transfer object of criteria narrowing down a listing of {@link Order orders}. Criteria set to {@code null}
+ * are not applied.
+ */
+@Builder
+@Getter
+@AllArgsConstructor
+public class OrderFilterDto {
+
+    private final OrderStatus status;
+
+    private final Long clientId;
+
+    /**
+     * Inclusive lower bound of the order creation time.
+     */
+    private final Instant createdFrom;
+
+    /**
+     * Exclusive upper bound of the order creation time.
+     */
+    private final Instant createdTo;
+
+}
@@ -0,0 +1,37 @@
+package com.application.opencrm.order.dto;
+
+import com.application.opencrm.common.validation.ValidEnum;
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Data transfer object of a requested change of the status of a single {@link Order}.
+ */
+@Builder
+@Getter
+@AllArgsConstructor
+public class OrderStatusTransitionDto {
+
+    @Schema(description = "Id of the order", required = true, example = "1")
+    @NotNull(message = "Order id cannot be null")
+    @Min(value = 1, message = "Order id cannot be smaller than 1")
+    private final Long id;
+
+    @Schema(description = "New status of the order", allowableValues = {"PROCESSING", "SHIPPED", "CANCELLED"}, required = true, example = "SHIPPED")
+    @NotBlank(message = "Status cannot be blank")
+    @ValidEnum(message = "Status must be an Enum value of OrderStatus", targetClassType = OrderStatus.class)
+    private final String status;
+
+    @Schema(description = "Version of the order the change is based on, if absent the current version is used", example = "0")
+    @Min(value = 0, message = "Version cannot be smaller than 0")
+    private final Long version;
+
+}
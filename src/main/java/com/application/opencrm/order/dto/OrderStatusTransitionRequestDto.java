@@ -0,0 +1,29 @@
+package com.application.opencrm.order.dto;
+
+import com.application.opencrm.order.model.Order;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Data transfer object of a request to change the statuses of multiple {@link Order orders}.
+ */
+@Builder
+@Getter
+@AllArgsConstructor
+public class OrderStatusTransitionRequestDto {
+
+    public static final int MAX_TRANSITIONS = 1000;
+
+    @Schema(description = "Requested status changes, at most one per order", required = true)
+    @NotEmpty(message = "Transitions cannot be empty")
+    @Size(max = MAX_TRANSITIONS, message = "At most " + MAX_TRANSITIONS + " transitions can be requested at once")
+    private final List<@Valid OrderStatusTransitionDto> transitions;
+
+}
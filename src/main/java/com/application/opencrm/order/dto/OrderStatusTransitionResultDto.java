@@ -0,0 +1,51 @@
+package com.application.opencrm.order.dto;
+
+import com.application.opencrm.order.model.Order;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Data transfer object of the outcome of a requested change of the status of a single {@link Order}.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderStatusTransitionResultDto {
+
+    @Schema(description = "Id of the order", example = "1")
+    private final Long id;
+
+    @Schema(description = "Outcome of the change")
+    private final Outcome outcome;
+
+    @Schema(description = "Status of the order after the request, absent if the order was not found", allowableValues = {"PROCESSING", "SHIPPED", "CANCELLED"}, example = "SHIPPED")
+    private final String status;
+
+    @Schema(description = "Version of the order after the request, absent if the order was not found", example = "1")
+    private final Long version;
+
+    /**
+     * Possible outcomes of a status change.
+     */
+    public enum Outcome {
+        /**
+         * The status has been changed.
+         */
+        UPDATED,
+        /**
+         * The order does not exist.
+         */
+        NOT_FOUND,
+        /**
+         * The order cannot be moved from its current status to the requested one.
+         */
+        INVALID_TRANSITION,
+        /**
+         * The order has been modified concurrently or its version differs from the requested one.
+         */
+        VERSION_CONFLICT
+    }
+
+}
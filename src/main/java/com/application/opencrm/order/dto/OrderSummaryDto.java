@@ -0,0 +1,40 @@
+package com.application.opencrm.order.dto;
+
+import com.application.opencrm.order.model.Order;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigInteger;
+import java.time.Instant;
+
+/**
+ * Data transfer object of a summary of a {@link Order} for listings which do not need the items and addresses of
+ * the order.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderSummaryDto {
+
+    @Schema(description = "Order id", example = "1")
+    private final Long id;
+
+    @Schema(description = "Id of the client who made the order", example = "1")
+    private final Long clientId;
+
+    @Schema(description = "Name of the client at the time the order was made", example = "John Smith")
+    private final String clientName;
+
+    @Schema(description = "Current order status", allowableValues = {"PROCESSING", "SHIPPED", "CANCELLED"}, example = "PROCESSING")
+    private final String status;
+
+    @Schema(description = "Time of creation of the order", example = "2022-10-01T12:00:00Z")
+    private final Instant createdAt;
+
+    @Schema(description = "Number of ordered items", example = "3")
+    private final int lineCount;
+
+    @Schema(description = "Total value of the ordered items", example = "1500")
+    private final BigInteger totalValue;
+
+}
@@ -0,0 +1,25 @@
+package com.application.opencrm.order.dto;
+
+import com.application.opencrm.inventory.model.Inventory;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Data transfer object of an {@link Inventory} among the best-selling ones, with the approximate amount sold.
+ */
+@Getter
+@AllArgsConstructor
+public class TopSellingInventoryDto {
+
+    @Schema(description = "Inventory id", example = "1")
+    private final Long inventoryId;
+
+    @Schema(description = "Estimated units sold or their value, never lower than the exact amount unless capped at "
+        + "the maximum 64-bit integer", example = "120")
+    private final long value;
+
+    @Schema(description = "Maximum overestimation of the value", example = "0")
+    private final long maxError;
+
+}
@@ -0,0 +1,31 @@
+package com.application.opencrm.order.event;
+
+import com.application.opencrm.inventory.model.Inventory;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Event published when {@link Inventory inventories} are sold by creating orders. A single event summarizes all
+ * orders created in a transaction.
+ */
+@Getter
+@AllArgsConstructor
+public class InventorySoldEvent {
+
+    /**
+     * Creation time of the orders.
+     */
+    private final Instant soldAt;
+
+    private final Map<Long, BigInteger> unitsByInventoryId;
+
+    /**
+     * Value of the sold units, for the inventories which have a price.
+     */
+    private final Map<Long, BigInteger> revenueByInventoryId;
+
+}
@@ -0,0 +1,25 @@
+package com.application.opencrm.order.event;
+
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Event published when an {@link Order} is created.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCreatedEvent {
+
+    private final Long orderId;
+
+    private final Long clientId;
+
+    private final OrderStatus status;
+
+    private final Instant createdAt;
+
+}
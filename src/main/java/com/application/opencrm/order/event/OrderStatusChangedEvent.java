@@ -0,0 +1,25 @@
+package com.application.opencrm.order.event;
+
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event published when the status of an {@link Order} changes.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+
+    private final Long orderId;
+
+    private final Long clientId;
+
+    private final OrderStatus previousStatus;
+
+    private final OrderStatus status;
+
+    private final Long version;
+
+}
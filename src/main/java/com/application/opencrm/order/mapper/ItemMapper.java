@@ -2,6 +2,7 @@ package com.application.opencrm.order.mapper;
 
 import com.application.opencrm.order.dto.ItemDto;
 import com.application.opencrm.order.model.Item;
+import com.application.opencrm.order.repository.projection.OrderItemProjection;
 import org.mapstruct.InjectionStrategy;
 import org.mapstruct.Mapper;
 
@@ -19,4 +20,12 @@ public interface ItemMapper {
      */
     ItemDto itemToItemDto(Item item);
 
+    /**
+     * Maps an {@code OrderItemProjection} to {@code ItemDto} object.
+     *
+     * @param item the {@code item} to be mapped
+     * @return the mapped {@code ItemDto}
+     */
+    ItemDto orderItemToItemDto(OrderItemProjection item);
+
 }
@@ -1,11 +1,17 @@
 package com.application.opencrm.order.mapper;
 
+import com.application.opencrm.order.dto.ItemDto;
 import com.application.opencrm.order.dto.OrderDto;
+import com.application.opencrm.order.dto.OrderingAddressDto;
 import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.repository.projection.OrderHeaderProjection;
 import org.mapstruct.Builder;
 import org.mapstruct.CollectionMappingStrategy;
 import org.mapstruct.InjectionStrategy;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
 
 /**
  * Mapper used to handle mapping operations on {@link Order} objects and on related dtos.
@@ -22,4 +28,28 @@ public interface OrderMapper {
      */
     OrderDto orderToOrderDto(Order order);
 
+    /**
+     * Maps an {@code OrderHeaderProjection} to {@code OrderDto} object without items and ordering addresses.
+     *
+     * @param header the {@code header} to be mapped
+     * @return the mapped {@code OrderDto}
+     */
+    @Mapping(target = "items", ignore = true)
+    @Mapping(target = "billingAddress", ignore = true)
+    @Mapping(target = "shippingAddress", ignore = true)
+    OrderDto orderHeaderToOrderDto(OrderHeaderProjection header);
+
+    /**
+     * Maps an {@code OrderHeaderProjection} together with the dtos of its items and ordering addresses to
+     * {@code OrderDto} object.
+     *
+     * @param header          the {@code header} to be mapped
+     * @param items           the dtos of the items of the order
+     * @param billingAddress  the dto of the billing address of the order
+     * @param shippingAddress the dto of the shipping address of the order
+     * @return the mapped {@code OrderDto}
+     */
+    OrderDto orderHeaderToOrderDto(OrderHeaderProjection header, List<ItemDto> items, OrderingAddressDto billingAddress,
+                                   OrderingAddressDto shippingAddress);
+
 }
@@ -0,0 +1,23 @@
+package com.application.opencrm.order.mapper;
+
+import com.application.opencrm.order.dto.OrderSummaryDto;
+import com.application.opencrm.order.model.OrderSummary;
+import org.mapstruct.Builder;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+
+/**
+ * Mapper used to handle mapping operations on {@link OrderSummary} objects and on related dtos.
+ */
+@Mapper(componentModel = "spring", injectionStrategy = InjectionStrategy.CONSTRUCTOR, builder = @Builder(disableBuilder = true))
+public interface OrderSummaryMapper {
+
+    /**
+     * Maps an {@code OrderSummary} to {@code OrderSummaryDto} object.
+     *
+     * @param orderSummary the {@code orderSummary} to be mapped
+     * @return the mapped {@code OrderSummaryDto}
+     */
+    OrderSummaryDto orderSummaryToOrderSummaryDto(OrderSummary orderSummary);
+
+}
@@ -3,6 +3,7 @@ package com.application.opencrm.order.mapper;
 import com.application.opencrm.client.model.Address;
 import com.application.opencrm.order.dto.OrderingAddressDto;
 import com.application.opencrm.order.model.OrderingAddress;
+import com.application.opencrm.order.repository.projection.OrderingAddressProjection;
 import org.mapstruct.InjectionStrategy;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -21,7 +22,16 @@ public interface OrderingAddressMapper {
      */
     OrderingAddressDto orderingAddressToOrderingAddressDto(OrderingAddress orderingAddress);
 
+    /**
+     * Maps an {@code OrderingAddressProjection} to {@code OrderingAddressDto} object.
+     *
+     * @param orderingAddress the {@code orderingAddress} to be mapped
+     * @return the mapped {@code OrderingAddressDto}
+     */
+    OrderingAddressDto orderingAddressProjectionToOrderingAddressDto(OrderingAddressProjection orderingAddress);
+
     @Mapping(source = "id", target = "id", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
     OrderingAddress addressToOrderingAddress(Address address);
 
 }
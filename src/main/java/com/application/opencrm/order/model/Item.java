@@ -6,6 +6,7 @@ import lombok.*;
 
 import javax.persistence.*;
 import java.math.BigInteger;
+import java.time.Instant;
 
 /**
  * Entity representing an ordered item.
@@ -24,7 +25,8 @@ import java.math.BigInteger;
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+    @SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -35,7 +37,6 @@ public class Item {
     @JoinColumn(name = "order_id")
     private Order order;
 
-    @Column(unique = true)
     private String name;
 
     @Enumerated(EnumType.STRING)
@@ -45,4 +46,10 @@ public class Item {
 
     private BigInteger unitPrice;
 
+    /**
+     * Creation time of the order the item belongs to. Items are partitioned by it together with their orders.
+     */
+    @Column(name = "created_at")
+    private Instant createdAt;
+
 }
@@ -2,7 +2,9 @@ package com.application.opencrm.order.model;
 
 import com.application.opencrm.client.model.Client;
 import lombok.*;
-import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import java.time.Instant;
@@ -11,6 +13,8 @@ import java.util.List;
 
 /**
  * Entity representing an order.
+ * <p>
+ * The id of an order can be allocated from the sequence before the order is persisted, in which case it is kept.
  */
 @Entity
 @Getter
@@ -22,7 +26,10 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @GenericGenerator(name = "order_seq", strategy = "com.application.opencrm.common.persistence.PreassignableSequenceGenerator",
+        parameters = {@Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "order_table_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")})
     private Long id;
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.PERSIST, orphanRemoval = true, fetch = FetchType.LAZY)
@@ -33,24 +40,39 @@ public class Order {
     @JoinColumn(name = "client_id")
     private Client client;
 
-    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "billing_address_id")
     private OrderingAddress billingAddress;
 
-    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "shipping_address_id")
     private OrderingAddress shippingAddress;
 
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
-    @CreationTimestamp
     @Column(name = "created_at")
     private Instant createdAt;
 
+    @Version
+    private Long version;
+
     public void addItem(Item item) {
         items.add(item);
         item.setOrder(this);
     }
 
+    /**
+     * Sets the creation time when the order is persisted, so that it is known before the order is inserted into the
+     * database. The items are stored in the partition of the month the order was created in, so they receive the same
+     * time.
+     */
+    @PrePersist
+    void initializeCreatedAt() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+        items.forEach(item -> item.setCreatedAt(createdAt));
+    }
+
 }
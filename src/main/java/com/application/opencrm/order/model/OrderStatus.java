@@ -1,8 +1,47 @@
 package com.application.opencrm.order.model;
 
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
  * States in the life cycle of an {@link Order}.
+ * <p>
+ * An order is created as {@link #PROCESSING} and can then be either {@link #SHIPPED} or {@link #CANCELLED}. Shipped
+ * and cancelled orders cannot change their status anymore.
  */
 public enum OrderStatus {
-    PROCESSING, SHIPPED, CANCELLED
+    PROCESSING, SHIPPED, CANCELLED;
+
+    /**
+     * Checks whether an order in this status can be moved to the target status.
+     *
+     * @param target the requested status
+     * @return {@code true} if the transition is allowed
+     */
+    public boolean canTransitionTo(OrderStatus target) {
+        return this == PROCESSING && (target == SHIPPED || target == CANCELLED);
+    }
+
+    /**
+     * Checks whether an order in this status is closed, i.e. it cannot be moved to any other status.
+     *
+     * @return {@code true} if no transition from this status is allowed
+     */
+    public boolean isClosed() {
+        return Arrays.stream(values())
+                     .noneMatch(this::canTransitionTo);
+    }
+
+    /**
+     * Returns the statuses from which an order can be moved to the target status.
+     *
+     * @param target the requested status
+     * @return the allowed source statuses, empty if no order can be moved to the target status
+     */
+    public static Set<OrderStatus> sourcesOf(OrderStatus target) {
+        return Arrays.stream(values())
+                     .filter(source -> source.canTransitionTo(target))
+                     .collect(Collectors.toSet());
+    }
 }
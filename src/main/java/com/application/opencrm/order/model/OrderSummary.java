@@ -0,0 +1,69 @@
+package com.application.opencrm.order.model;
+
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.math.BigInteger;
+import java.time.Instant;
+
+/**
+ * Entity representing a denormalized summary of an {@link Order}, used by listings which do not need the items and
+ * addresses of the orders.
+ * <p>
+ * The summary is written in the same transaction as the order it summarizes and it is never modified independently
+ * of it. The name of the client is a snapshot taken when the order was created.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "order_summary")
+public class OrderSummary implements Persistable<Long> {
+
+    @Id
+    @Column(name = "order_id")
+    private Long id;
+
+    @Column(name = "client_id")
+    private Long clientId;
+
+    @Column(name = "client_name")
+    private String clientName;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @Column(name = "line_count")
+    private int lineCount;
+
+    @Column(name = "total_value")
+    private BigInteger totalValue;
+
+    /**
+     * Whether the summary has already been stored in database. The id is assigned from the order, so it cannot be
+     * used to tell new summaries apart from stored ones.
+     */
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted = false;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+}
@@ -2,6 +2,7 @@ package com.application.opencrm.order.model;
 
 import com.application.opencrm.client.model.Address;
 import lombok.*;
+import org.hibernate.annotations.Immutable;
 
 import javax.persistence.*;
 
@@ -12,14 +13,20 @@ import javax.persistence.*;
  *  creating an {@link Order} and doesn't change. If any of {@code Addresses} data changes, this shouldn't change the
  *  data in orders that have already been made. Because of this, all the unchangeable fields are stored in {@code OrderingAddress}
  *  entity.
+ * <p>
+ *  Ordering addresses are immutable snapshots identified by a hash of their content. Orders with identical addresses
+ *  share a single snapshot instead of each storing its own copy.
  */
 @Entity
 @Getter
 @Setter
+@Immutable
+@Table(name = "ordering_address")
 public class OrderingAddress {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ordering_address_seq")
+    @SequenceGenerator(name = "ordering_address_seq", sequenceName = "ordering_address_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "person_name")
@@ -35,4 +42,7 @@ public class OrderingAddress {
     @Column(name = "postal_code")
     private String postalCode;
 
+    @Column(name = "content_hash", nullable = false, unique = true, length = 64)
+    private String contentHash;
+
 }
@@ -1,12 +1,91 @@
 package com.application.opencrm.order.repository;
 
 import com.application.opencrm.order.model.Item;
+import com.application.opencrm.order.model.OrderStatus;
+import com.application.opencrm.order.repository.projection.InventoryOrderProjection;
+import com.application.opencrm.order.repository.projection.InventorySalesProjection;
+import com.application.opencrm.order.repository.projection.InventoryUnitsProjection;
+import com.application.opencrm.order.repository.projection.OrderItemProjection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Repository used to perform basic CRUD and SQL operations on {@link Item} entities.
  */
 @Repository
 public interface ItemRepository extends CrudRepository<Item, Long> {
+
+    /**
+     * Finds the items of the specified orders, sorted by their ids.
+     * <p>
+     * The orders have to be created within the specified range. Items carry the creation time of their orders, so the
+     * range lets the database read only the partitions of the months it covers.
+     *
+     * @param orderIds    the ids of the orders
+     * @param createdFrom the creation time of the oldest order
+     * @param createdTo   the creation time of the newest order
+     * @return the projections of the found items
+     */
+    @Query("select new com.application.opencrm.order.repository.projection.OrderItemProjection(i.order.id, i.name, "
+           + "i.quantityType, i.units, i.unitPrice) from Item i where i.order.id in :orderIds "
+           + "and i.createdAt between :createdFrom and :createdTo order by i.id")
+    List<OrderItemProjection> findByOrderIds(@Param("orderIds") Collection<Long> orderIds,
+                                             @Param("createdFrom") Instant createdFrom,
+                                             @Param("createdTo") Instant createdTo);
+
+    /**
+     * Sums the ordered units of each inventory over the items of the specified orders. Items carry the creation time
+     * of their orders, so the creation time range of the orders restricts the search to their partitions.
+     *
+     * @param orderIds    the ids of the orders
+     * @param createdFrom the creation time of the oldest order
+     * @param createdTo   the creation time of the newest order
+     * @return the summed units, one projection per ordered inventory
+     */
+    @Query("select new com.application.opencrm.order.repository.projection.InventoryUnitsProjection(i.inventory.id, "
+           + "sum(i.units)) from Item i where i.order.id in :orderIds and i.createdAt between :createdFrom and "
+           + ":createdTo group by i.inventory.id")
+    List<InventoryUnitsProjection> sumUnitsByInventory(@Param("orderIds") Collection<Long> orderIds,
+                                                       @Param("createdFrom") Instant createdFrom,
+                                                       @Param("createdTo") Instant createdTo);
+
+    /**
+     * Sums the units of each inventory and their value over the items of orders created since the specified time,
+     * except for cancelled orders.
+     *
+     * @param from     the inclusive lower bound of the order creation time
+     * @param excluded the status of orders which are not counted
+     * @return the summed units and value, one projection per ordered inventory
+     */
+    @Query("select new com.application.opencrm.order.repository.projection.InventorySalesProjection(i.inventory.id, "
+           + "sum(i.units), sum(i.units * i.unitPrice)) from Item i "
+           + "where i.createdAt >= :from and i.order.status <> :excluded group by i.inventory.id")
+    List<InventorySalesProjection> sumSalesByInventory(@Param("from") Instant from,
+                                                       @Param("excluded") OrderStatus excluded);
+
+    /**
+     * Finds the items of an inventory joined with the fields of their orders, sorted by the ids of the orders from the
+     * newest to the oldest. Orders contain at most one item per inventory, so every row refers to a different order.
+     * The items are found by a range scan of the index on {@code (inventory_id, order_id)} and their orders by the full
+     * primary key, since items carry the creation time of their orders.
+     *
+     * @param inventoryId   the id of the inventory
+     * @param beforeOrderId the exclusive upper bound of the order ids
+     * @param pageable      the limit of the number of returned rows
+     * @return the projections of the found items
+     */
+    @Query("select new com.application.opencrm.order.repository.projection.InventoryOrderProjection(o.id, "
+           + "o.client.id, o.status, o.createdAt, i.quantityType, i.units) from Item i join i.order o "
+           + "where i.inventory.id = :inventoryId and o.id < :beforeOrderId and o.createdAt = i.createdAt order by o.id desc")
+    List<InventoryOrderProjection> findOrdersByInventory(@Param("inventoryId") Long inventoryId,
+                                                         @Param("beforeOrderId") Long beforeOrderId,
+                                                         Pageable pageable);
+
 }
@@ -0,0 +1,28 @@
+package com.application.opencrm.order.repository;
+
+import com.application.opencrm.order.model.OrderIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * Repository used to perform basic CRUD and SQL operations on {@link OrderIdempotencyKey} entities.
+ */
+@Repository
+public interface OrderIdempotencyKeyRepository extends JpaRepository<OrderIdempotencyKey, String> {
+
+    /**
+     * Deletes idempotency keys created before the specified time.
+     *
+     * @param threshold the time before which the keys were created
+     * @return the number of deleted keys
+     */
+    @Modifying
+    @Query("delete from OrderIdempotencyKey k where k.createdAt < :threshold")
+    int deleteCreatedBefore(@Param("threshold") Instant threshold);
+
+}
@@ -0,0 +1,65 @@
+package com.application.opencrm.order.repository;
+
+import com.application.opencrm.common.pagination.KeysetCursor;
+import com.application.opencrm.order.dto.OrderFilterDto;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Predicates shared by the queries listing orders, whether they read the orders or their summaries.
+ */
+final class OrderPredicates {
+
+    private OrderPredicates() {
+    }
+
+    /**
+     * Builds the predicates of the filter given by the user, leaving out the criteria which are not set.
+     *
+     * @param cb        the criteria builder of the query
+     * @param filter    the filter of the orders
+     * @param status    the path to the status of the order
+     * @param clientId  the path to the id of the client of the order
+     * @param createdAt the path to the creation time of the order
+     * @return the mutable list of the predicates, to which the caller may add its own
+     */
+    static List<Predicate> filter(CriteriaBuilder cb, OrderFilterDto filter, Path<?> status, Path<Long> clientId,
+                                  Path<Instant> createdAt) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(status, filter.getStatus()));
+        }
+        if (filter.getClientId() != null) {
+            predicates.add(cb.equal(clientId, filter.getClientId()));
+        }
+        if (filter.getCreatedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(createdAt, filter.getCreatedFrom()));
+        }
+        if (filter.getCreatedTo() != null) {
+            predicates.add(cb.lessThan(createdAt, filter.getCreatedTo()));
+        }
+        return predicates;
+    }
+
+    /**
+     * Builds the predicate selecting the orders which come after the cursor in the {@code (created_at, id)} descending
+     * order.
+     *
+     * @param cb        the criteria builder of the query
+     * @param createdAt the path to the creation time of the order
+     * @param id        the path to the id of the order
+     * @param after     the cursor holding the creation time and the id of the last order of the previous page
+     * @return the keyset predicate
+     */
+    static Predicate after(CriteriaBuilder cb, Path<Instant> createdAt, Path<Long> id, KeysetCursor after) {
+        Instant afterCreatedAt = after.getInstant(0);
+        return cb.or(cb.lessThan(createdAt, afterCreatedAt),
+            cb.and(cb.equal(createdAt, afterCreatedAt), cb.lessThan(id, after.getLong(1))));
+    }
+
+}
@@ -1,17 +1,105 @@
 package com.application.opencrm.order.repository;
 
 import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import com.application.opencrm.order.repository.projection.ClientCountProjection;
+import com.application.opencrm.order.repository.projection.OrderHeaderProjection;
+import com.application.opencrm.order.repository.projection.OrderStatusProjection;
+import com.application.opencrm.order.repository.projection.StatusCountProjection;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository used to perform basic CRUD and SQL operations on {@link Order} entities.
  */
 @Repository
-public interface OrderRepository extends CrudRepository<Order, Long> {
+public interface OrderRepository extends CrudRepository<Order, Long>, OrderRepositoryCustom {
 
-    List<Order> findAll();
+    /**
+     * Finds the columns of the table of orders of an order with specified id, without loading the entity. The order is
+     * searched in every partition, so {@link #findHeaderByIdAndCreatedAt} should be preferred when the creation time
+     * of the order is known.
+     *
+     * @param id the id of the searched order
+     * @return the projection of the found order, empty if there is none
+     */
+    @Query("select new com.application.opencrm.order.repository.projection.OrderHeaderProjection(o.id, o.status, "
+           + "o.createdAt, o.version, o.billingAddress.id, o.shippingAddress.id) from Order o where o.id = :id")
+    Optional<OrderHeaderProjection> findHeaderById(@Param("id") Long id);
+
+    /**
+     * Finds the columns of the table of orders of an order with specified id and creation time, without loading the
+     * entity. The creation time is the partition key, so only the partition of the order is searched.
+     *
+     * @param id        the id of the searched order
+     * @param createdAt the creation time of the searched order
+     * @return the projection of the found order, empty if there is none
+     */
+    @Query("select new com.application.opencrm.order.repository.projection.OrderHeaderProjection(o.id, o.status, "
+           + "o.createdAt, o.version, o.billingAddress.id, o.shippingAddress.id) from Order o where o.id = :id "
+           + "and o.createdAt = :createdAt")
+    Optional<OrderHeaderProjection> findHeaderByIdAndCreatedAt(@Param("id") Long id,
+                                                               @Param("createdAt") Instant createdAt);
+
+    /**
+     * Finds the statuses, versions and clients of orders with specified ids. The orders are searched in every
+     * partition, so {@link #findStatusesByIdInAndCreatedAtIn} should be preferred when the creation times of the orders
+     * are known.
+     *
+     * @param ids the ids of the searched orders
+     * @return the projections of the found orders
+     */
+    @Query("select new com.application.opencrm.order.repository.projection.OrderStatusProjection(o.id, o.client.id, "
+           + "o.status, o.version, o.createdAt) from Order o where o.id in :ids")
+    List<OrderStatusProjection> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the statuses, versions and clients of orders with specified ids which were created at one of the specified
+     * times. The creation time is the partition key, so only the partitions of the orders are searched.
+     *
+     * @param ids        the ids of the searched orders
+     * @param createdAts the creation times of the searched orders
+     * @return the projections of the found orders
+     */
+    @Query("select new com.application.opencrm.order.repository.projection.OrderStatusProjection(o.id, o.client.id, "
+           + "o.status, o.version, o.createdAt) from Order o where o.id in :ids and o.createdAt in :createdAts")
+    List<OrderStatusProjection> findStatusesByIdInAndCreatedAtIn(@Param("ids") Collection<Long> ids,
+                                                                 @Param("createdAts") Collection<Instant> createdAts);
+
+    /**
+     * Checks whether an order with specified id and creation time exists. Only the partition of the order is searched.
+     *
+     * @param id        the id of the order
+     * @param createdAt the creation time of the order
+     * @return {@code true} if the order exists
+     */
+    boolean existsByIdAndCreatedAt(Long id, Instant createdAt);
+
+    /**
+     * Counts orders in each status.
+     *
+     * @return the numbers of orders, one projection per status having any orders
+     */
+    @Query("select new com.application.opencrm.order.repository.projection.StatusCountProjection(o.status, count(o)) "
+           + "from Order o group by o.status")
+    List<StatusCountProjection> countByStatus();
+
+    /**
+     * Counts orders of each client which are in one of the specified statuses.
+     *
+     * @param statuses the statuses of the counted orders
+     * @return the numbers of orders, one projection per client having any such orders
+     */
+    @Query("select new com.application.opencrm.order.repository.projection.ClientCountProjection(o.client.id, "
+           + "count(o)) from Order o where o.status in :statuses group by o.client.id")
+    List<ClientCountProjection> countByClientAndStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
 
 }
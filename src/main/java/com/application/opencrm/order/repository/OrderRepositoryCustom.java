@@ -0,0 +1,78 @@
+package com.application.opencrm.order.repository;
+
+import com.application.opencrm.common.pagination.KeysetCursor;
+import com.application.opencrm.order.dto.OrderFilterDto;
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import com.application.opencrm.order.repository.projection.OrderExportRow;
+import com.application.opencrm.order.repository.projection.OrderHeaderProjection;
+import com.application.opencrm.order.repository.projection.OrderStatusProjection;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repository fragment with queries on {@link Order} entities that are built dynamically and therefore cannot be
+ * expressed as derived or annotated queries.
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Finds a page of orders matching the filter, sorted from the newest to the oldest by {@code (createdAt, id)}.
+     * Only the columns of the table of orders are read.
+     *
+     * @param filter the criteria the orders have to match
+     * @param after  the cursor pointing at the last order of the previous page, {@code null} for the first page
+     * @param limit  the maximum number of returned orders
+     * @return the projections of the found orders in the order of sorting
+     */
+    List<OrderHeaderProjection> findPage(OrderFilterDto filter, KeysetCursor after, int limit);
+
+    /**
+     * Finds a page of orders of a client, sorted from the newest to the oldest by {@code (createdAt, id)}. Only the
+     * columns of the table of orders are read, so the page is served by a range scan of the index on
+     * {@code (client_id, created_at, id)}.
+     *
+     * @param clientId the id of the client
+     * @param after    the cursor pointing at the last order of the previous page, {@code null} for the first page
+     * @param limit    the maximum number of returned orders
+     * @return the projections of the found orders in the order of sorting
+     */
+    List<OrderHeaderProjection> findClientPage(Long clientId, KeysetCursor after, int limit);
+
+    /**
+     * Changes the status of each of the orders which still has the version it was read with and is in one of the
+     * source statuses, incrementing its version. Every order is changed by its own conditional update restricted to
+     * the creation time of the order, so only its partition is searched, and the updates are sent to the database in a
+     * single JDBC batch, so the result tells exactly which orders were changed by this call and not by a concurrent
+     * transaction.
+     *
+     * @param orders  the orders as read before the change
+     * @param sources the statuses the orders have to be in
+     * @param target  the new status of the orders
+     * @return the number of rows changed by the update of each order, in the order of the orders
+     */
+    int[] updateStatuses(List<OrderStatusProjection> orders, Collection<OrderStatus> sources, OrderStatus target);
+
+    /**
+     * Allocates an id from the sequence of orders without storing any order. An order with the allocated id keeps
+     * it when it is persisted.
+     *
+     * @return the allocated id
+     */
+    Long allocateId();
+
+    /**
+     * Streams the items of orders matching the filter joined with the fields of their orders and clients, sorted by
+     * {@code (createdAt, id)} of the orders and by the ids of the items. The rows are read from a forward-only cursor
+     * in portions of the specified size, so the result is never held in memory as a whole. The stream has to be
+     * consumed and closed within a transaction.
+     *
+     * @param filter    the criteria the orders have to match
+     * @param fetchSize the number of rows fetched from the database at once
+     * @return the stream of the rows
+     */
+    Stream<OrderExportRow> streamExportRows(OrderFilterDto filter, int fetchSize);
+
+}
@@ -0,0 +1,171 @@
+package com.application.opencrm.order.repository;
+
+import com.application.opencrm.client.model.Client;
+import com.application.opencrm.common.pagination.KeysetCursor;
+import com.application.opencrm.order.dto.OrderFilterDto;
+import com.application.opencrm.order.model.Item;
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import com.application.opencrm.order.repository.projection.OrderExportRow;
+import com.application.opencrm.order.repository.projection.OrderHeaderProjection;
+import com.application.opencrm.order.repository.projection.OrderStatusProjection;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.jpa.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link OrderRepositoryCustom} based on the criteria API, the id generator of Hibernate and JDBC
+ * batches.
+ */
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderHeaderProjection> findPage(OrderFilterDto filter, KeysetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderHeaderProjection> query = cb.createQuery(OrderHeaderProjection.class);
+        Root<Order> order = query.from(Order.class);
+        Path<Instant> createdAt = order.get("createdAt");
+        Path<Long> id = order.get("id");
+
+        List<Predicate> predicates = filterPredicates(cb, order, filter);
+        if (after != null) {
+            predicates.add(afterPredicate(cb, order, after));
+        }
+
+        query.select(header(cb, order))
+             .where(predicates.toArray(new Predicate[0]))
+             .orderBy(cb.desc(createdAt), cb.desc(id));
+        return entityManager.createQuery(query)
+                            .setMaxResults(limit)
+                            .setHint(QueryHints.HINT_READONLY, true)
+                            .getResultList();
+    }
+
+    @Override
+    public List<OrderHeaderProjection> findClientPage(Long clientId, KeysetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderHeaderProjection> query = cb.createQuery(OrderHeaderProjection.class);
+        Root<Order> order = query.from(Order.class);
+        Path<Instant> createdAt = order.get("createdAt");
+        Path<Long> id = order.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(order.get("client")
+                                     .get("id"), clientId));
+        if (after != null) {
+            predicates.add(afterPredicate(cb, order, after));
+        }
+
+        query.select(header(cb, order))
+             .where(predicates.toArray(new Predicate[0]))
+             .orderBy(cb.desc(createdAt), cb.desc(id));
+        return entityManager.createQuery(query)
+                            .setMaxResults(limit)
+                            .setHint(QueryHints.HINT_READONLY, true)
+                            .getResultList();
+    }
+
+    @Override
+    public int[] updateStatuses(List<OrderStatusProjection> orders, Collection<OrderStatus> sources,
+                                OrderStatus target) {
+        // pending changes of orders have to reach the database before it is updated behind Hibernate's back
+        entityManager.flush();
+        String sql = "UPDATE order_table SET status = ?, version = version + 1 WHERE id = ? AND created_at = ? "
+                     + "AND version = ? AND status IN (" + String.join(", ", Collections.nCopies(sources.size(), "?")) + ")";
+        return entityManager.unwrap(Session.class)
+                            .doReturningWork(connection -> {
+                                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                                    for (OrderStatusProjection order : orders) {
+                                        int index = 1;
+                                        statement.setString(index++, target.name());
+                                        statement.setLong(index++, order.getId());
+                                        statement.setTimestamp(index++, Timestamp.from(order.getCreatedAt()));
+                                        statement.setLong(index++, order.getVersion());
+                                        for (OrderStatus source : sources) {
+                                            statement.setString(index++, source.name());
+                                        }
+                                        statement.addBatch();
+                                    }
+                                    return statement.executeBatch();
+                                }
+                            });
+    }
+
+    @Override
+    public Long allocateId() {
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory()
+                                                                .unwrap(SessionFactoryImplementor.class);
+        IdentifierGenerator generator = sessionFactory.getMetamodel()
+                                                      .entityPersister(Order.class)
+                                                      .getIdentifierGenerator();
+        // the pooled optimizer of the generator hits the database only once per block of ids
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return (Long) generator.generate((SharedSessionContractImplementor) session, null);
+        }
+    }
+
+    @Override
+    public Stream<OrderExportRow> streamExportRows(OrderFilterDto filter, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderExportRow> query = cb.createQuery(OrderExportRow.class);
+        Root<Item> item = query.from(Item.class);
+        Join<Item, Order> order = item.join("order");
+        Join<Order, Client> client = order.join("client");
+
+        List<Predicate> predicates = filterPredicates(cb, order, filter);
+        // items carry the creation time of their orders, so the same bounds prune the partitions of items
+        if (filter.getCreatedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(item.get("createdAt"), filter.getCreatedFrom()));
+        }
+        if (filter.getCreatedTo() != null) {
+            predicates.add(cb.lessThan(item.get("createdAt"), filter.getCreatedTo()));
+        }
+
+        query.select(cb.construct(OrderExportRow.class, order.get("id"), order.get("createdAt"),
+                 order.get("status"), client.get("id"), client.get("name"), item.get("id"),
+                 item.get("inventory")
+                     .get("id"), item.get("name"), item.get("quantityType"), item.get("units"),
+                 item.get("unitPrice")))
+             .where(predicates.toArray(new Predicate[0]))
+             .orderBy(cb.asc(order.get("createdAt")), cb.asc(order.get("id")), cb.asc(item.get("id")));
+        return entityManager.createQuery(query)
+                            .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                            .setHint(QueryHints.HINT_READONLY, true)
+                            .getResultStream();
+    }
+
+    private CompoundSelection<OrderHeaderProjection> header(CriteriaBuilder cb, From<?, Order> order) {
+        return cb.construct(OrderHeaderProjection.class, order.get("id"), order.get("status"), order.get("createdAt"),
+            order.get("version"), order.get("billingAddress")
+                                       .get("id"), order.get("shippingAddress")
+                                                        .get("id"));
+    }
+
+    private Predicate afterPredicate(CriteriaBuilder cb, From<?, Order> order, KeysetCursor after) {
+        return OrderPredicates.after(cb, order.get("createdAt"), order.get("id"), after);
+    }
+
+    private List<Predicate> filterPredicates(CriteriaBuilder cb, From<?, Order> order, OrderFilterDto filter) {
+        return OrderPredicates.filter(cb, filter, order.get("status"), order.get("client")
+                                                                        .get("id"), order.get("createdAt"));
+    }
+
+}
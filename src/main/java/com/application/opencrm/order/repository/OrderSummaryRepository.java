@@ -0,0 +1,43 @@
+package com.application.opencrm.order.repository;
+
+import com.application.opencrm.order.model.OrderStatus;
+import com.application.opencrm.order.model.OrderSummary;
+import com.application.opencrm.order.repository.projection.OrderCreationTimeProjection;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository used to perform basic CRUD and SQL operations on {@link OrderSummary} entities.
+ */
+@Repository
+public interface OrderSummaryRepository extends CrudRepository<OrderSummary, Long>, OrderSummaryRepositoryCustom {
+
+    /**
+     * Finds the creation times of orders with specified ids. The summaries are not partitioned, so the creation times
+     * are found by their primary key.
+     *
+     * @param ids the ids of the orders
+     * @return the projections of the creation times of the orders having a summary
+     */
+    @Query("select new com.application.opencrm.order.repository.projection.OrderCreationTimeProjection(s.id, "
+           + "s.createdAt) from OrderSummary s where s.id in :ids")
+    List<OrderCreationTimeProjection> findCreationTimesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Changes the status in the summaries of orders.
+     *
+     * @param ids    the ids of the orders
+     * @param status the new status of the orders
+     * @return the number of updated summaries
+     */
+    @Modifying
+    @Query("update OrderSummary s set s.status = :status where s.id in :ids")
+    int updateStatuses(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status);
+
+}
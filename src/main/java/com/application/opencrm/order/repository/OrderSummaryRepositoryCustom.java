@@ -0,0 +1,45 @@
+package com.application.opencrm.order.repository;
+
+import com.application.opencrm.common.pagination.KeysetCursor;
+import com.application.opencrm.order.dto.OrderFilterDto;
+import com.application.opencrm.order.model.OrderSummary;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository fragment with queries on {@link OrderSummary} entities that are built dynamically and therefore cannot
+ * be expressed as derived or annotated queries.
+ */
+public interface OrderSummaryRepositoryCustom {
+
+    /**
+     * Finds a page of order summaries matching the filter, sorted from the newest to the oldest order by
+     * {@code (createdAt, id)}.
+     *
+     * @param filter the criteria the orders have to match
+     * @param after  the cursor pointing at the last order of the previous page, {@code null} for the first page
+     * @param limit  the maximum number of returned summaries
+     * @return the found summaries in the order of sorting
+     */
+    List<OrderSummary> findPage(OrderFilterDto filter, KeysetCursor after, int limit);
+
+    /**
+     * Finds orders which have no summary and locks them until the end of the transaction, so their statuses cannot
+     * change before their summaries are created.
+     *
+     * @param afterId the id the ids of the orders have to be greater than
+     * @param limit   the maximum number of returned ids
+     * @return the ids of the found orders in ascending order
+     */
+    List<Long> lockOrdersWithoutSummary(Long afterId, int limit);
+
+    /**
+     * Creates the summaries of orders from the orders, their clients and their items with a single statement.
+     *
+     * @param orderIds the ids of the orders, which must not have summaries
+     * @return the number of created summaries
+     */
+    int insertSummaries(Collection<Long> orderIds);
+
+}
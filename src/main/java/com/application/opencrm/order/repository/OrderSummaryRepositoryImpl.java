@@ -0,0 +1,79 @@
+package com.application.opencrm.order.repository;
+
+import com.application.opencrm.common.pagination.KeysetCursor;
+import com.application.opencrm.order.dto.OrderFilterDto;
+import com.application.opencrm.order.model.OrderSummary;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of {@link OrderSummaryRepositoryCustom} based on the criteria API and native queries.
+ */
+public class OrderSummaryRepositoryImpl implements OrderSummaryRepositoryCustom {
+
+    private static final String LOCK_ORDERS_WITHOUT_SUMMARY = "SELECT o.id FROM order_table o WHERE o.id > :afterId "
+                                                              + "AND NOT EXISTS (SELECT 1 FROM order_summary s WHERE "
+                                                              + "s.order_id = o.id) ORDER BY o.id LIMIT :limit "
+                                                              + "FOR UPDATE";
+
+    // items carry the creation time of their orders, so the subqueries read only the partitions of the orders
+    private static final String INSERT_SUMMARIES = "INSERT INTO order_summary (order_id, client_id, client_name, "
+                                                   + "status, created_at, line_count, total_value) "
+                                                   + "SELECT o.id, o.client_id, c.name, o.status, o.created_at, "
+                                                   + "(SELECT count(*) FROM item i WHERE i.order_id = o.id AND "
+                                                   + "i.created_at = o.created_at), "
+                                                   + "(SELECT coalesce(sum(i.units * i.unit_price), 0) FROM item i "
+                                                   + "WHERE i.order_id = o.id AND i.created_at = o.created_at) "
+                                                   + "FROM order_table o LEFT JOIN client c ON c.id = o.client_id "
+                                                   + "WHERE o.id IN (:ids)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderSummary> findPage(OrderFilterDto filter, KeysetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderSummary> query = cb.createQuery(OrderSummary.class);
+        Root<OrderSummary> summary = query.from(OrderSummary.class);
+        Path<Instant> createdAt = summary.get("createdAt");
+        Path<Long> id = summary.get("id");
+
+        List<Predicate> predicates = OrderPredicates.filter(cb, filter, summary.get("status"),
+            summary.get("clientId"), createdAt);
+        if (after != null) {
+            predicates.add(OrderPredicates.after(cb, createdAt, id, after));
+        }
+
+        query.select(summary)
+             .where(predicates.toArray(new Predicate[0]))
+             .orderBy(cb.desc(createdAt), cb.desc(id));
+        return entityManager.createQuery(query)
+                            .setMaxResults(limit)
+                            .getResultList();
+    }
+
+    @Override
+    public List<Long> lockOrdersWithoutSummary(Long afterId, int limit) {
+        List<?> ids = entityManager.createNativeQuery(LOCK_ORDERS_WITHOUT_SUMMARY)
+                                   .setParameter("afterId", afterId)
+                                   .setParameter("limit", limit)
+                                   .getResultList();
+        return ids.stream()
+                  .map(id -> ((Number) id).longValue())
+                  .collect(Collectors.toList());
+    }
+
+    @Override
+    public int insertSummaries(Collection<Long> orderIds) {
+        return entityManager.createNativeQuery(INSERT_SUMMARIES)
+                            .setParameter("ids", orderIds)
+                            .executeUpdate();
+    }
+
+}
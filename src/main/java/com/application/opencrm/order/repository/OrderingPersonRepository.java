@@ -1,12 +1,40 @@
 package com.application.opencrm.order.repository;
 
 import com.application.opencrm.order.model.OrderingAddress;
-import org.springframework.data.repository.CrudRepository;
+import com.application.opencrm.order.repository.projection.OrderingAddressProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository used to perform basic CRUD and SQL operations on {@link OrderingAddress} entities.
  */
 @Repository
-public interface OrderingPersonRepository extends CrudRepository<OrderingAddress, Long> {
+public interface OrderingPersonRepository extends JpaRepository<OrderingAddress, Long>, OrderingPersonRepositoryCustom {
+
+    /**
+     * Finds the id of the ordering address snapshot with specified content hash.
+     *
+     * @param contentHash the hash of the content of the snapshot
+     * @return the id of the found snapshot, empty if there is none
+     */
+    @Query("select a.id from OrderingAddress a where a.contentHash = :contentHash")
+    Optional<Long> findIdByContentHash(@Param("contentHash") String contentHash);
+
+    /**
+     * Finds the contents of the ordering address snapshots with specified ids, without loading the entities.
+     *
+     * @param ids the ids of the snapshots
+     * @return the projections of the found snapshots
+     */
+    @Query("select new com.application.opencrm.order.repository.projection.OrderingAddressProjection(a.id, "
+           + "a.personName, a.country, a.city, a.region, a.street, a.buildingNumber, a.postalCode) "
+           + "from OrderingAddress a where a.id in :ids")
+    List<OrderingAddressProjection> findProjectionsByIdIn(@Param("ids") Collection<Long> ids);
+
 }
@@ -0,0 +1,23 @@
+package com.application.opencrm.order.repository;
+
+import com.application.opencrm.order.model.OrderingAddress;
+
+import java.util.Optional;
+
+/**
+ * Repository fragment with statements on {@link OrderingAddress} entities that cannot be expressed as derived or
+ * annotated queries.
+ */
+public interface OrderingPersonRepositoryCustom {
+
+    /**
+     * Inserts an ordering address snapshot on the connection of the current transaction unless a snapshot with the
+     * same content hash already exists. A conflicting snapshot inserted concurrently makes the insert do nothing
+     * instead of failing, so the current transaction stays usable.
+     *
+     * @param snapshot the snapshot to be inserted, with its content hash set
+     * @return the id of the inserted snapshot, empty if a snapshot with the same content hash exists
+     */
+    Optional<Long> insertIfAbsent(OrderingAddress snapshot);
+
+}
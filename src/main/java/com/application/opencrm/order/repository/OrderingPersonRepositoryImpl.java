@@ -0,0 +1,49 @@
+package com.application.opencrm.order.repository;
+
+import com.application.opencrm.order.model.OrderingAddress;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Optional;
+
+/**
+ * Implementation of {@link OrderingPersonRepositoryCustom} based on the id generator of Hibernate and a native insert.
+ */
+public class OrderingPersonRepositoryImpl implements OrderingPersonRepositoryCustom {
+
+    private static final String INSERT_IF_ABSENT = "INSERT INTO ordering_address (id, person_name, country, city, "
+                                                   + "region, street, building_number, postal_code, content_hash) "
+                                                   + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Long> insertIfAbsent(OrderingAddress snapshot) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = session.getFactory()
+                                               .unwrap(SessionFactoryImplementor.class)
+                                               .getMetamodel()
+                                               .entityPersister(OrderingAddress.class)
+                                               .getIdentifierGenerator();
+        // the id comes from the same pooled generator as the ids of persisted snapshots, so the two never collide;
+        // the conflict can only be on the content hash, the only other unique key
+        Long id = (Long) generator.generate(session, snapshot);
+        int inserted = entityManager.createNativeQuery(INSERT_IF_ABSENT)
+                                    .setParameter(1, id)
+                                    .setParameter(2, snapshot.getPersonName())
+                                    .setParameter(3, snapshot.getCountry())
+                                    .setParameter(4, snapshot.getCity())
+                                    .setParameter(5, snapshot.getRegion())
+                                    .setParameter(6, snapshot.getStreet())
+                                    .setParameter(7, snapshot.getBuildingNumber())
+                                    .setParameter(8, snapshot.getPostalCode())
+                                    .setParameter(9, snapshot.getContentHash())
+                                    .executeUpdate();
+        return inserted == 1 ? Optional.of(id) : Optional.empty();
+    }
+
+}
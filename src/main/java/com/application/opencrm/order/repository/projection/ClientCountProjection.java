@@ -0,0 +1,19 @@
+package com.application.opencrm.order.repository.projection;
+
+import com.application.opencrm.client.model.Client;
+import com.application.opencrm.order.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Projection of the number of {@link Order orders} of a {@link Client}.
+ */
+@Getter
+@AllArgsConstructor
+public class ClientCountProjection {
+
+    private final Long clientId;
+
+    private final Long count;
+
+}
@@ -0,0 +1,31 @@
+package com.application.opencrm.order.repository.projection;
+
+import com.application.opencrm.inventory.model.QuantityType;
+import com.application.opencrm.order.model.Item;
+import com.application.opencrm.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigInteger;
+import java.time.Instant;
+
+/**
+ * Projection of an {@link Item} of a given inventory joined with the fields of its order.
+ */
+@Getter
+@AllArgsConstructor
+public class InventoryOrderProjection {
+
+    private final Long orderId;
+
+    private final Long clientId;
+
+    private final OrderStatus status;
+
+    private final Instant createdAt;
+
+    private final QuantityType quantityType;
+
+    private final BigInteger units;
+
+}
@@ -0,0 +1,22 @@
+package com.application.opencrm.order.repository.projection;
+
+import com.application.opencrm.inventory.model.Inventory;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigInteger;
+
+/**
+ * Projection of the units of an {@link Inventory} sold over a period and of their value.
+ */
+@Getter
+@AllArgsConstructor
+public class InventorySalesProjection {
+
+    private final Long inventoryId;
+
+    private final BigInteger units;
+
+    private final BigInteger revenue;
+
+}
@@ -0,0 +1,20 @@
+package com.application.opencrm.order.repository.projection;
+
+import com.application.opencrm.inventory.model.Inventory;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigInteger;
+
+/**
+ * Projection of the number of units of an {@link Inventory} summed over items of several orders.
+ */
+@Getter
+@AllArgsConstructor
+public class InventoryUnitsProjection {
+
+    private final Long inventoryId;
+
+    private final BigInteger units;
+
+}
@@ -0,0 +1,20 @@
+package com.application.opencrm.order.repository.projection;
+
+import com.application.opencrm.order.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Projection of the creation time of an {@link Order}, which is the partition key of orders and their items.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCreationTimeProjection {
+
+    private final Long id;
+
+    private final Instant createdAt;
+
+}
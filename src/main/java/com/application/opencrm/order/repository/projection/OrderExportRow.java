@@ -0,0 +1,42 @@
+package com.application.opencrm.order.repository.projection;
+
+import com.application.opencrm.inventory.model.QuantityType;
+import com.application.opencrm.order.model.Item;
+import com.application.opencrm.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigInteger;
+import java.time.Instant;
+
+/**
+ * Projection of an ordered {@link Item} joined with the fields of its order and of the client who made the order,
+ * used to export orders without loading them as entities.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderExportRow {
+
+    private final Long orderId;
+
+    private final Instant createdAt;
+
+    private final OrderStatus status;
+
+    private final Long clientId;
+
+    private final String clientName;
+
+    private final Long itemId;
+
+    private final Long inventoryId;
+
+    private final String itemName;
+
+    private final QuantityType quantityType;
+
+    private final BigInteger units;
+
+    private final BigInteger unitPrice;
+
+}
@@ -0,0 +1,31 @@
+package com.application.opencrm.order.repository.projection;
+
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Projection of the columns of an {@link Order} which are stored in the table of orders itself, without its items and
+ * ordering addresses. Orders are partitioned by their creation time, so queries which know it besides the id let the
+ * database skip the partitions that cannot contain the orders.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderHeaderProjection {
+
+    private final Long id;
+
+    private final OrderStatus status;
+
+    private final Instant createdAt;
+
+    private final Long version;
+
+    private final Long billingAddressId;
+
+    private final Long shippingAddressId;
+
+}
@@ -0,0 +1,27 @@
+package com.application.opencrm.order.repository.projection;
+
+import com.application.opencrm.inventory.model.QuantityType;
+import com.application.opencrm.order.model.Item;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigInteger;
+
+/**
+ * Projection of an {@link Item} together with the id of the order it belongs to.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderItemProjection {
+
+    private final Long orderId;
+
+    private final String name;
+
+    private final QuantityType quantityType;
+
+    private final BigInteger units;
+
+    private final BigInteger unitPrice;
+
+}
@@ -0,0 +1,28 @@
+package com.application.opencrm.order.repository.projection;
+
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Projection of the status, version and client of an {@link Order}, used to validate status transitions without loading
+ * whole orders. The creation time is carried along as the partition key of the order.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderStatusProjection {
+
+    private final Long id;
+
+    private final Long clientId;
+
+    private final OrderStatus status;
+
+    private final Long version;
+
+    private final Instant createdAt;
+
+}
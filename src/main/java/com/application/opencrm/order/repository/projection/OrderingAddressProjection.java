@@ -0,0 +1,30 @@
+package com.application.opencrm.order.repository.projection;
+
+import com.application.opencrm.order.model.OrderingAddress;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Projection of the content of an {@link OrderingAddress} together with its id.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderingAddressProjection {
+
+    private final Long id;
+
+    private final String personName;
+
+    private final String country;
+
+    private final String city;
+
+    private final String region;
+
+    private final String street;
+
+    private final String buildingNumber;
+
+    private final String postalCode;
+
+}
@@ -0,0 +1,19 @@
+package com.application.opencrm.order.repository.projection;
+
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Projection of the number of {@link Order orders} in a status.
+ */
+@Getter
+@AllArgsConstructor
+public class StatusCountProjection {
+
+    private final OrderStatus status;
+
+    private final Long count;
+
+}
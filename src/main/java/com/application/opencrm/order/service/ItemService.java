@@ -1,37 +1,155 @@
 package com.application.opencrm.order.service;
 
+import com.application.opencrm.common.exception.ResourceNotFoundException;
+import com.application.opencrm.common.pagination.CursorPage;
+import com.application.opencrm.common.pagination.KeysetCursor;
 import com.application.opencrm.inventory.model.Inventory;
 import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.InventoryOrderDto;
 import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.dto.ItemDto;
+import com.application.opencrm.order.mapper.ItemMapper;
 import com.application.opencrm.order.model.Item;
-import com.application.opencrm.order.model.OrderingAddress;
+import com.application.opencrm.order.model.OrderStatus;
+import com.application.opencrm.order.repository.ItemRepository;
+import com.application.opencrm.order.repository.projection.InventoryOrderProjection;
+import com.application.opencrm.order.repository.projection.InventorySalesProjection;
+import com.application.opencrm.order.repository.projection.InventoryUnitsProjection;
+import com.application.opencrm.order.repository.projection.OrderItemProjection;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
- * Service handling operations on {@link OrderingAddress} objects.
+ * Service handling operations on {@link Item} objects.
  */
 @Service
 @RequiredArgsConstructor
 public class ItemService {
 
     private final InventoryService inventoryService;
+    private final ItemRepository repository;
+    private final ItemMapper mapper;
+
+    /**
+     * Creates {@code Items} based on the data contained within request objects.
+     * <p>
+     * All referenced {@link Inventory inventories} are retrieved with a single query. Requests referring to the same
+     * inventory are merged into one {@code Item} with summed units. The items are returned in the order in which their
+     * inventories first appear in the requests.
+     *
+     * @param requests the objects containing data of {@code Item} entities to be created
+     * @return the created {@code Items}
+     */
+    protected List<Item> buildItems(List<ItemCreationRequestDto> requests) {
+        Map<Long, BigInteger> unitsByInventoryId = new LinkedHashMap<>();
+        requests.forEach(request -> unitsByInventoryId.merge(request.getInventoryId(), request.getUnits(), BigInteger::add));
+        Map<Long, Inventory> inventories = inventoryService.getInventoriesFromRepository(unitsByInventoryId.keySet());
+        return unitsByInventoryId.entrySet()
+                                 .stream()
+                                 .map(entry -> buildItem(inventories.get(entry.getKey()), entry.getValue()))
+                                 .collect(Collectors.toList());
+    }
 
     /**
-     * Creates {@code Item} based on the data contained within a request object.
+     * Retrieves a page of the orders containing an {@link Inventory}, together with the ordered quantity of the
+     * inventory, sorted from the newest to the oldest order id.
+     * <p>
+     * The listing is keyset paginated on the order id. The page is read from the items of the inventory joined with
+     * their orders by a single query, without loading any entity.
      *
-     * @param request the object containing data of {@code Category} entity to be created
-     * @return the created {@code Item}
+     * @param inventoryId the id of the inventory
+     * @param cursor      the cursor returned with the previous page, {@code null} for the first page
+     * @param size        the maximum number of orders in the page
+     * @return the page of dtos representing the found orders
      */
-    protected Item buildItem(ItemCreationRequestDto request) {
-        Inventory inventory = inventoryService.getInventoryFromRepository(request.getInventoryId());
+    @Transactional(readOnly = true)
+    public CursorPage<InventoryOrderDto> getInventoryOrders(Long inventoryId, String cursor, int size) {
+        CursorPage.checkPageSize(size);
+        Long beforeOrderId = cursor == null ? Long.MAX_VALUE : KeysetCursor.decode(cursor, 1)
+                                                                           .getLong(0);
+        List<InventoryOrderProjection> rows = repository.findOrdersByInventory(inventoryId, beforeOrderId,
+            PageRequest.ofSize(size + 1));
+        if (rows.isEmpty() && cursor == null && !inventoryService.inventoryExists(inventoryId)) {
+            throw new ResourceNotFoundException("Inventory not found in the database.");
+        }
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = KeysetCursor.of(rows.get(size - 1)
+                                             .getOrderId())
+                                     .encode();
+        }
+        return new CursorPage<>(rows.stream()
+                                    .map(row -> new InventoryOrderDto(row.getOrderId(), row.getClientId(),
+                                        row.getStatus()
+                                           .name(), row.getCreatedAt(), row.getQuantityType()
+                                                                           .name(), row.getUnits()))
+                                    .collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * Retrieves the items of the specified orders as dtos grouped by the ids of the orders, without loading any
+     * entity. The orders have to be created within the specified range.
+     *
+     * @param orderIds    the ids of the orders
+     * @param createdFrom the creation time of the oldest order
+     * @param createdTo   the creation time of the newest order
+     * @return the lists of the dtos of items by order ids, sorted by the ids of the items
+     */
+    protected Map<Long, List<ItemDto>> getItemsByOrderId(Collection<Long> orderIds, Instant createdFrom,
+                                                         Instant createdTo) {
+        return repository.findByOrderIds(orderIds, createdFrom, createdTo)
+                         .stream()
+                         .collect(Collectors.groupingBy(OrderItemProjection::getOrderId,
+                             Collectors.mapping(mapper::orderItemToItemDto, Collectors.toList())));
+    }
+
+    /**
+     * Sums the ordered units of each {@link Inventory} over the items of the specified orders with a single query,
+     * restricted to the partitions of the creation time range of the orders.
+     *
+     * @param orderIds    the ids of the orders
+     * @param createdFrom the creation time of the oldest order
+     * @param createdTo   the creation time of the newest order
+     * @return the summed units by inventory ids
+     */
+    protected Map<Long, BigInteger> sumUnitsByInventoryId(Collection<Long> orderIds, Instant createdFrom,
+                                                          Instant createdTo) {
+        return repository.sumUnitsByInventory(orderIds, createdFrom, createdTo)
+                         .stream()
+                         .collect(Collectors.toMap(InventoryUnitsProjection::getInventoryId,
+                             InventoryUnitsProjection::getUnits));
+    }
+
+    /**
+     * Sums the units of each inventory and their value over the items of orders created since the specified time.
+     * Cancelled orders are not counted.
+     *
+     * @param from the inclusive lower bound of the order creation time
+     * @return the projections of the summed units and value, one per ordered inventory
+     */
+    protected List<InventorySalesProjection> sumSalesByInventory(Instant from) {
+        return repository.sumSalesByInventory(from, OrderStatus.CANCELLED);
+    }
+
+    private Item buildItem(Inventory inventory, BigInteger units) {
         return Item.builder()
-                      .units(request.getUnits())
-                      .inventory(inventory)
-                      .name(inventory.getName())
-                      .quantityType(inventory.getQuantityType())
-                      .unitPrice(inventory.getUnitPrice())
-                      .build();
+                   .units(units)
+                   .inventory(inventory)
+                   .name(inventory.getName())
+                   .quantityType(inventory.getQuantityType())
+                   .unitPrice(inventory.getUnitPrice())
+                   .build();
     }
 
 }
@@ -0,0 +1,225 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.common.cache.BoundedLruCache;
+import com.application.opencrm.common.exception.InvalidRequestException;
+import com.application.opencrm.common.exception.ResourceConflictException;
+import com.application.opencrm.common.exception.ResourceNotFoundException;
+import com.application.opencrm.common.exception.ServiceUnavailableException;
+import com.application.opencrm.infrastructure.exception.ApiLevelException;
+import com.application.opencrm.order.dto.OrderAcceptanceDto;
+import com.application.opencrm.order.dto.OrderAcceptanceDto.Status;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.model.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service accepting {@link Order orders} for write-behind creation.
+ * <p>
+ * In the {@code write-behind} acceptance mode an order is only validated and given an id from the order sequence
+ * before the request is answered. The order is then put into a bounded queue, from which a single writer thread
+ * stores the queued orders in group commits, up to {@code group-size} orders per transaction, so the cost of a
+ * commit is shared by all orders accepted while the previous group was being written. If a group cannot be stored,
+ * its orders are stored one by one and only the failing ones are rejected. When the queue is full, orders are not
+ * accepted until the writer catches up.
+ * <p>
+ * Accepted orders are kept only in memory until they are stored, so they are lost if the application stops
+ * abruptly. A client has to check the status of an accepted order to know that it has been durably stored. Pending
+ * and failed orders are known only to the instance which accepted them, stored orders to every instance.
+ */
+@Slf4j
+@Service
+public class OrderAcceptanceService {
+
+    static final String WRITE_BEHIND_MODE = "write-behind";
+
+    private final OrderService orderService;
+    private final boolean writeBehind;
+    private final int groupSize;
+    private final BlockingQueue<AcceptedOrder> queue;
+    private final Map<Long, AcceptedOrder> pending = new ConcurrentHashMap<>();
+    private final BoundedLruCache<Long, List<String>> failures;
+    private volatile boolean running;
+    private Thread writer;
+
+    public OrderAcceptanceService(OrderService orderService,
+                                  @Value("${order.acceptance.mode:sync}") String mode,
+                                  @Value("${order.acceptance.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${order.acceptance.group-size:200}") int groupSize,
+                                  @Value("${order.acceptance.failure-cache-size:10000}") int failureCacheSize) {
+        this.orderService = orderService;
+        this.writeBehind = WRITE_BEHIND_MODE.equals(mode);
+        this.groupSize = groupSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.failures = new BoundedLruCache<>(failureCacheSize);
+    }
+
+    /**
+     * @return {@code true} if orders are created with write-behind instead of within the request
+     */
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * Accepts an order for creation. The order is stored asynchronously.
+     *
+     * @param request the object containing data of {@code Order} entity to be created
+     * @return the dto representing the accepted order with its allocated id
+     * @throws ServiceUnavailableException if the queue of accepted orders is full or the writer is stopped
+     */
+    public OrderAcceptanceDto acceptOrder(OrderCreationRequestDto request) {
+        if (!running) {
+            throw new ServiceUnavailableException("Orders are not accepted at the moment, try again later.");
+        }
+        if (queue.remainingCapacity() == 0) {
+            throw new ServiceUnavailableException("Too many orders waiting to be stored, try again later.");
+        }
+        AcceptedOrder order = new AcceptedOrder(orderService.allocateOrderId(), request);
+        pending.put(order.id, order);
+        if (!queue.offer(order)) {
+            pending.remove(order.id);
+            throw new ServiceUnavailableException("Too many orders waiting to be stored, try again later.");
+        }
+        return new OrderAcceptanceDto(order.id, Status.PENDING, null);
+    }
+
+    /**
+     * Retrieves the state of an accepted order. An order is reported as persisted once it is found in the database.
+     *
+     * @param id the id allocated for the order
+     * @return the dto representing the state of the order
+     * @throws ResourceNotFoundException if the order is neither pending, failed nor stored
+     */
+    public OrderAcceptanceDto getAcceptance(Long id) {
+        if (pending.containsKey(id)) {
+            return new OrderAcceptanceDto(id, Status.PENDING, null);
+        }
+        List<String> errors = failures.get(id);
+        if (errors != null) {
+            return new OrderAcceptanceDto(id, Status.FAILED, errors);
+        }
+        if (orderService.orderExists(id)) {
+            return new OrderAcceptanceDto(id, Status.PERSISTED, null);
+        }
+        throw new ResourceNotFoundException("Accepted order not found.");
+    }
+
+    @PostConstruct
+    void startWriter() {
+        if (!writeBehind) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeOrders, "order-acceptance-writer");
+        writer.start();
+    }
+
+    /**
+     * Stops accepting the orders and stores the ones already accepted before the application shuts down.
+     */
+    @PreDestroy
+    void stopWriter() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join();
+    }
+
+    private void writeOrders() {
+        List<AcceptedOrder> group = new ArrayList<>(groupSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AcceptedOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, groupSize - 1);
+                storeGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                      .interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error while storing accepted orders.", e);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void storeGroup(List<AcceptedOrder> group) {
+        try {
+            store(group);
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                reject(group.get(0), e);
+                return;
+            }
+            // the group is rolled back as a whole, so the orders are retried separately to find the failing ones
+            for (AcceptedOrder order : group) {
+                try {
+                    store(List.of(order));
+                } catch (RuntimeException orderException) {
+                    reject(order, orderException);
+                }
+            }
+        }
+    }
+
+    private void store(List<AcceptedOrder> orders) {
+        Map<Long, OrderCreationRequestDto> requestsById = new LinkedHashMap<>();
+        orders.forEach(order -> requestsById.put(order.id, order.request));
+        orderService.saveAcceptedOrders(requestsById);
+        orders.forEach(order -> pending.remove(order.id));
+    }
+
+    private void reject(AcceptedOrder order, RuntimeException e) {
+        failures.put(order.id, errorsOf(e));
+        pending.remove(order.id);
+    }
+
+    private List<String> errorsOf(RuntimeException e) {
+        List<String> details = null;
+        if (e instanceof InvalidRequestException) {
+            details = ((InvalidRequestException) e).getDetails();
+        } else if (e instanceof ResourceConflictException) {
+            details = ((ResourceConflictException) e).getDetails();
+        }
+        if (details != null && !details.isEmpty()) {
+            return details;
+        }
+        if (e instanceof ApiLevelException) {
+            return List.of(e.getMessage());
+        }
+        log.error("Unexpected error while storing an accepted order.", e);
+        return List.of("Unexpected error");
+    }
+
+    private static class AcceptedOrder {
+
+        private final Long id;
+        private final OrderCreationRequestDto request;
+
+        private AcceptedOrder(Long id, OrderCreationRequestDto request) {
+            this.id = id;
+            this.request = request;
+        }
+
+    }
+
+}
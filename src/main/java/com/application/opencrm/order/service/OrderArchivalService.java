@@ -0,0 +1,272 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Service maintaining the partitions of {@link Order orders} and their items and moving closed orders to the archive.
+ * <p>
+ * {@code order_table} and {@code item} are range partitioned by the month the order was created in. Partitions for
+ * the current month and the configured number of following months are created ahead, so new orders never land in
+ * the default partitions. Should the default partitions still catch rows of a month, for example after the job did
+ * not run for a while, the rows are moved to the partitions of the month when they are created. Closed orders older than the configured age are moved, together with their items, to
+ * {@code order_archive} and {@code item_archive}, which are partitioned by year and carry only their primary keys and
+ * the index needed to find items of an order. Monthly partitions left empty by the archival are dropped, so the hot
+ * tables and their indexes keep the size of the active history instead of growing with all orders ever placed.
+ * Archived orders are no longer returned by the order endpoints, their summaries stay available.
+ * <p>
+ * The service issues PostgreSQL specific statements and is enabled with the {@code order.archival.enabled} property.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "order.archival.enabled", havingValue = "true")
+public class OrderArchivalService {
+
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String SELECT_BATCH = "SELECT id FROM order_table WHERE created_at < :cutoff "
+                                               + "AND status IN (:statuses) ORDER BY created_at, id LIMIT :limit "
+                                               + "FOR UPDATE SKIP LOCKED";
+
+    private static final String MOVE_ITEMS = "WITH moved AS (DELETE FROM item WHERE order_id IN (:ids) "
+                                             + "AND created_at < :cutoff RETURNING id, \"name\", units, "
+                                             + "quantity_type, unit_price, inventory_id, order_id, created_at) "
+                                             + "INSERT INTO item_archive (id, \"name\", units, quantity_type, "
+                                             + "unit_price, inventory_id, order_id, created_at) SELECT * FROM moved";
+
+    private static final String MOVE_ORDERS = "WITH moved AS (DELETE FROM order_table WHERE id IN (:ids) "
+                                              + "AND created_at < :cutoff RETURNING id, created_at, status, "
+                                              + "billing_address_id, client_id, shipping_address_id, version) "
+                                              + "INSERT INTO order_archive (id, created_at, status, "
+                                              + "billing_address_id, client_id, shipping_address_id, version, "
+                                              + "archived_at) SELECT moved.*, :archivedAt FROM moved";
+
+    private static final String SELECT_PARTITIONS = "SELECT c.relname FROM pg_inherits i "
+                                                    + "JOIN pg_class c ON c.oid = i.inhrelid "
+                                                    + "JOIN pg_class p ON p.oid = i.inhparent "
+                                                    + "WHERE p.relname = :parent";
+
+    private static final String MOVE_FROM_DEFAULT = "WITH moved AS (DELETE FROM %1$s_default WHERE created_at >= "
+                                                    + ":start AND created_at < :end RETURNING *) "
+                                                    + "INSERT INTO %2$s SELECT * FROM moved";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderCounterService orderCounterService;
+    private final int ageDays;
+    private final int batchSize;
+    private final int monthsAhead;
+    private final List<String> closedStatuses = Arrays.stream(OrderStatus.values())
+                                                      .filter(OrderStatus::isClosed)
+                                                      .map(Enum::name)
+                                                      .collect(Collectors.toList());
+
+    public OrderArchivalService(NamedParameterJdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                OrderCounterService orderCounterService,
+                                @Value("${order.archival.age-days:365}") int ageDays,
+                                @Value("${order.archival.batch-size:1000}") int batchSize,
+                                @Value("${order.archival.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.orderCounterService = orderCounterService;
+        this.ageDays = ageDays;
+        this.batchSize = batchSize;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Creates the monthly partitions of the current and the following months before any order is created at startup.
+     */
+    @PostConstruct
+    void initializePartitions() {
+        createMonthlyPartitions(YearMonth.now());
+    }
+
+    /**
+     * Creates the upcoming monthly partitions, moves closed orders older than the configured age to the archive in
+     * batches and drops the monthly partitions left empty. Archived orders are no longer counted by the
+     * {@link OrderCounterService}, so its counters are reconciled afterwards.
+     */
+    @Scheduled(cron = "${order.archival.cron:0 30 3 * * *}")
+    public void archive() {
+        createMonthlyPartitions(YearMonth.now());
+        LocalDateTime cutoff = LocalDate.now()
+                                        .minusDays(ageDays)
+                                        .atStartOfDay();
+        createArchivePartitions(cutoff);
+        long archived = 0;
+        int moved;
+        do {
+            moved = archiveBatch(cutoff);
+            archived += moved;
+        } while (moved == batchSize);
+        log.info("Archived {} orders created before {}.", archived, cutoff);
+        if (archived > 0) {
+            orderCounterService.reconcile();
+        }
+        dropEmptyPartitions(YearMonth.from(cutoff));
+    }
+
+    /**
+     * Moves a single batch of closed orders created before the cutoff and their items to the archive. Orders locked
+     * by other transactions are skipped and archived by a later run.
+     *
+     * @param cutoff the creation time the archived orders have to be older than
+     * @return the number of archived orders
+     */
+    int archiveBatch(LocalDateTime cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            MapSqlParameterSource params = new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("statuses", closedStatuses)
+                .addValue("limit", batchSize);
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_BATCH, params, Long.class);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            params.addValue("ids", ids)
+                  .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+            jdbcTemplate.update(MOVE_ITEMS, params);
+            return jdbcTemplate.update(MOVE_ORDERS, params);
+        });
+        return Objects.requireNonNull(moved);
+    }
+
+    private void createMonthlyPartitions(YearMonth from) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = from.plusMonths(i);
+            String suffix = "_p" + month.format(MONTH_SUFFIX);
+            LocalDate start = month.atDay(1);
+            LocalDate end = month.plusMonths(1)
+                                 .atDay(1);
+            createPartitions(List.of("order_table", "item"), suffix, start, end);
+        }
+    }
+
+    private void createArchivePartitions(LocalDateTime cutoff) {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT min(created_at) FROM order_table",
+            Map.of(), Timestamp.class);
+        if (oldest == null) {
+            return;
+        }
+        for (int year = oldest.toLocalDateTime()
+                              .getYear(); year <= cutoff.getYear(); year++) {
+            LocalDate start = LocalDate.of(year, 1, 1);
+            LocalDate end = start.plusYears(1);
+            createPartitions(List.of("order_archive", "item_archive"), "_p" + year, start, end);
+        }
+    }
+
+    /**
+     * Creates the missing partitions of the parents for a range of creation times in a single transaction. A table
+     * cannot be attached as a partition while the default partition of its parent holds rows of its range, so each
+     * partition is created as a standalone table first, the rows of its range are moved into it from the default
+     * partition and only then it is attached. The default partitions are locked against writes meanwhile, so no row of
+     * the range can land in them before the partitions are attached. Referenced parents have to precede the
+     * referencing ones: rows are moved from the referencing parents first, so no reference is broken, and the
+     * referenced partitions are attached first, so the references are valid when the referencing ones are attached.
+     * A failure is logged and the rows stay in the default partitions until the next run.
+     *
+     * @param parents the partitioned tables, referenced tables first
+     * @param suffix  the suffix of the names of the partitions
+     * @param start   the first day of the range, inclusive
+     * @param end     the last day of the range, exclusive
+     */
+    void createPartitions(List<String> parents, String suffix, LocalDate start, LocalDate end) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<String> missing = parents.stream()
+                                              .filter(parent -> !exists(parent + suffix))
+                                              .collect(Collectors.toList());
+                if (missing.isEmpty()) {
+                    return;
+                }
+                execute("LOCK TABLE " + missing.stream()
+                                               .map(parent -> parent + "_default")
+                                               .collect(Collectors.joining(", ")) + " IN EXCLUSIVE MODE");
+                MapSqlParameterSource range = new MapSqlParameterSource("start", Timestamp.valueOf(
+                    start.atStartOfDay())).addValue("end", Timestamp.valueOf(end.atStartOfDay()));
+                for (int i = missing.size() - 1; i >= 0; i--) {
+                    String parent = missing.get(i);
+                    execute("CREATE TABLE " + parent + suffix + " (LIKE " + parent + " INCLUDING DEFAULTS "
+                            + "INCLUDING CONSTRAINTS)");
+                    int moved = jdbcTemplate.update(String.format(MOVE_FROM_DEFAULT, parent, parent + suffix), range);
+                    if (moved > 0) {
+                        log.info("Moved {} rows of {} from its default partition to partition {}.", moved, parent,
+                            parent + suffix);
+                    }
+                }
+                for (String parent : missing) {
+                    execute("ALTER TABLE " + parent + " ATTACH PARTITION " + parent + suffix + " FOR VALUES FROM ('"
+                            + start + "') TO ('" + end + "')");
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("Partitions {} of {} could not be created, their rows stay in the default partitions.", suffix,
+                parents, e);
+        }
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(:table) IS NOT NULL",
+            Map.of("table", table), Boolean.class));
+    }
+
+    private void execute(String sql) {
+        jdbcTemplate.getJdbcOperations()
+                    .execute(sql);
+    }
+
+    private void dropEmptyPartitions(YearMonth cutoffMonth) {
+        List<String> partitions = jdbcTemplate.queryForList(SELECT_PARTITIONS, Map.of("parent", "order_table"),
+            String.class);
+        for (String partition : partitions) {
+            if (!partition.startsWith("order_table_p")) {
+                continue;
+            }
+            String suffix = partition.substring("order_table".length());
+            YearMonth month = YearMonth.parse(suffix.substring(2), MONTH_SUFFIX);
+            if (!month.isBefore(cutoffMonth) || !isEmpty(partition) || !isEmpty("item" + suffix)) {
+                continue;
+            }
+            dropPartition("item", "item" + suffix);
+            dropPartition("order_table", partition);
+            log.info("Dropped empty partitions of orders and items created in {}.", month);
+        }
+    }
+
+    private boolean isEmpty(String table) {
+        return Boolean.FALSE.equals(jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM " + table + ")", Map.of(), Boolean.class));
+    }
+
+    private void dropPartition(String parent, String partition) {
+        jdbcTemplate.getJdbcOperations()
+                    .execute("ALTER TABLE " + parent + " DETACH PARTITION " + partition);
+        jdbcTemplate.getJdbcOperations()
+                    .execute("DROP TABLE " + partition);
+    }
+
+}
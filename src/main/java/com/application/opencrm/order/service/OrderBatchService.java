@@ -0,0 +1,150 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.common.batch.ChunkStorage;
+import com.application.opencrm.order.dto.OrderBatchResultDto;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.dto.OrderDto;
+import com.application.opencrm.order.model.Order;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service creating {@link Order orders} from a stream of newline delimited JSON requests.
+ * <p>
+ * The requests are read incrementally and stored in chunks of configurable size, each chunk in its own transaction.
+ * Results are written to the output after every chunk, so the memory used does not depend on the size of the stream.
+ * If a chunk cannot be stored as a whole, its orders are stored one by one, so a single invalid order affects only
+ * its own result.
+ */
+@Service
+public class OrderBatchService {
+
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public OrderBatchService(OrderService orderService, ObjectMapper objectMapper, Validator validator,
+                             @Value("${order.batch.chunk-size:500}") int chunkSize) {
+        this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Creates orders from the requests read from the input, one JSON {@link OrderCreationRequestDto} per line, and
+     * writes one JSON {@link OrderBatchResultDto} per non-blank input line to the output, in the order of the input.
+     *
+     * @param input  the stream of order creation requests
+     * @param output the stream the results are written to
+     * @throws IOException if reading the input or writing the output fails
+     */
+    public void createOrders(InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        List<BatchLine> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(parseLine(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                processChunk(chunk, writer);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, writer);
+        }
+        writer.flush();
+    }
+
+    private BatchLine parseLine(long lineNumber, String line) {
+        BatchLine batchLine = new BatchLine(lineNumber);
+        OrderCreationRequestDto request;
+        try {
+            request = objectMapper.readValue(line, OrderCreationRequestDto.class);
+        } catch (JsonProcessingException e) {
+            batchLine.errors = List.of("Malformed order creation request: " + e.getOriginalMessage());
+            return batchLine;
+        }
+        if (request == null) {
+            batchLine.errors = List.of("Order creation request cannot be null.");
+            return batchLine;
+        }
+        List<String> violations = validator.validate(request)
+                                           .stream()
+                                           .map(ConstraintViolation::getMessage)
+                                           .collect(Collectors.toList());
+        if (violations.isEmpty()) {
+            batchLine.request = request;
+        } else {
+            batchLine.errors = violations;
+        }
+        return batchLine;
+    }
+
+    private void processChunk(List<BatchLine> chunk, Writer writer) throws IOException {
+        List<BatchLine> valid = chunk.stream()
+                                     .filter(batchLine -> batchLine.request != null)
+                                     .collect(Collectors.toList());
+        ChunkStorage.store(valid, this::saveOrders, request -> orderService.saveOrder(request)
+                                                                           .getId());
+        for (BatchLine batchLine : chunk) {
+            writer.write(objectMapper.writeValueAsString(
+                new OrderBatchResultDto(batchLine.number, batchLine.id, batchLine.errors)));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private List<Long> saveOrders(List<OrderCreationRequestDto> requests) {
+        return orderService.saveOrders(requests)
+                           .stream()
+                           .map(OrderDto::getId)
+                           .collect(Collectors.toList());
+    }
+
+    private static class BatchLine implements ChunkStorage.Entry<OrderCreationRequestDto> {
+
+        private final long number;
+        private OrderCreationRequestDto request;
+        private Long id;
+        private List<String> errors;
+
+        private BatchLine(long number) {
+            this.number = number;
+        }
+
+        @Override
+        public OrderCreationRequestDto getRequest() {
+            return request;
+        }
+
+        @Override
+        public void stored(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public void rejected(List<String> errors) {
+            this.errors = errors;
+        }
+
+    }
+
+}
@@ -0,0 +1,319 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.client.model.Client;
+import com.application.opencrm.common.exception.InvalidRequestException;
+import com.application.opencrm.order.dto.OrderCountsDto;
+import com.application.opencrm.order.event.OrderCreatedEvent;
+import com.application.opencrm.order.event.OrderStatusChangedEvent;
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import com.application.opencrm.order.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Service maintaining the numbers of {@link Order orders} in each status and of open orders of each {@link Client},
+ * so that they are read without counting the orders in the database.
+ * <p>
+ * The counters are updated once the transactions creating orders or changing their statuses commit. They are rebuilt
+ * from the database at startup and reconciled with it periodically, which corrects changes made by other instances
+ * of the application and orders moved to the archive. A reconciliation counts the orders in a single database
+ * snapshot, which it takes while no transaction is between its commit and the update of the counters. Every change
+ * is therefore either visible in the snapshot, or committed after it and recorded aside to be added to the rebuilt
+ * counters, so no change is lost or counted twice.
+ */
+@Slf4j
+@Service
+public class OrderCounterService {
+
+    private static final int MAX_REQUESTED_CLIENTS = 100;
+    private static final int COMMIT_LOCK_ATTEMPTS = 1000;
+
+    private final OrderRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransactionTemplate;
+    private final List<OrderStatus> openStatuses = Arrays.stream(OrderStatus.values())
+                                                         .filter(status -> !status.isClosed())
+                                                         .collect(Collectors.toList());
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // held for reading by transactions from before their commit until they update the counters
+    private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+    private Counters counters = new Counters();
+    private Counters pending;
+
+    public OrderCounterService(OrderRepository repository, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTransactionTemplate.setReadOnly(true);
+        this.snapshotTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        Arrays.stream(OrderStatus.values())
+              .forEach(status -> Gauge.builder("orders.count", this, service -> service.countByStatus(status))
+                                      .description("Number of orders in the status")
+                                      .tag("status", status.name())
+                                      .register(meterRegistry));
+        Gauge.builder("orders.open.clients", this, service -> service.countClientsWithOpenOrders())
+             .description("Number of clients with open orders")
+             .register(meterRegistry);
+    }
+
+    /**
+     * Retrieves the numbers of orders in each status and of open orders of the specified clients.
+     *
+     * @param clientIds the ids of the clients whose open orders are counted, {@code null} for none
+     * @return the dto representing the numbers of orders
+     * @throws InvalidRequestException if too many clients are requested
+     */
+    public OrderCountsDto getCounts(Collection<Long> clientIds) {
+        if (clientIds != null && clientIds.size() > MAX_REQUESTED_CLIENTS) {
+            throw new InvalidRequestException("At most " + MAX_REQUESTED_CLIENTS + " clients can be requested at once.");
+        }
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        Arrays.stream(OrderStatus.values())
+              .forEach(status -> byStatus.put(status.name(), countByStatus(status)));
+        Map<Long, Long> openByClient = new LinkedHashMap<>();
+        if (clientIds != null) {
+            clientIds.forEach(clientId -> openByClient.put(clientId, countOpenByClient(clientId)));
+        }
+        return new OrderCountsDto(byStatus, openByClient);
+    }
+
+    /**
+     * Counts an order after the transaction creating it commits.
+     *
+     * @param event the event describing the created order
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        updateAfterCommit(counters -> counters.add(event.getStatus(), event.getClientId(), 1));
+    }
+
+    /**
+     * Moves an order between the counters of statuses after the transaction changing its status commits.
+     *
+     * @param event the event describing the changed order
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        updateAfterCommit(counters -> {
+            counters.add(event.getPreviousStatus(), event.getClientId(), -1);
+            counters.add(event.getStatus(), event.getClientId(), 1);
+        });
+    }
+
+    /**
+     * Rebuilds the counters from the orders stored in the database when the application starts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        reconcile();
+    }
+
+    /**
+     * Replaces the counters with the numbers of orders counted in a snapshot of the database, adding the changes
+     * committed after the snapshot was taken.
+     *
+     * @throws IllegalStateException if no snapshot could be taken between commits of other transactions
+     */
+    @Scheduled(fixedDelayString = "${order.counters.reconcile-delay-ms:600000}",
+        initialDelayString = "${order.counters.reconcile-delay-ms:600000}")
+    public void reconcile() {
+        Counters recorded = new Counters();
+        Counters rebuilt = new Counters();
+        try {
+            snapshotTransactionTemplate.executeWithoutResult(status -> {
+                // the first statement takes the snapshot of the transaction, the connection is already acquired
+                lockCommits();
+                try {
+                    jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                    withWriteLock(() -> pending = recorded);
+                } finally {
+                    commitLock.writeLock()
+                              .unlock();
+                }
+                repository.countByStatus()
+                          .forEach(count -> rebuilt.byStatus.get(count.getStatus())
+                                                            .add(count.getCount()));
+                repository.countByClientAndStatusIn(openStatuses)
+                          .forEach(count -> rebuilt.openByClient.computeIfAbsent(count.getClientId(),
+                                                       clientId -> new LongAdder())
+                                                                .add(count.getCount()));
+            });
+        } catch (RuntimeException e) {
+            withWriteLock(() -> pending = null);
+            throw e;
+        }
+        withWriteLock(() -> {
+            rebuilt.merge(recorded);
+            counters = rebuilt;
+            pending = null;
+        });
+        log.debug("Reconciled order counters with the database.");
+    }
+
+    private long countByStatus(OrderStatus status) {
+        return read(counters -> counters.byStatus.get(status)
+                                                 .sum());
+    }
+
+    private long countOpenByClient(Long clientId) {
+        return read(counters -> {
+            LongAdder count = counters.openByClient.get(clientId);
+            return count == null ? 0 : count.sum();
+        });
+    }
+
+    private long countClientsWithOpenOrders() {
+        return read(counters -> counters.openByClient.values()
+                                                     .stream()
+                                                     .filter(count -> count.sum() > 0)
+                                                     .count());
+    }
+
+    /**
+     * Acquires the commit lock for writing without queueing for it. Transactions waiting behind a queued writer might
+     * hold row locks a committing transaction needs to flush its changes, so the lock is only taken while no
+     * transaction is committing.
+     */
+    private void lockCommits() {
+        for (int attempt = 1; !commitLock.writeLock()
+                                         .tryLock(); attempt++) {
+            if (attempt == COMMIT_LOCK_ATTEMPTS) {
+                throw new IllegalStateException("Order counters could not be reconciled between commits.");
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                      .interrupt();
+                throw new IllegalStateException("Reconciliation of order counters interrupted.", e);
+            }
+        }
+    }
+
+    /**
+     * Applies the update once the current transaction commits, holding the commit lock from now until then. Without a
+     * transaction, the update is applied immediately.
+     */
+    private void updateAfterCommit(Consumer<Counters> update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update(update);
+            return;
+        }
+        commitLock.readLock()
+                  .lock();
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            update(update);
+                        }
+                    } finally {
+                        commitLock.readLock()
+                                  .unlock();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            commitLock.readLock()
+                      .unlock();
+            throw e;
+        }
+    }
+
+    private void update(Consumer<Counters> update) {
+        lock.readLock()
+            .lock();
+        try {
+            update.accept(counters);
+            if (pending != null) {
+                update.accept(pending);
+            }
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    private long read(ToLongFunction<Counters> read) {
+        lock.readLock()
+            .lock();
+        try {
+            return read.applyAsLong(counters);
+        } finally {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock()
+            .lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    private class Counters {
+
+        private final Map<OrderStatus, LongAdder> byStatus = new EnumMap<>(OrderStatus.class);
+        private final Map<Long, LongAdder> openByClient = new ConcurrentHashMap<>();
+
+        private Counters() {
+            Arrays.stream(OrderStatus.values())
+                  .forEach(status -> byStatus.put(status, new LongAdder()));
+        }
+
+        private void add(OrderStatus status, Long clientId, long delta) {
+            byStatus.get(status)
+                    .add(delta);
+            if (openStatuses.contains(status)) {
+                openByClient.computeIfAbsent(clientId, id -> new LongAdder())
+                            .add(delta);
+            }
+        }
+
+        private void merge(Counters other) {
+            other.byStatus.forEach((status, count) -> byStatus.get(status)
+                                                              .add(count.sum()));
+            other.openByClient.forEach((clientId, count) -> openByClient.computeIfAbsent(clientId,
+                                                                            id -> new LongAdder())
+                                                                        .add(count.sum()));
+        }
+
+    }
+
+}
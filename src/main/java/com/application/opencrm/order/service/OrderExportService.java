@@ -0,0 +1,109 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.order.dto.OrderFilterDto;
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.repository.OrderRepository;
+import com.application.opencrm.order.repository.projection.OrderExportRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service exporting {@link Order orders} with their items as CSV.
+ * <p>
+ * The export is written row by row while the rows are read from a forward-only database cursor, in portions of
+ * {@code fetch-size} rows. The rows are scalar projections rather than entities, so nothing accumulates in the
+ * persistence context and the memory used by an export does not depend on the number of exported rows.
+ */
+@Service
+public class OrderExportService {
+
+    static final String HEADER = "order_id,created_at,status,client_id,client_name,item_id,inventory_id,item_name,"
+                                 + "quantity_type,units,unit_price";
+
+    private static final String LINE_SEPARATOR = "\r\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OrderRepository repository;
+    private final int fetchSize;
+
+    public OrderExportService(OrderRepository repository, @Value("${order.export.fetch-size:1000}") int fetchSize) {
+        this.repository = repository;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the items of the orders matching the filter as CSV, one row per item, preceded by a header row. The rows
+     * are sorted by the creation time of the orders. The output stream is flushed, but not closed.
+     *
+     * @param filter       the criteria the orders have to match
+     * @param outputStream the stream the CSV is written to
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public void exportOrders(OrderFilterDto filter, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(HEADER);
+        writer.write(LINE_SEPARATOR);
+        try (Stream<OrderExportRow> rows = repository.streamExportRows(filter, fetchSize)) {
+            Iterator<OrderExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writeRow(writer, iterator.next());
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeRow(Writer writer, OrderExportRow row) throws IOException {
+        writer.write(String.valueOf(row.getOrderId()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getCreatedAt()));
+        writer.write(',');
+        writer.write(row.getStatus()
+                        .name());
+        writer.write(',');
+        writer.write(String.valueOf(row.getClientId()));
+        writer.write(',');
+        writer.write(escape(row.getClientName()));
+        writer.write(',');
+        writer.write(String.valueOf(row.getItemId()));
+        writer.write(',');
+        writer.write(row.getInventoryId() == null ? "" : row.getInventoryId()
+                                                            .toString());
+        writer.write(',');
+        writer.write(escape(row.getItemName()));
+        writer.write(',');
+        writer.write(row.getQuantityType() == null ? "" : row.getQuantityType()
+                                                             .name());
+        writer.write(',');
+        writer.write(row.getUnits() == null ? "" : row.getUnits()
+                                                      .toString());
+        writer.write(',');
+        writer.write(row.getUnitPrice() == null ? "" : row.getUnitPrice()
+                                                          .toString());
+        writer.write(LINE_SEPARATOR);
+    }
+
+    /**
+     * Quotes a text value if it contains a separator, a quote or a line break, doubling the quotes inside it.
+     */
+    private String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+}
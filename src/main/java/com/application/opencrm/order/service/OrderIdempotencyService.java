@@ -0,0 +1,207 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.common.cache.BoundedLruCache;
+import com.application.opencrm.common.exception.InternalServerException;
+import com.application.opencrm.common.exception.InvalidRequestException;
+import com.application.opencrm.common.exception.ResourceConflictException;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.dto.OrderDto;
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderIdempotencyKey;
+import com.application.opencrm.order.repository.OrderIdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.*;
+
+/**
+ * Service creating {@link Order orders} at most once per idempotency key sent by the client.
+ * <p>
+ * The first request with a key creates the order and stores the response together with the key in the same
+ * transaction. Repeated requests with the key are answered with the stored response, served from a bounded in-memory
+ * cache or from the database. A repeated request arriving while the first one is still being processed by this
+ * instance of the application waits for its result instead of creating the order again; one arriving at another
+ * instance waits on the unique key of the stored row. A key can only be reused with an identical request. Keys are
+ * kept for at least the configured retention time.
+ * <p>
+ * Requests that fail are not stored, so they can be retried with the same key.
+ */
+@Slf4j
+@Service
+public class OrderIdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final OrderService orderService;
+    private final OrderIdempotencyKeyRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final BoundedLruCache<String, StoredResponse> cache;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final long waitTimeoutMs;
+    private final Duration retention;
+
+    public OrderIdempotencyService(OrderService orderService, OrderIdempotencyKeyRepository repository,
+                                   ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                   @Value("${order.idempotency.cache-size:10000}") int cacheSize,
+                                   @Value("${order.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs,
+                                   @Value("${order.idempotency.retention-hours:24}") long retentionHours) {
+        this.orderService = orderService;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cache = new BoundedLruCache<>(cacheSize);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    /**
+     * Creates a new {@link Order} unless an order has already been created for the idempotency key, in which case
+     * the response of the original request is returned.
+     *
+     * @param key     the idempotency key sent by the client
+     * @param request the object containing data of {@code Order} entity to be created
+     * @return the dto representing the created {@code Order} entity
+     * @throws InvalidRequestException   if the key is blank or too long
+     * @throws ResourceConflictException if the key has been used with a different request or the original request is
+     *                                   still being processed after the wait timeout
+     */
+    public OrderDto saveOrder(String key, OrderCreationRequestDto request) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException(
+                "Idempotency key has to be non-blank and at most " + MAX_KEY_LENGTH + " characters long.");
+        }
+        String requestHash = hash(request);
+        StoredResponse stored = cache.get(key);
+        if (stored == null) {
+            CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> first = inFlight.putIfAbsent(key, pending);
+            stored = first == null ? process(key, requestHash, request, pending) : await(first);
+        }
+        if (!stored.requestHash.equals(requestHash)) {
+            throw new ResourceConflictException("Idempotency key has already been used with a different request.");
+        }
+        return stored.order;
+    }
+
+    /**
+     * Deletes idempotency keys older than the retention time.
+     */
+    @Scheduled(fixedDelayString = "${order.idempotency.cleanup-delay-ms:3600000}")
+    public void deleteExpiredKeys() {
+        Integer deleted = transactionTemplate.execute(
+            status -> repository.deleteCreatedBefore(Instant.now()
+                                                            .minus(retention)));
+        log.debug("Deleted {} expired order idempotency keys.", deleted);
+    }
+
+    private StoredResponse process(String key, String requestHash, OrderCreationRequestDto request,
+                                   CompletableFuture<StoredResponse> pending) {
+        try {
+            StoredResponse stored = repository.findById(key)
+                                              .map(this::toStoredResponse)
+                                              .orElseGet(() -> createOrder(key, requestHash, request));
+            cache.put(key, stored);
+            pending.complete(stored);
+            return stored;
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    private StoredResponse createOrder(String key, String requestHash, OrderCreationRequestDto request) {
+        try {
+            return transactionTemplate.execute(status -> {
+                OrderIdempotencyKey storedKey = repository.saveAndFlush(OrderIdempotencyKey.builder()
+                                                                                           .key(key)
+                                                                                           .requestHash(requestHash)
+                                                                                           .createdAt(Instant.now())
+                                                                                           .build());
+                OrderDto order = orderService.saveOrder(request);
+                storedKey.setOrderId(order.getId());
+                storedKey.setResponse(write(order));
+                return new StoredResponse(requestHash, order);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // the key is always inserted, so it fails on the unique key once another request has stored it
+            // concurrently, and the response of that request is replayed
+            return repository.findById(key)
+                             .map(this::toStoredResponse)
+                             .orElseThrow(() -> e);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> first) {
+        try {
+            return first.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new InternalServerException(e.getCause()
+                                               .getMessage());
+        } catch (TimeoutException e) {
+            throw new ResourceConflictException("Request with the same idempotency key is still being processed.");
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new ResourceConflictException("Request with the same idempotency key is still being processed.");
+        }
+    }
+
+    private StoredResponse toStoredResponse(OrderIdempotencyKey storedKey) {
+        try {
+            return new StoredResponse(storedKey.getRequestHash(),
+                objectMapper.readValue(storedKey.getResponse(), OrderDto.class));
+        } catch (JsonProcessingException e) {
+            throw new InternalServerException(e.getMessage());
+        }
+    }
+
+    private String write(OrderDto order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new InternalServerException(e.getMessage());
+        }
+    }
+
+    private String hash(OrderCreationRequestDto request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                                         .digest(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder()
+                         .encodeToString(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new InternalServerException(e.getMessage());
+        }
+    }
+
+    private static class StoredResponse {
+
+        private final String requestHash;
+        private final OrderDto order;
+
+        private StoredResponse(String requestHash, OrderDto order) {
+            this.requestHash = requestHash;
+            this.order = order;
+        }
+
+    }
+
+}
@@ -2,20 +2,42 @@ package com.application.opencrm.order.service;
 
 import com.application.opencrm.client.model.Client;
 import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.common.exception.InvalidRequestException;
+import com.application.opencrm.common.exception.ResourceConflictException;
 import com.application.opencrm.common.exception.ResourceNotFoundException;
+import com.application.opencrm.common.pagination.CursorPage;
+import com.application.opencrm.common.pagination.KeysetCursor;
+import com.application.opencrm.order.dto.ItemDto;
 import com.application.opencrm.order.dto.OrderCreationRequestDto;
 import com.application.opencrm.order.dto.OrderDto;
+import com.application.opencrm.order.dto.OrderFilterDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionRequestDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionResultDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionResultDto.Outcome;
+import com.application.opencrm.order.dto.OrderingAddressDto;
+import com.application.opencrm.inventory.service.StockReservationService;
+import com.application.opencrm.order.event.InventorySoldEvent;
+import com.application.opencrm.order.event.OrderCreatedEvent;
+import com.application.opencrm.order.event.OrderStatusChangedEvent;
 import com.application.opencrm.order.mapper.OrderMapper;
+import com.application.opencrm.order.model.Item;
 import com.application.opencrm.order.model.Order;
 import com.application.opencrm.order.model.OrderStatus;
 import com.application.opencrm.order.repository.OrderRepository;
+import com.application.opencrm.order.repository.projection.OrderHeaderProjection;
+import com.application.opencrm.order.repository.projection.OrderStatusProjection;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service handling operations on {@link Order} objects.
@@ -32,43 +54,187 @@ public class OrderService {
     private final ClientService clientService;
     private final ItemService itemService;
     private final OrderingAddressService orderingAddressService;
+    private final StockReservationService stockReservationService;
+    private final OrderSummaryService orderSummaryService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
-     * Retrieves all {@link Order} entities from repository.
+     * Retrieves a page of {@link Order} entities matching the filter from repository, sorted from the newest to the
+     * oldest.
+     * <p>
+     * The listing is keyset paginated on {@code (createdAt, id)}. The page is loaded with a fixed number of queries
+     * regardless of its size: one selecting the orders, one selecting their items restricted to the creation time
+     * range of the page and one selecting their ordering addresses. The orders are read as projections within a
+     * read-only transaction, so no entity is loaded into the persistence context.
      *
-     * @return the list of dtos representing all found {@code Order} entities
+     * @param filter the criteria the orders have to match
+     * @param cursor the cursor returned with the previous page, {@code null} for the first page
+     * @param size   the maximum number of orders in the page
+     * @return the page of dtos representing the found {@code Order} entities
      */
-    public List<OrderDto> getAllOrders() {
-        return repository.findAll()
-                         .stream()
-                         .map(mapper::orderToOrderDto)
-                         .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDto> getOrders(OrderFilterDto filter, String cursor, int size) {
+        CursorPage.checkPageSize(size);
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor, 2);
+        return toPage(repository.findPage(filter, after, size + 1), size, true);
+    }
+
+    /**
+     * Retrieves a page of {@link Order} entities of a client from repository, sorted from the newest to the oldest.
+     * <p>
+     * The listing is keyset paginated on {@code (createdAt, id)} within the orders of the client, so the page is read
+     * by a single range scan of the index on {@code (client_id, created_at, id)}. Items and ordering addresses are
+     * omitted unless requested, in which case they are selected the same way as by {@link #getOrders}.
+     *
+     * @param clientId     the id of the client
+     * @param cursor       the cursor returned with the previous page, {@code null} for the first page
+     * @param size         the maximum number of orders in the page
+     * @param includeItems whether the items and ordering addresses of the orders should be returned
+     * @return the page of dtos representing the found {@code Order} entities
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDto> getClientOrders(Long clientId, String cursor, int size, boolean includeItems) {
+        CursorPage.checkPageSize(size);
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor, 2);
+        List<OrderHeaderProjection> headers = repository.findClientPage(clientId, after, size + 1);
+        if (headers.isEmpty() && after == null && !clientService.clientExists(clientId)) {
+            throw new ResourceNotFoundException("Client not found in the database.");
+        }
+        return toPage(headers, size, includeItems);
     }
 
     /**
      * Retrieves a {@link Order} entity with specified {@code id} from repository.
+     * <p>
+     * The order is read as projections within a read-only transaction, so no entity is loaded into the persistence
+     * context. Its creation time is looked up in its summary first, so only the partitions holding the order and its
+     * items are searched.
      *
      * @param id the id of the searched {@code Order}
      * @return the dto representing the found {@code Order} entity
      */
+    @Transactional(readOnly = true)
     public OrderDto getOrder(Long id) {
-        return mapper.orderToOrderDto(getOrderFromRepository(id));
+        Instant createdAt = orderSummaryService.getCreationTimes(List.of(id))
+                                               .get(id);
+        Optional<OrderHeaderProjection> header = createdAt == null ? repository.findHeaderById(id)
+            : repository.findHeaderByIdAndCreatedAt(id, createdAt);
+        return toDtos(List.of(header.orElseThrow(() -> new ResourceNotFoundException("Order not found in the "
+                                                                                     + "database.")))).get(0);
     }
 
     /**
-     * Creates a new {@link Order} and stores it in database. The data of the new order entity should be passed as data
-     * of a {@code CategoryRequestDto} in the request body.
+     * Creates a new {@link Order} and stores it in database together with its summary. The data of the new order
+     * entity should be passed as data of a {@code CategoryRequestDto} in the request body.
      *
      * @param request the object containing data of {@code Order} entity to be created
      * @return the dto representing the created {@code Order} entity
      */
     @Transactional
     public OrderDto saveOrder(OrderCreationRequestDto request) {
-        Order orderToSave = createOrder(request);
-        Order savedOrder = repository.save(orderToSave);
+        Order savedOrder = persistOrders(List.of(createOrder(request))).get(0);
         return mapper.orderToOrderDto(savedOrder);
     }
 
+    /**
+     * Creates multiple new {@link Order} entities and stores them in database in a single transaction. The stock for
+     * the items of all orders is reserved at once, and the orders are inserted in JDBC batches. If any of the orders
+     * cannot be created, none of them is stored.
+     *
+     * @param requests the objects containing data of {@code Order} entities to be created
+     * @return the dtos representing the created {@code Order} entities in the order of the requests
+     */
+    @Transactional
+    public List<OrderDto> saveOrders(List<OrderCreationRequestDto> requests) {
+        List<Order> ordersToSave = requests.stream()
+                                           .map(this::createOrder)
+                                           .collect(Collectors.toList());
+        return persistOrders(ordersToSave).stream()
+                                          .map(mapper::orderToOrderDto)
+                                          .collect(Collectors.toList());
+    }
+
+    /**
+     * Stores orders whose ids have already been allocated with {@link #allocateOrderId()} in a single transaction, in
+     * the same way as {@link #saveOrders}. If any of the orders cannot be created, none of them is stored.
+     *
+     * @param requestsById the objects containing data of {@code Order} entities to be created, by the allocated ids
+     */
+    @Transactional
+    public void saveAcceptedOrders(Map<Long, OrderCreationRequestDto> requestsById) {
+        List<Order> ordersToSave = new ArrayList<>(requestsById.size());
+        requestsById.forEach((id, request) -> {
+            Order order = createOrder(request);
+            order.setId(id);
+            ordersToSave.add(order);
+        });
+        persistOrders(ordersToSave);
+    }
+
+    /**
+     * Allocates an id for an order which is to be stored later with {@link #saveAcceptedOrders}.
+     *
+     * @return the allocated id
+     */
+    public Long allocateOrderId() {
+        return repository.allocateId();
+    }
+
+    /**
+     * Checks whether an {@link Order} with specified {@code id} is stored in database. Only the partition of the order
+     * is searched if its creation time is found in its summary.
+     *
+     * @param id the id of the order
+     * @return {@code true} if the order exists
+     */
+    @Transactional(readOnly = true)
+    public boolean orderExists(Long id) {
+        Instant createdAt = orderSummaryService.getCreationTimes(List.of(id))
+                                               .get(id);
+        return createdAt == null ? repository.existsById(id) : repository.existsByIdAndCreatedAt(id, createdAt);
+    }
+
+    /**
+     * Changes the statuses of multiple {@link Order orders} without loading them.
+     * <p>
+     * The creation times of the orders are looked up in their summaries, so the current statuses and versions of the
+     * orders are read with a single query searching only their partitions, and each requested transition is validated
+     * against them. Valid transitions are applied with one conditional update per order, sent in a JDBC batch per
+     * target status, which changes only orders that have not been modified in the meantime.
+     * Concurrent changes are therefore detected by the version check instead of by locking the orders upfront. Stock reserved for cancelled
+     * orders is released and order summaries are updated in the same transaction.
+     *
+     * @param request the object containing the requested status transitions, at most one per order
+     * @return the outcomes of the transitions in the order of the request
+     * @throws InvalidRequestException if an order is referred to more than once
+     */
+    @Transactional
+    public List<OrderStatusTransitionResultDto> transitionStatuses(OrderStatusTransitionRequestDto request) {
+        return applyTransitions(request.getTransitions());
+    }
+
+    /**
+     * Cancels an {@link Order} that is being processed and releases the stock reserved for its items.
+     * <p>
+     * The status is changed with a conditional update, so an order cancelled concurrently by two requests releases
+     * its stock only once.
+     *
+     * @param id the {@code id} of the order to be cancelled
+     * @return the dto representing the cancelled {@code Order} entity
+     */
+    @Transactional
+    public OrderDto cancelOrder(Long id) {
+        OrderStatusTransitionResultDto result = applyTransitions(List.of(
+            new OrderStatusTransitionDto(id, OrderStatus.CANCELLED.name(), null))).get(0);
+        if (result.getOutcome() == Outcome.NOT_FOUND) {
+            throw new ResourceNotFoundException("Order not found in the database.");
+        }
+        if (result.getOutcome() != Outcome.UPDATED) {
+            throw new ResourceConflictException("Only orders being processed can be cancelled.");
+        }
+        return getOrder(id);
+    }
+
     /**
      * Creates an {@link Order} based on the data contained in the {@link OrderCreationRequestDto}.
      *
@@ -80,20 +246,231 @@ public class OrderService {
         Order order = Order.builder()
                            .client(client)
                            .items(new ArrayList<>())
-                           .billingAddress(orderingAddressService.buildOrderingAddress(request.getBillingAddressId()))
-                           .shippingAddress(orderingAddressService.buildOrderingAddress(request.getShippingAddressId()))
+                           .billingAddress(orderingAddressService.resolveOrderingAddress(request.getBillingAddressId()))
+                           .shippingAddress(orderingAddressService.resolveOrderingAddress(request.getShippingAddressId()))
                            .status(OrderStatus.PROCESSING)
                            .build();
-        request.getItems()
-               .stream()
-               .map(itemService::buildItem)
-               .forEach(order::addItem);
+        itemService.buildItems(request.getItems())
+                   .forEach(order::addItem);
         return order;
     }
 
-    private Order getOrderFromRepository(Long id) {
-        return repository.findById(id)
-                         .orElseThrow(() -> new ResourceNotFoundException("Order not found in the database."));
+    private List<Order> persistOrders(List<Order> ordersToSave) {
+        stockReservationService.reserve(unitsByInventoryId(ordersToSave.stream()
+                                                                       .flatMap(order -> order.getItems()
+                                                                                              .stream())
+                                                                       .collect(Collectors.toList())));
+        List<Order> savedOrders = new ArrayList<>(ordersToSave.size());
+        repository.saveAll(ordersToSave)
+                  .forEach(savedOrders::add);
+        orderSummaryService.addSummaries(savedOrders);
+        savedOrders.forEach(this::publishCreated);
+        publishSold(savedOrders);
+        return savedOrders;
+    }
+
+    private List<OrderStatusTransitionResultDto> applyTransitions(List<OrderStatusTransitionDto> transitions) {
+        List<Long> ids = transitions.stream()
+                                    .map(OrderStatusTransitionDto::getId)
+                                    .collect(Collectors.toList());
+        checkDistinct(ids);
+        Map<Long, OrderStatusProjection> orders = findStatuses(ids).stream()
+                                                                   .collect(Collectors.toMap(
+                                                                       OrderStatusProjection::getId,
+                                                                       Function.identity()));
+        Map<Long, OrderStatusTransitionResultDto> results = new HashMap<>();
+        Map<OrderStatus, List<OrderStatusProjection>> ordersByTarget = new EnumMap<>(OrderStatus.class);
+        for (OrderStatusTransitionDto transition : transitions) {
+            Long id = transition.getId();
+            OrderStatus target = OrderStatus.valueOf(transition.getStatus());
+            OrderStatusProjection order = orders.get(id);
+            if (order == null) {
+                results.put(id, new OrderStatusTransitionResultDto(id, Outcome.NOT_FOUND, null, null));
+            } else if (transition.getVersion() != null && !transition.getVersion()
+                                                                      .equals(order.getVersion())) {
+                results.put(id, result(order, Outcome.VERSION_CONFLICT));
+            } else if (!order.getStatus()
+                             .canTransitionTo(target)) {
+                results.put(id, result(order, Outcome.INVALID_TRANSITION));
+            } else {
+                ordersByTarget.computeIfAbsent(target, status -> new ArrayList<>())
+                              .add(order);
+            }
+        }
+        ordersByTarget.forEach((target, targetOrders) -> {
+            int[] updated = repository.updateStatuses(targetOrders, OrderStatus.sourcesOf(target), target);
+            Map<Long, Long> updatedVersions = new LinkedHashMap<>();
+            List<OrderStatusProjection> failed = new ArrayList<>();
+            for (int i = 0; i < targetOrders.size(); i++) {
+                OrderStatusProjection order = targetOrders.get(i);
+                // only the row count of the update of this transaction proves the change, since a concurrent
+                // transaction may have made the same transition and left the order in the same state
+                if (updated[i] > 0) {
+                    results.put(order.getId(), new OrderStatusTransitionResultDto(order.getId(), Outcome.UPDATED,
+                        target.name(), order.getVersion() + 1));
+                    updatedVersions.put(order.getId(), order.getVersion() + 1);
+                } else {
+                    failed.add(order);
+                }
+            }
+            if (!failed.isEmpty()) {
+                repository.findStatusesByIdInAndCreatedAtIn(ids(failed), failed.stream()
+                                                                             .map(OrderStatusProjection::getCreatedAt)
+                                                                             .collect(Collectors.toSet()))
+                          .forEach(order -> results.put(order.getId(), result(order, Outcome.VERSION_CONFLICT)));
+                failed.forEach(order -> results.putIfAbsent(order.getId(), new OrderStatusTransitionResultDto(
+                    order.getId(), Outcome.NOT_FOUND, null, null)));
+            }
+            if (!updatedVersions.isEmpty()) {
+                onStatusesChanged(updatedVersions, orders, target);
+            }
+        });
+        return ids.stream()
+                  .map(results::get)
+                  .collect(Collectors.toList());
+    }
+
+    private void onStatusesChanged(Map<Long, Long> versionsById, Map<Long, OrderStatusProjection> previous,
+                                   OrderStatus target) {
+        List<Long> ids = new ArrayList<>(versionsById.keySet());
+        orderSummaryService.updateStatuses(ids, target);
+        if (target == OrderStatus.CANCELLED) {
+            Instant createdFrom = ids.stream()
+                                     .map(id -> previous.get(id)
+                                                        .getCreatedAt())
+                                     .min(Comparator.naturalOrder())
+                                     .orElseThrow();
+            Instant createdTo = ids.stream()
+                                   .map(id -> previous.get(id)
+                                                      .getCreatedAt())
+                                   .max(Comparator.naturalOrder())
+                                   .orElseThrow();
+            stockReservationService.release(itemService.sumUnitsByInventoryId(ids, createdFrom, createdTo));
+        }
+        // the update matched the version read before it, so the orders were still in the statuses read then
+        versionsById.forEach((id, version) -> {
+            OrderStatusProjection order = previous.get(id);
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(id, order.getClientId(), order.getStatus(), target,
+                version));
+        });
+    }
+
+    private void publishCreated(Order order) {
+        eventPublisher.publishEvent(new OrderCreatedEvent(order.getId(), order.getClient()
+                                                                              .getId(), order.getStatus(),
+            order.getCreatedAt()));
+    }
+
+    private void publishSold(List<Order> orders) {
+        Map<Long, BigInteger> unitsByInventoryId = new HashMap<>();
+        Map<Long, BigInteger> revenueByInventoryId = new HashMap<>();
+        orders.stream()
+              .flatMap(order -> order.getItems()
+                                     .stream())
+              .forEach(item -> {
+                  Long inventoryId = item.getInventory()
+                                         .getId();
+                  unitsByInventoryId.merge(inventoryId, item.getUnits(), BigInteger::add);
+                  if (item.getUnitPrice() != null) {
+                      revenueByInventoryId.merge(inventoryId, item.getUnits()
+                                                                  .multiply(item.getUnitPrice()), BigInteger::add);
+                  }
+              });
+        eventPublisher.publishEvent(new InventorySoldEvent(orders.get(0)
+                                                                 .getCreatedAt(), unitsByInventoryId,
+            revenueByInventoryId));
+    }
+
+    /**
+     * Reads the statuses of orders, searching only their partitions if their creation times are found in their
+     * summaries. Orders without a summary are searched in every partition.
+     */
+    private List<OrderStatusProjection> findStatuses(List<Long> ids) {
+        Map<Long, Instant> creationTimes = orderSummaryService.getCreationTimes(ids);
+        List<OrderStatusProjection> statuses = new ArrayList<>(ids.size());
+        if (!creationTimes.isEmpty()) {
+            statuses.addAll(repository.findStatusesByIdInAndCreatedAtIn(creationTimes.keySet(),
+                new HashSet<>(creationTimes.values())));
+        }
+        List<Long> unknownIds = ids.stream()
+                                   .filter(id -> !creationTimes.containsKey(id))
+                                   .collect(Collectors.toList());
+        if (!unknownIds.isEmpty()) {
+            statuses.addAll(repository.findStatusesByIdIn(unknownIds));
+        }
+        return statuses;
+    }
+
+    private List<Long> ids(List<OrderStatusProjection> orders) {
+        return orders.stream()
+                     .map(OrderStatusProjection::getId)
+                     .collect(Collectors.toList());
+    }
+
+    private void checkDistinct(List<Long> ids) {
+        Set<Long> seen = new HashSet<>();
+        List<String> duplicates = ids.stream()
+                                     .filter(id -> !seen.add(id))
+                                     .distinct()
+                                     .map(id -> "Order with id " + id + " is referred to more than once.")
+                                     .collect(Collectors.toList());
+        if (!duplicates.isEmpty()) {
+            throw new InvalidRequestException("Each order can be referred to at most once.", duplicates);
+        }
+    }
+
+    private OrderStatusTransitionResultDto result(OrderStatusProjection order, Outcome outcome) {
+        return new OrderStatusTransitionResultDto(order.getId(), outcome, order.getStatus()
+                                                                               .name(), order.getVersion());
+    }
+
+    private Map<Long, BigInteger> unitsByInventoryId(List<Item> items) {
+        return items.stream()
+                    .collect(Collectors.toMap(item -> item.getInventory()
+                                                          .getId(), Item::getUnits, BigInteger::add));
+    }
+
+    private CursorPage<OrderDto> toPage(List<OrderHeaderProjection> headers, int size, boolean detailed) {
+        String nextCursor = null;
+        if (headers.size() > size) {
+            headers = headers.subList(0, size);
+            OrderHeaderProjection last = headers.get(size - 1);
+            nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId())
+                                     .encode();
+        }
+        if (!detailed) {
+            return new CursorPage<>(headers.stream()
+                                           .map(mapper::orderHeaderToOrderDto)
+                                           .collect(Collectors.toList()), nextCursor);
+        }
+        return new CursorPage<>(toDtos(headers), nextCursor);
+    }
+
+    private List<OrderDto> toDtos(List<OrderHeaderProjection> headers) {
+        if (headers.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(headers.size());
+        Set<Long> addressIds = new HashSet<>();
+        Instant createdFrom = headers.get(0)
+                                     .getCreatedAt();
+        Instant createdTo = createdFrom;
+        for (OrderHeaderProjection header : headers) {
+            ids.add(header.getId());
+            Stream.of(header.getBillingAddressId(), header.getShippingAddressId())
+                  .filter(Objects::nonNull)
+                  .forEach(addressIds::add);
+            createdFrom = header.getCreatedAt()
+                                .isBefore(createdFrom) ? header.getCreatedAt() : createdFrom;
+            createdTo = header.getCreatedAt()
+                              .isAfter(createdTo) ? header.getCreatedAt() : createdTo;
+        }
+        Map<Long, List<ItemDto>> items = itemService.getItemsByOrderId(ids, createdFrom, createdTo);
+        Map<Long, OrderingAddressDto> addresses = orderingAddressService.getOrderingAddresses(addressIds);
+        return headers.stream()
+                      .map(header -> mapper.orderHeaderToOrderDto(header, items.getOrDefault(header.getId(), List.of()),
+                          addresses.get(header.getBillingAddressId()), addresses.get(header.getShippingAddressId())))
+                      .collect(Collectors.toList());
     }
 
 }
@@ -0,0 +1,236 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.common.broadcast.RingBuffer;
+import com.application.opencrm.common.exception.InternalServerException;
+import com.application.opencrm.order.event.OrderCreatedEvent;
+import com.application.opencrm.order.event.OrderStatusChangedEvent;
+import com.application.opencrm.order.model.Order;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service streaming changes of {@link Order orders} to subscribers as server-sent events.
+ * <p>
+ * Events are appended to a bounded ring buffer once the transaction that produced them commits. Every subscriber
+ * follows the buffer at its own position and events are delivered to it by a shared pool of threads, at most one
+ * thread per subscriber at a time, so a slow subscriber does not delay the others. A subscriber that falls more than
+ * {@code max-lag} events behind, or whose next event has already been overwritten, is sent a {@code lagged} event and
+ * disconnected.
+ * <p>
+ * Event ids are sequence numbers seeded from the startup time, so they keep growing across restarts. A subscriber
+ * reconnecting with the id of the last received event resumes right after it if the event is still buffered.
+ * Otherwise it is sent a {@code resync} event, after which it should reload the orders it displays, and it receives
+ * only new events. Only changes made by this instance of the application are streamed.
+ */
+@Slf4j
+@Service
+public class OrderStreamService {
+
+    private static final String ORDER_CREATED = "order-created";
+    private static final String ORDER_STATUS_CHANGED = "order-status-changed";
+    private static final String RESYNC = "resync";
+    private static final String LAGGED = "lagged";
+
+    private final ObjectMapper objectMapper;
+    private final RingBuffer<StreamEvent> buffer;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService deliveryExecutor;
+    private final long timeoutMs;
+    private final long maxLag;
+
+    public OrderStreamService(ObjectMapper objectMapper,
+                              @Value("${order.stream.buffer-size:4096}") int bufferSize,
+                              @Value("${order.stream.delivery-threads:4}") int deliveryThreads,
+                              @Value("${order.stream.timeout-ms:1800000}") long timeoutMs,
+                              @Value("${order.stream.max-lag:1024}") long maxLag) {
+        this.objectMapper = objectMapper;
+        this.buffer = new RingBuffer<>(bufferSize, System.currentTimeMillis() << 20);
+        this.deliveryExecutor = Executors.newFixedThreadPool(deliveryThreads,
+            new CustomizableThreadFactory("order-stream-"));
+        this.timeoutMs = timeoutMs;
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * Subscribes to the stream of order events.
+     *
+     * @param lastEventId the id of the last event received before reconnecting, {@code null} for a new subscription
+     * @return the emitter the events are sent through
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        long head = buffer.head();
+        subscriber.next = head;
+        if (lastEventId != null) {
+            Long resumed = parseEventId(lastEventId);
+            if (resumed != null && resumed + 1 >= buffer.tail() && resumed + 1 <= head) {
+                subscriber.next = resumed + 1;
+            } else {
+                subscriber.resync = true;
+            }
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        scheduleDelivery(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Streams the creation of an order after the transaction creating it commits.
+     *
+     * @param event the event describing the created order
+     */
+    @TransactionalEventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        publish(ORDER_CREATED, event);
+    }
+
+    /**
+     * Streams the change of the status of an order after the transaction changing it commits.
+     *
+     * @param event the event describing the changed order
+     */
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        publish(ORDER_STATUS_CHANGED, event);
+    }
+
+    /**
+     * Sends a comment to every subscriber, so that idle connections are not closed by proxies and disconnected
+     * subscribers are detected.
+     */
+    @Scheduled(fixedDelayString = "${order.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        subscribers.forEach(subscriber -> deliveryExecutor.execute(() -> {
+            try {
+                subscriber.emitter.send(SseEmitter.event()
+                                                  .comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                disconnect(subscriber, e);
+            }
+        }));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        deliveryExecutor.shutdownNow();
+    }
+
+    private void publish(String name, Object event) {
+        try {
+            buffer.append(new StreamEvent(name, objectMapper.writeValueAsString(event)));
+        } catch (JsonProcessingException e) {
+            throw new InternalServerException(e.getMessage());
+        }
+        subscribers.forEach(this::scheduleDelivery);
+    }
+
+    private void scheduleDelivery(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            deliveryExecutor.execute(() -> deliver(subscriber));
+        }
+    }
+
+    private void deliver(Subscriber subscriber) {
+        try {
+            do {
+                if (subscriber.resync) {
+                    subscriber.emitter.send(SseEmitter.event()
+                                                      .id(Long.toString(subscriber.next - 1))
+                                                      .name(RESYNC)
+                                                      .data("{}", MediaType.APPLICATION_JSON));
+                    subscriber.resync = false;
+                }
+                long head = buffer.head();
+                if (head - subscriber.next > maxLag) {
+                    dropLagging(subscriber);
+                    return;
+                }
+                while (subscriber.next < head) {
+                    StreamEvent event = buffer.get(subscriber.next);
+                    if (event == null) {
+                        dropLagging(subscriber);
+                        return;
+                    }
+                    subscriber.emitter.send(SseEmitter.event()
+                                                      .id(Long.toString(subscriber.next))
+                                                      .name(event.name)
+                                                      .data(event.data, MediaType.APPLICATION_JSON));
+                    subscriber.next++;
+                }
+                subscriber.scheduled.set(false);
+            } while (subscriber.next < buffer.head() && subscriber.scheduled.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            disconnect(subscriber, e);
+        }
+    }
+
+    private void dropLagging(Subscriber subscriber) throws IOException {
+        log.debug("Disconnecting order stream subscriber lagging behind at event {}.", subscriber.next);
+        subscribers.remove(subscriber);
+        subscriber.emitter.send(SseEmitter.event()
+                                          .name(LAGGED)
+                                          .data("{}", MediaType.APPLICATION_JSON));
+        subscriber.emitter.complete();
+    }
+
+    private void disconnect(Subscriber subscriber, Exception cause) {
+        log.debug("Order stream subscriber disconnected.", cause);
+        subscribers.remove(subscriber);
+        subscriber.emitter.completeWithError(cause);
+    }
+
+    private Long parseEventId(String eventId) {
+        try {
+            return Long.parseLong(eventId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static class StreamEvent {
+
+        private final String name;
+        private final String data;
+
+        private StreamEvent(String name, String data) {
+            this.name = name;
+            this.data = data;
+        }
+
+    }
+
+    private static class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long next;
+        private volatile boolean resync;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+    }
+
+}
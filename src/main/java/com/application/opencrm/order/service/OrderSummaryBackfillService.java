@@ -0,0 +1,82 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderSummary;
+import com.application.opencrm.order.repository.OrderSummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Service creating the missing {@link OrderSummary summaries} of {@link Order orders} stored before the summaries
+ * were maintained.
+ * <p>
+ * The summaries are created when the application starts, in batches of the configured size, each in its own
+ * transaction. The orders of a batch are locked before their summaries are created, so a concurrent status change
+ * either commits first and is copied into the summary, or waits and then updates the created summary. Orders created
+ * since the summaries are maintained always have one, so once all summaries exist the job only checks that none is
+ * missing. It is disabled with the {@code order.summary.backfill.enabled} property.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "order.summary.backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderSummaryBackfillService {
+
+    private final OrderSummaryRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OrderSummaryBackfillService(OrderSummaryRepository repository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${order.summary.backfill.batch-size:1000}") int batchSize) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates the missing summaries when the application starts.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        backfill();
+    }
+
+    /**
+     * Creates the summaries of all orders which have none.
+     *
+     * @return the number of created summaries
+     */
+    public long backfill() {
+        long created = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            long from = afterId;
+            ids = Objects.requireNonNull(transactionTemplate.execute(status -> {
+                List<Long> batch = repository.lockOrdersWithoutSummary(from, batchSize);
+                if (!batch.isEmpty()) {
+                    repository.insertSummaries(batch);
+                }
+                return batch;
+            }));
+            created += ids.size();
+            if (!ids.isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize);
+        if (created > 0) {
+            log.info("Created summaries of {} orders stored before the summaries were maintained.", created);
+        }
+        return created;
+    }
+
+}
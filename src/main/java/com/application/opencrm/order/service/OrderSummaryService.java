@@ -0,0 +1,124 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.common.pagination.CursorPage;
+import com.application.opencrm.common.pagination.KeysetCursor;
+import com.application.opencrm.order.dto.OrderFilterDto;
+import com.application.opencrm.order.dto.OrderSummaryDto;
+import com.application.opencrm.order.mapper.OrderSummaryMapper;
+import com.application.opencrm.order.model.Order;
+import com.application.opencrm.order.model.OrderStatus;
+import com.application.opencrm.order.model.OrderSummary;
+import com.application.opencrm.order.repository.OrderSummaryRepository;
+import com.application.opencrm.order.repository.projection.OrderCreationTimeProjection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Service handling operations on {@link OrderSummary} objects.
+ * <p>
+ * Summaries are maintained by {@link OrderService} within the transactions changing the orders, so the methods
+ * modifying them require an existing transaction.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderSummaryService {
+
+    private final OrderSummaryRepository repository;
+    private final OrderSummaryMapper mapper;
+
+    /**
+     * Retrieves a page of {@link OrderSummary} entities matching the filter from repository, sorted from the newest
+     * to the oldest order. The page is loaded with a single query.
+     *
+     * @param filter the criteria the orders have to match
+     * @param cursor the cursor returned with the previous page, {@code null} for the first page
+     * @param size   the maximum number of summaries in the page
+     * @return the page of dtos representing the found {@code OrderSummary} entities
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummaryDto> getSummaries(OrderFilterDto filter, String cursor, int size) {
+        CursorPage.checkPageSize(size);
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor, 2);
+        List<OrderSummary> summaries = repository.findPage(filter, after, size + 1);
+        String nextCursor = null;
+        if (summaries.size() > size) {
+            summaries = summaries.subList(0, size);
+            OrderSummary last = summaries.get(size - 1);
+            nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId())
+                                     .encode();
+        }
+        return new CursorPage<>(summaries.stream()
+                                         .map(mapper::orderSummaryToOrderSummaryDto)
+                                         .collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * Stores summaries of newly created orders. The orders have to have their ids assigned.
+     *
+     * @param orders the created orders
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addSummaries(Collection<Order> orders) {
+        repository.saveAll(orders.stream()
+                                 .map(this::summarize)
+                                 .collect(Collectors.toList()));
+    }
+
+    /**
+     * Retrieves the creation times of orders, which are the partition keys of orders and their items, from their
+     * summaries. Orders without a summary are omitted.
+     *
+     * @param orderIds the ids of the orders
+     * @return the creation times of the orders by their ids
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Instant> getCreationTimes(Collection<Long> orderIds) {
+        return repository.findCreationTimesByIdIn(orderIds)
+                         .stream()
+                         .collect(Collectors.toMap(OrderCreationTimeProjection::getId,
+                             OrderCreationTimeProjection::getCreatedAt));
+    }
+
+    /**
+     * Changes the status in the summaries of orders.
+     *
+     * @param orderIds the ids of the orders
+     * @param status   the new status of the orders
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updateStatuses(Collection<Long> orderIds, OrderStatus status) {
+        repository.updateStatuses(orderIds, status);
+    }
+
+    private OrderSummary summarize(Order order) {
+        BigInteger totalValue = order.getItems()
+                                     .stream()
+                                     .filter(item -> item.getUnitPrice() != null)
+                                     .map(item -> item.getUnits()
+                                                      .multiply(item.getUnitPrice()))
+                                     .reduce(BigInteger.ZERO, BigInteger::add);
+        return OrderSummary.builder()
+                           .id(Objects.requireNonNull(order.getId()))
+                           .clientId(order.getClient()
+                                          .getId())
+                           .clientName(order.getClient()
+                                            .getName())
+                           .status(order.getStatus())
+                           .createdAt(order.getCreatedAt())
+                           .lineCount(order.getItems()
+                                           .size())
+                           .totalValue(totalValue)
+                           .build();
+    }
+
+}
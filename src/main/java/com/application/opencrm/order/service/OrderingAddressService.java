@@ -2,33 +2,132 @@ package com.application.opencrm.order.service;
 
 import com.application.opencrm.client.model.Address;
 import com.application.opencrm.client.service.AddressService;
+import com.application.opencrm.common.cache.BoundedLruCache;
+import com.application.opencrm.order.dto.OrderingAddressDto;
 import com.application.opencrm.order.mapper.OrderingAddressMapper;
 import com.application.opencrm.order.model.OrderingAddress;
-import lombok.RequiredArgsConstructor;
+import com.application.opencrm.order.repository.OrderingPersonRepository;
+import com.application.opencrm.order.repository.projection.OrderingAddressProjection;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service handling operations on {@link OrderingAddress} objects.
+ * <p>
+ * Ordering addresses are stored as immutable snapshots identified by a SHA-256 hash of their content, so an order
+ * made with an address that has already been used refers to the existing snapshot instead of storing a new copy. The
+ * ids of recently used snapshots are cached by their hashes. A missing snapshot is inserted in the transaction of the
+ * order with a statement that does nothing on a conflict with a concurrent insert of the same snapshot, so the order
+ * is neither rolled back nor needs a second connection, and the concurrently inserted snapshot is used instead. Ids
+ * are cached only once the transaction resolving them commits, as its rollback removes a snapshot it inserted.
  */
 @Service
-@RequiredArgsConstructor
 public class OrderingAddressService {
 
     private final AddressService addressService;
     private final OrderingAddressMapper mapper;
+    private final OrderingPersonRepository repository;
+    private final BoundedLruCache<String, Long> snapshotIds;
+
+    public OrderingAddressService(AddressService addressService, OrderingAddressMapper mapper,
+                                  OrderingPersonRepository repository,
+                                  @Value("${order.ordering-address.cache-size:10000}") int cacheSize) {
+        this.addressService = addressService;
+        this.mapper = mapper;
+        this.repository = repository;
+        this.snapshotIds = new BoundedLruCache<>(cacheSize);
+    }
 
     /**
-     * Creates {@code OrderingAddress} based on the data of a persisted {@link Address} specified by id. In order to
-     * build an {@code OrderingAddress} through this method, you have to save an {@code Address} first and then refer to
-     * it by {@code id}.
+     * Resolves the {@code OrderingAddress} snapshot of the data of a persisted {@link Address} specified by id. In
+     * order to resolve an {@code OrderingAddress} through this method, you have to save an {@code Address} first and
+     * then refer to it by {@code id}.
+     * <p>
+     * If a snapshot with identical content already exists, it is reused, otherwise a new snapshot is stored.
      *
      * @param addressId the {@code id} of {@code Address} in the repository that is to be the basis of the
      *                  {@code OrderingAddress}
-     * @return the created {@code OrderingAddress}
+     * @return the reference to the stored {@code OrderingAddress}
      */
-    protected OrderingAddress buildOrderingAddress(Long addressId) {
+    protected OrderingAddress resolveOrderingAddress(Long addressId) {
         Address address = addressService.getAddressFromRepository(addressId);
-        return mapper.addressToOrderingAddress(address);
+        OrderingAddress snapshot = mapper.addressToOrderingAddress(address);
+        String contentHash = contentHash(snapshot);
+        Long id = snapshotIds.get(contentHash);
+        if (id == null) {
+            id = repository.findIdByContentHash(contentHash)
+                           .orElseGet(() -> insertSnapshot(snapshot, contentHash));
+            cacheAfterCommit(contentHash, id);
+        }
+        return repository.getReferenceById(id);
+    }
+
+    private Long insertSnapshot(OrderingAddress snapshot, String contentHash) {
+        snapshot.setContentHash(contentHash);
+        // on a conflict the snapshot committed by the concurrent transaction is found instead
+        return repository.insertIfAbsent(snapshot)
+                         .or(() -> repository.findIdByContentHash(contentHash))
+                         .orElseThrow(() -> new IllegalStateException(
+                             "Ordering address with content hash " + contentHash + " is neither inserted nor found"));
+    }
+
+    private void cacheAfterCommit(String contentHash, Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            snapshotIds.put(contentHash, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                snapshotIds.put(contentHash, id);
+            }
+        });
+    }
+
+    /**
+     * Retrieves the contents of the {@code OrderingAddress} snapshots with specified ids as dtos, without loading the
+     * entities.
+     *
+     * @param ids the ids of the snapshots
+     * @return the dtos of the found snapshots by their ids
+     */
+    protected Map<Long, OrderingAddressDto> getOrderingAddresses(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return repository.findProjectionsByIdIn(ids)
+                         .stream()
+                         .collect(Collectors.toMap(OrderingAddressProjection::getId,
+                             mapper::orderingAddressProjectionToOrderingAddressDto));
+    }
+
+    /**
+     * Computes the hash identifying the content of a snapshot. Every field is prefixed with its length, so that
+     * different combinations of values, including missing ones, never produce the same input of the digest.
+     */
+    static String contentHash(OrderingAddress snapshot) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Stream.of(snapshot.getPersonName(), snapshot.getCountry(), snapshot.getCity(), snapshot.getRegion(),
+                  snapshot.getStreet(), snapshot.getBuildingNumber(), snapshot.getPostalCode())
+              .map(field -> field == null ? "-1:" : field.length() + ":" + field)
+              .forEach(field -> digest.update(field.getBytes(StandardCharsets.UTF_8)));
+        return String.format("%064x", new BigInteger(1, digest.digest()));
     }
 
 }
@@ -0,0 +1,209 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.common.exception.InvalidRequestException;
+import com.application.opencrm.common.sketch.SpaceSavingSketch;
+import com.application.opencrm.inventory.model.Inventory;
+import com.application.opencrm.order.dto.TopSellingInventoryDto;
+import com.application.opencrm.order.event.InventorySoldEvent;
+import com.application.opencrm.order.repository.projection.InventorySalesProjection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigInteger;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Service tracking the best-selling {@link Inventory inventories} of the current day and week.
+ * <p>
+ * For every window the units sold and their value are summarized by {@link SpaceSavingSketch sketches} of bounded
+ * size, fed from orders once they are committed, so reading the ranking does not query the database. The sketches
+ * only approximate the ranking: cancellations are not subtracted and amounts exceeding the range of {@code long} are
+ * capped at {@link Long#MAX_VALUE}. Therefore the sketches of the current windows are periodically rebuilt from exact
+ * sums computed by the database, which also restores them after a restart. Sales committed while a reconciliation
+ * reads the database are recorded aside and added to the rebuilt sketches, so they are not lost, but they may be
+ * counted twice until the next reconciliation; below the cap the amounts are never underestimated.
+ */
+@Service
+public class TopSellingInventoryService {
+
+    private static final BigInteger MAX_WEIGHT = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private final ItemService itemService;
+    private final int capacity;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Map<Window, WindowSketches> sketches = new EnumMap<>(Window.class);
+    // sales committed during the running reconciliation, guarded by the lock of the sketches
+    private List<InventorySoldEvent> pending;
+
+    public TopSellingInventoryService(ItemService itemService,
+                                      @Value("${order.top-selling.capacity:500}") int capacity) {
+        this.itemService = itemService;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Retrieves the best-selling inventories of the current window.
+     *
+     * @param window the period the sales are counted over
+     * @param metric the amount the inventories are ranked by
+     * @param limit  the maximum number of returned inventories
+     * @return the dtos representing the best-selling inventories, from the best-selling one
+     */
+    public List<TopSellingInventoryDto> getTopSelling(Window window, Metric metric, int limit) {
+        if (limit < 1 || limit > capacity) {
+            throw new InvalidRequestException("Limit has to be between 1 and " + capacity + ".");
+        }
+        return current(window).sketch(metric)
+                              .top(limit)
+                              .stream()
+                              .map(estimate -> new TopSellingInventoryDto(estimate.getKey(), estimate.getWeight(),
+                                  estimate.getError()))
+                              .collect(Collectors.toList());
+    }
+
+    /**
+     * Counts sold inventories after the transaction creating the orders commits.
+     *
+     * @param event the event summarizing the sold inventories
+     */
+    @TransactionalEventListener
+    public void onInventorySold(InventorySoldEvent event) {
+        synchronized (sketches) {
+            if (pending != null) {
+                pending.add(event);
+            }
+            for (Window window : Window.values()) {
+                add(current(window), event);
+            }
+        }
+    }
+
+    /**
+     * Replaces the sketches of the current windows with ones built from exact sums of the sales, adding the sales
+     * committed in the meantime.
+     */
+    @Transactional(readOnly = true)
+    @Scheduled(fixedDelayString = "${order.top-selling.reconcile-delay-ms:300000}")
+    public void reconcile() {
+        List<InventorySoldEvent> recorded = new ArrayList<>();
+        synchronized (sketches) {
+            pending = recorded;
+        }
+        Map<Window, WindowSketches> reconciled = new EnumMap<>(Window.class);
+        try {
+            for (Window window : Window.values()) {
+                Instant start = window.start(LocalDate.now(zone), zone);
+                Map<Long, Long> units = new HashMap<>();
+                Map<Long, Long> revenue = new HashMap<>();
+                for (InventorySalesProjection sales : itemService.sumSalesByInventory(start)) {
+                    putIfPresent(units, sales.getInventoryId(), sales.getUnits());
+                    putIfPresent(revenue, sales.getInventoryId(), sales.getRevenue());
+                }
+                WindowSketches windowSketches = new WindowSketches(start, capacity);
+                windowSketches.units.reset(units);
+                windowSketches.revenue.reset(revenue);
+                reconciled.put(window, windowSketches);
+            }
+        } catch (RuntimeException e) {
+            synchronized (sketches) {
+                pending = null;
+            }
+            throw e;
+        }
+        synchronized (sketches) {
+            reconciled.forEach((window, windowSketches) -> {
+                recorded.forEach(event -> add(windowSketches, event));
+                sketches.put(window, windowSketches);
+            });
+            pending = null;
+        }
+    }
+
+    private WindowSketches current(Window window) {
+        Instant start = window.start(LocalDate.now(zone), zone);
+        synchronized (sketches) {
+            WindowSketches current = sketches.get(window);
+            if (current == null || current.start.isBefore(start)) {
+                current = new WindowSketches(start, capacity);
+                sketches.put(window, current);
+            }
+            return current;
+        }
+    }
+
+    private void add(WindowSketches windowSketches, InventorySoldEvent event) {
+        if (event.getSoldAt()
+                 .isBefore(windowSketches.start)) {
+            return;
+        }
+        event.getUnitsByInventoryId()
+             .forEach((inventoryId, units) -> windowSketches.units.add(inventoryId, weight(units)));
+        event.getRevenueByInventoryId()
+             .forEach((inventoryId, revenue) -> windowSketches.revenue.add(inventoryId, weight(revenue)));
+    }
+
+    private void putIfPresent(Map<Long, Long> weights, Long inventoryId, BigInteger value) {
+        if (value != null) {
+            weights.put(inventoryId, weight(value));
+        }
+    }
+
+    /**
+     * Narrows a non-negative amount to a weight of a sketch, capping it at {@link Long#MAX_VALUE}.
+     */
+    private long weight(BigInteger amount) {
+        return amount.compareTo(MAX_WEIGHT) > 0 ? Long.MAX_VALUE : amount.longValue();
+    }
+
+    /**
+     * Periods the sales are counted over.
+     */
+    public enum Window {
+        DAY, WEEK;
+
+        private Instant start(LocalDate today, ZoneId zone) {
+            LocalDate firstDay = this == DAY ? today : today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            return firstDay.atStartOfDay(zone)
+                           .toInstant();
+        }
+    }
+
+    /**
+     * Amounts the inventories are ranked by.
+     */
+    public enum Metric {
+        UNITS, REVENUE
+    }
+
+    private static class WindowSketches {
+
+        private final Instant start;
+        private final SpaceSavingSketch<Long> units;
+        private final SpaceSavingSketch<Long> revenue;
+
+        private WindowSketches(Instant start, int capacity) {
+            this.start = start;
+            this.units = new SpaceSavingSketch<>(capacity);
+            this.revenue = new SpaceSavingSketch<>(capacity);
+        }
+
+        private SpaceSavingSketch<Long> sketch(Metric metric) {
+            return metric == Metric.UNITS ? units : revenue;
+        }
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.application.opencrm.outbox.repository;
+
+import com.application.opencrm.outbox.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository used to perform basic CRUD and SQL operations on {@link OutboxEvent} entities.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Claims the events with the lowest ids for dispatch by locking them until the end of the transaction. Ids are
+     * allocated from a pooled sequence, so they only roughly follow the order the events were written in. Events
+     * already locked by other transactions are skipped ({@code FOR UPDATE SKIP LOCKED} on databases supporting it), so
+     * several dispatchers can claim batches concurrently without waiting for each other.
+     *
+     * @param pageable the page specifying the maximum number of claimed events
+     * @return the claimed events sorted by their ids
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e order by e.id")
+    List<OutboxEvent> claimBatch(Pageable pageable);
+
+    /**
+     * Finds the creation time of the oldest event waiting for dispatch.
+     *
+     * @return the creation time, {@code null} if there are no events
+     */
+    @Query("select min(e.createdAt) from OutboxEvent e")
+    Instant findOldestCreatedAt();
+
+}
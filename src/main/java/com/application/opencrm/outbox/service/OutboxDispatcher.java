@@ -0,0 +1,128 @@
+package com.application.opencrm.outbox.service;
+
+import com.application.opencrm.outbox.model.OutboxEvent;
+import com.application.opencrm.outbox.repository.OutboxEventRepository;
+import com.application.opencrm.outbox.sink.OutboxEventSink;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service dispatching the events stored in the outbox to the configured {@link OutboxEventSink}.
+ * <p>
+ * Events are claimed in batches, lowest ids first, with row locks that skip the rows already locked by other nodes, so
+ * several instances of the application can dispatch concurrently without waiting for each other. A batch is deleted in
+ * the transaction that claimed it, after the sink has accepted it. If the sink fails, the transaction is rolled back
+ * and the batch is retried on the next run, so events are dispatched at least once.
+ * <p>
+ * Events are not guaranteed to be published in the order they were written, not even the events of one aggregate: ids
+ * are allocated from a pooled sequence in blocks per instance, concurrently claimed batches are published in parallel
+ * and a failed batch is published again after later ones. Consumers have to order the events of an aggregate
+ * themselves, for example by the versions carried in their payloads.
+ * <p>
+ * The dispatcher exposes the number of pending events ({@code outbox.pending}), the age of the oldest of them in
+ * seconds ({@code outbox.lag.seconds}) and the counts of dispatched events and failed batches
+ * ({@code outbox.dispatched}, {@code outbox.failures}). The pending events are counted on their own, slower schedule,
+ * as counting them scans the whole outbox. The dispatcher is disabled with {@code outbox.dispatcher.enabled=false}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository repository;
+    private final OutboxEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter dispatched;
+    private final Counter failures;
+
+    public OutboxDispatcher(OutboxEventRepository repository, OutboxEventSink sink,
+                            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                            @Value("${outbox.dispatcher.batch-size:100}") int batchSize) {
+        this.repository = repository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+             .description("Number of events waiting in the outbox")
+             .register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", lagSeconds, AtomicLong::get)
+             .description("Age of the oldest event waiting in the outbox")
+             .register(meterRegistry);
+        this.dispatched = Counter.builder("outbox.dispatched")
+                                 .description("Number of events dispatched from the outbox")
+                                 .register(meterRegistry);
+        this.failures = Counter.builder("outbox.failures")
+                               .description("Number of batches of events that could not be dispatched")
+                               .register(meterRegistry);
+    }
+
+    /**
+     * Dispatches the pending events in batches until the outbox is drained or a batch fails.
+     */
+    @Scheduled(fixedDelayString = "${outbox.dispatcher.delay-ms:1000}")
+    public void dispatch() {
+        try {
+            int count;
+            do {
+                count = dispatchBatch();
+            } while (count == batchSize);
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Dispatching of outbox events failed, the batch will be retried.", e);
+        }
+    }
+
+    /**
+     * Claims, publishes and deletes a single batch of events.
+     *
+     * @return the number of dispatched events
+     */
+    int dispatchBatch() {
+        Integer count = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = repository.claimBatch(PageRequest.ofSize(batchSize));
+            if (events.isEmpty()) {
+                return 0;
+            }
+            try {
+                sink.publish(events);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Sink failed to publish outbox events", e);
+            }
+            repository.deleteAllInBatch(events);
+            return events.size();
+        });
+        dispatched.increment(count);
+        return count;
+    }
+
+    /**
+     * Refreshes the number of pending events and the age of the oldest of them.
+     */
+    @Scheduled(fixedDelayString = "${outbox.dispatcher.metrics-delay-ms:30000}")
+    public void refreshMetrics() {
+        pending.set(repository.count());
+        Instant oldest = repository.findOldestCreatedAt();
+        lagSeconds.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now())
+                                                                .getSeconds()));
+    }
+
+}
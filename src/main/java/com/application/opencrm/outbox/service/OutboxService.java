@@ -0,0 +1,86 @@
+package com.application.opencrm.outbox.service;
+
+import com.application.opencrm.client.event.ClientChangedEvent;
+import com.application.opencrm.common.exception.InternalServerException;
+import com.application.opencrm.order.event.OrderCreatedEvent;
+import com.application.opencrm.order.event.OrderStatusChangedEvent;
+import com.application.opencrm.outbox.model.OutboxEvent;
+import com.application.opencrm.outbox.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Service handling operations on {@link OutboxEvent} objects.
+ * <p>
+ * Domain events are written to the outbox synchronously, within the transaction that published them, so an event
+ * is stored if and only if the change it describes is committed. Dispatching the events is left to
+ * {@link OutboxDispatcher}.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    static final String ORDER = "Order";
+    static final String CLIENT = "Client";
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes the creation of an order to the outbox.
+     *
+     * @param event the event describing the created order
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        append(ORDER, event.getOrderId(), event);
+    }
+
+    /**
+     * Writes the change of the status of an order to the outbox.
+     *
+     * @param event the event describing the changed order
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        append(ORDER, event.getOrderId(), event);
+    }
+
+    /**
+     * Writes the change of a client to the outbox.
+     *
+     * @param event the event describing the changed client
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onClientChanged(ClientChangedEvent event) {
+        append(CLIENT, event.getClientId(), event);
+    }
+
+    private void append(String aggregateType, Long aggregateId, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new InternalServerException(e.getMessage());
+        }
+        repository.save(OutboxEvent.builder()
+                                   .aggregateType(aggregateType)
+                                   .aggregateId(aggregateId)
+                                   .eventType(event.getClass()
+                                                   .getSimpleName())
+                                   .payload(payload)
+                                   .createdAt(Instant.now())
+                                   .build());
+    }
+
+}
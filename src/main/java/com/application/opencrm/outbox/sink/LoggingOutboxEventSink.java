@@ -0,0 +1,24 @@
+package com.application.opencrm.outbox.sink;
+
+import com.application.opencrm.outbox.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@link OutboxEventSink} writing the events to the application log. Used when no other sink is configured.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingOutboxEventSink implements OutboxEventSink {
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        events.forEach(event -> log.info("Outbox event {} {} of {} {}: {}", event.getId(), event.getEventType(),
+            event.getAggregateType(), event.getAggregateId(), event.getPayload()));
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.application.opencrm.outbox.sink;
+
+import com.application.opencrm.outbox.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination the events from the outbox are dispatched to. Exactly one sink is active, selected with the
+ * {@code outbox.sink} property.
+ * <p>
+ * Events are dispatched at least once: a batch that has been published but could not be removed from the outbox is
+ * published again, so sinks and their consumers should tolerate duplicates, which can be recognized by event ids.
+ */
+public interface OutboxEventSink {
+
+    /**
+     * Publishes a batch of events. The batch is considered dispatched only if the method returns normally.
+     *
+     * @param events the events ordered by their ids, which does not have to be the order they were written in
+     * @throws Exception if the events could not be published
+     */
+    void publish(List<OutboxEvent> events) throws Exception;
+
+}
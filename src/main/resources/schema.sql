@@ -40,9 +40,15 @@ ALTER TABLE "role"
 
 --|| CLIENTS ||--
 
+-- Ids are allocated by Hibernate's pooled optimizer, which reserves blocks of 50 ids per sequence call and lets
+-- inserts be sent in JDBC batches. The increments have to match the allocationSize of the entity mappings.
+CREATE SEQUENCE client_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE address_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE contact_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE client
 (
-    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    id          BIGINT,
     "name"      VARCHAR(255),
     client_type VARCHAR(32),
     PRIMARY KEY (id)
@@ -50,7 +56,7 @@ CREATE TABLE client
 
 CREATE TABLE address
 (
-    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    id              BIGINT,
     person_name     VARCHAR(255),
     country         VARCHAR(255),
     city            VARCHAR(255),
@@ -64,7 +70,7 @@ CREATE TABLE address
 
 CREATE TABLE contact
 (
-    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    id           BIGINT,
     "name"       VARCHAR(255),
     email        VARCHAR(255),
     phone_number VARCHAR(255),
@@ -77,12 +83,63 @@ ALTER TABLE address
 ALTER TABLE contact
     ADD CONSTRAINT fk_contact_client FOREIGN KEY (client_id) REFERENCES client;
 
+-- keyset pagination of clients sorted by name and batch loading of their addresses and contacts
+CREATE INDEX idx_client_name_id ON client ("name", id);
+CREATE INDEX idx_address_client_id ON address (client_id);
+CREATE INDEX idx_contact_client_id ON contact (client_id);
+
+-- full-text search of clients, the trigram GIN indexes serve the word similarity operator <%
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_client_name_trgm ON client USING gin ("name" gin_trgm_ops);
+CREATE INDEX idx_contact_email_trgm ON contact USING gin (email gin_trgm_ops);
+CREATE INDEX idx_contact_phone_number_trgm ON contact USING gin (phone_number gin_trgm_ops);
+CREATE INDEX idx_address_city_trgm ON address USING gin (city gin_trgm_ops);
+CREATE INDEX idx_address_postal_code_trgm ON address USING gin (postal_code gin_trgm_ops);
+
+-- report of likely duplicate clients, replaced by every detection run and reviewed from the highest score
+CREATE SEQUENCE client_duplicate_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE client_duplicate
+(
+    id                    BIGINT,
+    client_id             BIGINT,
+    client_name           VARCHAR(255),
+    duplicate_client_id   BIGINT,
+    duplicate_client_name VARCHAR(255),
+    score                 DOUBLE PRECISION,
+    reasons               VARCHAR(255),
+    detected_at           TIMESTAMP,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_client_duplicate_score_id ON client_duplicate (score DESC, id);
+
+-- blocking keys staged by the detection and sorted by the database, they are rebuilt by every run
+CREATE UNLOGGED TABLE client_blocking_key
+(
+    blocking_key VARCHAR(255) NOT NULL,
+    client_id    BIGINT       NOT NULL,
+    client_name  VARCHAR(255)
+);
+
+-- pairs of clients found in the blocks of shared keys, one row per block, grouped into the report by the database
+CREATE UNLOGGED TABLE client_duplicate_pair
+(
+    client_id           BIGINT           NOT NULL,
+    duplicate_client_id BIGINT           NOT NULL,
+    reason              SMALLINT         NOT NULL,
+    name_similarity     DOUBLE PRECISION NOT NULL
+);
+
 
 --|| INVENTORY ||--
 
+CREATE SEQUENCE inventory_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE category_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE inventory
 (
-    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    id            BIGINT,
     description   VARCHAR(255),
     "name"        VARCHAR(255),
     units         NUMERIC(19, 2),
@@ -93,7 +150,7 @@ CREATE TABLE inventory
 
 CREATE TABLE category
 (
-    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    id          BIGINT,
     "name"        VARCHAR(255),
     slug        VARCHAR(255),
     description VARCHAR(255),
@@ -120,34 +177,47 @@ ALTER TABLE category
     ADD CONSTRAINT uq_category_name UNIQUE ("name");
 
 
---|| INVENTORY ||--
+--|| ORDERS ||--
 
+CREATE SEQUENCE order_table_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE item_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE ordering_address_seq START WITH 1 INCREMENT BY 50;
+
+-- Orders and their items are partitioned by the month of creation of the order. Partitions of the current and the
+-- following months are created by the archival job, the default partitions only catch rows outside of them.
+-- Closed orders older than the configured age are moved to the archive tables, which are partitioned by year.
 CREATE TABLE order_table
 (
-    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY,
-    created_at          TIMESTAMP,
+    id                  BIGINT       NOT NULL,
+    created_at          TIMESTAMP    NOT NULL,
     status              VARCHAR(255),
     billing_address_id  BIGINT,
     client_id           BIGINT,
     shipping_address_id BIGINT,
-    PRIMARY KEY (id)
-);
+    version             BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE order_table_default PARTITION OF order_table DEFAULT;
 
 CREATE TABLE item
 (
-    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    id            BIGINT       NOT NULL,
     "name"        VARCHAR(255),
     units         NUMERIC(19, 2),
     quantity_type VARCHAR(255),
     unit_price    NUMERIC(19, 2),
     inventory_id  BIGINT,
     order_id      BIGINT,
-    PRIMARY KEY (id)
-);
+    created_at    TIMESTAMP    NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE item_default PARTITION OF item DEFAULT;
 
 CREATE TABLE ordering_address
 (
-    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    id              BIGINT,
     building_number VARCHAR(255),
     city            VARCHAR(255),
     country         VARCHAR(255),
@@ -155,9 +225,13 @@ CREATE TABLE ordering_address
     postal_code     VARCHAR(255),
     region          VARCHAR(255),
     street          VARCHAR(255),
+    content_hash    VARCHAR(64)  NOT NULL,
     PRIMARY KEY (id)
 );
 
+ALTER TABLE ordering_address
+    ADD CONSTRAINT uq_ordering_address_content_hash UNIQUE (content_hash);
+
 ALTER TABLE order_table
     ADD CONSTRAINT fk_order_client FOREIGN KEY (client_id) REFERENCES client;
 ALTER TABLE order_table
@@ -165,9 +239,89 @@ ALTER TABLE order_table
 ALTER TABLE order_table
     ADD CONSTRAINT fk_order_ordering_address_billing FOREIGN KEY (billing_address_id) REFERENCES ordering_address;
 ALTER TABLE item
-    ADD CONSTRAINT fk_item_order FOREIGN KEY (order_id) REFERENCES order_table;
+    ADD CONSTRAINT fk_item_order FOREIGN KEY (order_id, created_at) REFERENCES order_table (id, created_at);
 ALTER TABLE item
     ADD CONSTRAINT fk_item_inventory FOREIGN KEY (inventory_id) REFERENCES inventory;
 
-ALTER TABLE item
-    ADD CONSTRAINT uq_item_name UNIQUE ("name");
+CREATE INDEX idx_order_created_at_id ON order_table (created_at DESC, id DESC);
+CREATE INDEX idx_order_status_created_at_id ON order_table (status, created_at DESC, id DESC);
+-- covers the order history of a client, so its pages are read by index-only range scans
+CREATE INDEX idx_order_client_created_at_id ON order_table (client_id, created_at DESC, id DESC) INCLUDE (status, version, billing_address_id, shipping_address_id);
+CREATE INDEX idx_item_order_id ON item (order_id);
+-- finds the orders containing an inventory, e.g. when it is recalled, by index-only range scans
+CREATE INDEX idx_item_inventory_order_id ON item (inventory_id, order_id DESC) INCLUDE (quantity_type, units);
+
+CREATE TABLE order_archive
+(
+    id                  BIGINT       NOT NULL,
+    created_at          TIMESTAMP    NOT NULL,
+    status              VARCHAR(255),
+    billing_address_id  BIGINT,
+    client_id           BIGINT,
+    shipping_address_id BIGINT,
+    version             BIGINT       NOT NULL,
+    archived_at         TIMESTAMP    NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE order_archive_default PARTITION OF order_archive DEFAULT;
+
+CREATE TABLE item_archive
+(
+    id            BIGINT       NOT NULL,
+    "name"        VARCHAR(255),
+    units         NUMERIC(19, 2),
+    quantity_type VARCHAR(255),
+    unit_price    NUMERIC(19, 2),
+    inventory_id  BIGINT,
+    order_id      BIGINT,
+    created_at    TIMESTAMP    NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE item_archive_default PARTITION OF item_archive DEFAULT;
+
+CREATE INDEX idx_item_archive_order_id ON item_archive (order_id);
+
+CREATE TABLE order_summary
+(
+    order_id    BIGINT,
+    client_id   BIGINT,
+    client_name VARCHAR(255),
+    status      VARCHAR(255),
+    created_at  TIMESTAMP,
+    line_count  INTEGER        NOT NULL,
+    total_value NUMERIC(38, 2),
+    PRIMARY KEY (order_id)
+);
+
+CREATE INDEX idx_order_summary_created_at_id ON order_summary (created_at DESC, order_id DESC);
+CREATE INDEX idx_order_summary_status_created_at_id ON order_summary (status, created_at DESC, order_id DESC);
+CREATE INDEX idx_order_summary_client_created_at_id ON order_summary (client_id, created_at DESC, order_id DESC);
+
+CREATE TABLE order_idempotency_key
+(
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash    VARCHAR(255) NOT NULL,
+    order_id        BIGINT,
+    response        TEXT,
+    created_at      TIMESTAMP    NOT NULL,
+    PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX idx_order_idempotency_key_created_at ON order_idempotency_key (created_at);
+
+CREATE SEQUENCE outbox_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE outbox_event
+(
+    id             BIGINT       NOT NULL,
+    aggregate_type VARCHAR(255) NOT NULL,
+    aggregate_id   BIGINT       NOT NULL,
+    event_type     VARCHAR(255) NOT NULL,
+    payload        TEXT         NOT NULL,
+    created_at     TIMESTAMP    NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_outbox_event_created_at ON outbox_event (created_at);
@@ -0,0 +1,215 @@
+package com.application.opencrm.client.controller;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.common.pagination.KeysetCursor;
+import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
+import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.service.OrderService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sends requests to the client endpoints, served by the embedded database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:client-controller")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "SALES")
+class ClientControllerTest {
+
+    private static final Instant SAME_TIME = Instant.parse("2020-01-01T00:00:00Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    void GetClientOrders_ShouldReturnEveryOrderOnce_IfPagesEndWithinOrdersCreatedAtSameTime() throws Exception {
+        // Given
+        ClientDto client = client();
+        ClientDto otherClient = client();
+        Long inventoryId = inventory();
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orderIds.add(order(client, inventoryId));
+        }
+        Long otherOrderId = order(otherClient, inventoryId);
+        setCreatedAt(orderIds, SAME_TIME);
+        setCreatedAt(List.of(otherOrderId), SAME_TIME);
+
+        // When
+        List<List<Long>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/client/{id}/orders", client.getId()).param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String page = mockMvc.perform(request)
+                                 .andExpect(status().isOk())
+                                 .andExpect(jsonPath("$.content[0].items").doesNotExist())
+                                 .andExpect(jsonPath("$.content[0].billingAddress").doesNotExist())
+                                 .andReturn()
+                                 .getResponse()
+                                 .getContentAsString();
+            pages.add(ids(page));
+            cursor = JsonPath.read(page, "$.nextCursor");
+        } while (cursor != null);
+
+        // Then
+        orderIds.sort(Comparator.reverseOrder());
+        then(pages).containsExactly(orderIds.subList(0, 2), orderIds.subList(2, 4), orderIds.subList(4, 5));
+    }
+
+    @Test
+    void GetClientOrders_ShouldReturnItemsAndAddresses_IfItemsAreIncluded() throws Exception {
+        // Given
+        ClientDto client = client();
+        Long orderId = order(client, inventory());
+
+        // When
+        mockMvc.perform(get("/client/{id}/orders", client.getId()).param("includeItems", "true"))
+               // Then
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.content[0].id").value(orderId))
+               .andExpect(jsonPath("$.content[0].items[0].units").value(10))
+               .andExpect(jsonPath("$.content[0].billingAddress.city").value("Warsaw"))
+               .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void GetClientOrders_ShouldReturnEmptyPage_IfClientHasNoOrders() throws Exception {
+        // Given
+        ClientDto client = client();
+
+        // When
+        mockMvc.perform(get("/client/{id}/orders", client.getId()))
+               // Then
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.content").isEmpty());
+    }
+
+    @Test
+    void GetClientOrders_ShouldAnswerNotFoundOnlyForFirstPage_IfClientDoesNotExist() throws Exception {
+        // Given
+        String cursor = KeysetCursor.of(SAME_TIME, 1L)
+                                    .encode();
+
+        // When
+        mockMvc.perform(get("/client/{id}/orders", Long.MAX_VALUE))
+               // Then
+               .andExpect(status().isNotFound());
+        // a following page is empty, since checking the client on every page would cost a query per page
+        mockMvc.perform(get("/client/{id}/orders", Long.MAX_VALUE).param("cursor", cursor))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.content").isEmpty());
+    }
+
+    @Test
+    void GetClientOrders_ShouldAnswerBadRequest_IfPageSizeIsOutOfBounds() throws Exception {
+        // Given
+        ClientDto client = client();
+
+        // When
+        mockMvc.perform(get("/client/{id}/orders", client.getId()).param("size", "0"))
+               // Then
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/client/{id}/orders", client.getId()).param("size", "101"))
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/client/{id}/orders", client.getId()).param("size", "100"))
+               .andExpect(status().isOk());
+    }
+
+    private static List<Long> ids(String page) {
+        List<Number> ids = JsonPath.read(page, "$.content[*].id");
+        return ids.stream()
+                  .map(Number::longValue)
+                  .collect(Collectors.toList());
+    }
+
+    /**
+     * Moves orders to the specified creation time, which cannot be chosen when orders are created.
+     */
+    private void setCreatedAt(List<Long> orderIds, Instant createdAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", orderIds).addValue("createdAt",
+            Timestamp.from(createdAt));
+        jdbcTemplate.update("UPDATE order_table SET created_at = :createdAt WHERE id IN (:ids)", params);
+        jdbcTemplate.update("UPDATE item SET created_at = :createdAt WHERE order_id IN (:ids)", params);
+        jdbcTemplate.update("UPDATE order_summary SET created_at = :createdAt WHERE order_id IN (:ids)", params);
+    }
+
+    private Long order(ClientDto client, Long inventoryId) {
+        Long addressId = client.getAddresses()
+                               .get(0)
+                               .getId();
+        return orderService.saveOrder(new OrderCreationRequestDto(client.getId(), addressId, addressId, List.of(
+                               new ItemCreationRequestDto(inventoryId, BigInteger.TEN))))
+                           .getId();
+    }
+
+    private Long inventory() {
+        return inventoryService.saveInventory(InventoryCreationRequestDto.builder()
+                                                                         .name("Inventory " + UUID.randomUUID())
+                                                                         .description("Description")
+                                                                         .unitPrice(BigInteger.TEN)
+                                                                         .quantityType("COUNTABLE")
+                                                                         .units(BigInteger.valueOf(100))
+                                                                         .build())
+                               .getId();
+    }
+
+    private ClientDto client() {
+        return clientService.saveClient(ClientCreationRequestDto.builder()
+                                                                .name("Jan Kowalski")
+                                                                .clientType("INDIVIDUAL")
+                                                                .addresses(List.of(AddressCreationRequestDto.builder()
+                                                                                                            .personName("Jan Kowalski")
+                                                                                                            .country("Poland")
+                                                                                                            .city("Warsaw")
+                                                                                                            .region("Masovian")
+                                                                                                            .street("Street")
+                                                                                                            .buildingNumber("1")
+                                                                                                            .postalCode("00-001")
+                                                                                                            .build()))
+                                                                .contacts(List.of())
+                                                                .build());
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.application.opencrm.client.search;
+
+import com.application.opencrm.client.event.ClientChangedEvent;
+import com.application.opencrm.client.event.ClientChangedEvent.ChangeType;
+import com.application.opencrm.client.event.ClientDetailsChangedEvent;
+import com.application.opencrm.client.model.Address;
+import com.application.opencrm.client.model.Client;
+import com.application.opencrm.client.model.Contact;
+import com.application.opencrm.client.repository.ClientRepository;
+import com.application.opencrm.client.repository.projection.ClientMatchProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryClientSearchEngineUnitTest {
+
+    @Mock
+    private ClientRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InMemoryClientSearchEngine searchEngine;
+
+    @BeforeEach
+    void setUp() {
+        searchEngine = new InMemoryClientSearchEngine(repository, transactionManager);
+    }
+
+    @Test
+    void Search_ShouldRankClientsByShareOfMatchedTrigrams() {
+        // Given
+        given(repository.findAllById(List.of(1L))).willReturn(List.of(client(1L, "Jan Kowalski", "Warsaw")));
+        given(repository.findAllById(List.of(2L))).willReturn(List.of(client(2L, "Anna Kowalska", "Krakow")));
+        searchEngine.onClientChanged(new ClientChangedEvent(1L, ChangeType.CREATED, "Jan Kowalski", "INDIVIDUAL"));
+        searchEngine.onClientChanged(new ClientChangedEvent(2L, ChangeType.CREATED, "Anna Kowalska", "INDIVIDUAL"));
+
+        // When
+        List<ClientMatchProjection> matches = searchEngine.search("kowalski", 10);
+
+        // Then
+        then(matches).extracting(ClientMatchProjection::getClientId)
+                     .containsExactly(1L, 2L);
+        then(matches.get(0)
+                    .getScore()).isEqualTo(1.0);
+        then(searchEngine.search("WARSAW", 10)).extracting(ClientMatchProjection::getClientId)
+                                               .containsExactly(1L);
+    }
+
+    @Test
+    void Search_ShouldScoreEveryFieldSeparately() {
+        // Given
+        given(repository.findAllById(List.of(1L))).willReturn(List.of(client(1L, "Jan Kowalski", "Warsaw")));
+        searchEngine.onClientChanged(new ClientChangedEvent(1L, ChangeType.CREATED, "Jan Kowalski", "INDIVIDUAL"));
+
+        // When
+        List<ClientMatchProjection> acrossFields = searchEngine.search("kowalski warsaw", 10);
+        List<ClientMatchProjection> withinField = searchEngine.search("jan kowalski", 10);
+
+        // Then
+        then(acrossFields).isEmpty();
+        then(withinField).extracting(ClientMatchProjection::getClientId, ClientMatchProjection::getScore)
+                         .containsExactly(tuple(1L, 1.0));
+    }
+
+    @Test
+    void OnClientDetailsChanged_ShouldReplaceIndexedFields_IfClientIsReindexed() {
+        // Given
+        given(repository.findAllById(List.of(1L))).willReturn(List.of(client(1L, "Jan Kowalski", "Warsaw")))
+                                                  .willReturn(List.of(client(1L, "Jan Kowalski", "Gdansk")));
+        searchEngine.onClientChanged(new ClientChangedEvent(1L, ChangeType.CREATED, "Jan Kowalski", "INDIVIDUAL"));
+
+        // When
+        searchEngine.onClientDetailsChanged(new ClientDetailsChangedEvent(1L));
+
+        // Then
+        then(searchEngine.search("warsaw", 10)).isEmpty();
+        then(searchEngine.search("gdansk", 10)).extracting(ClientMatchProjection::getClientId)
+                                               .containsExactly(1L);
+    }
+
+    private Client client(Long id, String name, String city) {
+        Client client = Client.builder()
+                              .id(id)
+                              .name(name)
+                              .build();
+        client.addAddress(Address.builder()
+                                 .city(city)
+                                 .postalCode("00-001")
+                                 .build());
+        client.addContact(Contact.builder()
+                                 .email(name.toLowerCase()
+                                            .replace(' ', '.') + "@example.com")
+                                 .phoneNumber("+48 600 100 200")
+                                 .build());
+        return client;
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.application.opencrm.client.service;
+
+import com.application.opencrm.client.dto.ClientNameDto;
+import com.application.opencrm.client.event.ClientChangedEvent;
+import com.application.opencrm.client.event.ClientChangedEvent.ChangeType;
+import com.application.opencrm.client.repository.ClientRepository;
+import com.application.opencrm.client.repository.projection.ClientNameProjection;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClientAutocompleteServiceUnitTest {
+
+    @Mock
+    private ClientRepository repository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // compactions are run by the test instead of in the background
+    private final List<Runnable> compactions = new ArrayList<>();
+
+    private ClientAutocompleteService autocompleteService;
+
+    @BeforeEach
+    void setUp() {
+        autocompleteService = new ClientAutocompleteService(repository, meterRegistry, 2, compactions::add);
+        given(repository.findNames(eq(0L), any())).willReturn(List.of(new ClientNameProjection(1L, "Łukasz  Nowak"),
+            new ClientNameProjection(2L, "Lucyna Kowalska"), new ClientNameProjection(3L, "Zofia Lubicz")));
+        autocompleteService.rebuild();
+    }
+
+    @Test
+    void Complete_ShouldReturnNamesStartingWithNormalizedPrefix() {
+        // When
+        List<ClientNameDto> names = autocompleteService.complete("LU", 10);
+
+        // Then
+        then(names).extracting(ClientNameDto::getId)
+                   .containsExactly(2L, 1L);
+        then(names).extracting(ClientNameDto::getName)
+                   .containsExactly("Lucyna Kowalska", "Łukasz  Nowak");
+        then(autocompleteService.complete("lukasz nowak", 10)).extracting(ClientNameDto::getId)
+                                                             .containsExactly(1L);
+        then(meterRegistry.get("clients.autocomplete.memory")
+                          .gauge()
+                          .value()).isPositive();
+    }
+
+    @Test
+    void OnClientChanged_ShouldMergeChangesWithSnapshot_BeforeAndAfterCompaction() {
+        // Given
+        autocompleteService.onClientChanged(new ClientChangedEvent(4L, ChangeType.CREATED, "Lucjan Zieliński",
+            "INDIVIDUAL"));
+        List<ClientNameDto> beforeCompaction = autocompleteService.complete("luc", 10);
+
+        // When
+        autocompleteService.onClientChanged(new ClientChangedEvent(2L, ChangeType.UPDATED, "Anna Kowalska",
+            "INDIVIDUAL"));
+        autocompleteService.onClientChanged(new ClientChangedEvent(1L, ChangeType.DELETED, null, null));
+        runCompactions();
+
+        // Then
+        then(beforeCompaction).extracting(ClientNameDto::getId)
+                              .containsExactly(4L, 2L);
+        then(autocompleteService.complete("lu", 10)).extracting(ClientNameDto::getId)
+                                                    .containsExactly(4L);
+        then(autocompleteService.complete("a", 10)).extracting(ClientNameDto::getName)
+                                                   .containsExactly("Anna Kowalska");
+    }
+
+    @Test
+    void OnClientChanged_ShouldKeepChangesAppliedWhileCompactionRuns() {
+        // Given
+        autocompleteService.onClientChanged(new ClientChangedEvent(4L, ChangeType.CREATED, "Lucjan Zieliński",
+            "INDIVIDUAL"));
+        autocompleteService.onClientChanged(new ClientChangedEvent(2L, ChangeType.UPDATED, "Anna Kowalska",
+            "INDIVIDUAL"));
+        autocompleteService.onClientChanged(new ClientChangedEvent(5L, ChangeType.CREATED, "Lucia Nowak",
+            "INDIVIDUAL"));
+
+        // When
+        autocompleteService.onClientChanged(new ClientChangedEvent(4L, ChangeType.UPDATED, "Lucjan Zawadzki",
+            "INDIVIDUAL"));
+        autocompleteService.onClientChanged(new ClientChangedEvent(5L, ChangeType.DELETED, null, null));
+        autocompleteService.onClientChanged(new ClientChangedEvent(3L, ChangeType.UPDATED, "Antoni Lubicz",
+            "INDIVIDUAL"));
+        int started = compactions.size();
+        runCompactions();
+
+        // Then
+        then(started).isEqualTo(1);
+        then(autocompleteService.complete("lu", 10)).extracting(ClientNameDto::getName)
+                                                    .containsExactly("Lucjan Zawadzki", "Łukasz  Nowak");
+        then(autocompleteService.complete("an", 10)).extracting(ClientNameDto::getName)
+                                                    .containsExactly("Anna Kowalska", "Antoni Lubicz");
+        then(autocompleteService.complete("z", 10)).isEmpty();
+    }
+
+    @Test
+    void Rebuild_ShouldReplaceSnapshot_IfCompactionOfPreviousSnapshotFinishesLater() {
+        // Given
+        autocompleteService.onClientChanged(new ClientChangedEvent(4L, ChangeType.CREATED, "Lucjan Zieliński",
+            "INDIVIDUAL"));
+        autocompleteService.onClientChanged(new ClientChangedEvent(5L, ChangeType.CREATED, "Lucia Nowak",
+            "INDIVIDUAL"));
+        autocompleteService.onClientChanged(new ClientChangedEvent(6L, ChangeType.CREATED, "Lucas Lee",
+            "INDIVIDUAL"));
+        given(repository.findNames(eq(0L), any())).willReturn(List.of(new ClientNameProjection(7L, "Ludwik Nowy")));
+
+        // When
+        autocompleteService.rebuild();
+        runCompactions();
+
+        // Then
+        then(autocompleteService.complete("lu", 10)).extracting(ClientNameDto::getId)
+                                                    .containsExactly(6L, 5L, 4L, 7L);
+    }
+
+    private void runCompactions() {
+        while (!compactions.isEmpty()) {
+            compactions.remove(0)
+                       .run();
+        }
+    }
+
+}
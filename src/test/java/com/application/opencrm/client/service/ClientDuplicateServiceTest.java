@@ -0,0 +1,132 @@
+package com.application.opencrm.client.service;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.dto.ClientDuplicateDto;
+import com.application.opencrm.client.dto.ContactCreationRequestDto;
+import com.application.opencrm.common.pagination.CursorPage;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.groups.Tuple.tuple;
+
+/**
+ * Runs {@link ClientDuplicateService#detectDuplicates} against the embedded database, in chunks smaller than the
+ * number of clients and the number of reported pairs.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:client-duplicates",
+    "client.duplicates.chunk-size=2", "client.duplicates.max-block-size=10", "client.duplicates.min-score=0.3",
+    "client.duplicates.parallelism=2"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ClientDuplicateServiceTest {
+
+    private static final int UNRELATED_CLIENTS = 30;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private ClientDuplicateService clientDuplicateService;
+
+    private List<ClientDto> clients;
+
+    @BeforeAll
+    void seedClients() {
+        // the same email written differently, the same phone number with and without the country prefix and the same
+        // name with and without diacritics at the same postal code
+        List<ClientCreationRequestDto> requests = new ArrayList<>(List.of(
+            client("Jan Kowalski", "00-001", "jan.kowalski@example.com", "+48 600 100 200"),
+            client("Jan  Kowalski", "00-950", " Jan.Kowalski@Example.com", null),
+            client("Anna Nowak", "31-100", null, "600-100-200"),
+            client("Zofia Wiśniewska", "80-001", null, null),
+            client("Zofia Wisniewska", "80 001", null, null)));
+        // a postal code shared by more clients than the maximum block size does not group them on its own
+        requests.addAll(IntStream.range(0, UNRELATED_CLIENTS)
+                                 .mapToObj(i -> client("Client " + i, "99-999", null, null))
+                                 .collect(Collectors.toList()));
+        clients = clientService.saveClients(requests);
+    }
+
+    @Test
+    void DetectDuplicates_ShouldReportPairsSharingBlockingKeys_SortedByScore() {
+        // When
+        int reported = clientDuplicateService.detectDuplicates();
+        CursorPage<ClientDuplicateDto> first = clientDuplicateService.getDuplicates(null, 2);
+        CursorPage<ClientDuplicateDto> second = clientDuplicateService.getDuplicates(first.getNextCursor(), 2);
+
+        // Then
+        then(reported).isEqualTo(3);
+        then(first.getContent()).extracting(ClientDuplicateDto::getClientId, ClientDuplicateDto::getDuplicateClientId)
+                                .containsExactly(pair(0, 1), pair(3, 4));
+        then(first.getContent()).extracting(ClientDuplicateDto::getReasons)
+                                .containsExactly(List.of("EMAIL"), List.of("POSTAL_CODE_AND_NAME"));
+        then(first.getContent()).extracting(ClientDuplicateDto::getScore)
+                                .containsExactly(0.8, 0.5);
+        then(second.getContent()).extracting(ClientDuplicateDto::getClientId,
+                                     ClientDuplicateDto::getDuplicateClientId)
+                                 .containsExactly(pair(0, 2));
+        then(second.getContent()
+                   .get(0)
+                   .getScore()).isEqualTo(0.35);
+        then(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void DetectDuplicates_ShouldReplacePreviousReport() {
+        // Given
+        clientDuplicateService.detectDuplicates();
+
+        // When
+        int reported = clientDuplicateService.detectDuplicates();
+        CursorPage<ClientDuplicateDto> report = clientDuplicateService.getDuplicates(null, 10);
+
+        // Then
+        then(reported).isEqualTo(3);
+        then(report.getContent()).extracting(ClientDuplicateDto::getClientId,
+                                     ClientDuplicateDto::getDuplicateClientId)
+                                 .containsExactly(pair(0, 1), pair(3, 4), pair(0, 2));
+        then(report.getContent()
+                   .get(0)
+                   .getClientName()).isEqualTo("Jan Kowalski");
+    }
+
+    private Tuple pair(int client, int duplicateClient) {
+        return tuple(clients.get(client)
+                            .getId(), clients.get(duplicateClient)
+                                             .getId());
+    }
+
+    private ClientCreationRequestDto client(String name, String postalCode, String email, String phoneNumber) {
+        return ClientCreationRequestDto.builder()
+                                       .name(name)
+                                       .clientType("INDIVIDUAL")
+                                       .addresses(List.of(AddressCreationRequestDto.builder()
+                                                                                   .personName(name)
+                                                                                   .country("Poland")
+                                                                                   .city("Warsaw")
+                                                                                   .region("Masovian")
+                                                                                   .street("Street")
+                                                                                   .buildingNumber("1")
+                                                                                   .postalCode(postalCode)
+                                                                                   .build()))
+                                       .contacts(email == null && phoneNumber == null ? List.of()
+                                           : List.of(ContactCreationRequestDto.builder()
+                                                                              .name(name)
+                                                                              .email(email)
+                                                                              .phoneNumber(phoneNumber)
+                                                                              .build()))
+                                       .build();
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.application.opencrm.client.service;
+
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClientImportServiceUnitTest {
+
+    private static final String VALID_LINE = "{\"name\":\"Jan Kowalski\",\"clientType\":\"INDIVIDUAL\","
+                                             + "\"contacts\":[{\"name\":\"Work\",\"email\":\"jan@example.com\"}]}";
+    private static final String HEADER = "record,name,client_type,person_name,country,city,region,street,"
+                                         + "building_number,postal_code,email,phone_number";
+
+    @Mock
+    private ClientService clientService;
+
+    @Captor
+    private ArgumentCaptor<List<ClientCreationRequestDto>> requestsCaptor;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new ParameterNamesModule());
+
+    private ClientImportService clientImportService;
+
+    @BeforeEach
+    void setUp() {
+        clientImportService = new ClientImportService(clientService, objectMapper,
+            Validation.buildDefaultValidatorFactory()
+                      .getValidator(), 2);
+    }
+
+    @Test
+    void ImportClientsFromNdjson_ShouldStoreValidLinesInChunks_AndReportNestedValidationErrors() throws Exception {
+        // Given
+        String input = String.join("\n", VALID_LINE, "{broken", "",
+            "{\"name\":\"Anna Nowak\",\"clientType\":\"INDIVIDUAL\",\"contacts\":[{\"name\":\"Home\"}]}", VALID_LINE,
+            VALID_LINE);
+        given(clientService.saveClients(anyList())).willReturn(List.of(client(1L)))
+                                                   .willReturn(List.of(client(2L)))
+                                                   .willReturn(List.of(client(3L)));
+
+        // When
+        List<String> results = importClients(input, false);
+
+        // Then
+        then(results).hasSize(5);
+        then(results.get(0)).isEqualTo("{\"line\":1,\"id\":1}");
+        then(results.get(1)).startsWith("{\"line\":2,\"errors\":[\"Malformed client creation request");
+        then(results.get(2)).isEqualTo("{\"line\":4,\"errors\":[\"contacts[0]: Email and phone number cannot be both "
+                                       + "blank\"]}");
+        then(results.get(3)).isEqualTo("{\"line\":5,\"id\":2}");
+        then(results.get(4)).isEqualTo("{\"line\":6,\"id\":3}");
+        verify(clientService, times(3)).saveClients(anyList());
+        verify(clientService, never()).saveClient(any());
+    }
+
+    @Test
+    void ImportClientsFromCsv_ShouldGroupAddressAndContactRowsUnderTheirClient() throws Exception {
+        // Given
+        String input = String.join("\r\n", HEADER,
+            "ADDRESS,,,Jan,Poland,Warsaw,Masovian,Street,1,00-001,,",
+            "CLIENT,\"Kowalski, Nowak \"\"KN\"\" sp. j.\",ORGANISATION,,,,,,,,,",
+            "ADDRESS,,,Jan,Poland,Warsaw,Masovian,\"Long\nStreet\",1,00-001,,",
+            "CONTACT,Office,,,,,,,,,,+48 600 100 200",
+            "",
+            "CLIENT,Anna Nowak,INDIVIDUAL,,,,,,,,,",
+            "ADDRESS,,,Anna,Poland,Cracow,Lesser Poland,Street,2,,,",
+            "CLIENT,Zofia Lubicz,INDIVIDUAL,,,,,,,,,",
+            "PHONE,,,,,,,,,,,");
+        given(clientService.saveClients(requestsCaptor.capture())).willReturn(List.of(client(5L)));
+
+        // When
+        List<String> results = importClients(input, true);
+
+        // Then
+        then(results).containsExactly("{\"line\":2,\"errors\":[\"Line 2: Row of ADDRESS record does not follow a "
+                                      + "CLIENT row.\"]}", "{\"line\":3,\"id\":5}",
+            "{\"line\":8,\"errors\":[\"addresses[0]: Postal code cannot be blank\"]}",
+            "{\"line\":10,\"errors\":[\"Line 11: Record has to be one of CLIENT, ADDRESS and CONTACT.\"]}");
+        ClientCreationRequestDto request = requestsCaptor.getValue()
+                                                         .get(0);
+        then(request.getName()).isEqualTo("Kowalski, Nowak \"KN\" sp. j.");
+        then(request.getAddresses()).singleElement()
+                                    .satisfies(address -> then(address.getStreet()).isEqualTo("Long\nStreet"));
+        then(request.getContacts()).singleElement()
+                                   .satisfies(contact -> {
+                                       then(contact.getName()).isEqualTo("Office");
+                                       then(contact.getEmail()).isNull();
+                                       then(contact.getPhoneNumber()).isEqualTo("+48 600 100 200");
+                                   });
+    }
+
+    @Test
+    void ImportClientsFromCsv_ShouldReportMissingColumns_WithoutReadingRows() throws Exception {
+        // Given
+        String input = "record,name,client_type,person_name,country,city,region,street,building_number,postal_code\n"
+                       + "CLIENT,Jan Kowalski,INDIVIDUAL,,,,,,,";
+
+        // When
+        List<String> results = importClients(input, true);
+
+        // Then
+        then(results).containsExactly("{\"line\":1,\"errors\":[\"Line 1: Header row lacks column email.\","
+                                      + "\"Line 1: Header row lacks column phone_number.\"]}");
+        verifyNoInteractions(clientService);
+    }
+
+    private List<String> importClients(String input, boolean csv) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+        if (csv) {
+            clientImportService.importClientsFromCsv(inputStream, output);
+        } else {
+            clientImportService.importClientsFromNdjson(inputStream, output);
+        }
+        return output.toString(StandardCharsets.UTF_8)
+                     .lines()
+                     .collect(Collectors.toList());
+    }
+
+    private ClientDto client(Long id) {
+        return ClientDto.builder()
+                        .id(id)
+                        .build();
+    }
+
+}
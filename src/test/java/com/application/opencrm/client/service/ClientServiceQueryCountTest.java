@@ -0,0 +1,119 @@
+package com.application.opencrm.client.service;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.AddressDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.dto.ClientSortKey;
+import com.application.opencrm.client.dto.ContactCreationRequestDto;
+import com.application.opencrm.common.pagination.CursorPage;
+import com.application.opencrm.common.persistence.StatementCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+/**
+ * Checks the number of statements executed by {@link ClientService#getClients} against the embedded database.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:client-pages", StatementCounter.PROPERTY})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ClientServiceQueryCountTest {
+
+    private static final int CLIENTS = 120;
+
+    @Autowired
+    private ClientService clientService;
+
+    @BeforeAll
+    void seedClients() {
+        // names are not in the order of ids, and every second one is repeated
+        clientService.saveClients(IntStream.range(0, CLIENTS)
+                                           .mapToObj(i -> ClientCreationRequestDto.builder()
+                                                                                  .name("Client " + (CLIENTS - i) / 2)
+                                                                                  .clientType("INDIVIDUAL")
+                                                                                  .addresses(List.of(address(i),
+                                                                                      address(i + CLIENTS)))
+                                                                                  .contacts(List.of(contact(i)))
+                                                                                  .build())
+                                           .collect(Collectors.toList()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 37, 100})
+    void GetClients_ShouldExecuteThreeStatements_IfPageHasAnySize(int size) {
+        // Given
+        StatementCounter.reset();
+
+        // When
+        CursorPage<ClientDto> page = clientService.getClients(ClientSortKey.ID, Sort.Direction.ASC, null, size);
+
+        // Then
+        then(page.getContent()).hasSize(size)
+                               .allSatisfy(client -> {
+                                   then(client.getAddresses()).hasSize(2);
+                                   then(client.getContacts()).hasSize(1);
+                               });
+        then(StatementCounter.count()).isEqualTo(3);
+    }
+
+    @Test
+    void GetClients_ShouldReturnEveryClientOnce_IfPagesAreSortedByNameDescending() {
+        // Given
+        List<ClientDto> clients = new ArrayList<>();
+        String cursor = null;
+
+        // When
+        do {
+            StatementCounter.reset();
+            CursorPage<ClientDto> page = clientService.getClients(ClientSortKey.NAME, Sort.Direction.DESC, cursor,
+                50);
+            then(StatementCounter.count()).isEqualTo(3);
+            clients.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then
+        then(clients).hasSize(CLIENTS)
+                     .isSortedAccordingTo(Comparator.comparing(ClientDto::getName)
+                                                    .thenComparing(ClientDto::getId)
+                                                    .reversed());
+        then(clients.stream()
+                    .flatMap(client -> client.getAddresses()
+                                             .stream())
+                    .map(AddressDto::getId)
+                    .distinct()).hasSize(2 * CLIENTS);
+    }
+
+    private AddressCreationRequestDto address(int i) {
+        return AddressCreationRequestDto.builder()
+                                        .personName("Person " + i)
+                                        .country("Poland")
+                                        .city("Warsaw")
+                                        .region("Masovian")
+                                        .street("Street " + i)
+                                        .buildingNumber("1")
+                                        .postalCode("00-001")
+                                        .build();
+    }
+
+    private ContactCreationRequestDto contact(int i) {
+        return ContactCreationRequestDto.builder()
+                                        .name("Contact " + i)
+                                        .email("contact" + i + "@example.com")
+                                        .build();
+    }
+
+}
@@ -2,18 +2,26 @@ package com.application.opencrm.client.service;
 
 import com.application.opencrm.client.dto.ClientCreationRequestDto;
 import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.dto.ClientSearchResultDto;
 import com.application.opencrm.client.dto.ClientUpdateRequestDto;
+import com.application.opencrm.client.event.ClientChangedEvent;
 import com.application.opencrm.client.mapper.*;
 import com.application.opencrm.client.model.Client;
 import com.application.opencrm.client.repository.ClientRepository;
+import com.application.opencrm.client.repository.projection.ClientMatchProjection;
+import com.application.opencrm.client.search.ClientSearchEngine;
+import com.application.opencrm.common.exception.InvalidRequestException;
 import com.application.opencrm.common.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.EmptyResultDataAccessException;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.BDDAssertions.catchException;
@@ -32,6 +40,12 @@ class ClientServiceUnitTest {
     @Mock
     private ClientMapperImpl clientMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ClientSearchEngine searchEngine;
+
     @Test
     void GetClient_ShouldReturnSearchedMappedClientDto() {
         // Given
@@ -109,6 +123,23 @@ class ClientServiceUnitTest {
         verify(clientRepository, times(1)).deleteById(1L);
     }
 
+    @Test
+    void DeleteClient_ShouldPublishDeletedEvent() {
+        // Given
+        long deletedClientId = 1L;
+        ArgumentCaptor<ClientChangedEvent> captor = ArgumentCaptor.forClass(ClientChangedEvent.class);
+
+        // When
+        clientService.deleteClient(deletedClientId);
+
+        // Then
+        verify(eventPublisher).publishEvent(captor.capture());
+        then(captor.getValue()
+                   .getClientId()).isEqualTo(deletedClientId);
+        then(captor.getValue()
+                   .getChangeType()).isEqualTo(ClientChangedEvent.ChangeType.DELETED);
+    }
+
     @Test
     void DeleteClient_ShouldThrowCustomException_IfDeleteMethodTrowsEmptyResultException() {
         // Given
@@ -122,5 +153,41 @@ class ClientServiceUnitTest {
         then(e).isInstanceOf(ResourceNotFoundException.class);
     }
 
+    @Test
+    void SearchClients_ShouldKeepRankingOfEngineAndSkipDeletedClients() {
+        // Given
+        given(searchEngine.search("kowal", 10)).willReturn(List.of(new ClientMatchProjection(2L, 0.9),
+            new ClientMatchProjection(3L, 0.8), new ClientMatchProjection(1L, 0.7)));
+        given(clientRepository.findAllById(List.of(2L, 3L, 1L))).willReturn(List.of(Client.builder()
+                                                                                          .id(1L)
+                                                                                          .build(),
+            Client.builder()
+                  .id(2L)
+                  .build()));
+        given(clientMapper.clientToClientDto(any())).willAnswer(invocation -> ClientDto.builder()
+                                                                                       .id(invocation.<Client>getArgument(0)
+                                                                                                     .getId())
+                                                                                       .build());
+
+        // When
+        List<ClientSearchResultDto> results = clientService.searchClients(" kowal ", 10);
+
+        // Then
+        then(results).extracting(result -> result.getClient()
+                                                  .getId())
+                      .containsExactly(2L, 1L);
+        then(results).extracting(ClientSearchResultDto::getScore)
+                      .containsExactly(0.9, 0.7);
+    }
+
+    @Test
+    void SearchClients_ShouldThrowException_IfQueryIsTooShort() {
+        // When
+        Exception e = catchException(() -> clientService.searchClients(" k ", 10));
+
+        // Then
+        then(e).isInstanceOf(InvalidRequestException.class);
+        verifyNoInteractions(searchEngine);
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.application.opencrm.common.broadcast;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class RingBufferUnitTest {
+
+    @Test
+    void Append_ShouldAssignConsecutiveSequences_StartingFromTheFirstSequence() {
+        // Given
+        RingBuffer<String> buffer = new RingBuffer<>(4, 100);
+
+        // When
+        long first = buffer.append("a");
+        long second = buffer.append("b");
+
+        // Then
+        then(first).isEqualTo(100);
+        then(second).isEqualTo(101);
+        then(buffer.get(100)).isEqualTo("a");
+        then(buffer.get(101)).isEqualTo("b");
+        then(buffer.get(102)).isNull();
+        then(buffer.head()).isEqualTo(102);
+        then(buffer.tail()).isEqualTo(100);
+    }
+
+    @Test
+    void Append_ShouldOverwriteOldestElements_IfBufferIsFull() {
+        // Given
+        RingBuffer<String> buffer = new RingBuffer<>(2, 0);
+        buffer.append("a");
+        buffer.append("b");
+
+        // When
+        buffer.append("c");
+
+        // Then
+        then(buffer.get(0)).isNull();
+        then(buffer.get(1)).isEqualTo("b");
+        then(buffer.get(2)).isEqualTo("c");
+        then(buffer.tail()).isEqualTo(1);
+    }
+
+}
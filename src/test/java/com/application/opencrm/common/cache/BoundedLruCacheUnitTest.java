@@ -0,0 +1,27 @@
+package com.application.opencrm.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class BoundedLruCacheUnitTest {
+
+    @Test
+    void Put_ShouldEvictLeastRecentlyAccessedEntry_IfCacheIsFull() {
+        // Given
+        BoundedLruCache<String, Integer> cache = new BoundedLruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+
+        // When
+        cache.put("c", 3);
+
+        // Then
+        then(cache.size()).isEqualTo(2);
+        then(cache.get("a")).isEqualTo(1);
+        then(cache.get("b")).isNull();
+        then(cache.get("c")).isEqualTo(3);
+    }
+
+}
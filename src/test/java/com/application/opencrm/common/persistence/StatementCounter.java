@@ -0,0 +1,54 @@
+package com.application.opencrm.common.persistence;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statement inspector counting and recording the statements prepared by the current thread, so the statements of the scheduled jobs
+ * running in the same context are not counted. It is registered with the
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector} property set to {@link #PROPERTY}.
+ */
+public class StatementCounter implements StatementInspector {
+
+    public static final String PROPERTY = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                                          + "com.application.opencrm.common.persistence.StatementCounter";
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    /**
+     * Forgets the statements prepared by the current thread.
+     */
+    public static void reset() {
+        STATEMENTS.get()
+                  .clear();
+    }
+
+    /**
+     * Returns the number of statements prepared by the current thread since the last reset.
+     *
+     * @return the number of statements
+     */
+    public static int count() {
+        return STATEMENTS.get()
+                         .size();
+    }
+
+    /**
+     * Returns the statements prepared by the current thread since the last reset, in the order they were prepared.
+     *
+     * @return the sql of the statements
+     */
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS.get());
+    }
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get()
+                  .add(sql);
+        return sql;
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.application.opencrm.common.sketch;
+
+import com.application.opencrm.common.sketch.SpaceSavingSketch.Estimate;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.groups.Tuple.tuple;
+
+class SpaceSavingSketchUnitTest {
+
+    @Test
+    void Top_ShouldReturnExactWeights_IfKeysFitIntoCapacity() {
+        // Given
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(3);
+
+        // When
+        sketch.add("a", 5);
+        sketch.add("b", 2);
+        sketch.add("a", 1);
+        sketch.add("c", 4);
+
+        // Then
+        List<Estimate<String>> top = sketch.top(2);
+        then(top).extracting(Estimate::getKey)
+                 .containsExactly("a", "c");
+        then(top).extracting(Estimate::getWeight)
+                 .containsExactly(6L, 4L);
+        then(top).extracting(Estimate::getError)
+                 .containsOnly(0L);
+    }
+
+    @Test
+    void Add_ShouldReplaceLightestKeyAndKeepHeavyHitters_IfCapacityIsExceeded() {
+        // Given
+        SpaceSavingSketch<Integer> sketch = new SpaceSavingSketch<>(10);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            sketch.add(i % 3 == 0 ? -1 : i, 1);
+        }
+
+        // Then
+        then(sketch.size()).isEqualTo(10);
+        Estimate<Integer> heaviest = sketch.top(1)
+                                           .get(0);
+        then(heaviest.getKey()).isEqualTo(-1);
+        then(heaviest.getWeight()).isGreaterThanOrEqualTo(334);
+        then(heaviest.getWeight() - heaviest.getError()).isLessThanOrEqualTo(334);
+    }
+
+    @Test
+    void Add_ShouldSaturateWeight_IfSumExceedsLongRange() {
+        // Given
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(1);
+        sketch.add("a", Long.MAX_VALUE - 1);
+
+        // When
+        sketch.add("a", 2);
+        sketch.add("b", 1);
+
+        // Then
+        then(sketch.top(1)).extracting(Estimate::getKey, Estimate::getWeight)
+                           .containsExactly(tuple("b", Long.MAX_VALUE));
+    }
+
+    @Test
+    void Reset_ShouldKeepOnlyHeaviestExactWeights() {
+        // Given
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(2);
+        sketch.add("x", 100);
+
+        // When
+        sketch.reset(Map.of("a", 1L, "b", 3L, "c", 2L));
+
+        // Then
+        then(sketch.top(5)).extracting(Estimate::getKey)
+                           .containsExactly("b", "c");
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.application.opencrm.inventory.service;
+
+import com.application.opencrm.inventory.repository.InventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationLedgerUnitTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StockReservationLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new StockReservationLedger(inventoryRepository, transactionManager, 4, 2, 10);
+    }
+
+    @Test
+    void TryReserve_ShouldServeConsecutiveReservationsFromOneAllotment() {
+        // Given
+        given(inventoryRepository.decrementUnits(1L, BigInteger.TEN)).willReturn(1);
+
+        // When
+        boolean first = ledger.tryReserve(1L, BigInteger.valueOf(4));
+        boolean second = ledger.tryReserve(1L, BigInteger.valueOf(6));
+
+        // Then
+        then(first).isTrue();
+        then(second).isTrue();
+        verify(inventoryRepository, times(1)).decrementUnits(any(), any());
+    }
+
+    @Test
+    void TryReserve_ShouldWithdrawOnlyTheShortage_IfStockIsSmallerThanAllotment() {
+        // Given
+        given(inventoryRepository.decrementUnits(1L, BigInteger.TEN)).willReturn(0);
+        given(inventoryRepository.decrementUnits(1L, BigInteger.valueOf(3))).willReturn(1);
+
+        // When
+        boolean reserved = ledger.tryReserve(1L, BigInteger.valueOf(3));
+
+        // Then
+        then(reserved).isTrue();
+    }
+
+    @Test
+    void TryReserve_ShouldFail_IfStockIsTooSmall() {
+        // Given
+        given(inventoryRepository.decrementUnits(any(), any())).willReturn(0);
+
+        // When
+        boolean reserved = ledger.tryReserve(1L, BigInteger.valueOf(3));
+
+        // Then
+        then(reserved).isFalse();
+    }
+
+    @Test
+    void TryReserve_ShouldServeOtherInventoriesOfTheStripe_WhileAllotmentIsWithdrawn() throws Exception {
+        // Given
+        // inventories 1 and 5 share one of the 4 stripes
+        given(inventoryRepository.decrementUnits(5L, BigInteger.TEN)).willReturn(1);
+        ledger.tryReserve(5L, BigInteger.ONE);
+        CountDownLatch withdrawing = new CountDownLatch(1);
+        CountDownLatch databaseResponds = new CountDownLatch(1);
+        given(inventoryRepository.decrementUnits(1L, BigInteger.TEN)).willAnswer(invocation -> {
+            withdrawing.countDown();
+            databaseResponds.await(10, TimeUnit.SECONDS);
+            return 1;
+        });
+        CompletableFuture<Boolean> withdrawal = CompletableFuture.supplyAsync(
+            () -> ledger.tryReserve(1L, BigInteger.ONE));
+        withdrawing.await(10, TimeUnit.SECONDS);
+
+        // When
+        boolean reserved = CompletableFuture.supplyAsync(() -> ledger.tryReserve(5L, BigInteger.ONE))
+                                            .get(1, TimeUnit.SECONDS);
+
+        // Then
+        then(reserved).isTrue();
+        databaseResponds.countDown();
+        then(withdrawal.get(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void TryReserve_ShouldKeepRemainderOfAllotment_IfWithdrawalFails() {
+        // Given
+        given(inventoryRepository.decrementUnits(1L, BigInteger.TEN)).willReturn(1);
+        ledger.tryReserve(1L, BigInteger.valueOf(7));
+        given(inventoryRepository.decrementUnits(1L, BigInteger.TEN)).willThrow(
+            new CannotCreateTransactionException("Connection is not available"));
+
+        // When
+        Throwable thrown = catchThrowable(() -> ledger.tryReserve(1L, BigInteger.valueOf(5)));
+        ledger.returnAllotments();
+
+        // Then
+        then(thrown).isInstanceOf(CannotCreateTransactionException.class);
+        verify(inventoryRepository, times(1)).incrementUnits(1L, BigInteger.valueOf(3));
+    }
+
+    @Test
+    void Rebalance_ShouldReturnAllotmentsOfInventoriesThatAreNotHot() {
+        // Given
+        given(inventoryRepository.decrementUnits(1L, BigInteger.TEN)).willReturn(1);
+        ledger.tryReserve(1L, BigInteger.valueOf(4));
+
+        // When
+        ledger.rebalance();
+
+        // Then
+        verify(inventoryRepository, times(1)).incrementUnits(1L, BigInteger.valueOf(6));
+    }
+
+    @Test
+    void Rebalance_ShouldRecognizeHotInventories() {
+        // Given
+        ledger.recordDemand(1L);
+        ledger.recordDemand(1L);
+        ledger.recordDemand(2L);
+
+        // When
+        ledger.rebalance();
+
+        // Then
+        then(ledger.isHot(1L)).isTrue();
+        then(ledger.isHot(2L)).isFalse();
+    }
+
+}
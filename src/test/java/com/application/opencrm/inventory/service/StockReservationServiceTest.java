@@ -0,0 +1,148 @@
+package com.application.opencrm.inventory.service;
+
+import com.application.opencrm.common.exception.InsufficientStockException;
+import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowableOfType;
+import static org.assertj.core.api.BDDAssertions.then;
+
+/**
+ * Reserves and releases stock against the embedded database, with the ledger serving inventories reserved at least
+ * twice within one window.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:stock-reservation",
+    "inventory.reservation.ledger.hot-threshold=2", "inventory.reservation.ledger.allotment-units=10",
+    "inventory.reservation.ledger.window-ms=3600000"})
+class StockReservationServiceTest {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private StockReservationLedger ledger;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void Reserve_ShouldTakeUnitsOfAllInventories() {
+        // Given
+        Long first = inventory(10);
+        Long second = inventory(10);
+
+        // When
+        inTransaction(() -> stockReservationService.reserve(Map.of(first, BigInteger.valueOf(4), second,
+            BigInteger.TEN)));
+
+        // Then
+        then(units(first)).isEqualTo(6);
+        then(units(second)).isZero();
+    }
+
+    @Test
+    void Reserve_ShouldListEveryShortageAndTakeNothing_IfInventoriesLackStock() {
+        // Given
+        Long sufficient = inventory(10);
+        Long first = inventory(1);
+        Long second = inventory(2);
+
+        // When
+        InsufficientStockException exception = catchThrowableOfType(() -> inTransaction(
+            () -> stockReservationService.reserve(Map.of(sufficient, BigInteger.ONE, first, BigInteger.TWO, second,
+                BigInteger.valueOf(3)))), InsufficientStockException.class);
+
+        // Then
+        then(exception.getDetails()).containsExactly(
+            "Inventory with id " + first + " has less than 2 units in stock.",
+            "Inventory with id " + second + " has less than 3 units in stock.");
+        then(units(sufficient)).isEqualTo(10);
+        then(units(first)).isEqualTo(1);
+        then(units(second)).isEqualTo(2);
+    }
+
+    @Test
+    void Reserve_ShouldReturnUnitsToLedger_IfTransactionRollsBack() {
+        // Given
+        Long hot = inventory(100);
+        inTransaction(() -> stockReservationService.reserve(Map.of(hot, BigInteger.ONE)));
+        inTransaction(() -> stockReservationService.reserve(Map.of(hot, BigInteger.ONE)));
+        ledger.rebalance();
+        then(ledger.isHot(hot)).isTrue();
+
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            stockReservationService.reserve(Map.of(hot, BigInteger.valueOf(4)));
+            status.setRollbackOnly();
+        });
+        inTransaction(() -> stockReservationService.reserve(Map.of(hot, BigInteger.valueOf(3))));
+        ledger.returnAllotments();
+
+        // Then
+        then(units(hot)).isEqualTo(95);
+    }
+
+    @Test
+    void Reserve_ShouldFail_IfCalledOutsideOfTransaction() {
+        // Given
+        Long inventoryId = inventory(10);
+
+        // When
+        IllegalTransactionStateException exception = catchThrowableOfType(
+            () -> stockReservationService.reserve(Map.of(inventoryId, BigInteger.ONE)),
+            IllegalTransactionStateException.class);
+
+        // Then
+        then(exception).isNotNull();
+        then(units(inventoryId)).isEqualTo(10);
+    }
+
+    @Test
+    void Release_ShouldReturnUnitsToStock() {
+        // Given
+        Long first = inventory(10);
+        Long second = inventory(0);
+
+        // When
+        inTransaction(() -> stockReservationService.release(Map.of(first, BigInteger.valueOf(5), second,
+            BigInteger.ONE)));
+
+        // Then
+        then(units(first)).isEqualTo(15);
+        then(units(second)).isEqualTo(1);
+    }
+
+    private Long inventory(long units) {
+        return inventoryService.saveInventory(InventoryCreationRequestDto.builder()
+                                                                         .name("Inventory " + UUID.randomUUID())
+                                                                         .description("Description")
+                                                                         .unitPrice(BigInteger.TEN)
+                                                                         .quantityType("COUNTABLE")
+                                                                         .units(BigInteger.valueOf(units))
+                                                                         .build())
+                               .getId();
+    }
+
+    private int units(Long inventoryId) {
+        return inventoryService.getInventoryWithCategories(inventoryId)
+                               .getUnits()
+                               .intValue();
+    }
+
+    private void inTransaction(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> action.run());
+    }
+
+}
@@ -0,0 +1,267 @@
+package com.application.opencrm.order.controller;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
+import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.service.OrderService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sends requests to the order endpoints, served by the embedded database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-controller")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "SALES")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderControllerTest {
+
+    private static final Instant SAME_TIME = Instant.parse("2020-01-01T00:00:00Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private ClientDto client;
+
+    @BeforeAll
+    void seedClient() {
+        client = client();
+    }
+
+    @Test
+    void CancelOrder_ShouldCancelOrderAndReturnItsStock() throws Exception {
+        // Given
+        Long inventoryId = inventory();
+        Long orderId = order(client, inventoryId);
+
+        // When
+        mockMvc.perform(post("/order/{id}/cancel", orderId).with(csrf()))
+               // Then
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.id").value(orderId))
+               .andExpect(jsonPath("$.status").value("CANCELLED"));
+        then(inventoryService.getInventoryWithCategories(inventoryId)
+                             .getUnits()).isEqualTo(BigInteger.valueOf(100));
+    }
+
+    @Test
+    void CancelOrder_ShouldAnswerConflictAndReturnStockOnce_IfOrderIsAlreadyCancelled() throws Exception {
+        // Given
+        Long inventoryId = inventory();
+        Long orderId = order(client, inventoryId);
+        orderService.cancelOrder(orderId);
+
+        // When
+        mockMvc.perform(post("/order/{id}/cancel", orderId).with(csrf()))
+               // Then
+               .andExpect(status().isConflict());
+        then(inventoryService.getInventoryWithCategories(inventoryId)
+                             .getUnits()).isEqualTo(BigInteger.valueOf(100));
+    }
+
+    @Test
+    void CancelOrder_ShouldAnswerNotFound_IfOrderDoesNotExist() throws Exception {
+        // When
+        mockMvc.perform(post("/order/{id}/cancel", Long.MAX_VALUE).with(csrf()))
+               // Then
+               .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void GetOrders_ShouldReturnEveryOrderOnce_IfPagesEndWithinOrdersCreatedAtSameTime() throws Exception {
+        // Given
+        ClientDto owner = client();
+        Long inventoryId = inventory();
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orderIds.add(order(owner, inventoryId));
+        }
+        setCreatedAt(orderIds, SAME_TIME);
+
+        // When
+        List<List<Long>> pages = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/order").param("clientId", owner.getId()
+                                                                                          .toString())
+                                                                 .param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String page = mockMvc.perform(request)
+                                 .andExpect(status().isOk())
+                                 .andReturn()
+                                 .getResponse()
+                                 .getContentAsString();
+            pages.add(ids(page));
+            cursor = JsonPath.read(page, "$.nextCursor");
+        } while (cursor != null);
+
+        // Then
+        orderIds.sort(Comparator.reverseOrder());
+        then(pages).containsExactly(orderIds.subList(0, 2), orderIds.subList(2, 4), orderIds.subList(4, 5));
+    }
+
+    @Test
+    void GetOrders_ShouldReturnOrdersMatchingFilter() throws Exception {
+        // Given
+        ClientDto owner = client();
+        Long inventoryId = inventory();
+        Long first = order(owner, inventoryId);
+        Long second = order(owner, inventoryId);
+        Long third = order(owner, inventoryId);
+        setCreatedAt(List.of(first), SAME_TIME);
+        setCreatedAt(List.of(second), SAME_TIME.plusSeconds(60));
+        setCreatedAt(List.of(third), SAME_TIME.plusSeconds(120));
+        orderService.cancelOrder(second);
+        String clientId = owner.getId()
+                               .toString();
+
+        // When
+        String processing = getOrders(get("/order").param("clientId", clientId)
+                                                   .param("status", "PROCESSING"));
+        String createdFrom = getOrders(get("/order").param("clientId", clientId)
+                                                    .param("createdFrom", SAME_TIME.plusSeconds(60)
+                                                                                   .toString()));
+        String createdTo = getOrders(get("/order").param("clientId", clientId)
+                                                  .param("createdTo", SAME_TIME.plusSeconds(120)
+                                                                               .toString()));
+        String otherClient = getOrders(get("/order").param("clientId", client.getId()
+                                                                             .toString())
+                                                    .param("createdTo", SAME_TIME.plusSeconds(180)
+                                                                                 .toString()));
+
+        // Then
+        then(ids(processing)).containsExactly(third, first);
+        then(ids(createdFrom)).containsExactly(third, second);
+        then(ids(createdTo)).containsExactly(second, first);
+        then(ids(otherClient)).isEmpty();
+    }
+
+    @Test
+    void GetOrders_ShouldAnswerBadRequest_IfPageSizeIsOutOfBounds() throws Exception {
+        // When
+        mockMvc.perform(get("/order").param("size", "0"))
+               // Then
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/order").param("size", "101"))
+               .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/order").param("size", "100"))
+               .andExpect(status().isOk());
+    }
+
+    @Test
+    void GetOrders_ShouldAnswerBadRequest_IfCursorIsMalformed() throws Exception {
+        // When
+        mockMvc.perform(get("/order").param("cursor", "not a cursor"))
+               // Then
+               .andExpect(status().isBadRequest());
+    }
+
+    private String getOrders(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                      .andExpect(status().isOk())
+                      .andReturn()
+                      .getResponse()
+                      .getContentAsString();
+    }
+
+    private static List<Long> ids(String page) {
+        List<Number> ids = JsonPath.read(page, "$.content[*].id");
+        return ids.stream()
+                  .map(Number::longValue)
+                  .collect(Collectors.toList());
+    }
+
+    /**
+     * Moves orders to the specified creation time, which cannot be chosen when orders are created.
+     */
+    private void setCreatedAt(List<Long> orderIds, Instant createdAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", orderIds).addValue("createdAt",
+            Timestamp.from(createdAt));
+        jdbcTemplate.update("UPDATE order_table SET created_at = :createdAt WHERE id IN (:ids)", params);
+        jdbcTemplate.update("UPDATE item SET created_at = :createdAt WHERE order_id IN (:ids)", params);
+        jdbcTemplate.update("UPDATE order_summary SET created_at = :createdAt WHERE order_id IN (:ids)", params);
+    }
+
+    private Long order(ClientDto client, Long inventoryId) {
+        Long addressId = client.getAddresses()
+                               .get(0)
+                               .getId();
+        return orderService.saveOrder(new OrderCreationRequestDto(client.getId(), addressId, addressId, List.of(
+                               new ItemCreationRequestDto(inventoryId, BigInteger.TEN))))
+                           .getId();
+    }
+
+    private Long inventory() {
+        return inventoryService.saveInventory(InventoryCreationRequestDto.builder()
+                                                                         .name("Inventory " + UUID.randomUUID())
+                                                                         .description("Description")
+                                                                         .unitPrice(BigInteger.TEN)
+                                                                         .quantityType("COUNTABLE")
+                                                                         .units(BigInteger.valueOf(100))
+                                                                         .build())
+                               .getId();
+    }
+
+    private ClientDto client() {
+        return clientService.saveClient(ClientCreationRequestDto.builder()
+                                                                .name("Jan Kowalski")
+                                                                .clientType("INDIVIDUAL")
+                                                                .addresses(List.of(AddressCreationRequestDto.builder()
+                                                                                                            .personName("Jan Kowalski")
+                                                                                                            .country("Poland")
+                                                                                                            .city("Warsaw")
+                                                                                                            .region("Masovian")
+                                                                                                            .street("Street")
+                                                                                                            .buildingNumber("1")
+                                                                                                            .postalCode("00-001")
+                                                                                                            .build()))
+                                                                .contacts(List.of())
+                                                                .build());
+    }
+
+}
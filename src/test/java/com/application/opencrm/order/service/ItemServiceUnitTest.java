@@ -0,0 +1,117 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.common.exception.InvalidRequestException;
+import com.application.opencrm.common.exception.ResourceNotFoundException;
+import com.application.opencrm.common.pagination.CursorPage;
+import com.application.opencrm.inventory.model.QuantityType;
+import com.application.opencrm.inventory.model.Inventory;
+import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.InventoryOrderDto;
+import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.model.Item;
+import com.application.opencrm.order.model.OrderStatus;
+import com.application.opencrm.order.repository.ItemRepository;
+import com.application.opencrm.order.repository.projection.InventoryOrderProjection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.BDDAssertions.catchException;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemServiceUnitTest {
+
+    @InjectMocks
+    private ItemService itemService;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Test
+    void BuildItems_ShouldMergeRequestsReferringToTheSameInventory() {
+        // Given
+        var requests = List.of(new ItemCreationRequestDto(1L, BigInteger.valueOf(2)),
+            new ItemCreationRequestDto(2L, BigInteger.ONE),
+            new ItemCreationRequestDto(1L, BigInteger.valueOf(3)));
+        given(inventoryService.getInventoriesFromRepository(Set.of(1L, 2L))).willReturn(Map.of(1L, inventory(1L),
+            2L, inventory(2L)));
+
+        // When
+        List<Item> items = itemService.buildItems(requests);
+
+        // Then
+        then(items).extracting(Item::getName)
+                   .containsExactly("Inventory 1", "Inventory 2");
+        then(items).extracting(Item::getUnits)
+                   .containsExactly(BigInteger.valueOf(5), BigInteger.ONE);
+        verify(inventoryService, times(1)).getInventoriesFromRepository(any());
+    }
+
+    @Test
+    void BuildItems_ShouldPropagateException_IfInventoriesAreMissing() {
+        // Given
+        var requests = List.of(new ItemCreationRequestDto(1L, BigInteger.ONE));
+        given(inventoryService.getInventoriesFromRepository(any())).willThrow(new InvalidRequestException("Missing"));
+
+        // When
+        Exception e = catchException(() -> itemService.buildItems(requests));
+
+        // Then
+        then(e).isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void GetInventoryOrders_ShouldReturnCursor_IfMoreOrdersExist() {
+        // Given
+        given(itemRepository.findOrdersByInventory(eq(1L), eq(Long.MAX_VALUE), any())).willReturn(List.of(
+            inventoryOrder(9L), inventoryOrder(7L), inventoryOrder(4L)));
+
+        // When
+        CursorPage<InventoryOrderDto> page = itemService.getInventoryOrders(1L, null, 2);
+
+        // Then
+        then(page.getContent()).extracting(InventoryOrderDto::getOrderId)
+                               .containsExactly(9L, 7L);
+        then(page.getNextCursor()).isNotNull();
+    }
+
+    @Test
+    void GetInventoryOrders_ShouldThrowResourceNotFoundException_IfInventoryDoesNotExist() {
+        // Given
+        given(itemRepository.findOrdersByInventory(eq(1L), eq(Long.MAX_VALUE), any())).willReturn(List.of());
+        given(inventoryService.inventoryExists(1L)).willReturn(false);
+
+        // When
+        Exception e = catchException(() -> itemService.getInventoryOrders(1L, null, 2));
+
+        // Then
+        then(e).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private InventoryOrderProjection inventoryOrder(Long orderId) {
+        return new InventoryOrderProjection(orderId, 1L, OrderStatus.PROCESSING, Instant.EPOCH,
+            QuantityType.COUNTABLE, BigInteger.ONE);
+    }
+
+    private Inventory inventory(Long id) {
+        Inventory inventory = new Inventory();
+        inventory.setId(id);
+        inventory.setName("Inventory " + id);
+        inventory.setUnitPrice(BigInteger.TEN);
+        return inventory;
+    }
+
+}
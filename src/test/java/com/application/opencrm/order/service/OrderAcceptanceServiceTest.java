@@ -0,0 +1,117 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
+import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.dto.OrderAcceptanceDto.Status;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+/**
+ * Stores orders under ids allocated before they are persisted, against the embedded database.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:order-acceptance",
+    "order.acceptance.mode=write-behind"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderAcceptanceServiceTest {
+
+    @Autowired
+    private OrderAcceptanceService orderAcceptanceService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    private OrderCreationRequestDto request;
+
+    @BeforeAll
+    void seedOrderRequest() {
+        Long inventoryId = inventoryService.saveInventory(InventoryCreationRequestDto.builder()
+                                                                                     .name("Inventory")
+                                                                                     .description("Description")
+                                                                                     .unitPrice(BigInteger.TEN)
+                                                                                     .quantityType("COUNTABLE")
+                                                                                     .units(BigInteger.valueOf(100))
+                                                                                     .build())
+                                           .getId();
+        ClientDto client = clientService.saveClient(ClientCreationRequestDto.builder()
+                                                                            .name("Jan Kowalski")
+                                                                            .clientType("INDIVIDUAL")
+                                                                            .addresses(List.of(
+                                                                                AddressCreationRequestDto.builder()
+                                                                                                         .personName("Jan Kowalski")
+                                                                                                         .country("Poland")
+                                                                                                         .city("Warsaw")
+                                                                                                         .region("Masovian")
+                                                                                                         .street("Street")
+                                                                                                         .buildingNumber("1")
+                                                                                                         .postalCode("00-001")
+                                                                                                         .build()))
+                                                                            .contacts(List.of())
+                                                                            .build());
+        Long addressId = client.getAddresses()
+                               .get(0)
+                               .getId();
+        request = new OrderCreationRequestDto(client.getId(), addressId, addressId, List.of(
+            new ItemCreationRequestDto(inventoryId, BigInteger.ONE)));
+    }
+
+    @Test
+    void SaveAcceptedOrders_ShouldKeepPreassignedId_AndNeverGenerateItAgain() {
+        // Given
+        Long preassigned = orderRepository.allocateId();
+
+        // When
+        orderService.saveAcceptedOrders(Map.of(preassigned, request));
+        Long generated = orderService.saveOrder(request)
+                                     .getId();
+
+        // Then
+        then(orderService.getOrder(preassigned)
+                         .getId()).isEqualTo(preassigned);
+        then(generated).isNotEqualTo(preassigned);
+        then(orderRepository.allocateId()).isNotIn(preassigned, generated);
+    }
+
+    @Test
+    void AcceptOrder_ShouldStoreOrderUnderAllocatedId() throws InterruptedException {
+        // When
+        Long id = orderAcceptanceService.acceptOrder(request)
+                                        .getId();
+
+        // Then
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (orderAcceptanceService.getAcceptance(id)
+                                     .getStatus() == Status.PENDING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        then(orderAcceptanceService.getAcceptance(id)
+                                   .getStatus()).isEqualTo(Status.PERSISTED);
+        then(orderService.getOrder(id)
+                         .getItems()).hasSize(1);
+    }
+
+}
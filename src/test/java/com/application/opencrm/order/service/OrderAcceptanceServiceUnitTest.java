@@ -0,0 +1,178 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.common.exception.InvalidRequestException;
+import com.application.opencrm.common.exception.ServiceUnavailableException;
+import com.application.opencrm.infrastructure.exception.CommonControllerExceptionHandler;
+import com.application.opencrm.order.dto.OrderAcceptanceDto;
+import com.application.opencrm.order.dto.OrderAcceptanceDto.Status;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowableOfType;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderAcceptanceServiceUnitTest {
+
+    @Mock
+    private OrderService orderService;
+
+    private final AtomicLong ids = new AtomicLong();
+    private final CountDownLatch storing = new CountDownLatch(1);
+    private final CountDownLatch databaseResponds = new CountDownLatch(1);
+    private final List<Set<Long>> storedGroups = new CopyOnWriteArrayList<>();
+
+    private OrderAcceptanceService orderAcceptanceService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        databaseResponds.countDown();
+        orderAcceptanceService.stopWriter();
+    }
+
+    @Test
+    void AcceptOrder_ShouldAnswerServiceUnavailable_IfQueueIsFull() throws Exception {
+        // Given
+        startWithBlockedWriter(1);
+        orderAcceptanceService.acceptOrder(request());
+
+        // When
+        ServiceUnavailableException exception = catchThrowableOfType(
+            () -> orderAcceptanceService.acceptOrder(request()), ServiceUnavailableException.class);
+
+        // Then
+        then(exception).isNotNull();
+        then(new CommonControllerExceptionHandler().handleServiceUnavailable(exception, new MockHttpServletRequest())
+                                                   .getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void StoreGroup_ShouldRejectOnlyFailingOrder_IfGroupCannotBeStored() throws Exception {
+        // Given
+        startWithBlockedWriter(10);
+        List<Long> grouped = acceptOrders(3);
+        Long failing = grouped.get(1);
+        willAnswer(invocation -> {
+            Map<Long, OrderCreationRequestDto> requestsById = invocation.getArgument(0);
+            if (requestsById.containsKey(failing)) {
+                throw new InvalidRequestException("Invalid order", List.of("Client not found"));
+            }
+            storedGroups.add(Set.copyOf(requestsById.keySet()));
+            return null;
+        }).given(orderService)
+          .saveAcceptedOrders(anyMap());
+        given(orderService.orderExists(anyLong())).willAnswer(invocation -> storedIds().contains(
+            invocation.<Long>getArgument(0)));
+
+        // When
+        databaseResponds.countDown();
+        awaitNotPending(grouped);
+
+        // Then
+        then(orderAcceptanceService.getAcceptance(grouped.get(0))
+                                   .getStatus()).isEqualTo(Status.PERSISTED);
+        then(orderAcceptanceService.getAcceptance(grouped.get(2))
+                                   .getStatus()).isEqualTo(Status.PERSISTED);
+        OrderAcceptanceDto rejected = orderAcceptanceService.getAcceptance(failing);
+        then(rejected.getStatus()).isEqualTo(Status.FAILED);
+        then(rejected.getErrors()).containsExactly("Client not found");
+    }
+
+    @Test
+    void StopWriter_ShouldStoreQueuedOrders_BeforeShuttingDown() throws Exception {
+        // Given
+        startWithBlockedWriter(10);
+        List<Long> queued = acceptOrders(3);
+        Thread stopping = new Thread(() -> {
+            try {
+                orderAcceptanceService.stopWriter();
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                      .interrupt();
+            }
+        });
+
+        // When
+        stopping.start();
+        // the writer is stopped before the stopping thread waits for it to finish
+        while (stopping.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+        ServiceUnavailableException exception = catchThrowableOfType(
+            () -> orderAcceptanceService.acceptOrder(request()), ServiceUnavailableException.class);
+        databaseResponds.countDown();
+        stopping.join(10_000);
+
+        // Then
+        then(exception).hasMessageContaining("not accepted");
+        then(stopping.isAlive()).isFalse();
+        then(storedIds()).containsAll(queued);
+    }
+
+    /**
+     * Starts the writer and waits until it is storing the first accepted order, which it keeps storing until the
+     * database responds.
+     */
+    private void startWithBlockedWriter(int queueCapacity) throws InterruptedException {
+        orderAcceptanceService = new OrderAcceptanceService(orderService, OrderAcceptanceService.WRITE_BEHIND_MODE,
+            queueCapacity, 200, 100);
+        given(orderService.allocateOrderId()).willAnswer(invocation -> ids.incrementAndGet());
+        willAnswer(invocation -> {
+            Map<Long, OrderCreationRequestDto> requestsById = invocation.getArgument(0);
+            storing.countDown();
+            databaseResponds.await(10, TimeUnit.SECONDS);
+            storedGroups.add(Set.copyOf(requestsById.keySet()));
+            return null;
+        }).given(orderService)
+          .saveAcceptedOrders(anyMap());
+        orderAcceptanceService.startWriter();
+        orderAcceptanceService.acceptOrder(request());
+        storing.await(10, TimeUnit.SECONDS);
+    }
+
+    private List<Long> acceptOrders(int count) {
+        List<Long> accepted = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            accepted.add(orderAcceptanceService.acceptOrder(request())
+                                               .getId());
+        }
+        return accepted;
+    }
+
+    private void awaitNotPending(List<Long> ids) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline && ids.stream()
+                                                           .anyMatch(id -> orderAcceptanceService.getAcceptance(id)
+                                                                                                 .getStatus() == Status.PENDING)) {
+            Thread.sleep(10);
+        }
+    }
+
+    private Set<Long> storedIds() {
+        return storedGroups.stream()
+                           .flatMap(Set::stream)
+                           .collect(Collectors.toSet());
+    }
+
+    private OrderCreationRequestDto request() {
+        return new OrderCreationRequestDto(1L, 1L, 1L, List.of());
+    }
+
+}
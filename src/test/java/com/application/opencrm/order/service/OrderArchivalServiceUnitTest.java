@@ -0,0 +1,126 @@
+package com.application.opencrm.order.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderArchivalServiceUnitTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+    private static final LocalDate END = LocalDate.of(2026, 2, 1);
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private JdbcOperations jdbcOperations;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private OrderCounterService orderCounterService;
+
+    private OrderArchivalService orderArchivalService;
+
+    @BeforeEach
+    void setUp() {
+        orderArchivalService = new OrderArchivalService(jdbcTemplate, transactionManager, orderCounterService, 365,
+            1000, 3);
+    }
+
+    @Test
+    void CreatePartitions_ShouldMoveRowsOutOfDefaultPartitionsBeforeAttaching_IfPartitionsAreMissing() {
+        // Given
+        givenExisting(false, false);
+        given(jdbcTemplate.getJdbcOperations()).willReturn(jdbcOperations);
+
+        // When
+        orderArchivalService.createPartitions(List.of("order_table", "item"), "_p202601", START, END);
+
+        // Then
+        InOrder inOrder = inOrder(jdbcOperations, jdbcTemplate);
+        then(jdbcOperations).should(inOrder)
+                            .execute("LOCK TABLE order_table_default, item_default IN EXCLUSIVE MODE");
+        then(jdbcOperations).should(inOrder)
+                            .execute("CREATE TABLE item_p202601 (LIKE item INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        then(jdbcTemplate).should(inOrder)
+                          .update(startsWith("WITH moved AS (DELETE FROM item_default "), any(SqlParameterSource.class));
+        then(jdbcOperations).should(inOrder)
+                            .execute("CREATE TABLE order_table_p202601 (LIKE order_table INCLUDING DEFAULTS "
+                                     + "INCLUDING CONSTRAINTS)");
+        then(jdbcTemplate).should(inOrder)
+                          .update(startsWith("WITH moved AS (DELETE FROM order_table_default "),
+                              any(SqlParameterSource.class));
+        then(jdbcOperations).should(inOrder)
+                            .execute("ALTER TABLE order_table ATTACH PARTITION order_table_p202601 FOR VALUES FROM "
+                                     + "('2026-01-01') TO ('2026-02-01')");
+        then(jdbcOperations).should(inOrder)
+                            .execute("ALTER TABLE item ATTACH PARTITION item_p202601 FOR VALUES FROM ('2026-01-01') "
+                                     + "TO ('2026-02-01')");
+        then(transactionManager).should()
+                                .commit(any());
+    }
+
+    @Test
+    void CreatePartitions_ShouldOnlyCreateMissingPartition_IfOtherPartitionExists() {
+        // Given
+        givenExisting(true, false);
+        given(jdbcTemplate.getJdbcOperations()).willReturn(jdbcOperations);
+
+        // When
+        orderArchivalService.createPartitions(List.of("order_table", "item"), "_p202601", START, END);
+
+        // Then
+        then(jdbcOperations).should()
+                            .execute("LOCK TABLE item_default IN EXCLUSIVE MODE");
+        then(jdbcOperations).should(never())
+                            .execute(startsWith("CREATE TABLE order_table"));
+        then(jdbcOperations).should(never())
+                            .execute(startsWith("ALTER TABLE order_table"));
+        then(jdbcTemplate).should(never())
+                          .update(startsWith("WITH moved AS (DELETE FROM order_table_default "),
+                              any(SqlParameterSource.class));
+        then(jdbcOperations).should()
+                            .execute("ALTER TABLE item ATTACH PARTITION item_p202601 FOR VALUES FROM ('2026-01-01') "
+                                     + "TO ('2026-02-01')");
+    }
+
+    @Test
+    void CreatePartitions_ShouldNotLockDefaultPartitions_IfPartitionsExist() {
+        // Given
+        givenExisting(true, true);
+
+        // When
+        orderArchivalService.createPartitions(List.of("order_table", "item"), "_p202601", START, END);
+
+        // Then
+        then(jdbcTemplate).should(never())
+                          .getJdbcOperations();
+        then(jdbcTemplate).should(never())
+                          .update(anyString(), any(SqlParameterSource.class));
+    }
+
+    private void givenExisting(boolean orderPartition, boolean itemPartition) {
+        given(jdbcTemplate.queryForObject("SELECT to_regclass(:table) IS NOT NULL", Map.of("table",
+            "order_table_p202601"), Boolean.class)).willReturn(orderPartition);
+        given(jdbcTemplate.queryForObject("SELECT to_regclass(:table) IS NOT NULL", Map.of("table", "item_p202601"),
+            Boolean.class)).willReturn(itemPartition);
+    }
+
+}
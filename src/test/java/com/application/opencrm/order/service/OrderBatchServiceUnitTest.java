@@ -0,0 +1,102 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.common.exception.ResourceNotFoundException;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.dto.OrderDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderBatchServiceUnitTest {
+
+    private static final String VALID_LINE = "{\"clientId\":1,\"billingAddressId\":1,\"shippingAddressId\":1,\"items\":[]}";
+
+    @Mock
+    private OrderService orderService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new ParameterNamesModule());
+
+    private OrderBatchService orderBatchService;
+
+    @BeforeEach
+    void setUp() {
+        orderBatchService = new OrderBatchService(orderService, objectMapper, Validation.buildDefaultValidatorFactory()
+                                                                                        .getValidator(), 2);
+    }
+
+    @Test
+    void CreateOrders_ShouldStoreValidLinesInChunks_AndReportInvalidLines() throws Exception {
+        // Given
+        String input = String.join("\n", VALID_LINE, "{broken", "", VALID_LINE, VALID_LINE);
+        given(orderService.saveOrders(anyList())).willReturn(List.of(order(1L)))
+                                                 .willReturn(List.of(order(2L), order(3L)));
+
+        // When
+        List<String> results = createOrders(input);
+
+        // Then
+        then(results).hasSize(4);
+        then(results.get(0)).isEqualTo("{\"line\":1,\"id\":1}");
+        then(results.get(1)).startsWith("{\"line\":2,\"errors\":[");
+        then(results.get(2)).isEqualTo("{\"line\":4,\"id\":2}");
+        then(results.get(3)).isEqualTo("{\"line\":5,\"id\":3}");
+        verify(orderService, times(2)).saveOrders(anyList());
+        verify(orderService, never()).saveOrder(any());
+    }
+
+    @Test
+    void CreateOrders_ShouldStoreOrdersOneByOne_IfChunkIsRejected() throws Exception {
+        // Given
+        String input = String.join("\n", VALID_LINE, VALID_LINE);
+        given(orderService.saveOrders(anyList())).willThrow(new ResourceNotFoundException("Client not found."));
+        given(orderService.saveOrder(any(OrderCreationRequestDto.class))).willReturn(order(7L))
+                                                                         .willThrow(new ResourceNotFoundException("Client not found."));
+
+        // When
+        List<String> results = createOrders(input);
+
+        // Then
+        then(results).containsExactly("{\"line\":1,\"id\":7}", "{\"line\":2,\"errors\":[\"Client not found.\"]}");
+    }
+
+    @Test
+    void CreateOrders_ShouldReportValidationErrors_WithoutStoringTheOrder() throws Exception {
+        // Given
+        String input = "{\"clientId\":0,\"billingAddressId\":1,\"shippingAddressId\":1,\"items\":[]}";
+
+        // When
+        List<String> results = createOrders(input);
+
+        // Then
+        then(results).containsExactly("{\"line\":1,\"errors\":[\"Client id cannot be smaller than 1\"]}");
+        verifyNoInteractions(orderService);
+    }
+
+    private List<String> createOrders(String input) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        orderBatchService.createOrders(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+        return output.toString(StandardCharsets.UTF_8)
+                     .lines()
+                     .collect(Collectors.toList());
+    }
+
+    private OrderDto order(Long id) {
+        return new OrderDto(id, List.of(), null, null, "PROCESSING", null, 0L);
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
+import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.dto.OrderCountsDto;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+/**
+ * Reconciles the order counters with the embedded database while orders are being committed.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-counters")
+class OrderCounterServiceTest {
+
+    @Autowired
+    private OrderCounterService orderCounterService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void Reconcile_ShouldCountOrderOnce_IfOrderCommitsBeforeCountersAreUpdated() throws Exception {
+        // Given
+        ClientDto client = client();
+        OrderCreationRequestDto request = request(client);
+        long processing = processing();
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch mayUpdateCounters = new CountDownLatch(1);
+        // the order is committed to the database, but its counters are updated only after the reconciliation starts
+        CompletableFuture<Void> order = CompletableFuture.runAsync(
+            () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                orderService.saveOrder(request);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        committed.countDown();
+                        await(mayUpdateCounters);
+                    }
+                });
+            }));
+        await(committed);
+
+        // When
+        CompletableFuture<Void> reconciliation = CompletableFuture.runAsync(orderCounterService::reconcile);
+        Thread.sleep(100);
+        mayUpdateCounters.countDown();
+        order.get(10, TimeUnit.SECONDS);
+        reconciliation.get(10, TimeUnit.SECONDS);
+
+        // Then
+        OrderCountsDto counts = orderCounterService.getCounts(List.of(client.getId()));
+        then(counts.getByStatus()).containsEntry("PROCESSING", processing + 1);
+        then(counts.getOpenByClient()).containsEntry(client.getId(), 1L);
+    }
+
+    @Test
+    void Reconcile_ShouldKeepCountsOfCommittedOrders() {
+        // Given
+        ClientDto client = client();
+        long processing = processing();
+        orderService.saveOrder(request(client));
+        orderService.cancelOrder(orderService.saveOrder(request(client))
+                                             .getId());
+
+        // When
+        orderCounterService.reconcile();
+
+        // Then
+        OrderCountsDto counts = orderCounterService.getCounts(List.of(client.getId()));
+        then(counts.getByStatus()).containsEntry("PROCESSING", processing + 1);
+        then(counts.getOpenByClient()).containsEntry(client.getId(), 1L);
+    }
+
+    private long processing() {
+        return orderCounterService.getCounts(null)
+                                  .getByStatus()
+                                  .get("PROCESSING");
+    }
+
+    private OrderCreationRequestDto request(ClientDto client) {
+        Long inventoryId = inventoryService.saveInventory(InventoryCreationRequestDto.builder()
+                                                                                     .name("Inventory " + UUID.randomUUID())
+                                                                                     .description("Description")
+                                                                                     .unitPrice(BigInteger.TEN)
+                                                                                     .quantityType("COUNTABLE")
+                                                                                     .units(BigInteger.valueOf(100))
+                                                                                     .build())
+                                           .getId();
+        Long addressId = client.getAddresses()
+                               .get(0)
+                               .getId();
+        return new OrderCreationRequestDto(client.getId(), addressId, addressId, List.of(
+            new ItemCreationRequestDto(inventoryId, BigInteger.ONE)));
+    }
+
+    private ClientDto client() {
+        return clientService.saveClient(ClientCreationRequestDto.builder()
+                                                                .name("Jan Kowalski")
+                                                                .clientType("INDIVIDUAL")
+                                                                .addresses(List.of(AddressCreationRequestDto.builder()
+                                                                                                            .personName("Jan Kowalski")
+                                                                                                            .country("Poland")
+                                                                                                            .city("Warsaw")
+                                                                                                            .region("Masovian")
+                                                                                                            .street("Street")
+                                                                                                            .buildingNumber("1")
+                                                                                                            .postalCode("00-001")
+                                                                                                            .build()))
+                                                                .contacts(List.of())
+                                                                .build());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Latch not released in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
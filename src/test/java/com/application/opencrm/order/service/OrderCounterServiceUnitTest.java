@@ -0,0 +1,83 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.order.dto.OrderCountsDto;
+import com.application.opencrm.order.event.OrderCreatedEvent;
+import com.application.opencrm.order.event.OrderStatusChangedEvent;
+import com.application.opencrm.order.model.OrderStatus;
+import com.application.opencrm.order.repository.OrderRepository;
+import com.application.opencrm.order.repository.projection.ClientCountProjection;
+import com.application.opencrm.order.repository.projection.StatusCountProjection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderCounterServiceUnitTest {
+
+    @Mock
+    private OrderRepository repository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrderCounterService orderCounterService;
+
+    @BeforeEach
+    void setUp() {
+        orderCounterService = new OrderCounterService(repository, jdbcTemplate, transactionManager,
+            new SimpleMeterRegistry());
+    }
+
+    @Test
+    void OnOrderStatusChanged_ShouldMoveOrderBetweenStatuses() {
+        // Given
+        orderCounterService.onOrderCreated(new OrderCreatedEvent(1L, 10L, OrderStatus.PROCESSING, Instant.EPOCH));
+        orderCounterService.onOrderCreated(new OrderCreatedEvent(2L, 10L, OrderStatus.PROCESSING, Instant.EPOCH));
+
+        // When
+        orderCounterService.onOrderStatusChanged(new OrderStatusChangedEvent(1L, 10L, OrderStatus.PROCESSING,
+            OrderStatus.SHIPPED, 1L));
+
+        // Then
+        OrderCountsDto counts = orderCounterService.getCounts(List.of(10L));
+        then(counts.getByStatus()).containsEntry("PROCESSING", 1L)
+                                  .containsEntry("SHIPPED", 1L)
+                                  .containsEntry("CANCELLED", 0L);
+        then(counts.getOpenByClient()).containsEntry(10L, 1L);
+    }
+
+    @Test
+    void Reconcile_ShouldKeepChangesCommittedWhileCountingOrders() {
+        // Given
+        orderCounterService.onOrderCreated(new OrderCreatedEvent(1L, 10L, OrderStatus.PROCESSING, Instant.EPOCH));
+        given(repository.countByStatus()).willAnswer(invocation -> {
+            orderCounterService.onOrderCreated(new OrderCreatedEvent(3L, 10L, OrderStatus.PROCESSING, Instant.EPOCH));
+            return List.of(new StatusCountProjection(OrderStatus.PROCESSING, 2L));
+        });
+        given(repository.countByClientAndStatusIn(List.of(OrderStatus.PROCESSING))).willReturn(List.of(
+            new ClientCountProjection(10L, 2L)));
+
+        // When
+        orderCounterService.reconcile();
+
+        // Then
+        OrderCountsDto counts = orderCounterService.getCounts(List.of(10L));
+        then(counts.getByStatus()).containsEntry("PROCESSING", 3L);
+        then(counts.getOpenByClient()).containsEntry(10L, 3L);
+    }
+
+}
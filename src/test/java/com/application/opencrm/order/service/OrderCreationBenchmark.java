@@ -0,0 +1,311 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.dto.ContactCreationRequestDto;
+import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.common.persistence.StatementCounter;
+import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
+import com.application.opencrm.inventory.dto.InventoryParentDto;
+import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+/**
+ * Benchmark of {@link OrderService#saveOrder} against the embedded database, checked against the budget in
+ * {@code benchmark/order-creation-budget.properties}. Stock is reserved only in the database, since the share of
+ * reservations served by the in-memory ledger depends on timing and would make the statement counts unstable.
+ * <p>
+ * The number of statements prepared per order is deterministic, so it is checked by the regular tests, with orders of
+ * every configured number of lines created one at a time. The latencies depend on the machine, so the latency
+ * benchmark, in which orders with every configured number of lines are created by every configured number of
+ * concurrent threads, is excluded from the regular tests and run only by the {@code benchmark} Gradle task. Its sizes
+ * can be changed with the {@code benchmark.*} system properties read below.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:benchmark;LOCK_TIMEOUT=10000;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.sql.init.mode=never", "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+    "order.top-selling.reconcile-delay-ms=3600000", "inventory.reservation.ledger.hot-threshold=2147483647",
+    StatementCounter.PROPERTY})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderCreationBenchmark {
+
+    private static final String BUDGET = "/benchmark/order-creation-budget.properties";
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 50);
+    private static final int INVENTORIES = Integer.getInteger("benchmark.inventories", 200);
+    private static final int WARMUP_ORDERS = Integer.getInteger("benchmark.warmup-orders", 100);
+    private static final int ORDERS = Integer.getInteger("benchmark.orders", 300);
+    private static final int STATEMENT_WARMUP_ORDERS = 10;
+    private static final int STATEMENT_ORDERS = 200;
+    private static final List<Integer> LINE_COUNTS = integers(System.getProperty("benchmark.line-counts", "1,10,50"));
+    private static final List<Integer> CONCURRENCY = integers(System.getProperty("benchmark.concurrency", "1,4"));
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Properties budget;
+    private List<ClientDto> clients;
+    private List<Long> inventoryIds;
+
+    @BeforeAll
+    void seed() throws IOException {
+        budget = loadBudget();
+        clients = seedClients();
+        inventoryIds = seedInventories();
+    }
+
+    @Test
+    void SaveOrder_ShouldStayWithinStatementBudget() {
+        // Given
+        List<String> violations = new ArrayList<>();
+
+        // When
+        for (int lines : LINE_COUNTS) {
+            for (int i = 0; i < STATEMENT_WARMUP_ORDERS; i++) {
+                orderService.saveOrder(request(clients, inventoryIds, lines));
+            }
+            StatementCounter.reset();
+            for (int i = 0; i < STATEMENT_ORDERS; i++) {
+                orderService.saveOrder(request(clients, inventoryIds, lines));
+            }
+            double statementsPerOrder = (double) StatementCounter.count() / STATEMENT_ORDERS;
+            String maxStatements = budget.getProperty("statements.lines." + lines);
+            if (maxStatements != null && statementsPerOrder > Double.parseDouble(maxStatements)) {
+                violations.add(String.format("%d lines: %.1f statements per order exceed the budget of %s", lines,
+                    statementsPerOrder, maxStatements));
+            }
+        }
+
+        // Then
+        then(violations).isEmpty();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void SaveOrder_ShouldStayWithinLatencyBudget() throws Exception {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class)
+                                                    .getStatistics();
+
+        // When
+        List<Result> results = new ArrayList<>();
+        for (int lines : LINE_COUNTS) {
+            for (int threads : CONCURRENCY) {
+                run(clients, inventoryIds, lines, threads, WARMUP_ORDERS);
+                statistics.clear();
+                long[] latencies = run(clients, inventoryIds, lines, threads, ORDERS);
+                results.add(new Result(lines, threads, latencies, statistics.getPrepareStatementCount()));
+            }
+        }
+        report(results);
+
+        // Then
+        then(results.stream()
+                    .flatMap(result -> result.violations(budget)
+                                             .stream())
+                    .collect(Collectors.toList())).isEmpty();
+    }
+
+    private long[] run(List<ClientDto> clients, List<Long> inventoryIds, int lines, int threads, int orders)
+        throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long started = System.nanoTime();
+            List<Future<Long>> futures = new ArrayList<>(orders);
+            for (int i = 0; i < orders; i++) {
+                futures.add(executor.submit(() -> {
+                    OrderCreationRequestDto request = request(clients, inventoryIds, lines);
+                    long start = System.nanoTime();
+                    orderService.saveOrder(request);
+                    return System.nanoTime() - start;
+                }));
+            }
+            long[] latencies = new long[orders + 1];
+            for (int i = 0; i < orders; i++) {
+                latencies[i] = futures.get(i)
+                                      .get();
+            }
+            // the last element holds the wall-clock time of the whole run
+            latencies[orders] = System.nanoTime() - started;
+            return latencies;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private OrderCreationRequestDto request(List<ClientDto> clients, List<Long> inventoryIds, int lines) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ClientDto client = clients.get(random.nextInt(clients.size()));
+        Long addressId = client.getAddresses()
+                               .get(0)
+                               .getId();
+        int first = random.nextInt(inventoryIds.size());
+        List<ItemCreationRequestDto> items = IntStream.range(0, lines)
+                                                      .mapToObj(i -> new ItemCreationRequestDto(
+                                                          inventoryIds.get((first + i) % inventoryIds.size()),
+                                                          BigInteger.ONE))
+                                                      .collect(Collectors.toList());
+        return new OrderCreationRequestDto(client.getId(), addressId, addressId, items);
+    }
+
+    private List<ClientDto> seedClients() {
+        return clientService.saveClients(IntStream.range(0, CLIENTS)
+                                                  .mapToObj(i -> ClientCreationRequestDto.builder()
+                                                                                         .name("Client " + i)
+                                                                                         .clientType("INDIVIDUAL")
+                                                                                         .addresses(List.of(address(i)))
+                                                                                         .contacts(List.of(contact(i)))
+                                                                                         .build())
+                                                  .collect(Collectors.toList()));
+    }
+
+    private AddressCreationRequestDto address(int i) {
+        return AddressCreationRequestDto.builder()
+                                        .personName("Person " + i)
+                                        .country("Poland")
+                                        .city("Warsaw")
+                                        .region("Masovian")
+                                        .street("Street " + i)
+                                        .buildingNumber("1")
+                                        .postalCode("00-001")
+                                        .build();
+    }
+
+    private ContactCreationRequestDto contact(int i) {
+        return ContactCreationRequestDto.builder()
+                                        .name("Contact " + i)
+                                        .email("contact" + i + "@example.com")
+                                        .build();
+    }
+
+    private List<Long> seedInventories() {
+        return inventoryService.saveInventories(IntStream.range(0, INVENTORIES)
+                                                         .mapToObj(i -> InventoryCreationRequestDto.builder()
+                                                                                                   .name("Inventory " + i)
+                                                                                                   .description("Benchmark inventory")
+                                                                                                   .unitPrice(BigInteger.TEN)
+                                                                                                   .quantityType("COUNTABLE")
+                                                                                                   .units(BigInteger.valueOf(1_000_000_000L))
+                                                                                                   .build())
+                                                         .collect(Collectors.toList()))
+                               .stream()
+                               .map(InventoryParentDto::getId)
+                               .collect(Collectors.toList());
+    }
+
+    private Properties loadBudget() throws IOException {
+        Properties budget = new Properties();
+        try (InputStream in = getClass().getResourceAsStream(BUDGET)) {
+            then(in).as("Budget file %s", BUDGET)
+                    .isNotNull();
+            budget.load(in);
+        }
+        return budget;
+    }
+
+    private void report(List<Result> results) throws IOException {
+        List<String> rows = new ArrayList<>();
+        rows.add("lines,threads,orders_per_s,p50_ms,p95_ms,p99_ms,statements_per_order");
+        results.forEach(result -> rows.add(result.toCsv()));
+        rows.forEach(System.out::println);
+        String reportPath = System.getProperty("benchmark.report");
+        if (reportPath != null) {
+            Path path = Path.of(reportPath);
+            Files.createDirectories(path.getParent());
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+                rows.forEach(writer::println);
+            }
+        }
+    }
+
+    private static List<Integer> integers(String values) {
+        return Arrays.stream(values.split(","))
+                     .map(String::trim)
+                     .map(Integer::valueOf)
+                     .collect(Collectors.toList());
+    }
+
+    private static class Result {
+
+        private final int lines;
+        private final int threads;
+        private final double ordersPerSecond;
+        private final double p50Ms;
+        private final double p95Ms;
+        private final double p99Ms;
+        private final double statementsPerOrder;
+
+        private Result(int lines, int threads, long[] latencies, long statements) {
+            int orders = latencies.length - 1;
+            long[] sorted = Arrays.copyOf(latencies, orders);
+            Arrays.sort(sorted);
+            this.lines = lines;
+            this.threads = threads;
+            this.ordersPerSecond = orders * 1e9 / latencies[orders];
+            this.p50Ms = percentile(sorted, 0.50);
+            this.p95Ms = percentile(sorted, 0.95);
+            this.p99Ms = percentile(sorted, 0.99);
+            this.statementsPerOrder = (double) statements / orders;
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+
+        private List<String> violations(Properties budget) {
+            List<String> violations = new ArrayList<>();
+            String maxP95Ms = budget.getProperty("p95-ms.lines." + lines + ".threads." + threads);
+            if (maxP95Ms != null && p95Ms > Double.parseDouble(maxP95Ms)) {
+                violations.add(String.format("%d lines, %d threads: p95 latency of %.1f ms exceeds the budget of %s ms",
+                    lines, threads, p95Ms, maxP95Ms));
+            }
+            return violations;
+        }
+
+        private String toCsv() {
+            return String.format("%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f", lines, threads, ordersPerSecond, p50Ms, p95Ms, p99Ms,
+                statementsPerOrder);
+        }
+
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.inventory.model.QuantityType;
+import com.application.opencrm.order.dto.OrderFilterDto;
+import com.application.opencrm.order.model.OrderStatus;
+import com.application.opencrm.order.repository.OrderRepository;
+import com.application.opencrm.order.repository.projection.OrderExportRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExportServiceUnitTest {
+
+    private OrderExportService orderExportService;
+
+    @Mock
+    private OrderRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        orderExportService = new OrderExportService(repository, 100);
+    }
+
+    @Test
+    void ExportOrders_ShouldWriteHeaderAndOneRowPerItem() throws Exception {
+        // Given
+        OrderFilterDto filter = OrderFilterDto.builder()
+                                              .build();
+        Instant createdAt = Instant.parse("2022-10-01T12:00:00Z");
+        given(repository.streamExportRows(filter, 100)).willReturn(Stream.of(
+            row(1L, createdAt, "John Smith", 10L, "Chair"),
+            row(1L, createdAt, "John Smith", 11L, "Table")));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        orderExportService.exportOrders(filter, output);
+
+        // Then
+        then(output.toString(StandardCharsets.UTF_8)).isEqualTo(OrderExportService.HEADER + "\r\n"
+            + "1,2022-10-01T12:00:00Z,PROCESSING,5,John Smith,10,3,Chair,COUNTABLE,2,100\r\n"
+            + "1,2022-10-01T12:00:00Z,PROCESSING,5,John Smith,11,3,Table,COUNTABLE,2,100\r\n");
+    }
+
+    @Test
+    void ExportOrders_ShouldQuoteValues_IfTheyContainSeparatorsOrQuotes() throws Exception {
+        // Given
+        OrderFilterDto filter = OrderFilterDto.builder()
+                                              .build();
+        given(repository.streamExportRows(filter, 100)).willReturn(Stream.of(
+            row(1L, Instant.parse("2022-10-01T12:00:00Z"), "Smith, John", 10L, "17\" screen")));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        orderExportService.exportOrders(filter, output);
+
+        // Then
+        then(output.toString(StandardCharsets.UTF_8)).contains(",\"Smith, John\",10,3,\"17\"\" screen\",");
+    }
+
+    private OrderExportRow row(Long orderId, Instant createdAt, String clientName, Long itemId, String itemName) {
+        return new OrderExportRow(orderId, createdAt, OrderStatus.PROCESSING, 5L, clientName, itemId, 3L, itemName,
+            QuantityType.COUNTABLE, BigInteger.TWO, BigInteger.valueOf(100));
+    }
+
+}
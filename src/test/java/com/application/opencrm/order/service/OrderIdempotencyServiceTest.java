@@ -0,0 +1,118 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
+import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.dto.OrderDto;
+import com.application.opencrm.order.repository.OrderIdempotencyKeyRepository;
+import com.application.opencrm.order.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs requests with the same idempotency key through separate instances of {@link OrderIdempotencyService}, as if
+ * they were served by different instances of the application sharing the embedded database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-idempotency")
+class OrderIdempotencyServiceTest {
+
+    private static final String KEY = "3f1c2a54-0d7e-4c55-9a61-5b7f0e2d9c10";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderIdempotencyKeyRepository repository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Test
+    void SaveOrder_ShouldReplayStoredResponse_IfKeyIsStoredConcurrentlyAfterLookup() {
+        // Given
+        OrderCreationRequestDto request = order();
+        // the second instance looks the key up before the first one commits it
+        OrderIdempotencyKeyRepository staleRepository = mock(OrderIdempotencyKeyRepository.class,
+            delegatesTo(repository));
+        given(staleRepository.findById(KEY)).willReturn(Optional.empty())
+                                            .willAnswer(invocation -> repository.findById(KEY));
+        OrderIdempotencyService first = instance(repository);
+        OrderIdempotencyService second = instance(staleRepository);
+        long ordersBefore = orderRepository.count();
+
+        // When
+        OrderDto created = first.saveOrder(KEY, request);
+        OrderDto replayed = second.saveOrder(KEY, request);
+
+        // Then
+        then(replayed.getId()).isEqualTo(created.getId());
+        then(orderRepository.count()).isEqualTo(ordersBefore + 1);
+        then(repository.findById(KEY)).hasValueSatisfying(key -> then(key.getOrderId()).isEqualTo(created.getId()));
+    }
+
+    private OrderIdempotencyService instance(OrderIdempotencyKeyRepository keyRepository) {
+        return new OrderIdempotencyService(orderService, keyRepository, objectMapper, transactionManager, 100, 1000,
+            24);
+    }
+
+    private OrderCreationRequestDto order() {
+        Long inventoryId = inventoryService.saveInventory(InventoryCreationRequestDto.builder()
+                                                                                     .name("Inventory")
+                                                                                     .description("Description")
+                                                                                     .unitPrice(BigInteger.TEN)
+                                                                                     .quantityType("COUNTABLE")
+                                                                                     .units(BigInteger.valueOf(100))
+                                                                                     .build())
+                                           .getId();
+        ClientDto client = clientService.saveClient(ClientCreationRequestDto.builder()
+                                                                            .name("Jan Kowalski")
+                                                                            .clientType("INDIVIDUAL")
+                                                                            .addresses(List.of(
+                                                                                AddressCreationRequestDto.builder()
+                                                                                                         .personName("Jan Kowalski")
+                                                                                                         .country("Poland")
+                                                                                                         .city("Warsaw")
+                                                                                                         .region("Masovian")
+                                                                                                         .street("Street")
+                                                                                                         .buildingNumber("1")
+                                                                                                         .postalCode("00-001")
+                                                                                                         .build()))
+                                                                            .contacts(List.of())
+                                                                            .build());
+        Long addressId = client.getAddresses()
+                               .get(0)
+                               .getId();
+        return new OrderCreationRequestDto(client.getId(), addressId, addressId, List.of(
+            new ItemCreationRequestDto(inventoryId, BigInteger.ONE)));
+    }
+
+}
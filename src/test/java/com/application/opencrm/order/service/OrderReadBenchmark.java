@@ -0,0 +1,339 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.common.pagination.CursorPage;
+import com.application.opencrm.common.persistence.StatementCounter;
+import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
+import com.application.opencrm.inventory.dto.InventoryParentDto;
+import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.dto.OrderDto;
+import com.application.opencrm.order.dto.OrderFilterDto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+/**
+ * Benchmark of the reads of orders served from projections - {@link OrderService#getOrder},
+ * {@link OrderService#getOrders} and {@link OrderService#getClientOrders} - against the embedded database, checked
+ * against the budget in {@code benchmark/order-read-budget.properties}.
+ * <p>
+ * As in {@link OrderCreationBenchmark}, the number of statements per read is deterministic and checked by the regular
+ * tests, while the latencies and the bytes allocated per read depend on the machine and the JVM, so they are measured
+ * only by the {@code benchmark} Gradle task. Pages are read from the first one onwards by following their cursors, the
+ * pages of a client until the last one of the client.
+ * The sizes can be changed with the {@code benchmark.read.*} system properties read below.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:read-benchmark;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.sql.init.mode=never", "order.top-selling.reconcile-delay-ms=3600000", StatementCounter.PROPERTY})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderReadBenchmark {
+
+    private static final String BUDGET = "/benchmark/order-read-budget.properties";
+    private static final int CLIENTS = Integer.getInteger("benchmark.read.clients", 20);
+    private static final int ORDERS = Integer.getInteger("benchmark.read.orders", 1000);
+    private static final int LINES = Integer.getInteger("benchmark.read.lines", 5);
+    private static final int WARMUP_READS = Integer.getInteger("benchmark.read.warmup-reads", 200);
+    private static final int READS = Integer.getInteger("benchmark.read.reads", 1000);
+    private static final int STATEMENT_READS = 20;
+    private static final int PAGE_SIZE = Integer.getInteger("benchmark.read.page-size", 20);
+    private static final int SEED_CHUNK = 100;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    private Properties budget;
+    private List<Long> clientIds;
+    private List<Long> orderIds;
+
+    @BeforeAll
+    void seed() throws IOException {
+        budget = loadBudget();
+        List<ClientDto> clients = seedClients();
+        clientIds = clients.stream()
+                           .map(ClientDto::getId)
+                           .collect(Collectors.toList());
+        orderIds = seedOrders(clients, seedInventories());
+    }
+
+    @Test
+    void Reads_ShouldStayWithinStatementBudget() {
+        // Given
+        List<String> violations = new ArrayList<>();
+
+        // When
+        reads().forEach((name, read) -> {
+            read.get();
+            StatementCounter.reset();
+            for (int i = 0; i < STATEMENT_READS; i++) {
+                read.get();
+            }
+            double statementsPerRead = (double) StatementCounter.count() / STATEMENT_READS;
+            String maxStatements = budget.getProperty("statements." + name);
+            if (maxStatements != null && statementsPerRead > Double.parseDouble(maxStatements)) {
+                violations.add(String.format("%s: %.1f statements per read exceed the budget of %s", name,
+                    statementsPerRead, maxStatements));
+            }
+        });
+
+        // Then
+        then(violations).isEmpty();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void Reads_ShouldStayWithinLatencyBudget() throws IOException {
+        // Given
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread()
+                              .getId();
+
+        // When
+        List<Result> results = new ArrayList<>();
+        reads().forEach((name, read) -> {
+            for (int i = 0; i < WARMUP_READS; i++) {
+                read.get();
+            }
+            long[] latencies = new long[READS];
+            StatementCounter.reset();
+            long allocated = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < READS; i++) {
+                long start = System.nanoTime();
+                read.get();
+                latencies[i] = System.nanoTime() - start;
+            }
+            allocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+            results.add(new Result(name, latencies, StatementCounter.count(), allocated));
+        });
+        report(results);
+
+        // Then
+        then(results.stream()
+                    .flatMap(result -> result.violations(budget)
+                                             .stream())
+                    .collect(Collectors.toList())).isEmpty();
+    }
+
+    /**
+     * @return the benchmarked reads by their names used in the budget, each reading a single order or a single page
+     */
+    private Map<String, Supplier<?>> reads() {
+        Map<String, Supplier<?>> reads = new LinkedHashMap<>();
+        reads.put("order", () -> orderService.getOrder(orderIds.get(ThreadLocalRandom.current()
+                                                                                     .nextInt(orderIds.size()))));
+        reads.put("orders-page", new PageReader(() -> null, (clientId, cursor) -> orderService.getOrders(
+            OrderFilterDto.builder()
+                          .build(), cursor, PAGE_SIZE)));
+        reads.put("client-orders-page", new PageReader(this::randomClientId,
+            (clientId, cursor) -> orderService.getClientOrders(clientId, cursor, PAGE_SIZE, false)));
+        reads.put("client-orders-with-items-page", new PageReader(this::randomClientId,
+            (clientId, cursor) -> orderService.getClientOrders(clientId, cursor, PAGE_SIZE, true)));
+        return reads;
+    }
+
+    private Long randomClientId() {
+        return clientIds.get(ThreadLocalRandom.current()
+                                              .nextInt(clientIds.size()));
+    }
+
+    private List<ClientDto> seedClients() {
+        return clientService.saveClients(IntStream.range(0, CLIENTS)
+                                                  .mapToObj(i -> ClientCreationRequestDto.builder()
+                                                                                         .name("Client " + i)
+                                                                                         .clientType("INDIVIDUAL")
+                                                                                         .addresses(List.of(address(i)))
+                                                                                         .contacts(List.of())
+                                                                                         .build())
+                                                  .collect(Collectors.toList()));
+    }
+
+    private AddressCreationRequestDto address(int i) {
+        return AddressCreationRequestDto.builder()
+                                        .personName("Client " + i)
+                                        .country("Poland")
+                                        .city("Warsaw")
+                                        .region("Masovian")
+                                        .street("Street " + i)
+                                        .buildingNumber("1")
+                                        .postalCode("00-001")
+                                        .build();
+    }
+
+    private List<Long> seedInventories() {
+        return inventoryService.saveInventories(IntStream.range(0, LINES * 4)
+                                                         .mapToObj(i -> InventoryCreationRequestDto.builder()
+                                                                                                   .name("Inventory " + i)
+                                                                                                   .description("Benchmark inventory")
+                                                                                                   .unitPrice(BigInteger.TEN)
+                                                                                                   .quantityType("COUNTABLE")
+                                                                                                   .units(BigInteger.valueOf(1_000_000_000L))
+                                                                                                   .build())
+                                                         .collect(Collectors.toList()))
+                               .stream()
+                               .map(InventoryParentDto::getId)
+                               .collect(Collectors.toList());
+    }
+
+    private List<Long> seedOrders(List<ClientDto> clients, List<Long> inventoryIds) {
+        List<Long> ids = new ArrayList<>(ORDERS);
+        for (int from = 0; from < ORDERS; from += SEED_CHUNK) {
+            List<OrderCreationRequestDto> requests = IntStream.range(from, Math.min(from + SEED_CHUNK, ORDERS))
+                                                              .mapToObj(i -> request(clients.get(i % clients.size()),
+                                                                  inventoryIds, i))
+                                                              .collect(Collectors.toList());
+            orderService.saveOrders(requests)
+                        .forEach(order -> ids.add(order.getId()));
+        }
+        return ids;
+    }
+
+    private OrderCreationRequestDto request(ClientDto client, List<Long> inventoryIds, int i) {
+        Long addressId = client.getAddresses()
+                               .get(0)
+                               .getId();
+        List<ItemCreationRequestDto> items = IntStream.range(0, LINES)
+                                                      .mapToObj(line -> new ItemCreationRequestDto(
+                                                          inventoryIds.get((i + line) % inventoryIds.size()),
+                                                          BigInteger.ONE))
+                                                      .collect(Collectors.toList());
+        return new OrderCreationRequestDto(client.getId(), addressId, addressId, items);
+    }
+
+    private Properties loadBudget() throws IOException {
+        Properties budget = new Properties();
+        try (InputStream in = getClass().getResourceAsStream(BUDGET)) {
+            then(in).as("Budget file %s", BUDGET)
+                    .isNotNull();
+            budget.load(in);
+        }
+        return budget;
+    }
+
+    private void report(List<Result> results) throws IOException {
+        List<String> rows = new ArrayList<>();
+        rows.add("read,page_size,p50_ms,p95_ms,p99_ms,statements_per_read,allocated_kb_per_read");
+        results.forEach(result -> rows.add(result.toCsv()));
+        rows.forEach(System.out::println);
+        String reportPath = System.getProperty("benchmark.read.report");
+        if (reportPath != null) {
+            Path path = Path.of(reportPath);
+            Files.createDirectories(path.getParent());
+            try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+                rows.forEach(writer::println);
+            }
+        }
+    }
+
+    /**
+     * Reads consecutive pages of a client, picked anew for every first page, by following their cursors, starting over
+     * from the first page after the last one.
+     */
+    private static class PageReader implements Supplier<CursorPage<OrderDto>> {
+
+        private final Supplier<Long> clients;
+        private final BiFunction<Long, String, CursorPage<OrderDto>> read;
+        private Long clientId;
+        private String cursor;
+
+        private PageReader(Supplier<Long> clients, BiFunction<Long, String, CursorPage<OrderDto>> read) {
+            this.clients = clients;
+            this.read = read;
+        }
+
+        @Override
+        public CursorPage<OrderDto> get() {
+            if (cursor == null) {
+                clientId = clients.get();
+            }
+            CursorPage<OrderDto> page = read.apply(clientId, cursor);
+            cursor = page.getNextCursor();
+            return page;
+        }
+
+    }
+
+    private static class Result {
+
+        private final String name;
+        private final int pageSize;
+        private final double p50Ms;
+        private final double p95Ms;
+        private final double p99Ms;
+        private final double statementsPerRead;
+        private final double allocatedKbPerRead;
+
+        private Result(String name, long[] latencies, long statements, long allocatedBytes) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            this.name = name;
+            this.pageSize = name.endsWith("-page") ? PAGE_SIZE : 1;
+            this.p50Ms = percentile(sorted, 0.50);
+            this.p95Ms = percentile(sorted, 0.95);
+            this.p99Ms = percentile(sorted, 0.99);
+            this.statementsPerRead = (double) statements / latencies.length;
+            this.allocatedKbPerRead = allocatedBytes / 1024.0 / latencies.length;
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+
+        private List<String> violations(Properties budget) {
+            List<String> violations = new ArrayList<>();
+            String maxP95Ms = budget.getProperty("p95-ms." + name);
+            if (maxP95Ms != null && p95Ms > Double.parseDouble(maxP95Ms)) {
+                violations.add(String.format("%s: p95 latency of %.1f ms exceeds the budget of %s ms", name, p95Ms,
+                    maxP95Ms));
+            }
+            String maxAllocatedKb = budget.getProperty("allocated-kb." + name);
+            if (maxAllocatedKb != null && allocatedKbPerRead > Double.parseDouble(maxAllocatedKb)) {
+                violations.add(String.format("%s: %.0f KB allocated per read exceed the budget of %s KB", name,
+                    allocatedKbPerRead, maxAllocatedKb));
+            }
+            return violations;
+        }
+
+        private String toCsv() {
+            return String.format("%s,%d,%.2f,%.2f,%.2f,%.2f,%.1f", name, pageSize, p50Ms, p95Ms, p99Ms,
+                statementsPerRead, allocatedKbPerRead);
+        }
+
+    }
+
+}
@@ -0,0 +1,177 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.common.persistence.StatementCounter;
+import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
+import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.dto.OrderDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionRequestDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionResultDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionResultDto.Outcome;
+import com.application.opencrm.order.model.OrderStatus;
+import com.application.opencrm.order.repository.OrderRepository;
+import com.application.opencrm.order.repository.projection.OrderStatusProjection;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+/**
+ * Reads and changes orders against the embedded database and checks that every statement reading the partitioned
+ * tables of orders and items is restricted by the creation time, which is their partition key.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:order-partition-key", StatementCounter.PROPERTY})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderServicePartitionKeyTest {
+
+    private static final Pattern PARTITIONED_TABLE = Pattern.compile("\\b(from|join) (order_table|item)\\b");
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository repository;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderCreationRequestDto request;
+
+    @BeforeAll
+    void seedOrderRequest() {
+        Long inventoryId = inventoryService.saveInventory(InventoryCreationRequestDto.builder()
+                                                                                     .name("Inventory " + UUID.randomUUID())
+                                                                                     .description("Description")
+                                                                                     .unitPrice(BigInteger.TEN)
+                                                                                     .quantityType("COUNTABLE")
+                                                                                     .units(BigInteger.valueOf(1000))
+                                                                                     .build())
+                                           .getId();
+        ClientDto client = clientService.saveClient(ClientCreationRequestDto.builder()
+                                                                            .name("Jan Kowalski")
+                                                                            .clientType("INDIVIDUAL")
+                                                                            .addresses(List.of(
+                                                                                AddressCreationRequestDto.builder()
+                                                                                                         .personName("Jan Kowalski")
+                                                                                                         .country("Poland")
+                                                                                                         .city("Warsaw")
+                                                                                                         .region("Masovian")
+                                                                                                         .street("Street")
+                                                                                                         .buildingNumber("1")
+                                                                                                         .postalCode("00-001")
+                                                                                                         .build()))
+                                                                            .contacts(List.of())
+                                                                            .build());
+        Long addressId = client.getAddresses()
+                               .get(0)
+                               .getId();
+        request = new OrderCreationRequestDto(client.getId(), addressId, addressId, List.of(
+            new ItemCreationRequestDto(inventoryId, BigInteger.ONE)));
+    }
+
+    @Test
+    void GetOrder_ShouldRestrictReadsOfOrdersAndItemsByCreationTime() {
+        // Given
+        Long orderId = orderService.saveOrder(request)
+                                   .getId();
+        StatementCounter.reset();
+
+        // When
+        OrderDto order = orderService.getOrder(orderId);
+
+        // Then
+        then(order.getId()).isEqualTo(orderId);
+        thenPartitionedReadsAreRestrictedByCreationTime();
+    }
+
+    @Test
+    void CancelOrder_ShouldRestrictReadsOfOrdersAndItemsByCreationTime() {
+        // Given
+        Long orderId = orderService.saveOrder(request)
+                                   .getId();
+        StatementCounter.reset();
+
+        // When
+        OrderDto order = orderService.cancelOrder(orderId);
+
+        // Then
+        then(order.getStatus()).isEqualTo("CANCELLED");
+        thenPartitionedReadsAreRestrictedByCreationTime();
+    }
+
+    @Test
+    void TransitionStatuses_ShouldRestrictReadsOfOrdersByCreationTime_IfVersionConflicts() {
+        // Given
+        Long orderId = orderService.saveOrder(request)
+                                   .getId();
+        StatementCounter.reset();
+
+        // When
+        OrderStatusTransitionResultDto result = orderService.transitionStatuses(new OrderStatusTransitionRequestDto(
+                                                                List.of(new OrderStatusTransitionDto(orderId,
+                                                                    OrderStatus.SHIPPED.name(), 7L))))
+                                                            .get(0);
+
+        // Then
+        then(result.getOutcome()).isEqualTo(Outcome.VERSION_CONFLICT);
+        thenPartitionedReadsAreRestrictedByCreationTime();
+    }
+
+    @Test
+    void UpdateStatuses_ShouldNotChangeOrder_IfCreationTimeDiffers() {
+        // Given
+        Long orderId = orderService.saveOrder(request)
+                                   .getId();
+        OrderStatusProjection order = repository.findStatusesByIdIn(List.of(orderId))
+                                                .get(0);
+        OrderStatusProjection shifted = new OrderStatusProjection(order.getId(), order.getClientId(),
+            order.getStatus(), order.getVersion(), order.getCreatedAt()
+                                                        .plus(1, ChronoUnit.DAYS));
+
+        // When
+        int[] updated = new TransactionTemplate(transactionManager).execute(
+            status -> repository.updateStatuses(List.of(shifted), OrderStatus.sourcesOf(OrderStatus.SHIPPED),
+                OrderStatus.SHIPPED));
+
+        // Then
+        then(updated).containsExactly(0);
+        then(orderService.getOrder(orderId)
+                         .getStatus()).isEqualTo("PROCESSING");
+    }
+
+    private void thenPartitionedReadsAreRestrictedByCreationTime() {
+        List<String> partitionedReads = StatementCounter.statements()
+                                                        .stream()
+                                                        .map(String::toLowerCase)
+                                                        .filter(sql -> PARTITIONED_TABLE.matcher(sql)
+                                                                                        .find())
+                                                        .collect(Collectors.toList());
+        then(partitionedReads).isNotEmpty()
+                              .allMatch(sql -> sql.contains("created_at"));
+    }
+
+}
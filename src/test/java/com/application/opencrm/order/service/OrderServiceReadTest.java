@@ -0,0 +1,153 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.common.pagination.CursorPage;
+import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
+import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.dto.ItemDto;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.dto.OrderDto;
+import com.application.opencrm.order.dto.OrderFilterDto;
+import com.application.opencrm.order.dto.OrderingAddressDto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.groups.Tuple.tuple;
+
+/**
+ * Reads orders with their items and ordering addresses from the projections against the embedded database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-reads")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderServiceReadTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    private ClientDto client;
+    private Long orderId;
+
+    @BeforeAll
+    void seedOrder() {
+        Long chair = inventory("Chair", "COUNTABLE", 25);
+        Long paint = inventory("Paint", "VOLUME", 3);
+        client = clientService.saveClient(ClientCreationRequestDto.builder()
+                                                                  .name("Jan Kowalski")
+                                                                  .clientType("INDIVIDUAL")
+                                                                  .addresses(List.of(address("Jan Kowalski", "Warsaw",
+                                                                      "00-001"), address("Anna Kowalska", "Krakow",
+                                                                      "30-001")))
+                                                                  .contacts(List.of())
+                                                                  .build());
+        orderId = orderService.saveOrder(new OrderCreationRequestDto(client.getId(), addressId(0), addressId(1),
+                                  List.of(new ItemCreationRequestDto(chair, BigInteger.valueOf(4)),
+                                      new ItemCreationRequestDto(paint, BigInteger.TWO))))
+                              .getId();
+    }
+
+    @Test
+    void GetOrder_ShouldReturnItemsAndBothAddresses() {
+        // When
+        OrderDto order = orderService.getOrder(orderId);
+
+        // Then
+        thenIsSeededOrder(order);
+    }
+
+    @Test
+    void GetOrders_ShouldReturnItemsAndBothAddresses() {
+        // When
+        CursorPage<OrderDto> page = orderService.getOrders(OrderFilterDto.builder()
+                                                                         .clientId(client.getId())
+                                                                         .build(), null, 10);
+
+        // Then
+        then(page.getContent()).hasSize(1);
+        thenIsSeededOrder(page.getContent()
+                              .get(0));
+    }
+
+    @Test
+    void GetClientOrders_ShouldReturnItemsAndBothAddresses_IfItemsAreIncluded() {
+        // When
+        CursorPage<OrderDto> withItems = orderService.getClientOrders(client.getId(), null, 10, true);
+        CursorPage<OrderDto> withoutItems = orderService.getClientOrders(client.getId(), null, 10, false);
+
+        // Then
+        then(withItems.getContent()).hasSize(1);
+        thenIsSeededOrder(withItems.getContent()
+                                   .get(0));
+        OrderDto header = withoutItems.getContent()
+                                      .get(0);
+        then(header.getId()).isEqualTo(orderId);
+        then(header.getStatus()).isEqualTo("PROCESSING");
+        then(header.getItems()).isNull();
+        then(header.getBillingAddress()).isNull();
+        then(header.getShippingAddress()).isNull();
+    }
+
+    private void thenIsSeededOrder(OrderDto order) {
+        then(order.getId()).isEqualTo(orderId);
+        then(order.getStatus()).isEqualTo("PROCESSING");
+        then(order.getCreatedAt()).isNotNull();
+        then(order.getVersion()).isNotNull();
+        then(order.getItems()).extracting(ItemDto::getName, ItemDto::getQuantityType, ItemDto::getUnits,
+                                  ItemDto::getUnitPrice)
+                              .containsExactlyInAnyOrder(
+                                  tuple("Chair", "COUNTABLE", BigInteger.valueOf(4), BigInteger.valueOf(25)),
+                                  tuple("Paint", "VOLUME", BigInteger.TWO, BigInteger.valueOf(3)));
+        then(order.getBillingAddress()).extracting(OrderingAddressDto::getPersonName, OrderingAddressDto::getCity,
+                                           OrderingAddressDto::getPostalCode)
+                                       .containsExactly("Jan Kowalski", "Warsaw", "00-001");
+        then(order.getShippingAddress()).extracting(OrderingAddressDto::getPersonName, OrderingAddressDto::getCity,
+                                            OrderingAddressDto::getPostalCode)
+                                        .containsExactly("Anna Kowalska", "Krakow", "30-001");
+    }
+
+    private Long addressId(int index) {
+        return client.getAddresses()
+                     .get(index)
+                     .getId();
+    }
+
+    private Long inventory(String name, String quantityType, long unitPrice) {
+        return inventoryService.saveInventory(InventoryCreationRequestDto.builder()
+                                                                         .name(name)
+                                                                         .description("Description")
+                                                                         .unitPrice(BigInteger.valueOf(unitPrice))
+                                                                         .quantityType(quantityType)
+                                                                         .units(BigInteger.valueOf(100))
+                                                                         .build())
+                               .getId();
+    }
+
+    private AddressCreationRequestDto address(String personName, String city, String postalCode) {
+        return AddressCreationRequestDto.builder()
+                                        .personName(personName)
+                                        .country("Poland")
+                                        .city(city)
+                                        .region("Region")
+                                        .street("Street")
+                                        .buildingNumber("1")
+                                        .postalCode(postalCode)
+                                        .build();
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
+import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionRequestDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionResultDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionResultDto.Outcome;
+import com.application.opencrm.order.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+/**
+ * Runs concurrent status transitions of the same order against the embedded database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-transitions")
+class OrderServiceTransitionTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void TransitionStatuses_ShouldUpdateOnceAndReleaseStockOnce_IfSameTransitionIsRequestedConcurrently()
+        throws Exception {
+        // Given
+        Long inventoryId = inventoryService.saveInventory(InventoryCreationRequestDto.builder()
+                                                                                     .name("Inventory")
+                                                                                     .description("Description")
+                                                                                     .unitPrice(BigInteger.TEN)
+                                                                                     .quantityType("COUNTABLE")
+                                                                                     .units(BigInteger.valueOf(100))
+                                                                                     .build())
+                                           .getId();
+        Long orderId = orderService.saveOrder(order(inventoryId))
+                                   .getId();
+        OrderStatusTransitionRequestDto request = new OrderStatusTransitionRequestDto(List.of(
+            new OrderStatusTransitionDto(orderId, OrderStatus.CANCELLED.name(), null)));
+        CountDownLatch firstUpdated = new CountDownLatch(1);
+        CountDownLatch firstMayCommit = new CountDownLatch(1);
+
+        // When
+        CompletableFuture<OrderStatusTransitionResultDto> first = CompletableFuture.supplyAsync(
+            () -> new TransactionTemplate(transactionManager).execute(status -> {
+                OrderStatusTransitionResultDto result = orderService.transitionStatuses(request)
+                                                                    .get(0);
+                firstUpdated.countDown();
+                await(firstMayCommit);
+                return result;
+            }));
+        await(firstUpdated);
+        // the second transition reads the order before the first one commits and then waits for its row lock
+        CompletableFuture<OrderStatusTransitionResultDto> second = CompletableFuture.supplyAsync(
+            () -> orderService.transitionStatuses(request)
+                              .get(0));
+        Thread.sleep(200);
+        firstMayCommit.countDown();
+
+        // Then
+        then(List.of(first.get(10, TimeUnit.SECONDS)
+                          .getOutcome(), second.get(10, TimeUnit.SECONDS)
+                                               .getOutcome())).containsOnlyOnce(Outcome.UPDATED);
+        then(inventoryService.getInventoryWithCategories(inventoryId)
+                             .getUnits()).isEqualTo(BigInteger.valueOf(100));
+    }
+
+    private OrderCreationRequestDto order(Long inventoryId) {
+        ClientDto client = clientService.saveClient(ClientCreationRequestDto.builder()
+                                                                            .name("Jan Kowalski")
+                                                                            .clientType("INDIVIDUAL")
+                                                                            .addresses(List.of(
+                                                                                AddressCreationRequestDto.builder()
+                                                                                                         .personName("Jan Kowalski")
+                                                                                                         .country("Poland")
+                                                                                                         .city("Warsaw")
+                                                                                                         .region("Masovian")
+                                                                                                         .street("Street")
+                                                                                                         .buildingNumber("1")
+                                                                                                         .postalCode("00-001")
+                                                                                                         .build()))
+                                                                            .contacts(List.of())
+                                                                            .build());
+        Long addressId = client.getAddresses()
+                               .get(0)
+                               .getId();
+        return new OrderCreationRequestDto(client.getId(), addressId, addressId, List.of(
+            new ItemCreationRequestDto(inventoryId, BigInteger.TEN)));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.common.exception.ResourceNotFoundException;
+import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
+import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.dto.OrderFilterDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionDto;
+import com.application.opencrm.order.dto.OrderStatusTransitionRequestDto;
+import com.application.opencrm.order.dto.OrderSummaryDto;
+import com.application.opencrm.order.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.BDDAssertions.catchThrowable;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.groups.Tuple.tuple;
+
+/**
+ * Creates and changes orders against the embedded database and reads their summaries.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:order-summaries",
+    "order.summary.backfill.batch-size=2"})
+class OrderSummaryServiceTest {
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private OrderSummaryBackfillService orderSummaryBackfillService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    void SaveOrder_ShouldAddSummaryOfOrder() {
+        // Given
+        ClientDto client = client("Jan Kowalski");
+
+        // When
+        Long orderId = order(client, inventory(25), inventory(3));
+
+        // Then
+        then(summaries(client)).extracting(OrderSummaryDto::getId, OrderSummaryDto::getClientName,
+                                   OrderSummaryDto::getStatus, OrderSummaryDto::getLineCount,
+                                   OrderSummaryDto::getTotalValue)
+                               .containsExactly(tuple(orderId, "Jan Kowalski", "PROCESSING", 2,
+                                   BigInteger.valueOf(4 * 25 + 4 * 3)));
+    }
+
+    @Test
+    void TransitionStatuses_ShouldChangeStatusInSummaries() {
+        // Given
+        ClientDto client = client("Jan Kowalski");
+        Long inventoryId = inventory(10);
+        Long shipped = order(client, inventoryId);
+        Long cancelled = order(client, inventoryId);
+        Long untouched = order(client, inventoryId);
+
+        // When
+        orderService.transitionStatuses(new OrderStatusTransitionRequestDto(List.of(
+            new OrderStatusTransitionDto(shipped, OrderStatus.SHIPPED.name(), null))));
+        orderService.cancelOrder(cancelled);
+
+        // Then
+        then(summaries(client)).extracting(OrderSummaryDto::getId, OrderSummaryDto::getStatus)
+                               .containsExactly(tuple(untouched, "PROCESSING"), tuple(cancelled, "CANCELLED"),
+                                   tuple(shipped, "SHIPPED"));
+    }
+
+    @Test
+    void GetSummaries_ShouldKeepSummaryOfArchivedOrder() {
+        // Given
+        ClientDto client = client("Jan Kowalski");
+        Long orderId = order(client, inventory(10));
+        orderService.transitionStatuses(new OrderStatusTransitionRequestDto(List.of(
+            new OrderStatusTransitionDto(orderId, OrderStatus.SHIPPED.name(), null))));
+
+        // When
+        // the archival moves orders with PostgreSQL specific statements, here they are only removed from the tables
+        removeOrders(List.of(orderId));
+
+        // Then
+        then(summaries(client)).extracting(OrderSummaryDto::getId, OrderSummaryDto::getStatus)
+                               .containsExactly(tuple(orderId, "SHIPPED"));
+        then(catchThrowable(() -> orderService.getOrder(orderId))).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void Backfill_ShouldCreateMissingSummariesFromOrders() {
+        // Given
+        ClientDto client = client("Anna Nowak");
+        Long firstInventoryId = inventory(25);
+        Long secondInventoryId = inventory(3);
+        Long first = order(client, firstInventoryId, secondInventoryId);
+        Long second = order(client, firstInventoryId);
+        Long third = order(client, secondInventoryId);
+        Long summarized = order(client, secondInventoryId);
+        orderService.cancelOrder(second);
+        removeSummaries(List.of(first, second, third));
+
+        // When
+        long created = orderSummaryBackfillService.backfill();
+
+        // Then
+        then(created).isEqualTo(3);
+        then(summaries(client)).extracting(OrderSummaryDto::getId, OrderSummaryDto::getClientName,
+                                   OrderSummaryDto::getStatus, OrderSummaryDto::getLineCount,
+                                   OrderSummaryDto::getTotalValue)
+                               .containsExactly(tuple(summarized, "Anna Nowak", "PROCESSING", 1,
+                                       BigInteger.valueOf(4 * 3)),
+                                   tuple(third, "Anna Nowak", "PROCESSING", 1, BigInteger.valueOf(4 * 3)),
+                                   tuple(second, "Anna Nowak", "CANCELLED", 1, BigInteger.valueOf(4 * 25)),
+                                   tuple(first, "Anna Nowak", "PROCESSING", 2, BigInteger.valueOf(4 * 25 + 4 * 3)));
+        then(orderSummaryBackfillService.backfill()).isZero();
+    }
+
+    private List<OrderSummaryDto> summaries(ClientDto client) {
+        return orderSummaryService.getSummaries(OrderFilterDto.builder()
+                                                              .clientId(client.getId())
+                                                              .build(), null, 10)
+                                  .getContent();
+    }
+
+    private void removeSummaries(List<Long> orderIds) {
+        jdbcTemplate.update("DELETE FROM order_summary WHERE order_id IN (:ids)", new MapSqlParameterSource("ids",
+            orderIds));
+    }
+
+    private void removeOrders(List<Long> orderIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", orderIds);
+        jdbcTemplate.update("DELETE FROM item WHERE order_id IN (:ids)", params);
+        jdbcTemplate.update("DELETE FROM order_table WHERE id IN (:ids)", params);
+    }
+
+    private Long order(ClientDto client, Long... inventoryIds) {
+        Long addressId = client.getAddresses()
+                               .get(0)
+                               .getId();
+        List<ItemCreationRequestDto> items = Arrays.stream(inventoryIds)
+                                                   .map(inventoryId -> new ItemCreationRequestDto(inventoryId,
+                                                       BigInteger.valueOf(4)))
+                                                   .collect(Collectors.toList());
+        return orderService.saveOrder(new OrderCreationRequestDto(client.getId(), addressId, addressId, items))
+                           .getId();
+    }
+
+    private Long inventory(long unitPrice) {
+        return inventoryService.saveInventory(InventoryCreationRequestDto.builder()
+                                                                         .name("Inventory " + UUID.randomUUID())
+                                                                         .description("Description")
+                                                                         .unitPrice(BigInteger.valueOf(unitPrice))
+                                                                         .quantityType("COUNTABLE")
+                                                                         .units(BigInteger.valueOf(100))
+                                                                         .build())
+                               .getId();
+    }
+
+    private ClientDto client(String name) {
+        return clientService.saveClient(ClientCreationRequestDto.builder()
+                                                                .name(name)
+                                                                .clientType("INDIVIDUAL")
+                                                                .addresses(List.of(AddressCreationRequestDto.builder()
+                                                                                                            .personName(name)
+                                                                                                            .country("Poland")
+                                                                                                            .city("Warsaw")
+                                                                                                            .region("Masovian")
+                                                                                                            .street("Street")
+                                                                                                            .buildingNumber("1")
+                                                                                                            .postalCode("00-001")
+                                                                                                            .build()))
+                                                                .contacts(List.of())
+                                                                .build());
+    }
+
+}
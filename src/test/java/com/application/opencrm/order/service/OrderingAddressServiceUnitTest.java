@@ -0,0 +1,116 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.client.model.Address;
+import com.application.opencrm.client.service.AddressService;
+import com.application.opencrm.order.mapper.OrderingAddressMapper;
+import com.application.opencrm.order.mapper.OrderingAddressMapperImpl;
+import com.application.opencrm.order.model.OrderingAddress;
+import com.application.opencrm.order.repository.OrderingPersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderingAddressServiceUnitTest {
+
+    private final OrderingAddressMapper mapper = new OrderingAddressMapperImpl();
+
+    private OrderingAddressService orderingAddressService;
+
+    @Mock
+    private AddressService addressService;
+
+    @Mock
+    private OrderingPersonRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        orderingAddressService = new OrderingAddressService(addressService, mapper, repository, 10);
+    }
+
+    @Test
+    void ResolveOrderingAddress_ShouldReuseExistingSnapshot_IfContentIsIdentical() {
+        // Given
+        given(addressService.getAddressFromRepository(1L)).willReturn(address("Main Street"));
+        given(addressService.getAddressFromRepository(2L)).willReturn(address("Main Street"));
+        given(repository.findIdByContentHash(anyString())).willReturn(Optional.of(5L));
+        OrderingAddress snapshot = new OrderingAddress();
+        given(repository.getReferenceById(5L)).willReturn(snapshot);
+
+        // When
+        OrderingAddress first = orderingAddressService.resolveOrderingAddress(1L);
+        OrderingAddress second = orderingAddressService.resolveOrderingAddress(2L);
+
+        // Then
+        then(first).isSameAs(snapshot);
+        then(second).isSameAs(snapshot);
+        verify(repository, times(1)).findIdByContentHash(anyString());
+        verify(repository, never()).insertIfAbsent(any());
+    }
+
+    @Test
+    void ResolveOrderingAddress_ShouldStoreNewSnapshot_IfNoIdenticalSnapshotExists() {
+        // Given
+        given(addressService.getAddressFromRepository(1L)).willReturn(address("Main Street"));
+        given(repository.findIdByContentHash(anyString())).willReturn(Optional.empty());
+        given(repository.insertIfAbsent(any(OrderingAddress.class))).willReturn(Optional.of(7L));
+
+        // When
+        orderingAddressService.resolveOrderingAddress(1L);
+
+        // Then
+        verify(repository).insertIfAbsent(argThat(saved -> saved.getContentHash()
+                                                                .length() == 64));
+        verify(repository).getReferenceById(7L);
+    }
+
+    @Test
+    void ResolveOrderingAddress_ShouldUseConcurrentlyStoredSnapshot_IfInsertConflicts() {
+        // Given
+        given(addressService.getAddressFromRepository(1L)).willReturn(address("Main Street"));
+        given(repository.findIdByContentHash(anyString())).willReturn(Optional.empty())
+                                                          .willReturn(Optional.of(8L));
+        given(repository.insertIfAbsent(any(OrderingAddress.class))).willReturn(Optional.empty());
+
+        // When
+        orderingAddressService.resolveOrderingAddress(1L);
+
+        // Then
+        verify(repository, times(2)).findIdByContentHash(anyString());
+        verify(repository).getReferenceById(8L);
+    }
+
+    @Test
+    void ContentHash_ShouldDifferForDifferentContent() {
+        // Given
+        OrderingAddress first = mapper.addressToOrderingAddress(address("Main Street"));
+        OrderingAddress second = mapper.addressToOrderingAddress(address("Main Stree"));
+        second.setCity("tCity");
+
+        // When
+        String firstHash = OrderingAddressService.contentHash(first);
+        String secondHash = OrderingAddressService.contentHash(second);
+
+        // Then
+        then(firstHash).isNotEqualTo(secondHash);
+    }
+
+    private Address address(String street) {
+        return Address.builder()
+                      .personName("John Smith")
+                      .country("Poland")
+                      .city("City")
+                      .street(street)
+                      .buildingNumber("1")
+                      .postalCode("00-001")
+                      .build();
+    }
+
+}
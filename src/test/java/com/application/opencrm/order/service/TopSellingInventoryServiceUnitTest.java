@@ -0,0 +1,94 @@
+package com.application.opencrm.order.service;
+
+import com.application.opencrm.order.dto.TopSellingInventoryDto;
+import com.application.opencrm.order.event.InventorySoldEvent;
+import com.application.opencrm.order.repository.projection.InventorySalesProjection;
+import com.application.opencrm.order.service.TopSellingInventoryService.Metric;
+import com.application.opencrm.order.service.TopSellingInventoryService.Window;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TopSellingInventoryServiceUnitTest {
+
+    @Mock
+    private ItemService itemService;
+
+    private TopSellingInventoryService topSellingInventoryService;
+
+    @BeforeEach
+    void setUp() {
+        topSellingInventoryService = new TopSellingInventoryService(itemService, 10);
+    }
+
+    @Test
+    void Reconcile_ShouldKeepSalesCommittedWhileDatabaseIsRead() {
+        // Given
+        List<InventorySalesProjection> sales = List.of(new InventorySalesProjection(1L, BigInteger.valueOf(5),
+            BigInteger.valueOf(50)));
+        given(itemService.sumSalesByInventory(any())).willAnswer(invocation -> {
+                                                         topSellingInventoryService.onInventorySold(
+                                                             sold(2L, BigInteger.valueOf(3)));
+                                                         return sales;
+                                                     })
+                                                     .willReturn(sales);
+
+        // When
+        topSellingInventoryService.reconcile();
+
+        // Then
+        then(topSellingInventoryService.getTopSelling(Window.DAY, Metric.UNITS, 10))
+            .extracting(TopSellingInventoryDto::getInventoryId, TopSellingInventoryDto::getValue)
+            .containsExactly(tuple(1L, 5L), tuple(2L, 3L));
+    }
+
+    @Test
+    void OnInventorySold_ShouldCapAmounts_IfTheyExceedLongRange() {
+        // Given
+        BigInteger huge = BigInteger.valueOf(Long.MAX_VALUE)
+                                    .multiply(BigInteger.TEN);
+
+        // When
+        topSellingInventoryService.onInventorySold(sold(1L, huge));
+        topSellingInventoryService.onInventorySold(sold(1L, BigInteger.ONE));
+
+        // Then
+        then(topSellingInventoryService.getTopSelling(Window.WEEK, Metric.UNITS, 1))
+            .extracting(TopSellingInventoryDto::getValue)
+            .containsExactly(Long.MAX_VALUE);
+    }
+
+    @Test
+    void Reconcile_ShouldCapSums_IfTheyExceedLongRange() {
+        // Given
+        BigInteger huge = BigInteger.valueOf(Long.MAX_VALUE)
+                                    .add(BigInteger.ONE);
+        given(itemService.sumSalesByInventory(any())).willReturn(
+            List.of(new InventorySalesProjection(1L, BigInteger.ONE, huge)));
+
+        // When
+        topSellingInventoryService.reconcile();
+
+        // Then
+        then(topSellingInventoryService.getTopSelling(Window.DAY, Metric.REVENUE, 1))
+            .extracting(TopSellingInventoryDto::getValue)
+            .containsExactly(Long.MAX_VALUE);
+    }
+
+    private static InventorySoldEvent sold(Long inventoryId, BigInteger units) {
+        return new InventorySoldEvent(Instant.now(), Map.of(inventoryId, units), Map.of());
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.application.opencrm.outbox.service;
+
+import com.application.opencrm.client.dto.AddressCreationRequestDto;
+import com.application.opencrm.client.dto.ClientCreationRequestDto;
+import com.application.opencrm.client.dto.ClientDto;
+import com.application.opencrm.client.service.ClientService;
+import com.application.opencrm.inventory.dto.InventoryCreationRequestDto;
+import com.application.opencrm.inventory.service.InventoryService;
+import com.application.opencrm.order.dto.ItemCreationRequestDto;
+import com.application.opencrm.order.dto.OrderCreationRequestDto;
+import com.application.opencrm.order.service.OrderService;
+import com.application.opencrm.outbox.model.OutboxEvent;
+import com.application.opencrm.outbox.repository.OutboxEventRepository;
+import com.application.opencrm.outbox.sink.InMemoryOutboxEventSink;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.groups.Tuple.tuple;
+
+/**
+ * Writes events to the outbox and dispatches them explicitly, in batches smaller than the number of written events,
+ * against the embedded database.
+ */
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:outbox", "outbox.sink=memory",
+    "outbox.dispatcher.enabled=true", "outbox.dispatcher.batch-size=2", "outbox.dispatcher.delay-ms=3600000",
+    "outbox.dispatcher.metrics-delay-ms=3600000"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OutboxDispatcherTest {
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxEventRepository repository;
+
+    @Autowired
+    private InMemoryOutboxEventSink sink;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderCreationRequestDto request;
+
+    @BeforeAll
+    void seedOrderRequest() {
+        Long inventoryId = inventoryService.saveInventory(InventoryCreationRequestDto.builder()
+                                                                                     .name("Inventory")
+                                                                                     .description("Description")
+                                                                                     .unitPrice(BigInteger.TEN)
+                                                                                     .quantityType("COUNTABLE")
+                                                                                     .units(BigInteger.valueOf(100))
+                                                                                     .build())
+                                           .getId();
+        ClientDto client = clientService.saveClient(ClientCreationRequestDto.builder()
+                                                                            .name("Jan Kowalski")
+                                                                            .clientType("INDIVIDUAL")
+                                                                            .addresses(List.of(
+                                                                                AddressCreationRequestDto.builder()
+                                                                                                         .personName("Jan Kowalski")
+                                                                                                         .country("Poland")
+                                                                                                         .city("Warsaw")
+                                                                                                         .region("Masovian")
+                                                                                                         .street("Street")
+                                                                                                         .buildingNumber("1")
+                                                                                                         .postalCode("00-001")
+                                                                                                         .build()))
+                                                                            .contacts(List.of())
+                                                                            .build());
+        Long addressId = client.getAddresses()
+                               .get(0)
+                               .getId();
+        request = new OrderCreationRequestDto(client.getId(), addressId, addressId, List.of(
+            new ItemCreationRequestDto(inventoryId, BigInteger.ONE)));
+    }
+
+    @BeforeEach
+    void drainOutbox() {
+        outboxDispatcher.dispatch();
+        sink.clear();
+    }
+
+    @Test
+    void DispatchBatch_ShouldPublishCommittedEventsAndDeleteThem() {
+        // Given
+        Long first = orderService.saveOrder(request)
+                                 .getId();
+        Long second = orderService.saveOrder(request)
+                                  .getId();
+        Long cancelled = orderService.cancelOrder(first)
+                                     .getId();
+
+        // When
+        int firstBatch = outboxDispatcher.dispatchBatch();
+        int secondBatch = outboxDispatcher.dispatchBatch();
+        int thirdBatch = outboxDispatcher.dispatchBatch();
+
+        // Then
+        then(List.of(firstBatch, secondBatch, thirdBatch)).containsExactly(2, 1, 0);
+        then(sink.getEvents()).extracting(OutboxEvent::getAggregateType, OutboxEvent::getAggregateId,
+                                  OutboxEvent::getEventType)
+                              .containsExactlyInAnyOrder(tuple(OutboxService.ORDER, first, "OrderCreatedEvent"),
+                                  tuple(OutboxService.ORDER, second, "OrderCreatedEvent"),
+                                  tuple(OutboxService.ORDER, cancelled, "OrderStatusChangedEvent"));
+        then(sink.getEvents()
+                 .get(0)
+                 .getPayload()).contains("\"orderId\":" + first);
+        then(repository.count()).isZero();
+    }
+
+    @Test
+    void OnOrderCreated_ShouldLeaveNoEvent_IfTransactionRollsBack() {
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            orderService.saveOrder(request);
+            status.setRollbackOnly();
+        });
+        int dispatched = outboxDispatcher.dispatchBatch();
+
+        // Then
+        then(dispatched).isZero();
+        then(repository.count()).isZero();
+        then(sink.getEvents()).isEmpty();
+    }
+
+}
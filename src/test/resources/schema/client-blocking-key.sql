@@ -0,0 +1,16 @@
+-- staging tables of the detection of duplicate clients, which are not mapped to entities and therefore not created
+-- by Hibernate; the embedded database does not support unlogged tables
+CREATE TABLE IF NOT EXISTS client_blocking_key
+(
+    blocking_key VARCHAR(255) NOT NULL,
+    client_id    BIGINT       NOT NULL,
+    client_name  VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS client_duplicate_pair
+(
+    client_id           BIGINT           NOT NULL,
+    duplicate_client_id BIGINT           NOT NULL,
+    reason              SMALLINT         NOT NULL,
+    name_similarity     DOUBLE PRECISION NOT NULL
+);